@@ -1,7 +1,12 @@
 package com.paybridge.Configs;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
 import org.springframework.core.task.TaskDecorator;
 import org.springframework.core.task.TaskExecutor;
 import org.springframework.scheduling.annotation.EnableAsync;
@@ -9,10 +14,16 @@ import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
 
+/**
+ * Executor for {@code @Async} work. The platform-thread pool is the default; setting
+ * {@code spring.threads.virtual.enabled=true} (Java 21+ runtime) swaps in a virtual-thread
+ * executor, alongside Spring Boot switching Tomcat request handling to virtual threads.
+ */
 @Configuration
 @EnableAsync
 public class AsyncConfig {
     @Bean
+    @ConditionalOnThreading(Threading.PLATFORM)
     public TaskExecutor taskExecutor() {
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
         executor.setCorePoolSize(5);
@@ -23,6 +34,72 @@ public class AsyncConfig {
         return executor;
     }
 
+    /**
+     * Virtual threads are cheap, so there is no pool to size — the concurrency limit is what
+     * keeps async bursts (e-mail sends, usage logging) from flooding Redis or the HTTP pools.
+     */
+    @Bean("taskExecutor")
+    @ConditionalOnThreading(Threading.VIRTUAL)
+    public TaskExecutor virtualThreadTaskExecutor(
+            @Value("${async.virtual-threads.concurrency-limit:100}") int concurrencyLimit) {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("paybridge-async-");
+        executor.setVirtualThreads(true);
+        executor.setConcurrencyLimit(concurrencyLimit);
+        executor.setTaskDecorator(new SecurityContextAwareTaskDecorator());
+        return executor;
+    }
+
+    /**
+     * Runs the provider calls of a batch payment request. Kept apart from {@code taskExecutor}
+     * so a large batch cannot fill the queue used for e-mail and logging; the pool size caps how
+     * many provider calls one batch runs at once, and the provider permit caps the total.
+     */
+    @Bean
+    @ConditionalOnThreading(Threading.PLATFORM)
+    public TaskExecutor paymentBatchExecutor(@Value("${payments.batch.parallelism:16}") int parallelism) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(parallelism);
+        executor.setMaxPoolSize(parallelism);
+        executor.setThreadNamePrefix("payment-batch-");
+        executor.initialize();
+        return executor;
+    }
+
+    @Bean("paymentBatchExecutor")
+    @ConditionalOnThreading(Threading.VIRTUAL)
+    public TaskExecutor virtualThreadPaymentBatchExecutor(@Value("${payments.batch.parallelism:16}") int parallelism) {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("payment-batch-");
+        executor.setVirtualThreads(true);
+        executor.setConcurrencyLimit(parallelism);
+        return executor;
+    }
+
+    /**
+     * Applies queued webhook events ({@code webhooks.async.enabled=true}); the thread count caps
+     * how many events, and so how many DB connections, the inbox worker uses at once.
+     */
+    @Bean
+    @ConditionalOnThreading(Threading.PLATFORM)
+    @ConditionalOnProperty(name = "webhooks.async.enabled", havingValue = "true")
+    public TaskExecutor webhookWorkerExecutor(@Value("${webhooks.async.worker-threads:4}") int workerThreads) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(workerThreads);
+        executor.setMaxPoolSize(workerThreads);
+        executor.setThreadNamePrefix("webhook-worker-");
+        executor.initialize();
+        return executor;
+    }
+
+    @Bean("webhookWorkerExecutor")
+    @ConditionalOnThreading(Threading.VIRTUAL)
+    @ConditionalOnProperty(name = "webhooks.async.enabled", havingValue = "true")
+    public TaskExecutor virtualThreadWebhookWorkerExecutor(@Value("${webhooks.async.worker-threads:4}") int workerThreads) {
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("webhook-worker-");
+        executor.setVirtualThreads(true);
+        executor.setConcurrencyLimit(workerThreads);
+        return executor;
+    }
+
     public static class SecurityContextAwareTaskDecorator implements TaskDecorator {
         @Override
         public Runnable decorate(Runnable runnable) {
@@ -37,4 +114,4 @@ public class AsyncConfig {
             };
         }
     }
-}
\ No newline at end of file
+}
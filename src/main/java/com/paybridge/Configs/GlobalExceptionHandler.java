@@ -1,6 +1,11 @@
 package com.paybridge.Configs;
 
+import com.paybridge.Exceptions.DeadlineExceededException;
 import com.paybridge.Exceptions.EmailNotVerifiedException;
+import com.paybridge.Exceptions.PaymentCapacityExceededException;
+import com.paybridge.Exceptions.PaymentNotFoundException;
+import com.paybridge.Exceptions.ProviderUnavailableException;
+import com.paybridge.Exceptions.WebhookEventInFlightException;
 import com.paybridge.Models.DTOs.ApiResponse;
 import com.paybridge.Models.DTOs.ErrorDetail;
 import com.paybridge.Models.Enums.ApiErrorCode;
@@ -75,4 +80,57 @@ public class GlobalExceptionHandler {
                         request.getRequestURI()
                 ));
     }
+
+    @ExceptionHandler(PaymentNotFoundException.class)
+    public ResponseEntity<ApiResponse<?>> handlePaymentNotFoundException(PaymentNotFoundException ex,
+                                                                         HttpServletRequest request) {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                .body(ApiResponse.error(
+                        ErrorDetail.of(ex.getMessage(), ApiErrorCode.PAYMENT_NOT_FOUND),
+                        request.getRequestURI()
+                ));
+    }
+
+    @ExceptionHandler(PaymentCapacityExceededException.class)
+    public ResponseEntity<ApiResponse<?>> handlePaymentCapacityExceededException(PaymentCapacityExceededException ex,
+                                                                                 HttpServletRequest request) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header("Retry-After", "1")
+                .body(ApiResponse.error(
+                        ErrorDetail.of(ex.getMessage(), ApiErrorCode.SERVICE_UNAVAILABLE),
+                        request.getRequestURI()
+                ));
+    }
+
+    @ExceptionHandler(ProviderUnavailableException.class)
+    public ResponseEntity<ApiResponse<?>> handleProviderUnavailableException(ProviderUnavailableException ex,
+                                                                             HttpServletRequest request) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header("Retry-After", String.valueOf(ex.getRetryAfterSeconds()))
+                .body(ApiResponse.error(
+                        ErrorDetail.of(ex.getMessage(), ApiErrorCode.PROVIDER_UNAVAILABLE),
+                        request.getRequestURI()
+                ));
+    }
+
+    @ExceptionHandler(WebhookEventInFlightException.class)
+    public ResponseEntity<ApiResponse<?>> handleWebhookEventInFlightException(WebhookEventInFlightException ex,
+                                                                              HttpServletRequest request) {
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .header("Retry-After", String.valueOf(ex.getRetryAfterSeconds()))
+                .body(ApiResponse.error(
+                        ErrorDetail.of(ex.getMessage(), ApiErrorCode.WEBHOOK_EVENT_IN_FLIGHT),
+                        request.getRequestURI()
+                ));
+    }
+
+    @ExceptionHandler(DeadlineExceededException.class)
+    public ResponseEntity<ApiResponse<?>> handleDeadlineExceededException(DeadlineExceededException ex,
+                                                                          HttpServletRequest request) {
+        return ResponseEntity.status(HttpStatus.GATEWAY_TIMEOUT)
+                .body(ApiResponse.error(
+                        ErrorDetail.of(ex.getMessage(), ApiErrorCode.DEADLINE_EXCEEDED),
+                        request.getRequestURI()
+                ));
+    }
 }
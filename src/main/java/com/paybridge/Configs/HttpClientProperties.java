@@ -0,0 +1,97 @@
+package com.paybridge.Configs;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Per-downstream HTTP connection pool settings, bound from {@code http.clients.pools.<pool>.*}.
+ * Pools that are not configured fall back to the defaults below.
+ *
+ * <pre>
+ * http.clients.pools.paystack.max-connections=100
+ * http.clients.pools.paystack.read-timeout=15s
+ * </pre>
+ */
+@ConfigurationProperties(prefix = "http.clients")
+public class HttpClientProperties {
+
+    private Map<String, Pool> pools = new HashMap<>();
+
+    public Map<String, Pool> getPools() {
+        return pools;
+    }
+
+    public void setPools(Map<String, Pool> pools) {
+        this.pools = pools;
+    }
+
+    public Pool pool(String name) {
+        return pools.getOrDefault(name, new Pool());
+    }
+
+    public static class Pool {
+        /** Upper bound on open connections; all calls in a pool go to a single host. */
+        private int maxConnections = 50;
+        /** TCP + TLS handshake budget. */
+        private Duration connectTimeout = Duration.ofSeconds(5);
+        /** Socket read / response timeout. */
+        private Duration readTimeout = Duration.ofSeconds(10);
+        /** How long a caller may wait for a free pooled connection. */
+        private Duration connectionRequestTimeout = Duration.ofSeconds(2);
+        /** Idle connections older than this are closed by the background evictor. */
+        private Duration idleTimeout = Duration.ofSeconds(30);
+        /** Hard cap on a connection's lifetime so DNS changes are eventually picked up. */
+        private Duration timeToLive = Duration.ofMinutes(5);
+
+        public int getMaxConnections() {
+            return maxConnections;
+        }
+
+        public void setMaxConnections(int maxConnections) {
+            this.maxConnections = maxConnections;
+        }
+
+        public Duration getConnectTimeout() {
+            return connectTimeout;
+        }
+
+        public void setConnectTimeout(Duration connectTimeout) {
+            this.connectTimeout = connectTimeout;
+        }
+
+        public Duration getReadTimeout() {
+            return readTimeout;
+        }
+
+        public void setReadTimeout(Duration readTimeout) {
+            this.readTimeout = readTimeout;
+        }
+
+        public Duration getConnectionRequestTimeout() {
+            return connectionRequestTimeout;
+        }
+
+        public void setConnectionRequestTimeout(Duration connectionRequestTimeout) {
+            this.connectionRequestTimeout = connectionRequestTimeout;
+        }
+
+        public Duration getIdleTimeout() {
+            return idleTimeout;
+        }
+
+        public void setIdleTimeout(Duration idleTimeout) {
+            this.idleTimeout = idleTimeout;
+        }
+
+        public Duration getTimeToLive() {
+            return timeToLive;
+        }
+
+        public void setTimeToLive(Duration timeToLive) {
+            this.timeToLive = timeToLive;
+        }
+    }
+}
@@ -9,5 +9,24 @@ import java.util.Map;
 public interface PaymentProvider {
     ConnectionTestResult testConnection(Map<String, Object> credentials);
     PaymentProviderResponse CreatePaymentRequest(CreatePaymentRequest request, Map<String, Object> credentials);
+
+    /**
+     * Creates the payment so that repeating the call with the same {@code idempotencyKey} does not
+     * open a second payment at the provider; used where a call may be replayed, such as a
+     * redelivered payment job. Providers without a way to honour the key ignore it.
+     */
+    default PaymentProviderResponse CreatePaymentRequest(CreatePaymentRequest request,
+                                                         Map<String, Object> credentials,
+                                                         String idempotencyKey) {
+        return CreatePaymentRequest(request, credentials);
+    }
     String getProviderName();
+
+    /**
+     * Whether this provider can charge in the given ISO 4217 currency; used to filter
+     * candidates when a payment is routed automatically.
+     */
+    default boolean supportsCurrency(String currency) {
+        return true;
+    }
 }
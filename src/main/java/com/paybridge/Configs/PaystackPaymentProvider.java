@@ -6,6 +6,7 @@ import com.paybridge.Services.ConnectionTestResult;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
@@ -18,6 +19,7 @@ import org.springframework.web.client.RestTemplate;
 import java.math.BigDecimal;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 
 @Component
@@ -25,8 +27,10 @@ public class PaystackPaymentProvider implements PaymentProvider {
     private static final Logger logger = LoggerFactory.getLogger(PaystackPaymentProvider.class);
     private static final String PAYSTACK_VERIFY_KEY_URL = "https://api.paystack.co/transaction?perPage=1&page=1";
     private static final String PAYSTACK_INITIALIZE_URL = "https://api.paystack.co/transaction/initialize";
+    private static final Set<String> SUPPORTED_CURRENCIES = Set.of("NGN", "GHS", "ZAR", "KES", "USD", "XOF", "EGP");
 
     @Autowired
+    @Qualifier("paystackRestTemplate")
     private RestTemplate restTemplate;
 
     @Override
@@ -82,6 +86,17 @@ public class PaystackPaymentProvider implements PaymentProvider {
 
     @Override
     public PaymentProviderResponse CreatePaymentRequest(CreatePaymentRequest request, Map<String, Object> credentials) {
+        return CreatePaymentRequest(request, credentials, null);
+    }
+
+    /**
+     * Paystack has no idempotency header, but it rejects a second transaction with an existing
+     * reference; without a merchant reference, {@code idempotencyKey} is used as the reference.
+     */
+    @Override
+    public PaymentProviderResponse CreatePaymentRequest(CreatePaymentRequest request,
+                                                        Map<String, Object> credentials,
+                                                        String idempotencyKey) {
         //get the secret key
         String secretKey = normalizeSecretKey(credentials.get("secretKey"));
 
@@ -109,7 +124,7 @@ public class PaystackPaymentProvider implements PaymentProvider {
 
         String reference = request.getTransactionReference();
         if (reference == null || reference.isBlank()) {
-            reference = UUID.randomUUID().toString();
+            reference = idempotencyKey != null ? idempotencyKey : UUID.randomUUID().toString();
         }
 
         Map<String, Object> payload = new HashMap<>();
@@ -166,6 +181,11 @@ public class PaystackPaymentProvider implements PaymentProvider {
         return "paystack";
     }
 
+    @Override
+    public boolean supportsCurrency(String currency) {
+        return currency != null && SUPPORTED_CURRENCIES.contains(currency.toUpperCase());
+    }
+
     private long toMinorUnit(BigDecimal amount) {
         if (amount == null) {
             throw new IllegalArgumentException("Amount is required");
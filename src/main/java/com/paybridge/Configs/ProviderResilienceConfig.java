@@ -0,0 +1,35 @@
+package com.paybridge.Configs;
+
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.github.resilience4j.micrometer.tagged.TaggedBulkheadMetrics;
+import io.github.resilience4j.micrometer.tagged.TaggedCircuitBreakerMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Registries for the per-provider circuit breakers and bulkheads created by
+ * {@link com.paybridge.Services.PaymentProviderRegistry}. Their state is published as
+ * {@code resilience4j.circuitbreaker.*} and {@code resilience4j.bulkhead.*} metrics tagged
+ * with the provider name.
+ */
+@Configuration
+@EnableConfigurationProperties(ProviderResilienceProperties.class)
+public class ProviderResilienceConfig {
+
+    @Bean
+    public CircuitBreakerRegistry providerCircuitBreakerRegistry(MeterRegistry meterRegistry) {
+        CircuitBreakerRegistry registry = CircuitBreakerRegistry.ofDefaults();
+        TaggedCircuitBreakerMetrics.ofCircuitBreakerRegistry(registry).bindTo(meterRegistry);
+        return registry;
+    }
+
+    @Bean
+    public BulkheadRegistry providerBulkheadRegistry(MeterRegistry meterRegistry) {
+        BulkheadRegistry registry = BulkheadRegistry.ofDefaults();
+        TaggedBulkheadMetrics.ofBulkheadRegistry(registry).bindTo(meterRegistry);
+        return registry;
+    }
+}
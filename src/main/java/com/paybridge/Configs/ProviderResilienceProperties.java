@@ -0,0 +1,127 @@
+package com.paybridge.Configs;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Circuit breaker and bulkhead settings for outbound provider calls, bound from
+ * {@code payments.resilience.*}. Providers without an entry under {@code providers}
+ * use {@code defaults}.
+ *
+ * <pre>
+ * payments.resilience.defaults.max-concurrent-calls=100
+ * payments.resilience.providers.stripe.slow-call-duration=3s
+ * </pre>
+ */
+@ConfigurationProperties(prefix = "payments.resilience")
+public class ProviderResilienceProperties {
+
+    private Policy defaults = new Policy();
+    private Map<String, Policy> providers = new HashMap<>();
+
+    public Policy getDefaults() {
+        return defaults;
+    }
+
+    public void setDefaults(Policy defaults) {
+        this.defaults = defaults;
+    }
+
+    public Map<String, Policy> getProviders() {
+        return providers;
+    }
+
+    public void setProviders(Map<String, Policy> providers) {
+        this.providers = providers;
+    }
+
+    public Policy policy(String providerName) {
+        return providers.getOrDefault(providerName, defaults);
+    }
+
+    public static class Policy {
+        /** Calls one provider may have in flight; further calls are rejected immediately. */
+        private int maxConcurrentCalls = 100;
+        /** Number of recent calls the failure and slow-call rates are computed over. */
+        private int slidingWindowSize = 50;
+        /** Calls needed in the window before the rates are evaluated. */
+        private int minimumNumberOfCalls = 20;
+        /** Failure percentage that opens the breaker. */
+        private float failureRateThreshold = 50;
+        /** Slow-call percentage that opens the breaker. */
+        private float slowCallRateThreshold = 50;
+        /** Calls taking longer than this count as slow. */
+        private Duration slowCallDuration = Duration.ofSeconds(5);
+        /** How long the breaker stays open before letting probe calls through. */
+        private Duration waitDurationInOpenState = Duration.ofSeconds(30);
+        /** Probe calls allowed while half-open. */
+        private int permittedCallsInHalfOpenState = 5;
+
+        public int getMaxConcurrentCalls() {
+            return maxConcurrentCalls;
+        }
+
+        public void setMaxConcurrentCalls(int maxConcurrentCalls) {
+            this.maxConcurrentCalls = maxConcurrentCalls;
+        }
+
+        public int getSlidingWindowSize() {
+            return slidingWindowSize;
+        }
+
+        public void setSlidingWindowSize(int slidingWindowSize) {
+            this.slidingWindowSize = slidingWindowSize;
+        }
+
+        public int getMinimumNumberOfCalls() {
+            return minimumNumberOfCalls;
+        }
+
+        public void setMinimumNumberOfCalls(int minimumNumberOfCalls) {
+            this.minimumNumberOfCalls = minimumNumberOfCalls;
+        }
+
+        public float getFailureRateThreshold() {
+            return failureRateThreshold;
+        }
+
+        public void setFailureRateThreshold(float failureRateThreshold) {
+            this.failureRateThreshold = failureRateThreshold;
+        }
+
+        public float getSlowCallRateThreshold() {
+            return slowCallRateThreshold;
+        }
+
+        public void setSlowCallRateThreshold(float slowCallRateThreshold) {
+            this.slowCallRateThreshold = slowCallRateThreshold;
+        }
+
+        public Duration getSlowCallDuration() {
+            return slowCallDuration;
+        }
+
+        public void setSlowCallDuration(Duration slowCallDuration) {
+            this.slowCallDuration = slowCallDuration;
+        }
+
+        public Duration getWaitDurationInOpenState() {
+            return waitDurationInOpenState;
+        }
+
+        public void setWaitDurationInOpenState(Duration waitDurationInOpenState) {
+            this.waitDurationInOpenState = waitDurationInOpenState;
+        }
+
+        public int getPermittedCallsInHalfOpenState() {
+            return permittedCallsInHalfOpenState;
+        }
+
+        public void setPermittedCallsInHalfOpenState(int permittedCallsInHalfOpenState) {
+            this.permittedCallsInHalfOpenState = permittedCallsInHalfOpenState;
+        }
+    }
+}
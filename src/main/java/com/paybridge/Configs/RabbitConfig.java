@@ -0,0 +1,30 @@
+package com.paybridge.Configs;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.core.QueueBuilder;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * RabbitMQ wiring for asynchronous payment creation ({@code payments.async.enabled=true}).
+ * Jobs are published to a durable queue through the default exchange.
+ */
+@Configuration
+@ConditionalOnProperty(name = "payments.async.enabled", havingValue = "true")
+public class RabbitConfig {
+
+    @Bean
+    public Queue paymentJobsQueue(@Value("${payments.async.queue:paybridge.payments.create}") String queueName) {
+        return QueueBuilder.durable(queueName).build();
+    }
+
+    @Bean
+    public MessageConverter jsonMessageConverter(ObjectMapper objectMapper) {
+        return new Jackson2JsonMessageConverter(objectMapper);
+    }
+}
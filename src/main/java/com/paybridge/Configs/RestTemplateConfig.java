@@ -1,24 +1,176 @@
 package com.paybridge.Configs;
 
+import com.paybridge.Services.CallbackUrlPolicy;
+import com.paybridge.Services.RequestDeadline;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import jakarta.annotation.PreDestroy;
+import org.apache.hc.client5.http.DnsResolver;
+import org.apache.hc.client5.http.SystemDefaultDnsResolver;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClientBuilder;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.client5.http.protocol.HttpClientContext;
+import org.apache.hc.core5.http.protocol.HttpContext;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.http.client.ClientHttpRequestFactory;
-import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.context.annotation.Primary;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * RestTemplates backed by pooled Apache HttpClient connections.
+ *
+ * <p>Each downstream gets its own pool so keep-alive connections (and their TLS sessions) are
+ * reused across requests, and a slow provider cannot starve the connections used for e-mail.
+ * Pool usage is published as {@code httpcomponents.httpclient.pool.*} metrics tagged with
+ * {@code httpclient=<pool>}.
+ *
+ * <p>When the calling thread has a {@link RequestDeadline} bound, the pool's connect, response and
+ * connection-request timeouts are shortened to the time left, so a provider call does not keep
+ * running after the client has given up.
+ *
+ * <p>{@code callbackRestTemplate} posts to merchant-supplied URLs, so it only connects to
+ * addresses {@link CallbackUrlPolicy} allows (checked at resolution time, after any DNS change)
+ * and does not follow redirects.
+ */
 @Configuration
+@EnableConfigurationProperties(HttpClientProperties.class)
 public class RestTemplateConfig {
 
+    private static final DnsResolver PUBLIC_ONLY_DNS_RESOLVER = new DnsResolver() {
+        @Override
+        public InetAddress[] resolve(String host) throws UnknownHostException {
+            return CallbackUrlPolicy.publicAddresses(host);
+        }
+
+        @Override
+        public String resolveCanonicalHostname(String host) throws UnknownHostException {
+            return SystemDefaultDnsResolver.INSTANCE.resolveCanonicalHostname(host);
+        }
+    };
+
+    private final HttpClientProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final List<CloseableHttpClient> clients = new CopyOnWriteArrayList<>();
+
+    public RestTemplateConfig(HttpClientProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
     @Bean
+    @Primary
     public RestTemplate restTemplate() {
-        RestTemplate restTemplate = new RestTemplate(clientHttpRequestFactory());
-        return restTemplate;
+        return pooledRestTemplate("default");
+    }
+
+    @Bean
+    public RestTemplate paystackRestTemplate() {
+        return pooledRestTemplate("paystack");
+    }
+
+    @Bean
+    public RestTemplate resendRestTemplate() {
+        return pooledRestTemplate("resend");
+    }
+
+    @Bean
+    public RestTemplate callbackRestTemplate() {
+        return pooledRestTemplate("callback", true);
+    }
+
+    @PreDestroy
+    public void closeClients() {
+        for (CloseableHttpClient client : clients) {
+            try {
+                client.close();
+            } catch (IOException ignored) {
+                // shutting down
+            }
+        }
+    }
+
+    private RestTemplate pooledRestTemplate(String poolName) {
+        return pooledRestTemplate(poolName, false);
+    }
+
+    private RestTemplate pooledRestTemplate(String poolName, boolean publicHostsOnly) {
+        HttpClientProperties.Pool pool = properties.pool(poolName);
+
+        ConnectionConfig connectionConfig = ConnectionConfig.custom()
+                .setConnectTimeout(Timeout.of(pool.getConnectTimeout()))
+                .setSocketTimeout(Timeout.of(pool.getReadTimeout()))
+                .setTimeToLive(TimeValue.of(pool.getTimeToLive()))
+                .build();
+
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(pool.getMaxConnections())
+                .setMaxConnPerRoute(pool.getMaxConnections())
+                .setDefaultConnectionConfig(connectionConfig)
+                .setDnsResolver(publicHostsOnly ? PUBLIC_ONLY_DNS_RESOLVER : SystemDefaultDnsResolver.INSTANCE)
+                .build();
+
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectionRequestTimeout(Timeout.of(pool.getConnectionRequestTimeout()))
+                .setResponseTimeout(Timeout.of(pool.getReadTimeout()))
+                .build();
+
+        HttpClientBuilder clientBuilder = HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(requestConfig)
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.of(pool.getIdleTimeout()));
+        if (publicHostsOnly) {
+            clientBuilder.disableRedirectHandling();
+        }
+        CloseableHttpClient httpClient = clientBuilder.build();
+        clients.add(httpClient);
+
+        new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, poolName).bindTo(meterRegistry);
+
+        HttpComponentsClientHttpRequestFactory requestFactory = new HttpComponentsClientHttpRequestFactory(httpClient);
+        Timeout connectTimeout = Timeout.of(pool.getConnectTimeout());
+        requestFactory.setHttpContextFactory((method, uri) -> deadlineContext(requestConfig, connectTimeout));
+        return new RestTemplate(requestFactory);
+    }
+
+    /**
+     * A per-request context with the pool timeouts capped by the bound deadline, or {@code null}
+     * (pool defaults) when there is none. The connect timeout is set on the request config, which
+     * takes precedence over the pool's {@link ConnectionConfig} for that request.
+     */
+    @SuppressWarnings("deprecation")
+    static HttpContext deadlineContext(RequestConfig defaults, Timeout connectTimeout) {
+        RequestDeadline deadline = RequestDeadline.current();
+        if (!deadline.isBounded()) {
+            return null;
+        }
+        deadline.check("calling downstream service");
+        HttpClientContext context = HttpClientContext.create();
+        context.setRequestConfig(RequestConfig.copy(defaults)
+                .setConnectTimeout(cap(connectTimeout, deadline))
+                .setConnectionRequestTimeout(cap(defaults.getConnectionRequestTimeout(), deadline))
+                .setResponseTimeout(cap(defaults.getResponseTimeout(), deadline))
+                .build());
+        return context;
     }
 
-    private ClientHttpRequestFactory clientHttpRequestFactory() {
-        SimpleClientHttpRequestFactory factory = new SimpleClientHttpRequestFactory();
-        factory.setConnectTimeout(10000); // 10 seconds
-        factory.setReadTimeout(10000);    // 10 seconds
-        return factory;
+    private static Timeout cap(Timeout timeout, RequestDeadline deadline) {
+        long cappedMs = deadline.cap(timeout.toDuration()).toMillis();
+        return Timeout.ofMilliseconds(Math.max(1, cappedMs));
     }
-}
\ No newline at end of file
+}
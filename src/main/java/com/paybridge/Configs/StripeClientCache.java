@@ -0,0 +1,55 @@
+package com.paybridge.Configs;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.paybridge.Security.SecretFingerprint;
+import com.paybridge.Services.ProviderCredentialsChangedEvent;
+import com.stripe.StripeClient;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Function;
+
+/**
+ * Keeps one {@link StripeClient} per merchant secret key so repeat payments reuse the client
+ * (and its keep-alive connections) instead of building a new one per request.
+ *
+ * <p>Entries are keyed by the key's {@link SecretFingerprint}, bounded by size, dropped after
+ * sitting idle, and evicted immediately when the merchant rotates their Stripe credentials.
+ */
+@Component
+public class StripeClientCache {
+
+    private final Cache<String, StripeClient> clients;
+
+    public StripeClientCache(@Value("${stripe.client-cache.max-size:1000}") long maxSize,
+                             @Value("${stripe.client-cache.idle-timeout-minutes:30}") long idleTimeoutMinutes) {
+        this.clients = CacheBuilder.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterAccess(Duration.ofMinutes(idleTimeoutMinutes))
+                .build();
+    }
+
+    public StripeClient get(String apiKey, Function<String, StripeClient> factory) {
+        try {
+            return clients.get(SecretFingerprint.of(apiKey), () -> factory.apply(apiKey));
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Failed to create Stripe client", e.getCause());
+        }
+    }
+
+    @EventListener
+    public void onCredentialsChanged(ProviderCredentialsChangedEvent event) {
+        if ("stripe".equalsIgnoreCase(event.providerName())) {
+            clients.invalidateAll(event.retiredFingerprints());
+        }
+    }
+
+    long size() {
+        clients.cleanUp();
+        return clients.size();
+    }
+}
@@ -3,22 +3,32 @@ package com.paybridge.Configs;
 import com.paybridge.Models.DTOs.CreatePaymentRequest;
 import com.paybridge.Models.DTOs.PaymentProviderResponse;
 import com.paybridge.Services.ConnectionTestResult;
+import com.paybridge.Services.RequestDeadline;
 import com.stripe.StripeClient;
 import com.stripe.exception.StripeException;
 import com.stripe.model.checkout.Session;
+import com.stripe.net.RequestOptions;
 import com.stripe.param.CustomerCreateParams;
 import com.stripe.param.checkout.SessionCreateParams;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.util.Map;
 
 @Component
 public class StripePaymentProvider implements PaymentProvider {
 
     private static final Logger logger = LoggerFactory.getLogger(StripePaymentProvider.class);
+    // stripe-java defaults, used as the ceiling when a request deadline shortens them
+    private static final Duration CONNECT_TIMEOUT = Duration.ofSeconds(30);
+    private static final Duration READ_TIMEOUT = Duration.ofSeconds(80);
+
+    @Autowired
+    private StripeClientCache stripeClientCache;
 
     /**
      * Test Stripe API connection by sending a request with a secret key
@@ -43,6 +53,17 @@ public class StripePaymentProvider implements PaymentProvider {
 
     @Override
     public PaymentProviderResponse CreatePaymentRequest(CreatePaymentRequest request, Map<String, Object> credentials) {
+        return CreatePaymentRequest(request, credentials, null);
+    }
+
+    /**
+     * Sends {@code idempotencyKey} as Stripe's {@code Idempotency-Key}, so a repeated call returns
+     * the checkout session created by the first one.
+     */
+    @Override
+    public PaymentProviderResponse CreatePaymentRequest(CreatePaymentRequest request,
+                                                        Map<String, Object> credentials,
+                                                        String idempotencyKey) {
         String stripeApiKey = (String) credentials.get("secretKey");
         if (stripeApiKey == null || stripeApiKey.isBlank()) {
             throw new IllegalArgumentException("Stripe secretKey is required");
@@ -90,7 +111,7 @@ public class StripePaymentProvider implements PaymentProvider {
         }
 
         try {
-            Session session = stripeClient.v1().checkout().sessions().create(builder.build());
+            Session session = createCheckoutSession(stripeClient, builder.build(), idempotencyKey);
 
             PaymentProviderResponse response = new PaymentProviderResponse();
             response.setProviderPaymentId(session.getId());
@@ -109,7 +130,31 @@ public class StripePaymentProvider implements PaymentProvider {
     }
 
     protected StripeClient createStripeClient(String apiKey) {
-        return new StripeClient(apiKey);
+        return stripeClientCache.get(apiKey, StripeClient::new);
+    }
+
+    /**
+     * Creates the checkout session, with the client timeouts capped by the request deadline if one is bound.
+     */
+    private Session createCheckoutSession(StripeClient stripeClient,
+                                          SessionCreateParams params,
+                                          String idempotencyKey) throws StripeException {
+        RequestDeadline deadline = RequestDeadline.current();
+        if (!deadline.isBounded() && idempotencyKey == null) {
+            return stripeClient.v1().checkout().sessions().create(params);
+        }
+        RequestOptions.RequestOptionsBuilder options = RequestOptions.builder()
+                .setIdempotencyKey(idempotencyKey);
+        if (deadline.isBounded()) {
+            deadline.check("calling stripe");
+            options.setConnectTimeout(timeoutMillis(deadline.cap(CONNECT_TIMEOUT)))
+                    .setReadTimeout(timeoutMillis(deadline.cap(READ_TIMEOUT)));
+        }
+        return stripeClient.v1().checkout().sessions().create(params, options.build());
+    }
+
+    private static int timeoutMillis(Duration timeout) {
+        return (int) Math.max(1, timeout.toMillis());
     }
 
     protected void createCustomerForConnectionTest(StripeClient stripeClient,
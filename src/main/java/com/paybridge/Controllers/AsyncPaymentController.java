@@ -0,0 +1,46 @@
+package com.paybridge.Controllers;
+
+import com.paybridge.Models.DTOs.ApiResponse;
+import com.paybridge.Models.DTOs.CreatePaymentRequest;
+import com.paybridge.Models.DTOs.PaymentResponse;
+import com.paybridge.Models.Entities.Merchant;
+import com.paybridge.Services.ApiKeyService;
+import com.paybridge.Services.AsyncPaymentService;
+import jakarta.validation.Valid;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/v1/payments")
+@ConditionalOnProperty(name = "payments.async.enabled", havingValue = "true")
+public class AsyncPaymentController {
+
+    private final AsyncPaymentService asyncPaymentService;
+    private final ApiKeyService apiKeyService;
+
+    public AsyncPaymentController(AsyncPaymentService asyncPaymentService, ApiKeyService apiKeyService) {
+        this.asyncPaymentService = asyncPaymentService;
+        this.apiKeyService = apiKeyService;
+    }
+
+    @PostMapping("/async")
+    public ResponseEntity<ApiResponse<PaymentResponse>> createPaymentAsync(
+            @RequestHeader("x-api-key") String apiKey,
+            @RequestHeader("Idempotency-Key") String idempotencyKey,
+            @RequestBody @Valid CreatePaymentRequest request) {
+
+        Merchant merchant = apiKeyService.findMerchantByApiKey(apiKey)
+                .orElseThrow(() -> new IllegalArgumentException("Invalid API key"));
+        PaymentResponse response = asyncPaymentService.acceptPayment(request, merchant, idempotencyKey);
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .header(HttpHeaders.LOCATION, "/api/v1/payments/" + response.getId())
+                .body(ApiResponse.success(response));
+    }
+}
@@ -1,41 +1,109 @@
 package com.paybridge.Controllers;
 
 import com.paybridge.Models.DTOs.ApiResponse;
+import com.paybridge.Models.DTOs.BatchPaymentRequest;
+import com.paybridge.Models.DTOs.BatchPaymentResponse;
 import com.paybridge.Models.DTOs.CreatePaymentRequest;
+import com.paybridge.Models.DTOs.PaymentPageResponse;
 import com.paybridge.Models.DTOs.PaymentResponse;
+import com.paybridge.Models.DTOs.PaymentResult;
 import com.paybridge.Models.Entities.Merchant;
+import com.paybridge.Models.Enums.PaymentStatus;
 import com.paybridge.Services.ApiKeyService;
+import com.paybridge.Services.BatchPaymentService;
 import com.paybridge.Services.PaymentService;
+import com.paybridge.Services.RequestDeadlinePolicy;
 import jakarta.validation.Valid;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.UUID;
+
 @RestController
 @RequestMapping("/api/v1/payments")
 public class PaymentController {
 
     private final PaymentService paymentService;
+    private final BatchPaymentService batchPaymentService;
     private final ApiKeyService apiKeyService;
+    private final RequestDeadlinePolicy deadlinePolicy;
 
-    public PaymentController(PaymentService paymentService, ApiKeyService apiKeyService) {
+    public PaymentController(PaymentService paymentService,
+                             BatchPaymentService batchPaymentService,
+                             ApiKeyService apiKeyService,
+                             RequestDeadlinePolicy deadlinePolicy) {
         this.paymentService = paymentService;
+        this.batchPaymentService = batchPaymentService;
         this.apiKeyService = apiKeyService;
+        this.deadlinePolicy = deadlinePolicy;
     }
 
     @PostMapping
-    public ResponseEntity<ApiResponse<PaymentResponse>> createPayment(
+    public ResponseEntity<ApiResponse<PaymentResult>> createPayment(
             @RequestHeader("x-api-key") String apiKey,
             @RequestHeader("Idempotency-Key") String idempotencyKey,
+            @RequestHeader(value = RequestDeadlinePolicy.TIMEOUT_HEADER, required = false) String requestTimeout,
             @RequestBody @Valid CreatePaymentRequest request) {
 
         Merchant merchant = apiKeyService.findMerchantByApiKey(apiKey)
                 .orElseThrow(() -> new IllegalArgumentException("Invalid API key"));
-        PaymentResponse response = paymentService.createPayment(request, merchant, idempotencyKey);
-        return ResponseEntity.status(HttpStatus.CREATED).body(ApiResponse.success(response));
+        PaymentResult result = paymentService.createPayment(request, merchant, idempotencyKey,
+                deadlinePolicy.resolve(merchant, requestTimeout));
+        return ResponseEntity.status(HttpStatus.CREATED).body(ApiResponse.success(result));
+    }
+
+    @PostMapping("/batch")
+    public ResponseEntity<ApiResponse<BatchPaymentResponse>> createPayments(
+            @RequestHeader("x-api-key") String apiKey,
+            @RequestBody @Valid BatchPaymentRequest request) {
+
+        Merchant merchant = apiKeyService.findMerchantByApiKey(apiKey)
+                .orElseThrow(() -> new IllegalArgumentException("Invalid API key"));
+        BatchPaymentResponse response = batchPaymentService.createPayments(request.getPayments(), merchant);
+        return ResponseEntity.ok(ApiResponse.success(response));
+    }
+
+    @GetMapping
+    public ResponseEntity<ApiResponse<PaymentPageResponse>> listPayments(
+            @RequestHeader("x-api-key") String apiKey,
+            @RequestParam(required = false) PaymentStatus status,
+            @RequestParam(required = false) String provider,
+            @RequestParam(required = false) String currency,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+
+        Merchant merchant = apiKeyService.findMerchantByApiKey(apiKey)
+                .orElseThrow(() -> new IllegalArgumentException("Invalid API key"));
+        return ResponseEntity.ok(ApiResponse.success(
+                paymentService.listPayments(merchant, status, provider, currency, cursor, limit)));
+    }
+
+    @GetMapping("/reference/{providerReference}")
+    public ResponseEntity<ApiResponse<PaymentResponse>> getPaymentByProviderReference(
+            @RequestHeader("x-api-key") String apiKey,
+            @PathVariable String providerReference) {
+
+        Merchant merchant = apiKeyService.findMerchantByApiKey(apiKey)
+                .orElseThrow(() -> new IllegalArgumentException("Invalid API key"));
+        return ResponseEntity.ok(ApiResponse.success(
+                paymentService.getPaymentByProviderReference(merchant, providerReference)));
+    }
+
+    @GetMapping("/{paymentId}")
+    public ResponseEntity<ApiResponse<PaymentResponse>> getPayment(
+            @RequestHeader("x-api-key") String apiKey,
+            @PathVariable UUID paymentId) {
+
+        Merchant merchant = apiKeyService.findMerchantByApiKey(apiKey)
+                .orElseThrow(() -> new IllegalArgumentException("Invalid API key"));
+        return ResponseEntity.ok(ApiResponse.success(paymentService.getPayment(merchant, paymentId)));
     }
 }
@@ -2,7 +2,9 @@ package com.paybridge.Controllers;
 
 import com.paybridge.Models.DTOs.ApiResponse;
 import com.paybridge.Services.WebhookService;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestHeader;
@@ -16,26 +18,55 @@ import java.util.Map;
 public class WebhookController {
 
     private final WebhookService webhookService;
+    private final boolean asyncIngestion;
 
-    public WebhookController(WebhookService webhookService) {
+    /**
+     * {@code webhooks.async.enabled=true} switches both endpoints to fast-ack ingestion: the event
+     * is verified and queued, and applied later by the inbox worker.
+     */
+    public WebhookController(WebhookService webhookService,
+                             @Value("${webhooks.async.enabled:false}") boolean asyncIngestion) {
         this.webhookService = webhookService;
+        this.asyncIngestion = asyncIngestion;
     }
 
     @PostMapping("/stripe")
     public ResponseEntity<ApiResponse<Map<String, Object>>> handleStripeWebhook(
-            @RequestBody String payload,
+            @RequestBody byte[] payload,
             @RequestHeader(value = "Stripe-Signature", required = false) String signature
     ) {
-        Map<String, Object> result = webhookService.handleStripeWebhook(payload, signature);
+        Map<String, Object> result = asyncIngestion
+                ? webhookService.acceptStripeWebhook(payload, signature)
+                : webhookService.handleStripeWebhook(payload, signature);
         return ResponseEntity.ok(ApiResponse.success(result));
     }
 
     @PostMapping("/paystack")
     public ResponseEntity<ApiResponse<Map<String, Object>>> handlePaystackWebhook(
-            @RequestBody String payload,
+            @RequestBody byte[] payload,
             @RequestHeader(value = "x-paystack-signature", required = false) String signature
     ) {
-        Map<String, Object> result = webhookService.handlePaystackWebhook(payload, signature);
+        Map<String, Object> result = asyncIngestion
+                ? webhookService.acceptPaystackWebhook(payload, signature)
+                : webhookService.handlePaystackWebhook(payload, signature);
+        return ResponseEntity.ok(ApiResponse.success(result));
+    }
+
+    /**
+     * Merchant-scoped endpoint; the URL is shown to the merchant with their webhook settings.
+     */
+    @PostMapping("/{provider}/{merchantToken}")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> handleMerchantWebhook(
+            @PathVariable String provider,
+            @PathVariable String merchantToken,
+            @RequestBody byte[] payload,
+            @RequestHeader(value = "Stripe-Signature", required = false) String stripeSignature,
+            @RequestHeader(value = "x-paystack-signature", required = false) String paystackSignature
+    ) {
+        String signature = "paystack".equalsIgnoreCase(provider) ? paystackSignature : stripeSignature;
+        Map<String, Object> result = asyncIngestion
+                ? webhookService.acceptMerchantWebhook(provider, merchantToken, payload, signature)
+                : webhookService.handleMerchantWebhook(provider, merchantToken, payload, signature);
         return ResponseEntity.ok(ApiResponse.success(result));
     }
 }
@@ -0,0 +1,16 @@
+package com.paybridge.Exceptions;
+
+/**
+ * Thrown when a request's deadline runs out before the work it asked for could be completed,
+ * so the work is abandoned rather than finished for a client that has already given up.
+ */
+public class DeadlineExceededException extends RuntimeException {
+
+    public DeadlineExceededException(String message) {
+        super(message);
+    }
+
+    public DeadlineExceededException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,12 @@
+package com.paybridge.Exceptions;
+
+/**
+ * Thrown when a payment request cannot obtain a concurrency permit in time,
+ * i.e. the database pool or the provider call budget is already saturated.
+ */
+public class PaymentCapacityExceededException extends RuntimeException {
+
+    public PaymentCapacityExceededException(String message) {
+        super(message);
+    }
+}
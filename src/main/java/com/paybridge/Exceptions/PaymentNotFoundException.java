@@ -0,0 +1,11 @@
+package com.paybridge.Exceptions;
+
+/**
+ * Thrown when a payment does not exist or does not belong to the calling merchant.
+ */
+public class PaymentNotFoundException extends RuntimeException {
+
+    public PaymentNotFoundException(String message) {
+        super(message);
+    }
+}
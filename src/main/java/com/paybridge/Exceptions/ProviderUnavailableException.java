@@ -0,0 +1,19 @@
+package com.paybridge.Exceptions;
+
+/**
+ * Thrown when a call to a payment provider is rejected without being attempted, because the
+ * provider's circuit breaker is open or its bulkhead is full.
+ */
+public class ProviderUnavailableException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public ProviderUnavailableException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
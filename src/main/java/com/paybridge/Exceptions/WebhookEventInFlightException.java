@@ -0,0 +1,19 @@
+package com.paybridge.Exceptions;
+
+/**
+ * Thrown when a webhook event arrives while another delivery of the same event is still being
+ * applied. The event is neither new nor known to be processed, so the provider should retry it.
+ */
+public class WebhookEventInFlightException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public WebhookEventInFlightException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
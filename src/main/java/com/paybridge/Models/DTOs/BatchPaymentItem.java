@@ -0,0 +1,35 @@
+package com.paybridge.Models.DTOs;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+
+/**
+ * One entry of a {@link BatchPaymentRequest}. Each entry carries its own idempotency key,
+ * so a retried batch replays the entries that already succeeded.
+ */
+public class BatchPaymentItem {
+
+    @NotBlank(message = "Idempotency key is required")
+    private String idempotencyKey;
+
+    @NotNull(message = "Payment is required")
+    @Valid
+    private CreatePaymentRequest payment;
+
+    public String getIdempotencyKey() {
+        return idempotencyKey;
+    }
+
+    public void setIdempotencyKey(String idempotencyKey) {
+        this.idempotencyKey = idempotencyKey;
+    }
+
+    public CreatePaymentRequest getPayment() {
+        return payment;
+    }
+
+    public void setPayment(CreatePaymentRequest payment) {
+        this.payment = payment;
+    }
+}
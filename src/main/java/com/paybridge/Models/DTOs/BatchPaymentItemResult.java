@@ -0,0 +1,64 @@
+package com.paybridge.Models.DTOs;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * Outcome of a single batch entry: either the created (or replayed) payment, or the error
+ * that stopped it. Results are returned in request order.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BatchPaymentItemResult {
+
+    private String idempotencyKey;
+    private boolean success;
+    private PaymentResponse payment;
+    private String error;
+
+    public static BatchPaymentItemResult success(String idempotencyKey, PaymentResponse payment) {
+        BatchPaymentItemResult result = new BatchPaymentItemResult();
+        result.idempotencyKey = idempotencyKey;
+        result.success = true;
+        result.payment = payment;
+        return result;
+    }
+
+    public static BatchPaymentItemResult error(String idempotencyKey, String error) {
+        BatchPaymentItemResult result = new BatchPaymentItemResult();
+        result.idempotencyKey = idempotencyKey;
+        result.success = false;
+        result.error = error;
+        return result;
+    }
+
+    public String getIdempotencyKey() {
+        return idempotencyKey;
+    }
+
+    public void setIdempotencyKey(String idempotencyKey) {
+        this.idempotencyKey = idempotencyKey;
+    }
+
+    public boolean isSuccess() {
+        return success;
+    }
+
+    public void setSuccess(boolean success) {
+        this.success = success;
+    }
+
+    public PaymentResponse getPayment() {
+        return payment;
+    }
+
+    public void setPayment(PaymentResponse payment) {
+        this.payment = payment;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+}
@@ -0,0 +1,25 @@
+package com.paybridge.Models.DTOs;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+
+import java.util.List;
+
+/**
+ * Request DTO for {@code POST /api/v1/payments/batch}. The maximum number of payments per
+ * batch is set by {@code payments.batch.max-items}.
+ */
+public class BatchPaymentRequest {
+
+    @NotEmpty(message = "At least one payment is required")
+    @Valid
+    private List<BatchPaymentItem> payments;
+
+    public List<BatchPaymentItem> getPayments() {
+        return payments;
+    }
+
+    public void setPayments(List<BatchPaymentItem> payments) {
+        this.payments = payments;
+    }
+}
@@ -0,0 +1,46 @@
+package com.paybridge.Models.DTOs;
+
+import java.util.List;
+
+/**
+ * Response DTO for {@code POST /api/v1/payments/batch}.
+ */
+public class BatchPaymentResponse {
+
+    private int succeeded;
+    private int failed;
+    private List<BatchPaymentItemResult> results;
+
+    public BatchPaymentResponse() {
+    }
+
+    public BatchPaymentResponse(List<BatchPaymentItemResult> results) {
+        this.results = results;
+        this.succeeded = (int) results.stream().filter(BatchPaymentItemResult::isSuccess).count();
+        this.failed = results.size() - succeeded;
+    }
+
+    public int getSucceeded() {
+        return succeeded;
+    }
+
+    public void setSucceeded(int succeeded) {
+        this.succeeded = succeeded;
+    }
+
+    public int getFailed() {
+        return failed;
+    }
+
+    public void setFailed(int failed) {
+        this.failed = failed;
+    }
+
+    public List<BatchPaymentItemResult> getResults() {
+        return results;
+    }
+
+    public void setResults(List<BatchPaymentItemResult> results) {
+        this.results = results;
+    }
+}
@@ -5,6 +5,7 @@ public class MerchantWebhookSecretResponse {
     private String provider;
     private boolean configured;
     private String maskedSecret;
+    private String webhookEndpoint;
 
     public String getProvider() {
         return provider;
@@ -29,4 +30,12 @@ public class MerchantWebhookSecretResponse {
     public void setMaskedSecret(String maskedSecret) {
         this.maskedSecret = maskedSecret;
     }
+
+    public String getWebhookEndpoint() {
+        return webhookEndpoint;
+    }
+
+    public void setWebhookEndpoint(String webhookEndpoint) {
+        this.webhookEndpoint = webhookEndpoint;
+    }
 }
@@ -0,0 +1,79 @@
+package com.paybridge.Models.DTOs;
+
+import java.util.UUID;
+
+/**
+ * Queue message for an accepted asynchronous payment. Carries everything the worker needs to
+ * run the provider call (Phase 2) and finalize the payment (Phase 3) without re-reading the
+ * merchant.
+ */
+public class PaymentJobMessage {
+
+    private UUID paymentId;
+    private Long merchantId;
+    private String idempotencyKey;
+    private String providerName;
+    private String callbackUrl;
+    private CreatePaymentRequest request;
+
+    public PaymentJobMessage() {
+    }
+
+    public PaymentJobMessage(UUID paymentId, Long merchantId, String idempotencyKey,
+                             String providerName, String callbackUrl, CreatePaymentRequest request) {
+        this.paymentId = paymentId;
+        this.merchantId = merchantId;
+        this.idempotencyKey = idempotencyKey;
+        this.providerName = providerName;
+        this.callbackUrl = callbackUrl;
+        this.request = request;
+    }
+
+    public UUID getPaymentId() {
+        return paymentId;
+    }
+
+    public void setPaymentId(UUID paymentId) {
+        this.paymentId = paymentId;
+    }
+
+    public Long getMerchantId() {
+        return merchantId;
+    }
+
+    public void setMerchantId(Long merchantId) {
+        this.merchantId = merchantId;
+    }
+
+    public String getIdempotencyKey() {
+        return idempotencyKey;
+    }
+
+    public void setIdempotencyKey(String idempotencyKey) {
+        this.idempotencyKey = idempotencyKey;
+    }
+
+    public String getProviderName() {
+        return providerName;
+    }
+
+    public void setProviderName(String providerName) {
+        this.providerName = providerName;
+    }
+
+    public String getCallbackUrl() {
+        return callbackUrl;
+    }
+
+    public void setCallbackUrl(String callbackUrl) {
+        this.callbackUrl = callbackUrl;
+    }
+
+    public CreatePaymentRequest getRequest() {
+        return request;
+    }
+
+    public void setRequest(CreatePaymentRequest request) {
+        this.request = request;
+    }
+}
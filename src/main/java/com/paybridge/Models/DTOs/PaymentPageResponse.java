@@ -0,0 +1,50 @@
+package com.paybridge.Models.DTOs;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.List;
+
+/**
+ * A page of {@code GET /api/v1/payments}, newest first. Pass {@code nextCursor} back as
+ * {@code cursor} to fetch the following page; it is absent on the last page.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class PaymentPageResponse {
+
+    private List<PaymentSummaryResponse> payments;
+    private boolean hasMore;
+    private String nextCursor;
+
+    public PaymentPageResponse() {
+    }
+
+    public PaymentPageResponse(List<PaymentSummaryResponse> payments, boolean hasMore, String nextCursor) {
+        this.payments = payments;
+        this.hasMore = hasMore;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<PaymentSummaryResponse> getPayments() {
+        return payments;
+    }
+
+    public void setPayments(List<PaymentSummaryResponse> payments) {
+        this.payments = payments;
+    }
+
+    public boolean isHasMore() {
+        return hasMore;
+    }
+
+    public void setHasMore(boolean hasMore) {
+        this.hasMore = hasMore;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+}
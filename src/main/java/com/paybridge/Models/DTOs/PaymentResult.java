@@ -0,0 +1,68 @@
+package com.paybridge.Models.DTOs;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializable;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.io.IOException;
+
+/**
+ * Payload of a payment-creation response: either a {@link PaymentResponse} built for this
+ * request, or — when an idempotency key is replayed — the JSON stored for the original request,
+ * copied into the {@link ApiResponse} envelope as is. Replays therefore cost no parsing and no
+ * object mapping, however often a client retries.
+ */
+@Schema(implementation = PaymentResponse.class)
+public final class PaymentResult implements JsonSerializable {
+
+    private final PaymentResponse response;
+    private final String storedJson;
+
+    private PaymentResult(PaymentResponse response, String storedJson) {
+        this.response = response;
+        this.storedJson = storedJson;
+    }
+
+    public static PaymentResult of(PaymentResponse response) {
+        return new PaymentResult(response, null);
+    }
+
+    /**
+     * @param storedJson a {@link PaymentResponse} serialised by the application's ObjectMapper
+     */
+    public static PaymentResult replay(String storedJson) {
+        return new PaymentResult(null, storedJson);
+    }
+
+    public boolean isReplay() {
+        return storedJson != null;
+    }
+
+    /**
+     * The response built for this request; {@code null} for a replay.
+     */
+    public PaymentResponse getResponse() {
+        return response;
+    }
+
+    public String getStoredJson() {
+        return storedJson;
+    }
+
+    @Override
+    public void serialize(JsonGenerator gen, SerializerProvider serializers) throws IOException {
+        if (storedJson != null) {
+            gen.writeRawValue(storedJson);
+        } else {
+            serializers.defaultSerializeValue(response, gen);
+        }
+    }
+
+    @Override
+    public void serializeWithType(JsonGenerator gen, SerializerProvider serializers, TypeSerializer typeSer)
+            throws IOException {
+        serialize(gen, serializers);
+    }
+}
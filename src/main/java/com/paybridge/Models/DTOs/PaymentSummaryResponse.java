@@ -0,0 +1,101 @@
+package com.paybridge.Models.DTOs;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.paybridge.Models.Enums.PaymentStatus;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.UUID;
+
+/**
+ * One row of {@code GET /api/v1/payments}. Built directly by the listing query
+ * (JPQL constructor expression), so no entities are loaded.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class PaymentSummaryResponse {
+
+    private UUID id;
+    private PaymentStatus status;
+    private BigDecimal amount;
+    private String currency;
+    private String provider;
+    private String providerReference;
+    private Instant createdAt;
+
+    public PaymentSummaryResponse() {
+    }
+
+    public PaymentSummaryResponse(UUID id,
+                                  PaymentStatus status,
+                                  BigDecimal amount,
+                                  String currency,
+                                  String provider,
+                                  String providerReference,
+                                  LocalDateTime createdAt) {
+        this.id = id;
+        this.status = status;
+        this.amount = amount;
+        this.currency = currency;
+        this.provider = provider;
+        this.providerReference = providerReference;
+        this.createdAt = createdAt != null ? createdAt.toInstant(ZoneOffset.UTC) : null;
+    }
+
+    public UUID getId() {
+        return id;
+    }
+
+    public void setId(UUID id) {
+        this.id = id;
+    }
+
+    public PaymentStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(PaymentStatus status) {
+        this.status = status;
+    }
+
+    public BigDecimal getAmount() {
+        return amount;
+    }
+
+    public void setAmount(BigDecimal amount) {
+        this.amount = amount;
+    }
+
+    public String getCurrency() {
+        return currency;
+    }
+
+    public void setCurrency(String currency) {
+        this.currency = currency;
+    }
+
+    public String getProvider() {
+        return provider;
+    }
+
+    public void setProvider(String provider) {
+        this.provider = provider;
+    }
+
+    public String getProviderReference() {
+        return providerReference;
+    }
+
+    public void setProviderReference(String providerReference) {
+        this.providerReference = providerReference;
+    }
+
+    public Instant getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(Instant createdAt) {
+        this.createdAt = createdAt;
+    }
+}
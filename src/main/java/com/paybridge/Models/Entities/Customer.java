@@ -3,14 +3,19 @@ package com.paybridge.Models.Entities;
 import jakarta.persistence.*;
 
 @Entity(name = "customers")
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_customers_merchant_customer_key",
+        columnNames = {"merchant_id", "customer_key"}))
 public class Customer{
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "customers_seq")
+    @SequenceGenerator(name = "customers_seq", sequenceName = "customers_seq", allocationSize = 50)
     private int id;
     @ManyToOne
     @JoinColumn(name = "merchant_id")
     private Merchant merchant;
+    @Column(name = "customer_key", nullable = false)
+    private String customerKey;
     @Column(name = "external_customer_id", nullable = false)
     private int externalCustomerId;
     @Column(name = "full_name")
@@ -36,6 +41,14 @@ public class Customer{
         this.merchant = merchant;
     }
 
+    public String getCustomerKey() {
+        return customerKey;
+    }
+
+    public void setCustomerKey(String customerKey) {
+        this.customerKey = customerKey;
+    }
+
     public int getExternalCustomerId() {
         return externalCustomerId;
     }
@@ -7,11 +7,16 @@ import org.hibernate.annotations.CreationTimestamp;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "idempotency_keys")
+@Table(name = "idempotency_keys",
+        uniqueConstraints = @UniqueConstraint(name = "uk_idempotency_keys_merchant_key",
+                columnNames = {"merchant_id", "idempotency_key"}))
 public class IdempotencyKey {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "idempotency_keys_seq")
+    @SequenceGenerator(name = "idempotency_keys_seq", sequenceName = "idempotency_keys_seq", allocationSize = 50)
     private Integer id;
+    @Column(name = "merchant_id", nullable = false)
+    private Long merchantId;
     @Column(name="idempotency_key", nullable = false)
     private String idempotencyKey;
     @ManyToOne
@@ -19,7 +24,7 @@ public class IdempotencyKey {
     private Customer customer;
     @Column(name = "request_hash", nullable = false)
     private String requestHash;
-    @Column(name = "response")
+    @Column(name = "response", columnDefinition = "TEXT")
     private String response;
     @Enumerated(EnumType.STRING)
     @Column(name="status", nullable = false)
@@ -27,11 +32,12 @@ public class IdempotencyKey {
     @CreationTimestamp
     @Column(name = "created_at")
     private LocalDateTime createdAt;
-    @CreationTimestamp
     @Column(name = "expires_at")
     private LocalDateTime expiresAt;
     @Column(name = "locked")
     private boolean locked = false;
+    @Column(name = "lock_token")
+    private String lockToken;
 
     public Integer getId() {
         return id;
@@ -41,6 +47,14 @@ public class IdempotencyKey {
         this.id = id;
     }
 
+    public Long getMerchantId() {
+        return merchantId;
+    }
+
+    public void setMerchantId(Long merchantId) {
+        this.merchantId = merchantId;
+    }
+
     public String getIdempotencyKey() {
         return idempotencyKey;
     }
@@ -104,4 +118,12 @@ public class IdempotencyKey {
     public void setLocked(boolean locked) {
         this.locked = locked;
     }
+
+    public String getLockToken() {
+        return lockToken;
+    }
+
+    public void setLockToken(String lockToken) {
+        this.lockToken = lockToken;
+    }
 }
@@ -63,6 +63,10 @@ public class Merchant {
     @Column(name="test_mode")
     private boolean testMode = true;
 
+    /** Default deadline for this merchant's payment requests; null falls back to the global default. */
+    @Column(name = "request_timeout_ms")
+    private Integer requestTimeoutMs;
+
 
     public String getActiveKey(){
         return testMode ? apiKeyTest : apiKeyLive;
@@ -138,6 +142,14 @@ public class Merchant {
         this.testMode = testMode;
     }
 
+    public Integer getRequestTimeoutMs() {
+        return requestTimeoutMs;
+    }
+
+    public void setRequestTimeoutMs(Integer requestTimeoutMs) {
+        this.requestTimeoutMs = requestTimeoutMs;
+    }
+
     public String getBusinessCountry() {
         return businessCountry;
     }
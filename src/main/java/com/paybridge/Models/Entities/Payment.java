@@ -13,7 +13,7 @@ import java.util.UUID;
 @Table(name="payments")
 public class Payment {
     @Id
-    @GeneratedValue(generator = "uuid2")
+    @UuidV7
     private UUID id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -37,6 +37,9 @@ public class Payment {
     @Column(name = "provider_reference", length = 255)
     private String providerReference;
 
+    @Column(name = "checkout_url", length = 2048)
+    private String checkoutUrl;
+
     @CreationTimestamp
     @Column(name = "created_at")
     private LocalDateTime createdAt;
@@ -101,6 +104,14 @@ public class Payment {
         this.providerReference = providerReference;
     }
 
+    public String getCheckoutUrl() {
+        return checkoutUrl;
+    }
+
+    public void setCheckoutUrl(String checkoutUrl) {
+        this.checkoutUrl = checkoutUrl;
+    }
+
     public LocalDateTime getCreatedAt() {
         return createdAt;
     }
@@ -0,0 +1,68 @@
+package com.paybridge.Models.Entities;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * A queued asynchronous payment's {@code PaymentJobMessage}, written in the same transaction as
+ * the {@code PROCESSING} payment and deleted in the transaction that moves the payment out of
+ * it. A row that outlives {@code payments.async.outbox.republish-after-ms} belongs to a job the
+ * broker never delivered (a crash before publishing, or a dropped message), and
+ * {@code PaymentJobOutboxRelay} publishes it again.
+ */
+@Entity
+@Table(name = "payment_job_outbox",
+        uniqueConstraints = @UniqueConstraint(name = "uk_payment_job_outbox_payment", columnNames = "payment_id"),
+        indexes = @Index(name = "idx_payment_job_outbox_last_published", columnList = "last_published_at"))
+public class PaymentJobOutbox {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "payment_job_outbox_seq")
+    @SequenceGenerator(name = "payment_job_outbox_seq", sequenceName = "payment_job_outbox_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "payment_id", nullable = false)
+    private UUID paymentId;
+
+    /** The job as JSON, published as-is. */
+    @Column(name = "payload", nullable = false, columnDefinition = "TEXT")
+    private String payload;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    /** When the job was last handed to the broker; starts as the creation time. */
+    @Column(name = "last_published_at", nullable = false)
+    private LocalDateTime lastPublishedAt;
+
+    public static PaymentJobOutbox queued(UUID paymentId, String payload) {
+        PaymentJobOutbox entry = new PaymentJobOutbox();
+        entry.paymentId = paymentId;
+        entry.payload = payload;
+        entry.createdAt = LocalDateTime.now();
+        entry.lastPublishedAt = entry.createdAt;
+        return entry;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public UUID getPaymentId() {
+        return paymentId;
+    }
+
+    public String getPayload() {
+        return payload;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public LocalDateTime getLastPublishedAt() {
+        return lastPublishedAt;
+    }
+}
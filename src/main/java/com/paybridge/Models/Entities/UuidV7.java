@@ -0,0 +1,21 @@
+package com.paybridge.Models.Entities;
+
+import org.hibernate.annotations.IdGeneratorType;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import static java.lang.annotation.ElementType.FIELD;
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+/**
+ * Marks a {@link java.util.UUID} id as generated by {@link UuidV7Generator}. Use it instead of
+ * {@code @GeneratedValue} on UUID-keyed entities so new rows append to the right-hand edge of
+ * the primary-key index instead of landing on a random page.
+ */
+@IdGeneratorType(UuidV7Generator.class)
+@Retention(RUNTIME)
+@Target({FIELD, METHOD})
+public @interface UuidV7 {
+}
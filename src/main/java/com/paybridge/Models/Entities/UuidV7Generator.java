@@ -0,0 +1,49 @@
+package com.paybridge.Models.Entities;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+
+import java.security.SecureRandom;
+import java.util.EnumSet;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.hibernate.generator.EventTypeSets.INSERT_ONLY;
+
+/**
+ * RFC 9562 version 7 UUIDs: a 48-bit Unix millisecond timestamp, then a 12-bit counter, then
+ * 62 random bits. The counter makes ids from this JVM strictly increasing, also within one
+ * millisecond (on overflow it borrows from the next millisecond). Ids stay in the regular
+ * {@code uuid} column type, so they sort and compare alongside the random version 4 ids of
+ * existing rows.
+ */
+public class UuidV7Generator implements BeforeExecutionGenerator {
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    /** {@code unixMillis << 12 | counter} of the last id handed out. */
+    private static final AtomicLong LAST = new AtomicLong();
+
+    public static UUID next() {
+        long now = System.currentTimeMillis() << 12;
+        long state = LAST.updateAndGet(last -> Math.max(now, last + 1));
+
+        long msb = (state >>> 12) << 16      // unix_ts_ms: 48 bits
+                | 0x7000L                    // version 7
+                | (state & 0x0FFFL);         // rand_a, used as counter
+        long lsb = (RANDOM.nextLong() & 0x3FFFFFFFFFFFFFFFL)
+                | 0x8000000000000000L;       // variant 10
+        return new UUID(msb, lsb);
+    }
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object owner, Object currentValue, EventType eventType) {
+        return next();
+    }
+
+    @Override
+    public EnumSet<EventType> getEventTypes() {
+        return INSERT_ONLY;
+    }
+}
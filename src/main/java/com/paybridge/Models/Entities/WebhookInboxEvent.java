@@ -0,0 +1,136 @@
+package com.paybridge.Models.Entities;
+
+import com.paybridge.Models.Enums.PaymentStatus;
+import com.paybridge.Models.Enums.WebhookInboxStatus;
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * A provider webhook whose signature has been verified and which is waiting to be applied to
+ * its payment by {@code WebhookInboxWorker}. The raw payload is kept for audit and replay; the
+ * worker itself only needs the event id (for dedupe), the payment and the target status.
+ */
+@Entity
+@Table(name = "webhook_inbox",
+        uniqueConstraints = @UniqueConstraint(name = "uk_webhook_inbox_provider_event",
+                columnNames = {"provider", "event_id"}),
+        indexes = @Index(name = "idx_webhook_inbox_status_next_attempt", columnList = "status, next_attempt_at"))
+public class WebhookInboxEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "webhook_inbox_seq")
+    @SequenceGenerator(name = "webhook_inbox_seq", sequenceName = "webhook_inbox_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "provider", nullable = false, length = 50)
+    private String provider;
+
+    @Column(name = "event_id", nullable = false, length = 255)
+    private String eventId;
+
+    @Column(name = "event_type")
+    private String eventType;
+
+    @Column(name = "payment_id", nullable = false)
+    private UUID paymentId;
+
+    /** Status the event moves the payment to; null for events that only need recording. */
+    @Enumerated(EnumType.STRING)
+    @Column(name = "target_status")
+    private PaymentStatus targetStatus;
+
+    @Column(name = "payload", nullable = false, columnDefinition = "TEXT")
+    private String payload;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 20)
+    private WebhookInboxStatus status = WebhookInboxStatus.PENDING;
+
+    @Column(name = "attempts", nullable = false)
+    private int attempts;
+
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+
+    @Column(name = "received_at", nullable = false)
+    private LocalDateTime receivedAt;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "processed_at")
+    private LocalDateTime processedAt;
+
+    public static WebhookInboxEvent received(String provider, String eventId, String eventType,
+                                             UUID paymentId, PaymentStatus targetStatus, String payload) {
+        WebhookInboxEvent event = new WebhookInboxEvent();
+        event.provider = provider;
+        event.eventId = eventId;
+        event.eventType = eventType;
+        event.paymentId = paymentId;
+        event.targetStatus = targetStatus;
+        event.payload = payload;
+        event.receivedAt = LocalDateTime.now();
+        event.nextAttemptAt = event.receivedAt;
+        return event;
+    }
+
+    public void markProcessed() {
+        status = WebhookInboxStatus.PROCESSED;
+        processedAt = LocalDateTime.now();
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getProvider() {
+        return provider;
+    }
+
+    public String getEventId() {
+        return eventId;
+    }
+
+    public String getEventType() {
+        return eventType;
+    }
+
+    public UUID getPaymentId() {
+        return paymentId;
+    }
+
+    public PaymentStatus getTargetStatus() {
+        return targetStatus;
+    }
+
+    public String getPayload() {
+        return payload;
+    }
+
+    public WebhookInboxStatus getStatus() {
+        return status;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+
+    public LocalDateTime getReceivedAt() {
+        return receivedAt;
+    }
+
+    public LocalDateTime getNextAttemptAt() {
+        return nextAttemptAt;
+    }
+
+    public LocalDateTime getProcessedAt() {
+        return processedAt;
+    }
+}
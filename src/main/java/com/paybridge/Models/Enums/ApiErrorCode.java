@@ -10,6 +10,8 @@ public enum ApiErrorCode {
     ACCOUNT_NOT_FOUND,
     ACCOUNT_DISABLED,
     PROVIDER_NOT_CONFIGURED,
+    PROVIDER_UNAVAILABLE,
+    PAYMENT_NOT_FOUND,
     RATE_LIMIT_EXCEEDED,
     RESEND_LIMIT_EXCEEDED,
     VERIFICATION_CODE_EXPIRED,
@@ -18,5 +20,8 @@ public enum ApiErrorCode {
     INVALID_RESET_CODE,
     UNAUTHORIZED,
     BAD_REQUEST,
+    SERVICE_UNAVAILABLE,
+    DEADLINE_EXCEEDED,
+    WEBHOOK_EVENT_IN_FLIGHT,
     INTERNAL_ERROR
 }
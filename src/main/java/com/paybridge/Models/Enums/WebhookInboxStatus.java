@@ -0,0 +1,10 @@
+package com.paybridge.Models.Enums;
+
+/**
+ * Lifecycle of a webhook event recorded for asynchronous processing.
+ */
+public enum WebhookInboxStatus {
+    PENDING,
+    PROCESSED,
+    FAILED
+}
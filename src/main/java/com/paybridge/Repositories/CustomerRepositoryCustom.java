@@ -0,0 +1,15 @@
+package com.paybridge.Repositories;
+
+public interface CustomerRepositoryCustom {
+
+    /**
+     * Inserts the customer identified by {@code (merchantId, customerKey)} or, if it already
+     * exists, updates the given non-null details when they differ. Returns the row's id.
+     */
+    int upsertCustomer(Long merchantId,
+                       String customerKey,
+                       int externalCustomerId,
+                       String fullName,
+                       String email,
+                       String phone);
+}
@@ -0,0 +1,127 @@
+package com.paybridge.Repositories;
+
+import com.paybridge.Models.Entities.Customer;
+import com.paybridge.Models.Entities.Merchant;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.query.NativeQuery;
+import org.hibernate.type.StandardBasicTypes;
+
+import java.util.List;
+
+/**
+ * On PostgreSQL the upsert is one {@code INSERT ... ON CONFLICT} against
+ * {@code uk_customers_merchant_customer_key}, so concurrent first payments from the same
+ * customer converge on one row; the {@code WHERE} clause skips the update (and the dead
+ * tuple it would leave) when nothing changed. Other databases (H2 in tests) fall back to
+ * select-then-insert.
+ */
+class CustomerRepositoryImpl implements CustomerRepositoryCustom {
+
+    private static final String UPSERT_SQL = """
+            INSERT INTO customers (id, merchant_id, customer_key, external_customer_id, full_name, email, phone)
+            VALUES (:id, :merchantId, :customerKey, :externalCustomerId, :fullName, :email, :phone)
+            ON CONFLICT (merchant_id, customer_key) DO UPDATE
+               SET full_name = COALESCE(EXCLUDED.full_name, customers.full_name),
+                   email     = COALESCE(EXCLUDED.email, customers.email),
+                   phone     = COALESCE(EXCLUDED.phone, customers.phone)
+             WHERE (customers.full_name, customers.email, customers.phone) IS DISTINCT FROM
+                   (COALESCE(EXCLUDED.full_name, customers.full_name),
+                    COALESCE(EXCLUDED.email, customers.email),
+                    COALESCE(EXCLUDED.phone, customers.phone))
+            RETURNING id
+            """;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private volatile Boolean postgres;
+
+    @Override
+    public int upsertCustomer(Long merchantId,
+                              String customerKey,
+                              int externalCustomerId,
+                              String fullName,
+                              String email,
+                              String phone) {
+        if (isPostgres()) {
+            return upsertOnConflict(merchantId, customerKey, externalCustomerId, fullName, email, phone);
+        }
+        return selectThenInsert(merchantId, customerKey, externalCustomerId, fullName, email, phone);
+    }
+
+    @SuppressWarnings("unchecked")
+    private int upsertOnConflict(Long merchantId,
+                                 String customerKey,
+                                 int externalCustomerId,
+                                 String fullName,
+                                 String email,
+                                 String phone) {
+        List<Number> ids = entityManager.createNativeQuery(UPSERT_SQL)
+                .unwrap(NativeQuery.class)
+                .setParameter("id", NativeSqlSupport.nextId(entityManager, Customer.class))
+                .setParameter("merchantId", merchantId)
+                .setParameter("customerKey", customerKey)
+                .setParameter("externalCustomerId", externalCustomerId)
+                .setParameter("fullName", fullName, StandardBasicTypes.STRING)
+                .setParameter("email", email, StandardBasicTypes.STRING)
+                .setParameter("phone", phone, StandardBasicTypes.STRING)
+                .getResultList();
+        if (!ids.isEmpty()) {
+            return ids.get(0).intValue();
+        }
+
+        // Conflict with unchanged details: nothing was written, so RETURNING produced no row.
+        Number id = (Number) entityManager.createNativeQuery(
+                        "SELECT id FROM customers WHERE merchant_id = :merchantId AND customer_key = :customerKey")
+                .setParameter("merchantId", merchantId)
+                .setParameter("customerKey", customerKey)
+                .getSingleResult();
+        return id.intValue();
+    }
+
+    private int selectThenInsert(Long merchantId,
+                                 String customerKey,
+                                 int externalCustomerId,
+                                 String fullName,
+                                 String email,
+                                 String phone) {
+        List<Customer> existing = entityManager.createQuery(
+                        "SELECT c FROM customers c WHERE c.merchant.id = :merchantId AND c.customerKey = :customerKey",
+                        Customer.class)
+                .setParameter("merchantId", merchantId)
+                .setParameter("customerKey", customerKey)
+                .getResultList();
+
+        Customer customer;
+        if (existing.isEmpty()) {
+            customer = new Customer();
+            customer.setMerchant(entityManager.getReference(Merchant.class, merchantId));
+            customer.setCustomerKey(customerKey);
+            customer.setExternalCustomerId(externalCustomerId);
+            entityManager.persist(customer);
+        } else {
+            customer = existing.get(0);
+        }
+        if (fullName != null) {
+            customer.setFullName(fullName);
+        }
+        if (email != null) {
+            customer.setEmail(email);
+        }
+        if (phone != null) {
+            customer.setPhone(phone);
+        }
+        // persist() takes the id from the sequence pool; the INSERT itself is batched at flush.
+        return customer.getId();
+    }
+
+    private boolean isPostgres() {
+        Boolean cached = postgres;
+        if (cached == null) {
+            cached = NativeSqlSupport.isPostgres(entityManager);
+            postgres = cached;
+        }
+        return cached;
+    }
+}
@@ -1,10 +1,35 @@
 package com.paybridge.Repositories;
 
 import com.paybridge.Models.Entities.IdempotencyKey;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
-public interface IdempotencyKeyRepository extends JpaRepository<IdempotencyKey, Integer> {
-    Optional<IdempotencyKey> findByIdempotencyKey(String idempotencyKey);
+public interface IdempotencyKeyRepository extends JpaRepository<IdempotencyKey, Integer>, IdempotencyKeyRepositoryCustom {
+    Optional<IdempotencyKey> findByMerchantIdAndIdempotencyKey(Long merchantId, String idempotencyKey);
+
+    /**
+     * Oldest expired, unlocked keys first; served by {@code idx_idempotency_keys_expires_at}.
+     */
+    @Query("SELECT k.id FROM IdempotencyKey k WHERE k.expiresAt < :cutoff AND k.locked = false ORDER BY k.expiresAt")
+    List<Integer> findExpiredIds(@Param("cutoff") LocalDateTime cutoff, Pageable page);
+
+    /**
+     * Deletes the given keys in a transaction of its own. The expiry and lock checks are
+     * repeated so a key re-locked since {@link #findExpiredIds} was read is left alone.
+     */
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM IdempotencyKey k WHERE k.id IN :ids AND k.expiresAt < :cutoff AND k.locked = false")
+    int deleteExpired(@Param("ids") List<Integer> ids, @Param("cutoff") LocalDateTime cutoff);
+
+    @Query("SELECT MIN(k.expiresAt) FROM IdempotencyKey k WHERE k.expiresAt < :cutoff AND k.locked = false")
+    Optional<LocalDateTime> findOldestExpiry(@Param("cutoff") LocalDateTime cutoff);
 }
@@ -0,0 +1,28 @@
+package com.paybridge.Repositories;
+
+import java.time.LocalDateTime;
+
+public interface IdempotencyKeyRepositoryCustom {
+
+    /**
+     * Claims {@code (merchantId, idempotencyKey)} for a new attempt in one statement. A missing
+     * key is inserted locked; an existing key is re-locked only if it is unlocked, has no stored
+     * response and was used with the same request hash (a retry after failure). In every case the
+     * row's resulting state is returned, and the attempt owns the key exactly when
+     * {@link Acquisition#lockToken()} equals {@code lockToken}.
+     */
+    Acquisition acquire(Long merchantId,
+                        String idempotencyKey,
+                        int customerId,
+                        String requestHash,
+                        String lockToken,
+                        LocalDateTime now,
+                        LocalDateTime expiresAt);
+
+    record Acquisition(Integer id,
+                       String requestHash,
+                       String response,
+                       String lockToken,
+                       LocalDateTime createdAt) {
+    }
+}
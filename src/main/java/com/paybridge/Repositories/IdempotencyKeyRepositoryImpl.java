@@ -0,0 +1,158 @@
+package com.paybridge.Repositories;
+
+import com.paybridge.Models.Entities.Customer;
+import com.paybridge.Models.Entities.IdempotencyKey;
+import com.paybridge.Models.Enums.PaymentStatus;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.PersistenceContext;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * On PostgreSQL acquisition is a single {@code INSERT ... ON CONFLICT DO UPDATE ... RETURNING}
+ * against {@code uk_idempotency_keys_merchant_key}. The update always fires so the row comes
+ * back in one round trip, but only changes the row when it may be re-acquired; a concurrent
+ * duplicate waits on the conflicting row's lock instead of failing on the unique constraint.
+ * A row still locked after {@code expires_at} belongs to an attempt that crashed or whose Phase 3
+ * failed; it is taken over with a new lock token (and the new request hash), since the sweeper
+ * only deletes unlocked keys and the key would otherwise answer "already being processed" forever.
+ * Other databases (H2 in tests) fall back to a locking select followed by insert or update.
+ */
+class IdempotencyKeyRepositoryImpl implements IdempotencyKeyRepositoryCustom {
+
+    private static final String REACQUIRABLE =
+            "((NOT k.locked AND COALESCE(k.response, '') = '' AND k.request_hash = EXCLUDED.request_hash)"
+                    + " OR (k.locked AND k.expires_at < :now))";
+
+    private static final String ACQUIRE_SQL = """
+            INSERT INTO idempotency_keys AS k
+                   (id, merchant_id, idempotency_key, customer_id, request_hash, status, locked, lock_token,
+                    created_at, expires_at)
+            VALUES (:id, :merchantId, :idempotencyKey, :customerId, :requestHash, :status, true, :lockToken,
+                    :now, :expiresAt)
+            ON CONFLICT (merchant_id, idempotency_key) DO UPDATE
+               SET customer_id  = CASE WHEN %1$s THEN EXCLUDED.customer_id ELSE k.customer_id END,
+                   request_hash = CASE WHEN %1$s THEN EXCLUDED.request_hash ELSE k.request_hash END,
+                   status       = CASE WHEN %1$s THEN EXCLUDED.status ELSE k.status END,
+                   locked       = CASE WHEN %1$s THEN true ELSE k.locked END,
+                   lock_token   = CASE WHEN %1$s THEN EXCLUDED.lock_token ELSE k.lock_token END,
+                   expires_at   = CASE WHEN %1$s THEN EXCLUDED.expires_at ELSE k.expires_at END
+            RETURNING k.id, k.request_hash, k.response, k.lock_token, k.created_at
+            """.formatted(REACQUIRABLE);
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private volatile Boolean postgres;
+
+    @Override
+    public Acquisition acquire(Long merchantId,
+                               String idempotencyKey,
+                               int customerId,
+                               String requestHash,
+                               String lockToken,
+                               LocalDateTime now,
+                               LocalDateTime expiresAt) {
+        if (isPostgres()) {
+            return upsertOnConflict(merchantId, idempotencyKey, customerId, requestHash, lockToken, now, expiresAt);
+        }
+        return selectForUpdate(merchantId, idempotencyKey, customerId, requestHash, lockToken, now, expiresAt);
+    }
+
+    private Acquisition upsertOnConflict(Long merchantId,
+                                         String idempotencyKey,
+                                         int customerId,
+                                         String requestHash,
+                                         String lockToken,
+                                         LocalDateTime now,
+                                         LocalDateTime expiresAt) {
+        Object[] row = (Object[]) entityManager.createNativeQuery(ACQUIRE_SQL)
+                .setParameter("id", NativeSqlSupport.nextId(entityManager, IdempotencyKey.class))
+                .setParameter("merchantId", merchantId)
+                .setParameter("idempotencyKey", idempotencyKey)
+                .setParameter("customerId", customerId)
+                .setParameter("requestHash", requestHash)
+                .setParameter("status", PaymentStatus.PROCESSING.name())
+                .setParameter("lockToken", lockToken)
+                .setParameter("now", now)
+                .setParameter("expiresAt", expiresAt)
+                .getSingleResult();
+        return new Acquisition(
+                ((Number) row[0]).intValue(),
+                (String) row[1],
+                (String) row[2],
+                (String) row[3],
+                toLocalDateTime(row[4]));
+    }
+
+    private Acquisition selectForUpdate(Long merchantId,
+                                        String idempotencyKey,
+                                        int customerId,
+                                        String requestHash,
+                                        String lockToken,
+                                        LocalDateTime now,
+                                        LocalDateTime expiresAt) {
+        List<IdempotencyKey> existing = entityManager.createQuery(
+                        "SELECT k FROM IdempotencyKey k WHERE k.merchantId = :merchantId AND k.idempotencyKey = :idempotencyKey",
+                        IdempotencyKey.class)
+                .setParameter("merchantId", merchantId)
+                .setParameter("idempotencyKey", idempotencyKey)
+                .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                .getResultList();
+
+        IdempotencyKey record;
+        if (existing.isEmpty()) {
+            record = new IdempotencyKey();
+            record.setMerchantId(merchantId);
+            record.setIdempotencyKey(idempotencyKey);
+            record.setRequestHash(requestHash);
+            record.setCreatedAt(now);
+        } else {
+            record = existing.get(0);
+            boolean reacquirable = !record.isLocked()
+                    && (record.getResponse() == null || record.getResponse().isBlank())
+                    && Objects.equals(record.getRequestHash(), requestHash);
+            boolean staleLock = record.isLocked()
+                    && record.getExpiresAt() != null
+                    && record.getExpiresAt().isBefore(now);
+            if (!reacquirable && !staleLock) {
+                return toAcquisition(record);
+            }
+            record.setRequestHash(requestHash);
+        }
+        record.setCustomer(entityManager.getReference(Customer.class, customerId));
+        record.setPaymentStatus(PaymentStatus.PROCESSING);
+        record.setLocked(true);
+        record.setLockToken(lockToken);
+        record.setExpiresAt(expiresAt);
+        if (record.getId() == null) {
+            entityManager.persist(record);
+        }
+        return toAcquisition(record);
+    }
+
+    private Acquisition toAcquisition(IdempotencyKey record) {
+        return new Acquisition(record.getId(), record.getRequestHash(), record.getResponse(),
+                record.getLockToken(), record.getCreatedAt());
+    }
+
+    private LocalDateTime toLocalDateTime(Object value) {
+        if (value instanceof Timestamp timestamp) {
+            return timestamp.toLocalDateTime();
+        }
+        return (LocalDateTime) value;
+    }
+
+    private boolean isPostgres() {
+        Boolean cached = postgres;
+        if (cached == null) {
+            cached = NativeSqlSupport.isPostgres(entityManager);
+            postgres = cached;
+        }
+        return cached;
+    }
+}
@@ -0,0 +1,38 @@
+package com.paybridge.Repositories;
+
+import jakarta.persistence.EntityManager;
+import org.hibernate.dialect.PostgreSQLDialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+
+/**
+ * Lets custom repositories use PostgreSQL-only statements with a portable fallback.
+ */
+final class NativeSqlSupport {
+
+    private NativeSqlSupport() {
+    }
+
+    static boolean isPostgres(EntityManager entityManager) {
+        return entityManager.getEntityManagerFactory()
+                .unwrap(SessionFactoryImplementor.class)
+                .getJdbcServices()
+                .getDialect() instanceof PostgreSQLDialect;
+    }
+
+    /**
+     * Next id from the entity's own generator, for native inserts into sequence-keyed tables.
+     * Taking it from Hibernate's pooled optimizer keeps native and ORM inserts on the same
+     * sequence ranges.
+     */
+    static Object nextId(EntityManager entityManager, Class<?> entityType) {
+        SharedSessionContractImplementor session = entityManager.unwrap(SharedSessionContractImplementor.class);
+        BeforeExecutionGenerator generator = (BeforeExecutionGenerator) session.getFactory()
+                .getMappingMetamodel()
+                .getEntityDescriptor(entityType)
+                .getGenerator();
+        return generator.generate(session, null, null, EventType.INSERT);
+    }
+}
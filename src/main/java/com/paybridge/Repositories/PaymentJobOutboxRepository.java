@@ -0,0 +1,35 @@
+package com.paybridge.Repositories;
+
+import com.paybridge.Models.Entities.PaymentJobOutbox;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+public interface PaymentJobOutboxRepository extends JpaRepository<PaymentJobOutbox, Long> {
+
+    /**
+     * Jobs last published before {@code cutoff}, oldest first; served by
+     * {@code idx_payment_job_outbox_last_published}.
+     */
+    @Query("SELECT o FROM PaymentJobOutbox o WHERE o.lastPublishedAt < :cutoff ORDER BY o.lastPublishedAt")
+    List<PaymentJobOutbox> findPublishedBefore(@Param("cutoff") LocalDateTime cutoff, Pageable page);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE PaymentJobOutbox o SET o.lastPublishedAt = :publishedAt WHERE o.id = :id")
+    int markPublished(@Param("id") Long id, @Param("publishedAt") LocalDateTime publishedAt);
+
+    /**
+     * Called from the transaction that moves the payment out of {@code PROCESSING}.
+     */
+    @Modifying
+    @Query("DELETE FROM PaymentJobOutbox o WHERE o.paymentId = :paymentId")
+    int deleteByPaymentId(@Param("paymentId") UUID paymentId);
+}
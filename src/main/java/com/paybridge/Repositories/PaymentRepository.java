@@ -1,18 +1,35 @@
 package com.paybridge.Repositories;
 
 import com.paybridge.Models.Entities.Payment;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
-public interface PaymentRepository extends JpaRepository<Payment, UUID> {
+public interface PaymentRepository extends JpaRepository<Payment, UUID>, PaymentRepositoryCustom {
     @EntityGraph(attributePaths = {"provider", "merchant"})
     Optional<Payment> findByProviderReferenceAndProvider_NameIgnoreCase(String providerReference, String providerName);
 
+    @EntityGraph(attributePaths = {"provider"})
+    Optional<Payment> findWithProviderById(UUID id);
+
+    @EntityGraph(attributePaths = {"provider"})
+    Optional<Payment> findFirstByMerchant_IdAndProviderReference(Long merchantId, String providerReference);
+
+    /**
+     * Serialises concurrent webhook events for the same payment.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT p FROM Payment p WHERE p.id = :id")
+    Optional<Payment> findForUpdateById(@Param("id") UUID id);
+
     @EntityGraph(attributePaths = {"provider"})
     List<Payment> findByMerchant_IdAndCreatedAtGreaterThanEqual(Long merchantId, LocalDateTime fromDate);
 }
@@ -0,0 +1,24 @@
+package com.paybridge.Repositories;
+
+import com.paybridge.Models.DTOs.PaymentSummaryResponse;
+import com.paybridge.Models.Enums.PaymentStatus;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+public interface PaymentRepositoryCustom {
+
+    /**
+     * Keyset page of a merchant's payments ordered by {@code (created_at, id)} descending.
+     * Rows strictly after the {@code (afterCreatedAt, afterId)} cursor are returned; pass nulls
+     * for the first page. Null filters are left out of the query altogether.
+     */
+    List<PaymentSummaryResponse> findPaymentPage(Long merchantId,
+                                                 PaymentStatus status,
+                                                 String providerName,
+                                                 String currency,
+                                                 LocalDateTime afterCreatedAt,
+                                                 UUID afterId,
+                                                 int limit);
+}
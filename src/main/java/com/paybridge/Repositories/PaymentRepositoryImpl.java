@@ -0,0 +1,69 @@
+package com.paybridge.Repositories;
+
+import com.paybridge.Models.DTOs.PaymentSummaryResponse;
+import com.paybridge.Models.Enums.PaymentStatus;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * The listing query is assembled per request so only the filters actually given appear in it;
+ * {@code (:x IS NULL OR ...)} predicates would leave PostgreSQL a generic plan that cannot
+ * seek on {@code idx_payments_merchant_keyset}.
+ */
+class PaymentRepositoryImpl implements PaymentRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<PaymentSummaryResponse> findPaymentPage(Long merchantId,
+                                                        PaymentStatus status,
+                                                        String providerName,
+                                                        String currency,
+                                                        LocalDateTime afterCreatedAt,
+                                                        UUID afterId,
+                                                        int limit) {
+        StringBuilder jpql = new StringBuilder(
+                "SELECT new com.paybridge.Models.DTOs.PaymentSummaryResponse(" +
+                "p.id, p.status, p.amount, p.currency, LOWER(pr.name), p.providerReference, p.createdAt) " +
+                "FROM Payment p JOIN p.provider pr " +
+                "WHERE p.merchant.id = :merchantId");
+        if (status != null) {
+            jpql.append(" AND p.status = :status");
+        }
+        if (providerName != null) {
+            jpql.append(" AND LOWER(pr.name) = :providerName");
+        }
+        if (currency != null) {
+            jpql.append(" AND p.currency = :currency");
+        }
+        if (afterCreatedAt != null) {
+            jpql.append(" AND (p.createdAt < :afterCreatedAt OR (p.createdAt = :afterCreatedAt AND p.id < :afterId))");
+        }
+        jpql.append(" ORDER BY p.createdAt DESC, p.id DESC");
+
+        TypedQuery<PaymentSummaryResponse> query = entityManager
+                .createQuery(jpql.toString(), PaymentSummaryResponse.class)
+                .setParameter("merchantId", merchantId)
+                .setMaxResults(limit);
+        if (status != null) {
+            query.setParameter("status", status);
+        }
+        if (providerName != null) {
+            query.setParameter("providerName", providerName);
+        }
+        if (currency != null) {
+            query.setParameter("currency", currency);
+        }
+        if (afterCreatedAt != null) {
+            query.setParameter("afterCreatedAt", afterCreatedAt);
+            query.setParameter("afterId", afterId);
+        }
+        return query.getResultList();
+    }
+}
@@ -0,0 +1,10 @@
+package com.paybridge.Repositories;
+
+public interface ProcessedWebhookEventRepositoryCustom {
+
+    /**
+     * Records {@code (provider, eventId)} as processed in one statement. Returns {@code true} when
+     * this call inserted the row and {@code false} when the event was already recorded.
+     */
+    boolean insertIfAbsent(String provider, String eventId);
+}
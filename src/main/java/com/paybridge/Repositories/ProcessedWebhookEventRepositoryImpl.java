@@ -0,0 +1,60 @@
+package com.paybridge.Repositories;
+
+import com.paybridge.Models.Entities.ProcessedWebhookEvent;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+/**
+ * On PostgreSQL the insert is one {@code INSERT ... ON CONFLICT DO NOTHING} against
+ * {@code uk_processed_webhook_provider_event}: a duplicate costs a single round trip and a
+ * concurrent delivery of the same event waits on the first one's row instead of failing the
+ * transaction on the unique constraint. Other databases (H2 in tests) fall back to
+ * check-then-insert.
+ */
+class ProcessedWebhookEventRepositoryImpl implements ProcessedWebhookEventRepositoryCustom {
+
+    private static final String INSERT_SQL = """
+            INSERT INTO processed_webhook_events (provider, event_id, created_at)
+            VALUES (:provider, :eventId, CURRENT_TIMESTAMP)
+            ON CONFLICT (provider, event_id) DO NOTHING
+            """;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private volatile Boolean postgres;
+
+    @Override
+    public boolean insertIfAbsent(String provider, String eventId) {
+        if (isPostgres()) {
+            return entityManager.createNativeQuery(INSERT_SQL)
+                    .setParameter("provider", provider)
+                    .setParameter("eventId", eventId)
+                    .executeUpdate() == 1;
+        }
+
+        Long existing = entityManager.createQuery(
+                        "SELECT COUNT(e) FROM ProcessedWebhookEvent e WHERE e.provider = :provider AND e.eventId = :eventId",
+                        Long.class)
+                .setParameter("provider", provider)
+                .setParameter("eventId", eventId)
+                .getSingleResult();
+        if (existing > 0) {
+            return false;
+        }
+        ProcessedWebhookEvent event = new ProcessedWebhookEvent();
+        event.setProvider(provider);
+        event.setEventId(eventId);
+        entityManager.persist(event);
+        return true;
+    }
+
+    private boolean isPostgres() {
+        Boolean cached = postgres;
+        if (cached == null) {
+            cached = NativeSqlSupport.isPostgres(entityManager);
+            postgres = cached;
+        }
+        return cached;
+    }
+}
@@ -0,0 +1,76 @@
+package com.paybridge.Repositories;
+
+import com.paybridge.Models.Entities.WebhookInboxEvent;
+import com.paybridge.Models.Enums.WebhookInboxStatus;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+public interface WebhookInboxRepository extends JpaRepository<WebhookInboxEvent, Long> {
+
+    boolean existsByProviderAndEventId(String provider, String eventId);
+
+    /**
+     * Pending events that are due, oldest first; served by {@code idx_webhook_inbox_status_next_attempt}.
+     */
+    @Query("SELECT e FROM WebhookInboxEvent e WHERE e.status = com.paybridge.Models.Enums.WebhookInboxStatus.PENDING "
+            + "AND e.nextAttemptAt <= :now ORDER BY e.nextAttemptAt")
+    List<WebhookInboxEvent> findDue(@Param("now") LocalDateTime now, Pageable page);
+
+    /**
+     * Locks one event for processing; an event already locked by another worker is skipped
+     * (empty result) rather than waited for.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT e FROM WebhookInboxEvent e WHERE e.id = :id")
+    Optional<WebhookInboxEvent> findForProcessing(@Param("id") Long id);
+
+    /**
+     * Records a failed attempt in a transaction of its own, so it survives the rollback of the
+     * attempt, and returns the event's attempt count after it (0 if the event is gone or no longer
+     * {@code PENDING}, e.g. applied or failed by another worker meanwhile). Whether
+     * {@code maxAttempts} is reached is decided by the UPDATE from the row's own counter, so two
+     * workers failing the same event cannot both see a stale count and keep it pending.
+     */
+    @Transactional
+    default int recordFailure(Long id, String error, LocalDateTime retryAt, int maxAttempts) {
+        if (incrementAttempts(id, error, retryAt, maxAttempts) == 0) {
+            return 0;
+        }
+        return findAttempts(id);
+    }
+
+    @Modifying
+    @Query("UPDATE WebhookInboxEvent e SET e.attempts = e.attempts + 1, e.lastError = :error, e.nextAttemptAt = :retryAt, "
+            + "e.status = CASE WHEN e.attempts + 1 >= :maxAttempts THEN com.paybridge.Models.Enums.WebhookInboxStatus.FAILED "
+            + "ELSE com.paybridge.Models.Enums.WebhookInboxStatus.PENDING END "
+            + "WHERE e.id = :id AND e.status = com.paybridge.Models.Enums.WebhookInboxStatus.PENDING")
+    int incrementAttempts(@Param("id") Long id,
+                          @Param("error") String error,
+                          @Param("retryAt") LocalDateTime retryAt,
+                          @Param("maxAttempts") int maxAttempts);
+
+    @Query("SELECT e.attempts FROM WebhookInboxEvent e WHERE e.id = :id")
+    int findAttempts(@Param("id") Long id);
+
+    long countByStatus(WebhookInboxStatus status);
+
+    @Query("SELECT MIN(e.receivedAt) FROM WebhookInboxEvent e WHERE e.status = :status")
+    Optional<LocalDateTime> findOldestReceivedAt(@Param("status") WebhookInboxStatus status);
+
+    @Query("SELECT e.id FROM WebhookInboxEvent e WHERE e.status = com.paybridge.Models.Enums.WebhookInboxStatus.PROCESSED "
+            + "AND e.processedAt < :cutoff")
+    List<Long> findProcessedIdsBefore(@Param("cutoff") LocalDateTime cutoff, Pageable page);
+}
@@ -0,0 +1,61 @@
+package com.paybridge.Security;
+
+import com.paybridge.Exceptions.EncryptionException;
+
+import javax.crypto.Cipher;
+import javax.crypto.KeyGenerator;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+import java.nio.ByteBuffer;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+
+/**
+ * AES-GCM envelope for secrets held in process memory (e.g. cached provider credentials).
+ *
+ * <p>The key is generated per instance and never leaves the JVM, so a heap dump or a cache
+ * entry accidentally logged exposes only ciphertext. This is not a substitute for Vault —
+ * it only keeps plaintext secrets from sitting in long-lived cache structures.
+ */
+public class InMemorySecretCipher {
+
+    private static final String TRANSFORMATION = "AES/GCM/NoPadding";
+    private static final int IV_LENGTH = 12;
+    private static final int TAG_LENGTH_BITS = 128;
+
+    private final SecretKey key;
+    private final SecureRandom random = new SecureRandom();
+
+    public InMemorySecretCipher() {
+        try {
+            KeyGenerator generator = KeyGenerator.getInstance("AES");
+            generator.init(256, random);
+            this.key = generator.generateKey();
+        } catch (GeneralSecurityException e) {
+            throw new EncryptionException("Failed to initialise in-memory secret key", e);
+        }
+    }
+
+    public byte[] seal(byte[] plaintext) {
+        byte[] iv = new byte[IV_LENGTH];
+        random.nextBytes(iv);
+        try {
+            Cipher cipher = Cipher.getInstance(TRANSFORMATION);
+            cipher.init(Cipher.ENCRYPT_MODE, key, new GCMParameterSpec(TAG_LENGTH_BITS, iv));
+            byte[] ciphertext = cipher.doFinal(plaintext);
+            return ByteBuffer.allocate(IV_LENGTH + ciphertext.length).put(iv).put(ciphertext).array();
+        } catch (GeneralSecurityException e) {
+            throw new EncryptionException("Failed to encrypt cached secret", e);
+        }
+    }
+
+    public byte[] open(byte[] sealed) {
+        try {
+            Cipher cipher = Cipher.getInstance(TRANSFORMATION);
+            cipher.init(Cipher.DECRYPT_MODE, key, new GCMParameterSpec(TAG_LENGTH_BITS, sealed, 0, IV_LENGTH));
+            return cipher.doFinal(sealed, IV_LENGTH, sealed.length - IV_LENGTH);
+        } catch (GeneralSecurityException e) {
+            throw new EncryptionException("Failed to decrypt cached secret", e);
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.paybridge.Security;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Stable, non-reversible identifier for a secret (API key, webhook secret) so caches can be
+ * keyed on credentials without holding the raw secret as a map key or writing it to logs.
+ */
+public final class SecretFingerprint {
+
+    private SecretFingerprint() {
+    }
+
+    public static String of(String secret) {
+        if (secret == null) {
+            throw new IllegalArgumentException("secret is required");
+        }
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(secret.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -11,6 +11,8 @@ public class SecurityConstants {
             "/api/v1/auth/forgot-password",
             "/api/v1/auth/reset-password",
             "/api/v1/webhooks/stripe",
-            "/api/v1/webhooks/paystack"
+            "/api/v1/webhooks/paystack",
+            "/api/v1/webhooks/stripe/*",
+            "/api/v1/webhooks/paystack/*"
     };
 }
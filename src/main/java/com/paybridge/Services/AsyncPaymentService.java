@@ -0,0 +1,140 @@
+package com.paybridge.Services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.paybridge.Exceptions.PaymentCapacityExceededException;
+import com.paybridge.Models.DTOs.CreatePaymentRequest;
+import com.paybridge.Models.DTOs.PaymentJobMessage;
+import com.paybridge.Models.DTOs.PaymentResponse;
+import com.paybridge.Models.Entities.Merchant;
+import com.paybridge.Services.MerchantRoutingSnapshot.RoutedProvider;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+/**
+ * Accepts payments without waiting for the provider.
+ *
+ * <pre>
+ * Phase 1 [short TX]  — idempotency + customer + PROCESSING payment row   (this class)
+ * publish             — PaymentJobMessage to the payments queue            (this class)
+ * Phase 2 + 3         — provider call and finalize                         ({@link PaymentJobWorker})
+ * </pre>
+ *
+ * The caller gets the payment id straight away and learns the outcome by polling
+ * {@code GET /api/v1/payments/{id}} or through the callback URL.
+ *
+ * The job is also written to the outbox in Phase 1, so one that is never published (a crash
+ * after the commit) or never delivered is published again by {@link PaymentJobOutboxRelay}.
+ */
+@Service
+@ConditionalOnProperty(name = "payments.async.enabled", havingValue = "true")
+public class AsyncPaymentService {
+
+    private static final Logger log = LoggerFactory.getLogger(AsyncPaymentService.class);
+
+    private final MerchantRoutingCache merchantRoutingCache;
+    private final ProviderRouter providerRouter;
+    private final PaymentTransactionHelper transactionHelper;
+    private final PaymentConcurrencyLimiter concurrencyLimiter;
+    private final CanonicalRequestHasher requestHasher;
+    private final IdempotencyFastTier idempotencyFastTier;
+    private final RabbitTemplate rabbitTemplate;
+    private final ObjectMapper objectMapper;
+    private final String queueName;
+
+    public AsyncPaymentService(MerchantRoutingCache merchantRoutingCache,
+                               ProviderRouter providerRouter,
+                               PaymentTransactionHelper transactionHelper,
+                               PaymentConcurrencyLimiter concurrencyLimiter,
+                               CanonicalRequestHasher requestHasher,
+                               IdempotencyFastTier idempotencyFastTier,
+                               RabbitTemplate rabbitTemplate,
+                               ObjectMapper objectMapper,
+                               @Value("${payments.async.queue:paybridge.payments.create}") String queueName) {
+        this.merchantRoutingCache = merchantRoutingCache;
+        this.providerRouter = providerRouter;
+        this.transactionHelper = transactionHelper;
+        this.concurrencyLimiter = concurrencyLimiter;
+        this.requestHasher = requestHasher;
+        this.idempotencyFastTier = idempotencyFastTier;
+        this.rabbitTemplate = rabbitTemplate;
+        this.objectMapper = objectMapper;
+        this.queueName = queueName;
+    }
+
+    public PaymentResponse acceptPayment(CreatePaymentRequest paymentRequest,
+                                         Merchant merchant,
+                                         String idempotencyKey) {
+        if (merchant == null) {
+            throw new IllegalArgumentException("Authenticated merchant not found");
+        }
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            throw new IllegalArgumentException("Idempotency-Key is required");
+        }
+        if (paymentRequest.getWebhookUrl() != null && !paymentRequest.getWebhookUrl().isBlank()) {
+            CallbackUrlPolicy.requireAllowed(paymentRequest.getWebhookUrl());
+        }
+
+        String requestHash = requestHasher.hash(paymentRequest);
+
+        // Replays are served from the database record, whose response moves from
+        // "accepted" to final as the worker completes; only the lease is used here.
+        IdempotencyFastTier.Lease lease =
+                idempotencyFastTier.acquire(merchant.getId(), idempotencyKey, requestHash);
+        if (lease.hasReplay()) {
+            return deserializeResponse(lease.getReplay());
+        }
+
+        try {
+            // Routing is resolved up front so misconfiguration fails the request, not the job.
+            // The job is pinned to the best-ranked provider at acceptance time.
+            RoutedProvider routedProvider = providerRouter
+                    .rank(merchantRoutingCache.snapshotFor(merchant.getId()), paymentRequest).get(0);
+
+            String callbackUrl = resolveCallbackUrl(paymentRequest, merchant);
+
+            PreparePaymentResult preparation = concurrencyLimiter.withTransactionPermit(() ->
+                    transactionHelper.acceptAsyncPayment(merchant, paymentRequest, idempotencyKey,
+                            requestHash, routedProvider.providerId(), routedProvider.name(), callbackUrl));
+            if (preparation.hasCachedResponse()) {
+                return deserializeResponse(preparation.getCachedResponse());
+            }
+
+            PaymentResponse accepted = deserializeResponse(preparation.getIdempotencyRecord().getResponse());
+            publish(new PaymentJobMessage(accepted.getId(), merchant.getId(), idempotencyKey,
+                    routedProvider.name(), callbackUrl, paymentRequest));
+            return accepted;
+        } finally {
+            idempotencyFastTier.release(lease);
+        }
+    }
+
+    private void publish(PaymentJobMessage job) {
+        try {
+            rabbitTemplate.convertAndSend(queueName, job);
+        } catch (AmqpException ex) {
+            log.error("Failed to enqueue payment {}", job.getPaymentId(), ex);
+            transactionHelper.failAsyncPayment(job.getPaymentId(), job.getIdempotencyKey());
+            throw new PaymentCapacityExceededException("Payment queue unavailable, please retry");
+        }
+    }
+
+    private String resolveCallbackUrl(CreatePaymentRequest paymentRequest, Merchant merchant) {
+        if (paymentRequest.getWebhookUrl() != null && !paymentRequest.getWebhookUrl().isBlank()) {
+            return paymentRequest.getWebhookUrl();
+        }
+        return merchant.getWebhookUrl();
+    }
+
+    private PaymentResponse deserializeResponse(String json) {
+        try {
+            return objectMapper.readValue(json, PaymentResponse.class);
+        } catch (Exception ex) {
+            throw new RuntimeException("Failed to read cached idempotent response", ex);
+        }
+    }
+}
@@ -0,0 +1,218 @@
+package com.paybridge.Services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.paybridge.Models.DTOs.BatchPaymentItem;
+import com.paybridge.Models.DTOs.BatchPaymentItemResult;
+import com.paybridge.Models.DTOs.BatchPaymentResponse;
+import com.paybridge.Models.DTOs.PaymentResponse;
+import com.paybridge.Models.Entities.IdempotencyKey;
+import com.paybridge.Models.Entities.Merchant;
+import com.paybridge.Services.MerchantRoutingSnapshot.RoutedProvider;
+import com.paybridge.Services.PaymentTransactionHelper.BatchCompletion;
+import com.paybridge.Services.ProviderRouter.RoutedPayment;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+/**
+ * Creates many payments from one request using the same three phases as
+ * {@link PaymentService}, but with one transaction per phase for the whole batch:
+ *
+ * <pre>
+ * Phase 1 [one TX]    — idempotency + customer for every entry
+ * Phase 2 [no TX]     — provider calls ({@link ProviderRouter}) fanned out on paymentBatchExecutor
+ * Phase 3 [one TX]    — every payment inserted, every idempotency record settled
+ * </pre>
+ *
+ * Entries succeed or fail independently; the response carries one result per entry in request
+ * order. The Redis fast tier is not consulted — the database records are authoritative and a
+ * lease per entry would cost a round trip each.
+ */
+@Service
+public class BatchPaymentService {
+
+    private static final Logger log = LoggerFactory.getLogger(BatchPaymentService.class);
+
+    private final MerchantRoutingCache merchantRoutingCache;
+    private final ProviderRouter providerRouter;
+    private final ObjectMapper objectMapper;
+    private final PaymentTransactionHelper transactionHelper;
+    private final PaymentConcurrencyLimiter concurrencyLimiter;
+    private final CanonicalRequestHasher requestHasher;
+    private final Executor batchExecutor;
+    private final int maxItems;
+
+    public BatchPaymentService(MerchantRoutingCache merchantRoutingCache,
+                               ProviderRouter providerRouter,
+                               ObjectMapper objectMapper,
+                               PaymentTransactionHelper transactionHelper,
+                               PaymentConcurrencyLimiter concurrencyLimiter,
+                               CanonicalRequestHasher requestHasher,
+                               @Qualifier("paymentBatchExecutor") Executor batchExecutor,
+                               @Value("${payments.batch.max-items:500}") int maxItems) {
+        this.merchantRoutingCache = merchantRoutingCache;
+        this.providerRouter = providerRouter;
+        this.objectMapper = objectMapper;
+        this.transactionHelper = transactionHelper;
+        this.concurrencyLimiter = concurrencyLimiter;
+        this.requestHasher = requestHasher;
+        this.batchExecutor = batchExecutor;
+        this.maxItems = maxItems;
+    }
+
+    public BatchPaymentResponse createPayments(List<BatchPaymentItem> items, Merchant merchant) {
+        if (merchant == null) {
+            throw new IllegalArgumentException("Authenticated merchant not found");
+        }
+        if (items == null || items.isEmpty()) {
+            throw new IllegalArgumentException("At least one payment is required");
+        }
+        if (items.size() > maxItems) {
+            throw new IllegalArgumentException("A batch may contain at most " + maxItems + " payments");
+        }
+
+        BatchPaymentItemResult[] results = new BatchPaymentItemResult[items.size()];
+
+        // Duplicate keys inside one batch would contend for the same record.
+        List<Integer> accepted = new ArrayList<>(items.size());
+        Set<String> seenKeys = new HashSet<>();
+        for (int i = 0; i < items.size(); i++) {
+            String key = items.get(i).getIdempotencyKey();
+            if (seenKeys.add(key)) {
+                accepted.add(i);
+            } else {
+                results[i] = BatchPaymentItemResult.error(key, "Duplicate idempotency key in batch");
+            }
+        }
+
+        // ── Phase 1: one short transaction for the batch ──────────────────────
+        // Keys are claimed in sorted order, so two batches sharing keys lock them in the same
+        // order and wait for each other instead of deadlocking.
+        accepted.sort(Comparator.comparing(i -> items.get(i).getIdempotencyKey()));
+        List<BatchPaymentItem> acceptedItems = accepted.stream().map(items::get).toList();
+        List<String> requestHashes = acceptedItems.stream()
+                .map(item -> requestHasher.hash(item.getPayment()))
+                .toList();
+        List<PreparePaymentResult> preparations = concurrencyLimiter.withTransactionPermit(() ->
+                transactionHelper.prepareBatch(merchant, acceptedItems, requestHashes));
+
+        List<Integer> pending = new ArrayList<>();
+        for (int j = 0; j < accepted.size(); j++) {
+            int index = accepted.get(j);
+            PreparePaymentResult preparation = preparations.get(j);
+            String key = items.get(index).getIdempotencyKey();
+            if (preparation.isRejected()) {
+                results[index] = BatchPaymentItemResult.error(key, preparation.getRejection());
+            } else if (preparation.hasCachedResponse()) {
+                results[index] = BatchPaymentItemResult.success(key, deserializeResponse(preparation.getCachedResponse()));
+            } else {
+                pending.add(j);
+            }
+        }
+
+        if (!pending.isEmpty()) {
+            runProviderCalls(merchant, items, accepted, preparations, pending, results);
+        }
+        return new BatchPaymentResponse(List.of(results));
+    }
+
+    private void runProviderCalls(Merchant merchant,
+                                  List<BatchPaymentItem> items,
+                                  List<Integer> accepted,
+                                  List<PreparePaymentResult> preparations,
+                                  List<Integer> pending,
+                                  BatchPaymentItemResult[] results) {
+        // ── Phase 2: parallel provider calls, no transaction ──────────────────
+        MerchantRoutingSnapshot snapshot = merchantRoutingCache.snapshotFor(merchant.getId());
+
+        List<CompletableFuture<ProviderOutcome>> calls = new ArrayList<>(pending.size());
+        for (int j : pending) {
+            BatchPaymentItem item = items.get(accepted.get(j));
+            IdempotencyKey record = preparations.get(j).getIdempotencyRecord();
+            calls.add(CompletableFuture
+                    .supplyAsync(() -> callProvider(snapshot, item, record), batchExecutor)
+                    .exceptionally(ex -> ProviderOutcome.failed(record, unwrap(ex))));
+        }
+
+        List<ProviderOutcome> outcomes = calls.stream().map(CompletableFuture::join).toList();
+        List<BatchCompletion> completions = new ArrayList<>();
+        List<IdempotencyKey> failedRecords = new ArrayList<>();
+        for (ProviderOutcome outcome : outcomes) {
+            if (outcome.completion() != null) {
+                completions.add(outcome.completion());
+            } else {
+                failedRecords.add(outcome.record());
+            }
+        }
+
+        // ── Phase 3: one short transaction for the batch ──────────────────────
+        // Waits for a permit without a timeout: the provider has created the completed entries.
+        // If the write fails only the entries the provider rejected are released; the others
+        // stay locked so a retry cannot open a second provider session, and are taken over by
+        // the next request with their key once expires_at passes.
+        List<PaymentResponse> responses;
+        try {
+            responses = concurrencyLimiter.withFinalizePermit(() ->
+                    transactionHelper.finalizeBatch(merchant, completions, failedRecords));
+        } catch (RuntimeException ex) {
+            transactionHelper.failIdempotencyRecords(failedRecords);
+            throw ex;
+        }
+
+        int completed = 0;
+        for (int p = 0; p < pending.size(); p++) {
+            int index = accepted.get(pending.get(p));
+            String key = items.get(index).getIdempotencyKey();
+            ProviderOutcome outcome = outcomes.get(p);
+            results[index] = outcome.completion() != null
+                    ? BatchPaymentItemResult.success(key, responses.get(completed++))
+                    : BatchPaymentItemResult.error(key, outcome.error().getMessage());
+        }
+    }
+
+    private ProviderOutcome callProvider(MerchantRoutingSnapshot snapshot,
+                                         BatchPaymentItem item,
+                                         IdempotencyKey record) {
+        RoutedPayment routedPayment = providerRouter.createPayment(snapshot, item.getPayment(),
+                item.getIdempotencyKey());
+        RoutedProvider routedProvider = routedPayment.provider();
+        return ProviderOutcome.completed(record, new BatchCompletion(routedProvider.providerId(),
+                routedProvider.name(), routedPayment.response(), record, item.getPayment()));
+    }
+
+    private Throwable unwrap(Throwable ex) {
+        Throwable cause = ex instanceof CompletionException && ex.getCause() != null ? ex.getCause() : ex;
+        log.warn("Batch payment entry failed: {}", cause.getMessage());
+        return cause;
+    }
+
+    private PaymentResponse deserializeResponse(String json) {
+        try {
+            return objectMapper.readValue(json, PaymentResponse.class);
+        } catch (Exception ex) {
+            throw new RuntimeException("Failed to read cached idempotent response", ex);
+        }
+    }
+
+    private record ProviderOutcome(IdempotencyKey record, BatchCompletion completion, Throwable error) {
+
+        static ProviderOutcome completed(IdempotencyKey record, BatchCompletion completion) {
+            return new ProviderOutcome(record, completion, null);
+        }
+
+        static ProviderOutcome failed(IdempotencyKey record, Throwable error) {
+            return new ProviderOutcome(record, null, error);
+        }
+    }
+}
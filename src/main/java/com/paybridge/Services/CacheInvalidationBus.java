@@ -0,0 +1,73 @@
+package com.paybridge.Services;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Fans out cache invalidations to the other application nodes over Redis pub/sub.
+ *
+ * <p>Caches invalidate their own entries synchronously and then {@link #publish} the key; every
+ * other node receives it through the listener registered in {@code RedisConfig} and runs the
+ * handlers {@link #subscribe subscribed} for that topic. Messages from this node are ignored.
+ * Delivery is best-effort — a missed message is bounded by the cache's own TTL.
+ */
+@Component
+public class CacheInvalidationBus {
+
+    public static final String CHANNEL = "paybridge:cache-invalidation";
+    private static final Logger logger = LoggerFactory.getLogger(CacheInvalidationBus.class);
+    private static final String SEPARATOR = "|";
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final boolean redisEnabled;
+    private final String nodeId = UUID.randomUUID().toString();
+    private final Map<String, List<Consumer<String>>> handlers = new ConcurrentHashMap<>();
+
+    public CacheInvalidationBus(StringRedisTemplate stringRedisTemplate,
+                                @Value("${cache.invalidation.redis.enabled:true}") boolean redisEnabled) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.redisEnabled = redisEnabled;
+    }
+
+    public void subscribe(String topic, Consumer<String> handler) {
+        handlers.computeIfAbsent(topic, t -> new CopyOnWriteArrayList<>()).add(handler);
+    }
+
+    public void publish(String topic, String key) {
+        if (!redisEnabled) {
+            return;
+        }
+        try {
+            stringRedisTemplate.convertAndSend(CHANNEL, nodeId + SEPARATOR + topic + SEPARATOR + key);
+        } catch (Exception ex) {
+            logger.warn("Failed to broadcast cache invalidation topic={} key={}: {}", topic, key, ex.getMessage());
+        }
+    }
+
+    /**
+     * Entry point for messages received from the Redis channel.
+     */
+    public void onMessage(String message) {
+        String[] parts = message.split("\\|", 3);
+        if (parts.length != 3 || nodeId.equals(parts[0])) {
+            return;
+        }
+        for (Consumer<String> handler : handlers.getOrDefault(parts[1], List.of())) {
+            try {
+                handler.accept(parts[2]);
+            } catch (Exception ex) {
+                logger.warn("Cache invalidation handler failed topic={} key={}", parts[1], parts[2], ex);
+            }
+        }
+    }
+}
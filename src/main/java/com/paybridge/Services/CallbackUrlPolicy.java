@@ -0,0 +1,72 @@
+package com.paybridge.Services;
+
+import java.net.InetAddress;
+import java.net.URI;
+import java.net.UnknownHostException;
+
+/**
+ * Which URLs PayBridge will POST payment callbacks to. A callback URL can come from the API
+ * request body, so it is untrusted: only {@code https} URLs whose host resolves exclusively to
+ * public addresses are allowed, so a caller cannot point the server at loopback, private,
+ * link-local (cloud metadata) or carrier-grade NAT ranges.
+ *
+ * <p>The check runs when a payment is accepted and again before each callback, and the callback
+ * HTTP client resolves hosts through {@link #publicAddresses}, so a name re-pointed in between
+ * (DNS rebinding) is still refused.
+ */
+public final class CallbackUrlPolicy {
+
+    private CallbackUrlPolicy() {
+    }
+
+    /**
+     * @throws IllegalArgumentException if {@code url} may not receive callbacks
+     */
+    public static void requireAllowed(String url) {
+        URI uri;
+        try {
+            uri = URI.create(url.trim());
+        } catch (IllegalArgumentException ex) {
+            throw new IllegalArgumentException("webhookUrl must be an absolute https URL");
+        }
+        if (!"https".equalsIgnoreCase(uri.getScheme()) || uri.getHost() == null || uri.getRawUserInfo() != null) {
+            throw new IllegalArgumentException("webhookUrl must be an absolute https URL");
+        }
+        try {
+            publicAddresses(uri.getHost());
+        } catch (UnknownHostException ex) {
+            throw new IllegalArgumentException("webhookUrl must resolve to a public address");
+        }
+    }
+
+    /**
+     * Resolves {@code host}, failing unless every address it resolves to is public.
+     */
+    public static InetAddress[] publicAddresses(String host) throws UnknownHostException {
+        String bareHost = host.startsWith("[") && host.endsWith("]") ? host.substring(1, host.length() - 1) : host;
+        InetAddress[] addresses = InetAddress.getAllByName(bareHost);
+        for (InetAddress address : addresses) {
+            if (!isPublic(address)) {
+                throw new UnknownHostException(host + " resolves to a non-public address");
+            }
+        }
+        return addresses;
+    }
+
+    static boolean isPublic(InetAddress address) {
+        if (address.isAnyLocalAddress() || address.isLoopbackAddress() || address.isLinkLocalAddress()
+                || address.isSiteLocalAddress() || address.isMulticastAddress()) {
+            return false;
+        }
+        byte[] bytes = address.getAddress();
+        int first = bytes[0] & 0xff;
+        if (bytes.length == 4) {
+            int second = bytes[1] & 0xff;
+            return first != 0
+                    && !(first == 100 && (second & 0xc0) == 64)   // 100.64.0.0/10, carrier-grade NAT
+                    && !(first == 198 && (second & 0xfe) == 18)   // 198.18.0.0/15, benchmarking
+                    && first < 240;                               // 240.0.0.0/4, reserved
+        }
+        return (first & 0xfe) != 0xfc;                            // fc00::/7, unique local
+    }
+}
@@ -9,4 +9,12 @@ public interface CredentialStorageService {
     boolean providerConfigExists(String providerName, Long merchantId);
     void updateProviderConfigProperty(String providerName, Long merchantId, String fieldName, Object fieldValue);
 
+    /**
+     * One string field of the provider config with its fingerprint, or {@code null} when the
+     * field is missing or blank. Caching implementations fingerprint once per load.
+     */
+    default ProviderSecret getProviderSecret(String providerName, Long merchantId, String fieldName) {
+        Object value = getProviderConfig(providerName, merchantId).get(fieldName);
+        return value instanceof String secret && !secret.isBlank() ? ProviderSecret.of(secret) : null;
+    }
 }
@@ -0,0 +1,136 @@
+package com.paybridge.Services;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.paybridge.Models.DTOs.CreatePaymentRequest;
+import com.paybridge.Models.Entities.Customer;
+import com.paybridge.Models.Entities.Merchant;
+import com.paybridge.Repositories.CustomerRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.GuavaCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Maps a payment request to its merchant's customer row, keyed by a stable customer key:
+ * the merchant's {@code customerReference} when given, otherwise the normalised e-mail.
+ * Requests carrying neither get a customer of their own.
+ *
+ * <p>Known customers are remembered together with the details last written, so a repeat
+ * customer whose name, e-mail and phone are unchanged costs no database write at all. Entries
+ * are only added once the writing transaction has committed, so a rolled-back insert is never
+ * handed out.
+ */
+@Component
+class CustomerResolver {
+
+    private final CustomerRepository customerRepository;
+    private final Cache<String, KnownCustomer> knownCustomers;
+
+    CustomerResolver(CustomerRepository customerRepository,
+                     MeterRegistry meterRegistry,
+                     @Value("${payments.customer-cache.max-size:50000}") long maxSize,
+                     @Value("${payments.customer-cache.ttl-seconds:3600}") long ttlSeconds) {
+        this.customerRepository = customerRepository;
+        this.knownCustomers = CacheBuilder.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterAccess(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        GuavaCacheMetrics.monitor(meterRegistry, knownCustomers, "payment.customers");
+    }
+
+    /**
+     * Must run inside the transaction that references the returned customer.
+     */
+    Customer resolve(Merchant merchant, CreatePaymentRequest request) {
+        String customerKey = customerKey(request);
+        String cacheKey = merchant.getId() + ":" + customerKey;
+
+        KnownCustomer known = knownCustomers.getIfPresent(cacheKey);
+        if (known != null && known.covers(request)) {
+            return customerRepository.getReferenceById(known.id());
+        }
+
+        int id = customerRepository.upsertCustomer(
+                merchant.getId(),
+                customerKey,
+                externalCustomerId(request),
+                request.getCustomerName(),
+                request.getEmail(),
+                request.getCustomerPhone());
+
+        if (!customerKey.startsWith("anon:")) {
+            KnownCustomer written = KnownCustomer.merge(id, known, request);
+            if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        knownCustomers.put(cacheKey, written);
+                    }
+                });
+            } else {
+                knownCustomers.put(cacheKey, written);
+            }
+        }
+        return customerRepository.getReferenceById(id);
+    }
+
+    static String customerKey(CreatePaymentRequest request) {
+        String reference = request.getCustomerReference();
+        if (reference != null && !reference.isBlank()) {
+            return "ref:" + reference.trim();
+        }
+        if (request.getEmail() != null && !request.getEmail().isBlank()) {
+            return "email:" + request.getEmail().trim().toLowerCase(Locale.ROOT);
+        }
+        return "anon:" + UUID.randomUUID();
+    }
+
+    private static int externalCustomerId(CreatePaymentRequest request) {
+        String referenceSeed = request.getCustomerReference();
+        if (referenceSeed == null || referenceSeed.isBlank()) {
+            referenceSeed = request.getEmail() != null
+                    ? request.getEmail()
+                    : UUID.randomUUID().toString();
+        }
+
+        int externalId = Math.abs(referenceSeed.hashCode());
+        return externalId == 0 ? 1 : externalId;
+    }
+
+    /**
+     * Details as last written; a null field means it was never supplied.
+     */
+    private record KnownCustomer(int id, String fullName, String email, String phone) {
+
+        /** True when writing {@code request} would not change the stored row. */
+        boolean covers(CreatePaymentRequest request) {
+            return unchanged(request.getCustomerName(), fullName)
+                    && unchanged(request.getEmail(), email)
+                    && unchanged(request.getCustomerPhone(), phone);
+        }
+
+        static KnownCustomer merge(int id, KnownCustomer previous, CreatePaymentRequest request) {
+            return new KnownCustomer(id,
+                    coalesce(request.getCustomerName(), previous != null ? previous.fullName() : null),
+                    coalesce(request.getEmail(), previous != null ? previous.email() : null),
+                    coalesce(request.getCustomerPhone(), previous != null ? previous.phone() : null));
+        }
+
+        private static boolean unchanged(String incoming, String stored) {
+            return incoming == null || Objects.equals(incoming, stored);
+        }
+
+        private static String coalesce(String incoming, String stored) {
+            return incoming != null ? incoming : stored;
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package com.paybridge.Services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Redis tier in front of the {@code idempotency_keys} table.
+ *
+ * <ul>
+ *   <li>{@code idem:{merchant}:{key}:lock} — {@code SET NX PX} lease held while a payment is in
+ *       flight; a concurrent duplicate is rejected without touching the database</li>
+ *   <li>{@code idem:{merchant}:{key}:response} — the final response, so replays are answered
+ *       straight from Redis</li>
+ * </ul>
+ *
+ * The table stays the durable source of truth: callers still run Phase 1 against it once a
+ * lease is granted. Any Redis error yields a {@link Lease#bypass() bypass} lease and the
+ * request falls back to the database-only path.
+ */
+@Component
+public class IdempotencyFastTier {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyFastTier.class);
+    private static final RedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end",
+            Long.class);
+    private static final char SEPARATOR = '\n';
+    private static final List<String> OUTCOMES = List.of("replay", "acquired", "in_progress", "bypass");
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final boolean enabled;
+    private final Duration leaseDuration;
+    private final Duration responseTtl;
+    private final Map<String, Counter> outcomeCounters;
+
+    public IdempotencyFastTier(StringRedisTemplate stringRedisTemplate,
+                               @Value("${payments.idempotency.redis.enabled:true}") boolean enabled,
+                               @Value("${payments.idempotency.redis.lease-ms:30000}") long leaseMs,
+                               @Value("${payments.idempotency.redis.response-ttl-hours:24}") long responseTtlHours,
+                               MeterRegistry meterRegistry) {
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.enabled = enabled;
+        this.leaseDuration = Duration.ofMillis(leaseMs);
+        this.responseTtl = Duration.ofHours(responseTtlHours);
+        this.outcomeCounters = OUTCOMES.stream().collect(Collectors.toUnmodifiableMap(Function.identity(),
+                outcome -> Counter.builder("paybridge.idempotency.fast_tier")
+                        .tag("outcome", outcome)
+                        .register(meterRegistry)));
+    }
+
+    /**
+     * Replays a stored response, rejects a concurrent duplicate, or grants the lease.
+     *
+     * @throws IllegalStateException if the key is in flight or was used with another payload
+     */
+    public Lease acquire(Long merchantId, String idempotencyKey, String requestHash) {
+        if (!enabled) {
+            return Lease.bypass();
+        }
+        String baseKey = "idem:" + merchantId + ":" + idempotencyKey;
+        try {
+            String replay = replayFor(baseKey, requestHash);
+            if (replay != null) {
+                record("replay");
+                return Lease.replay(replay);
+            }
+
+            String token = requestHash + ":" + UUID.randomUUID();
+            Boolean acquired = stringRedisTemplate.opsForValue().setIfAbsent(lockKey(baseKey), token, leaseDuration);
+            if (Boolean.TRUE.equals(acquired)) {
+                record("acquired");
+                return new Lease(baseKey, token, null);
+            }
+
+            // The holder may have finished between the two reads.
+            replay = replayFor(baseKey, requestHash);
+            if (replay != null) {
+                record("replay");
+                return Lease.replay(replay);
+            }
+            String holder = stringRedisTemplate.opsForValue().get(lockKey(baseKey));
+            if (holder != null && !holder.startsWith(requestHash + ":")) {
+                throw new IllegalStateException("Idempotency key already used with a different request payload");
+            }
+            record("in_progress");
+            throw new IllegalStateException("A request with this idempotency key is already being processed");
+        } catch (DataAccessException ex) {
+            logger.warn("Redis idempotency tier unavailable, falling back to database: {}", ex.getMessage());
+            record("bypass");
+            return Lease.bypass();
+        }
+    }
+
+    /**
+     * Stores the final response for fast replay. Best-effort: the database already has it.
+     */
+    public void storeResponse(Lease lease, String requestHash, String responseJson) {
+        if (lease.baseKey == null || responseJson == null) {
+            return;
+        }
+        try {
+            stringRedisTemplate.opsForValue().set(
+                    responseKey(lease.baseKey), requestHash + SEPARATOR + responseJson, responseTtl);
+        } catch (DataAccessException ex) {
+            logger.warn("Failed to cache idempotent response in Redis: {}", ex.getMessage());
+        }
+    }
+
+    /**
+     * Releases the lease if this caller still owns it. Expiry covers a failed release.
+     */
+    public void release(Lease lease) {
+        if (lease.baseKey == null) {
+            return;
+        }
+        try {
+            stringRedisTemplate.execute(RELEASE_SCRIPT, List.of(lockKey(lease.baseKey)), lease.token);
+        } catch (DataAccessException ex) {
+            logger.warn("Failed to release idempotency lease in Redis: {}", ex.getMessage());
+        }
+    }
+
+    private String replayFor(String baseKey, String requestHash) {
+        String stored = stringRedisTemplate.opsForValue().get(responseKey(baseKey));
+        if (stored == null) {
+            return null;
+        }
+        int separator = stored.indexOf(SEPARATOR);
+        if (separator < 0 || !Objects.equals(stored.substring(0, separator), requestHash)) {
+            throw new IllegalStateException("Idempotency key already used with a different request payload");
+        }
+        return stored.substring(separator + 1);
+    }
+
+    private void record(String outcome) {
+        outcomeCounters.get(outcome).increment();
+    }
+
+    private static String lockKey(String baseKey) {
+        return baseKey + ":lock";
+    }
+
+    private static String responseKey(String baseKey) {
+        return baseKey + ":response";
+    }
+
+    /**
+     * Outcome of {@link #acquire}: a response to replay, a held Redis lease, or a bypass
+     * (Redis disabled/unavailable) where only the database guards the key.
+     */
+    public static final class Lease {
+
+        private static final Lease BYPASS = new Lease(null, null, null);
+
+        private final String baseKey;
+        private final String token;
+        private final String replay;
+
+        private Lease(String baseKey, String token, String replay) {
+            this.baseKey = baseKey;
+            this.token = token;
+            this.replay = replay;
+        }
+
+        static Lease bypass() {
+            return BYPASS;
+        }
+
+        static Lease replay(String response) {
+            return new Lease(null, null, response);
+        }
+
+        public boolean hasReplay() {
+            return replay != null;
+        }
+
+        public String getReplay() {
+            return replay;
+        }
+
+        public boolean isHeld() {
+            return baseKey != null;
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.paybridge.Services;
+
+import com.paybridge.Repositories.IdempotencyKeyRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Deletes expired, unlocked idempotency keys so the table (and its unique index) stays sized
+ * to the replay window instead of growing with every payment ever made.
+ *
+ * <p>Work is done in small batches, each deleted in its own short transaction, with a pause in
+ * between so vacuum and concurrent writers keep up; a run stops after {@code max-run} and the
+ * remainder is picked up next time. {@code paybridge.idempotency.sweeper.lag} reports how far
+ * past expiry the oldest remaining key is — steady growth means the sweeper is falling behind.
+ */
+@Component
+@ConditionalOnProperty(name = "payments.idempotency.sweeper.enabled", havingValue = "true", matchIfMissing = true)
+public class IdempotencyKeySweeper {
+
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyKeySweeper.class);
+
+    private final IdempotencyKeyRepository idempotencyKeyRepository;
+    private final int batchSize;
+    private final Duration pause;
+    private final Duration maxRun;
+    private final Counter deletedCounter;
+    private final AtomicLong lagSeconds = new AtomicLong();
+
+    public IdempotencyKeySweeper(IdempotencyKeyRepository idempotencyKeyRepository,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${payments.idempotency.sweeper.batch-size:500}") int batchSize,
+                                 @Value("${payments.idempotency.sweeper.pause-ms:100}") long pauseMs,
+                                 @Value("${payments.idempotency.sweeper.max-run-seconds:60}") long maxRunSeconds) {
+        this.idempotencyKeyRepository = idempotencyKeyRepository;
+        this.batchSize = batchSize;
+        this.pause = Duration.ofMillis(pauseMs);
+        this.maxRun = Duration.ofSeconds(maxRunSeconds);
+        this.deletedCounter = Counter.builder("paybridge.idempotency.sweeper.deleted")
+                .description("Expired idempotency keys deleted")
+                .register(meterRegistry);
+        Gauge.builder("paybridge.idempotency.sweeper.lag", lagSeconds, AtomicLong::get)
+                .description("Seconds the oldest expired, unlocked idempotency key has been waiting for deletion")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${payments.idempotency.sweeper.interval-ms:300000}",
+            initialDelayString = "${payments.idempotency.sweeper.initial-delay-ms:60000}")
+    public void sweep() {
+        LocalDateTime cutoff = LocalDateTime.now();
+        long deadline = System.nanoTime() + maxRun.toNanos();
+        int total = 0;
+
+        try {
+            while (true) {
+                List<Integer> ids = idempotencyKeyRepository.findExpiredIds(cutoff, PageRequest.ofSize(batchSize));
+                if (ids.isEmpty()) {
+                    break;
+                }
+                int deleted = idempotencyKeyRepository.deleteExpired(ids, cutoff);
+                deletedCounter.increment(deleted);
+                total += deleted;
+
+                if (ids.size() < batchSize || System.nanoTime() - deadline >= 0) {
+                    break;
+                }
+                Thread.sleep(pause.toMillis());
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException ex) {
+            log.warn("Idempotency key sweep stopped after {} deletions: {}", total, ex.getMessage());
+        } finally {
+            updateLag();
+        }
+
+        if (total > 0) {
+            log.info("Deleted {} expired idempotency keys", total);
+        }
+    }
+
+    private void updateLag() {
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            lagSeconds.set(idempotencyKeyRepository.findOldestExpiry(now)
+                    .map(oldest -> Duration.between(oldest, now).toSeconds())
+                    .orElse(0L));
+        } catch (RuntimeException ex) {
+            log.debug("Could not measure idempotency sweep lag: {}", ex.getMessage());
+        }
+    }
+}
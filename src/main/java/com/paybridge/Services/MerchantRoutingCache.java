@@ -0,0 +1,85 @@
+package com.paybridge.Services;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import com.paybridge.Repositories.ProviderConfigRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Holds a {@link MerchantRoutingSnapshot} per merchant so payment routing (Phase 2) does not
+ * hit the database. Snapshots are loaded on first use, rebuilt once a provider configuration
+ * change commits, and dropped on other nodes through the {@link CacheInvalidationBus}.
+ * The expiry is only a safety net for a missed invalidation.
+ */
+@Component
+public class MerchantRoutingCache {
+
+    static final String INVALIDATION_TOPIC = "merchant-routing";
+    private static final Logger logger = LoggerFactory.getLogger(MerchantRoutingCache.class);
+
+    private final ProviderConfigRepository providerConfigRepository;
+    private final CacheInvalidationBus invalidationBus;
+    private final Cache<Long, MerchantRoutingSnapshot> snapshots;
+
+    public MerchantRoutingCache(ProviderConfigRepository providerConfigRepository,
+                                CacheInvalidationBus invalidationBus,
+                                @Value("${payments.routing-cache.max-size:10000}") long maxSize,
+                                @Value("${payments.routing-cache.ttl-minutes:10}") long ttlMinutes) {
+        this.providerConfigRepository = providerConfigRepository;
+        this.invalidationBus = invalidationBus;
+        this.snapshots = CacheBuilder.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofMinutes(ttlMinutes))
+                .build();
+
+        invalidationBus.subscribe(INVALIDATION_TOPIC, merchantId -> snapshots.invalidate(Long.valueOf(merchantId)));
+    }
+
+    public MerchantRoutingSnapshot snapshotFor(Long merchantId) {
+        try {
+            return snapshots.get(merchantId, () -> MerchantRoutingSnapshot.fromEnabledConfigs(
+                    merchantId, providerConfigRepository.findByMerchantIdAndIsEnabledTrue(merchantId)));
+        } catch (ExecutionException | UncheckedExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("Failed to load provider routing for merchant", ex.getCause());
+        }
+    }
+
+    /**
+     * Rebuilds the merchant's snapshot after the surrounding transaction commits (immediately
+     * when there is none), so readers never cache a configuration that was rolled back.
+     */
+    public void refreshAfterCommit(Long merchantId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    refresh(merchantId);
+                }
+            });
+        } else {
+            refresh(merchantId);
+        }
+    }
+
+    private void refresh(Long merchantId) {
+        snapshots.invalidate(merchantId);
+        invalidationBus.publish(INVALIDATION_TOPIC, merchantId.toString());
+        try {
+            snapshotFor(merchantId);
+        } catch (RuntimeException ex) {
+            logger.warn("Failed to rebuild routing snapshot for merchant {}; it will load on next payment", merchantId, ex);
+        }
+    }
+}
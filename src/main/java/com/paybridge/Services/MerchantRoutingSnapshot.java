@@ -0,0 +1,82 @@
+package com.paybridge.Services;
+
+import com.paybridge.Models.Entities.ProviderConfig;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Immutable view of the providers a merchant has enabled, used to route payments without
+ * querying {@code provider_configs} on every request. Built by {@link MerchantRoutingCache}.
+ */
+public final class MerchantRoutingSnapshot {
+
+    private final Long merchantId;
+    private final List<RoutedProvider> providers;
+
+    public MerchantRoutingSnapshot(Long merchantId, List<RoutedProvider> providers) {
+        this.merchantId = merchantId;
+        this.providers = List.copyOf(providers);
+    }
+
+    static MerchantRoutingSnapshot fromEnabledConfigs(Long merchantId, List<ProviderConfig> enabledConfigs) {
+        return new MerchantRoutingSnapshot(merchantId, enabledConfigs.stream()
+                .map(config -> new RoutedProvider(
+                        config.getProvider().getId(),
+                        config.getProvider().getName().toLowerCase(Locale.ROOT),
+                        config.getProvider().getDisplayName()))
+                .toList());
+    }
+
+    /**
+     * Picks the provider for a payment: the requested one if given, otherwise the merchant's
+     * only enabled provider.
+     */
+    public RoutedProvider resolve(String requestedProvider) {
+        if (requestedProvider != null && !requestedProvider.isBlank()) {
+            String normalizedProvider = requestedProvider.trim().toLowerCase(Locale.ROOT);
+            return providers.stream()
+                    .filter(provider -> provider.name().equals(normalizedProvider))
+                    .findFirst()
+                    .orElseThrow(() -> new IllegalStateException(
+                            "Requested provider is not configured/enabled for merchant: " + normalizedProvider));
+        }
+
+        if (providers.isEmpty()) {
+            throw new IllegalStateException("No enabled payment provider configuration found for merchant");
+        }
+        if (providers.size() > 1) {
+            throw new IllegalStateException(
+                    "Multiple providers are enabled. Please specify provider in request body.");
+        }
+        return providers.get(0);
+    }
+
+    /**
+     * Providers a payment may be routed to: the requested one if given, otherwise every enabled
+     * provider, in no particular order ({@link ProviderRouter} ranks them).
+     */
+    public List<RoutedProvider> candidates(String requestedProvider) {
+        if (requestedProvider != null && !requestedProvider.isBlank()) {
+            return List.of(resolve(requestedProvider));
+        }
+        if (providers.isEmpty()) {
+            throw new IllegalStateException("No enabled payment provider configuration found for merchant");
+        }
+        return providers;
+    }
+
+    public Long getMerchantId() {
+        return merchantId;
+    }
+
+    public List<RoutedProvider> getProviders() {
+        return providers;
+    }
+
+    /**
+     * @param name lower-cased provider code, as used by {@link PaymentProviderRegistry}
+     */
+    public record RoutedProvider(Long providerId, String name, String displayName) {
+    }
+}
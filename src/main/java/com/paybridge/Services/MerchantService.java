@@ -51,6 +51,8 @@ public class MerchantService {
 
     private final CredentialStorageService credentialStorageService;
 
+    private final WebhookEndpointTokens webhookEndpointTokens;
+
     private static final Set<PaymentStatus> SUCCESS_STATUSES = EnumSet.of(
             PaymentStatus.SUCCEEDED,
             PaymentStatus.REFUNDED,
@@ -68,7 +70,8 @@ public class MerchantService {
                            EmailProvider emailProvider,
                            ApiKeyService apiKeyService,
                            PaymentRepository paymentRepository,
-                           CredentialStorageService credentialStorageService) {
+                           CredentialStorageService credentialStorageService,
+                           WebhookEndpointTokens webhookEndpointTokens) {
         this.userRepository = userRepository;
         this.merchantRepository = merchantRepository;
         this.passwordEncoder = passwordEncoder;
@@ -76,6 +79,7 @@ public class MerchantService {
         this.apiKeyService = apiKeyService;
         this.paymentRepository = paymentRepository;
         this.credentialStorageService = credentialStorageService;
+        this.webhookEndpointTokens = webhookEndpointTokens;
     }
 
 
@@ -184,6 +188,10 @@ public class MerchantService {
         response.setProvider(normalizedProvider);
         response.setConfigured(secret != null && !secret.isBlank());
         response.setMaskedSecret(maskSecret(secret));
+        String token = webhookEndpointTokens.issue(normalizedProvider, merchant.getId());
+        if (token != null) {
+            response.setWebhookEndpoint("/api/v1/webhooks/" + normalizedProvider + "/" + token);
+        }
         return response;
     }
 
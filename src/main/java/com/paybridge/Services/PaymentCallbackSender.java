@@ -0,0 +1,101 @@
+package com.paybridge.Services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.paybridge.Models.DTOs.PaymentJobMessage;
+import com.paybridge.Models.DTOs.PaymentResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+import javax.crypto.Mac;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.util.HexFormat;
+
+/**
+ * Posts the outcome of an asynchronous payment to its callback URL. Best-effort; clients that
+ * miss the callback can poll the payment.
+ *
+ * <p>The body is signed the way Stripe signs webhooks, with the webhook secret the merchant
+ * registered for the payment's provider:
+ * {@code X-PayBridge-Signature: t=<unix time>,v1=<hex HMAC-SHA256 of "<t>." + body>}. Without a
+ * registered secret nothing is sent, since the receiver could not tell the callback from a forgery.
+ * URLs are checked against {@link CallbackUrlPolicy} and sent through {@code callbackRestTemplate},
+ * which does not follow redirects.
+ */
+@Component
+@ConditionalOnProperty(name = "payments.async.enabled", havingValue = "true")
+public class PaymentCallbackSender {
+
+    public static final String SIGNATURE_HEADER = "X-PayBridge-Signature";
+
+    private static final Logger log = LoggerFactory.getLogger(PaymentCallbackSender.class);
+
+    private final CredentialStorageService credentialStorageService;
+    private final WebhookMacCache webhookMacCache;
+    private final RestTemplate restTemplate;
+    private final ObjectMapper objectMapper;
+    private final Clock clock;
+
+    @Autowired
+    public PaymentCallbackSender(CredentialStorageService credentialStorageService,
+                                 WebhookMacCache webhookMacCache,
+                                 @Qualifier("callbackRestTemplate") RestTemplate restTemplate,
+                                 ObjectMapper objectMapper) {
+        this(credentialStorageService, webhookMacCache, restTemplate, objectMapper, Clock.systemUTC());
+    }
+
+    PaymentCallbackSender(CredentialStorageService credentialStorageService,
+                          WebhookMacCache webhookMacCache,
+                          RestTemplate restTemplate,
+                          ObjectMapper objectMapper,
+                          Clock clock) {
+        this.credentialStorageService = credentialStorageService;
+        this.webhookMacCache = webhookMacCache;
+        this.restTemplate = restTemplate;
+        this.objectMapper = objectMapper;
+        this.clock = clock;
+    }
+
+    public void send(PaymentJobMessage job, PaymentResponse result) {
+        String callbackUrl = job.getCallbackUrl();
+        if (callbackUrl == null || callbackUrl.isBlank()) {
+            return;
+        }
+        try {
+            CallbackUrlPolicy.requireAllowed(callbackUrl);
+            ProviderSecret secret = credentialStorageService.getProviderSecret(
+                    job.getProviderName(), job.getMerchantId(), "webhookSecret");
+            if (secret == null) {
+                log.warn("Skipping callback for payment {}: merchant {} has no {} webhook secret to sign it with",
+                        job.getPaymentId(), job.getMerchantId(), job.getProviderName());
+                return;
+            }
+
+            byte[] body = objectMapper.writeValueAsBytes(result);
+            HttpHeaders headers = new HttpHeaders();
+            headers.setContentType(MediaType.APPLICATION_JSON);
+            headers.set(SIGNATURE_HEADER, sign(body, secret));
+            restTemplate.postForEntity(callbackUrl, new HttpEntity<>(body, headers), Void.class);
+        } catch (JsonProcessingException ex) {
+            log.warn("Payment callback for payment {} could not be serialised: {}", job.getPaymentId(), ex.getMessage());
+        } catch (RuntimeException ex) {
+            log.warn("Payment callback to {} failed for payment {}: {}", callbackUrl, job.getPaymentId(), ex.getMessage());
+        }
+    }
+
+    private String sign(byte[] body, ProviderSecret secret) {
+        long timestamp = clock.instant().getEpochSecond();
+        Mac mac = webhookMacCache.mac(WebhookSignatures.HMAC_SHA256, secret);
+        mac.update((timestamp + ".").getBytes(StandardCharsets.UTF_8));
+        return "t=" + timestamp + ",v1=" + HexFormat.of().formatHex(mac.doFinal(body));
+    }
+}
@@ -0,0 +1,116 @@
+package com.paybridge.Services;
+
+import com.paybridge.Exceptions.DeadlineExceededException;
+import com.paybridge.Exceptions.PaymentCapacityExceededException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Caps how many payment creations may run each phase at the same time.
+ *
+ * <p>With platform request threads the Tomcat pool implicitly bounded concurrency.
+ * Once request handling moves to virtual threads ({@code spring.threads.virtual.enabled=true})
+ * that bound disappears, so thousands of parked requests could otherwise queue on the
+ * Hikari pool (Phase 1 / Phase 3) or open thousands of sockets to a provider (Phase 2).
+ *
+ * <ul>
+ *   <li>transaction permits — sized to the DB connection pool, guard the two short TXs</li>
+ *   <li>provider permits — bound the number of in-flight external provider calls</li>
+ * </ul>
+ *
+ * Waiting callers give up after {@code payments.concurrency.acquire-timeout-ms} and receive a
+ * {@link PaymentCapacityExceededException} instead of piling up behind the pool. A caller whose
+ * {@link RequestDeadline} runs out first stops waiting then instead. Phase 3 is the exception: it
+ * records a payment the provider has already created, so {@link #withFinalizePermit} waits for as
+ * long as it takes rather than fail.
+ */
+@Component
+public class PaymentConcurrencyLimiter {
+
+    private final Semaphore transactionPermits;
+    private final Semaphore providerPermits;
+    private final long acquireTimeoutMs;
+
+    private final AtomicInteger inFlightTransactions = new AtomicInteger();
+    private final AtomicInteger inFlightProviderCalls = new AtomicInteger();
+
+    public PaymentConcurrencyLimiter(@Value("${payments.concurrency.max-transactions:10}") int maxTransactions,
+                                     @Value("${payments.concurrency.max-provider-calls:200}") int maxProviderCalls,
+                                     @Value("${payments.concurrency.acquire-timeout-ms:2000}") long acquireTimeoutMs,
+                                     MeterRegistry meterRegistry) {
+        this.transactionPermits = new Semaphore(maxTransactions, true);
+        this.providerPermits = new Semaphore(maxProviderCalls, true);
+        this.acquireTimeoutMs = acquireTimeoutMs;
+
+        Gauge.builder("paybridge.payments.inflight", inFlightTransactions, AtomicInteger::get)
+                .description("Payment creations currently holding a permit")
+                .tag("phase", "transaction")
+                .register(meterRegistry);
+        Gauge.builder("paybridge.payments.inflight", inFlightProviderCalls, AtomicInteger::get)
+                .description("Payment creations currently holding a permit")
+                .tag("phase", "provider")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Runs a Phase 1 / Phase 3 unit of work while holding a transaction permit.
+     */
+    public <T> T withTransactionPermit(Supplier<T> work) {
+        return runWithPermit(transactionPermits, inFlightTransactions, "database", work);
+    }
+
+    /**
+     * Runs a Phase 3 unit of work while holding a transaction permit, waiting without a timeout.
+     * Permits are only held for the short Phase 1 / Phase 3 transactions, so the wait is bounded
+     * by how quickly those drain.
+     */
+    public <T> T withFinalizePermit(Supplier<T> work) {
+        transactionPermits.acquireUninterruptibly();
+        return holding(transactionPermits, inFlightTransactions, work);
+    }
+
+    /**
+     * Runs a Phase 2 provider call while holding a provider permit.
+     */
+    public <T> T withProviderPermit(Supplier<T> work) {
+        return runWithPermit(providerPermits, inFlightProviderCalls, "payment provider", work);
+    }
+
+    private <T> T runWithPermit(Semaphore permits, AtomicInteger inFlight, String resource, Supplier<T> work) {
+        RequestDeadline deadline = RequestDeadline.current();
+        long deadlineMs = deadline.remaining().toMillis();
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(Math.min(acquireTimeoutMs, deadlineMs), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new PaymentCapacityExceededException("Interrupted while waiting for " + resource + " capacity");
+        }
+        if (!acquired) {
+            // The wait was cut short by the deadline; report that, even if the clock has not quite reached it.
+            if (deadlineMs < acquireTimeoutMs) {
+                throw new DeadlineExceededException("Request deadline exceeded acquiring " + resource + " capacity");
+            }
+            throw new PaymentCapacityExceededException(
+                    "Payment capacity exhausted waiting for " + resource + ", please retry");
+        }
+        return holding(permits, inFlight, work);
+    }
+
+    private <T> T holding(Semaphore permits, AtomicInteger inFlight, Supplier<T> work) {
+        inFlight.incrementAndGet();
+        try {
+            return work.get();
+        } finally {
+            inFlight.decrementAndGet();
+            permits.release();
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.paybridge.Services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.paybridge.Models.DTOs.PaymentJobMessage;
+import com.paybridge.Models.Entities.PaymentJobOutbox;
+import com.paybridge.Repositories.PaymentJobOutboxRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Publishes again the jobs of queued payments that are still {@code PROCESSING} after
+ * {@code payments.async.outbox.republish-after-ms}: the instance crashed between the Phase 1
+ * commit and publishing, or the broker lost the message. Publishing a job twice is safe — the
+ * worker skips a payment that has left {@code PROCESSING} and sends the provider the same
+ * idempotency key — so the threshold only needs to exceed the normal queueing delay.
+ *
+ * <p>Metric: {@code paybridge.payments.async.republished} — jobs published again.
+ */
+@Component
+@ConditionalOnProperty(name = "payments.async.enabled", havingValue = "true")
+public class PaymentJobOutboxRelay {
+
+    private static final Logger log = LoggerFactory.getLogger(PaymentJobOutboxRelay.class);
+
+    private final PaymentJobOutboxRepository outboxRepository;
+    private final RabbitTemplate rabbitTemplate;
+    private final ObjectMapper objectMapper;
+    private final String queueName;
+    private final Duration republishAfter;
+    private final int batchSize;
+    private final Counter republishedCounter;
+
+    public PaymentJobOutboxRelay(PaymentJobOutboxRepository outboxRepository,
+                                 RabbitTemplate rabbitTemplate,
+                                 ObjectMapper objectMapper,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${payments.async.queue:paybridge.payments.create}") String queueName,
+                                 @Value("${payments.async.outbox.republish-after-ms:300000}") long republishAfterMs,
+                                 @Value("${payments.async.outbox.batch-size:100}") int batchSize) {
+        this.outboxRepository = outboxRepository;
+        this.rabbitTemplate = rabbitTemplate;
+        this.objectMapper = objectMapper;
+        this.queueName = queueName;
+        this.republishAfter = Duration.ofMillis(republishAfterMs);
+        this.batchSize = batchSize;
+        this.republishedCounter = Counter.builder("paybridge.payments.async.republished")
+                .description("Queued payment jobs published again from the outbox")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${payments.async.outbox.poll-interval-ms:60000}",
+            initialDelayString = "${payments.async.outbox.initial-delay-ms:60000}")
+    public void republishStale() {
+        try {
+            List<PaymentJobOutbox> stale;
+            do {
+                stale = outboxRepository.findPublishedBefore(
+                        LocalDateTime.now().minus(republishAfter), PageRequest.ofSize(batchSize));
+                for (PaymentJobOutbox entry : stale) {
+                    republish(entry);
+                }
+            } while (stale.size() == batchSize);
+        } catch (RuntimeException ex) {
+            log.warn("Payment job outbox relay stopped: {}", ex.getMessage());
+        }
+    }
+
+    private void republish(PaymentJobOutbox entry) {
+        PaymentJobMessage job;
+        try {
+            job = objectMapper.readValue(entry.getPayload(), PaymentJobMessage.class);
+        } catch (Exception ex) {
+            throw new IllegalStateException("Unreadable outbox entry for payment " + entry.getPaymentId(), ex);
+        }
+        rabbitTemplate.convertAndSend(queueName, job);
+        outboxRepository.markPublished(entry.getId(), LocalDateTime.now());
+        republishedCounter.increment();
+        log.warn("Re-published job for payment {}, queued at {}", entry.getPaymentId(), entry.getCreatedAt());
+    }
+}
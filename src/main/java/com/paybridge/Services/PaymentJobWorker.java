@@ -0,0 +1,105 @@
+package com.paybridge.Services;
+
+import com.paybridge.Configs.PaymentProvider;
+import com.paybridge.Models.DTOs.PaymentJobMessage;
+import com.paybridge.Models.DTOs.PaymentProviderResponse;
+import com.paybridge.Models.DTOs.PaymentResponse;
+import com.paybridge.Models.Enums.PaymentStatus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Consumes {@link PaymentJobMessage}s and runs Phase 2 (provider call) and Phase 3 (finalize)
+ * for payments accepted by {@link AsyncPaymentService}. Scale by raising
+ * {@code payments.async.worker-concurrency} or by running more instances.
+ *
+ * <p>A failed provider call marks the payment {@code FAILED}. A failure recording the provider's
+ * result does not: the payment exists at the provider, so the exception is left to the listener
+ * container and the job is redelivered. A redelivered job whose payment already left
+ * {@code PROCESSING} is skipped; one redelivered after the provider call but before its result
+ * was recorded calls the provider again with the same {@link #providerIdempotencyKey}, so the
+ * provider returns or rejects the first attempt instead of opening a second payment.
+ */
+@Component
+@ConditionalOnProperty(name = "payments.async.enabled", havingValue = "true")
+public class PaymentJobWorker {
+
+    private static final Logger log = LoggerFactory.getLogger(PaymentJobWorker.class);
+
+    private final PaymentTransactionHelper transactionHelper;
+    private final PaymentConcurrencyLimiter concurrencyLimiter;
+    private final PaymentProviderRegistry paymentProviderRegistry;
+    private final CredentialStorageService credentialStorageService;
+    private final PaymentCallbackSender callbackSender;
+
+    public PaymentJobWorker(PaymentTransactionHelper transactionHelper,
+                            PaymentConcurrencyLimiter concurrencyLimiter,
+                            PaymentProviderRegistry paymentProviderRegistry,
+                            CredentialStorageService credentialStorageService,
+                            PaymentCallbackSender callbackSender) {
+        this.transactionHelper = transactionHelper;
+        this.concurrencyLimiter = concurrencyLimiter;
+        this.paymentProviderRegistry = paymentProviderRegistry;
+        this.credentialStorageService = credentialStorageService;
+        this.callbackSender = callbackSender;
+    }
+
+    @RabbitListener(queues = "${payments.async.queue:paybridge.payments.create}",
+            concurrency = "${payments.async.worker-concurrency:4-16}")
+    public void process(PaymentJobMessage job) {
+        if (!transactionHelper.isAwaitingProvider(job.getPaymentId())) {
+            log.info("Skipping payment job {}: already processed", job.getPaymentId());
+            return;
+        }
+
+        PaymentProviderResponse providerResponse;
+        try {
+            Map<String, Object> credentials =
+                    credentialStorageService.getProviderConfig(job.getProviderName(), job.getMerchantId());
+            PaymentProvider paymentProvider = paymentProviderRegistry.getProvider(job.getProviderName());
+            providerResponse = concurrencyLimiter.withProviderPermit(() ->
+                    paymentProvider.CreatePaymentRequest(job.getRequest(), credentials,
+                            providerIdempotencyKey(job.getPaymentId())));
+            if (providerResponse == null) {
+                throw new RuntimeException("Provider returned empty payment response");
+            }
+        } catch (RuntimeException ex) {
+            log.error("Asynchronous payment {} failed", job.getPaymentId(), ex);
+            transactionHelper.failAsyncPayment(job.getPaymentId(), job.getIdempotencyKey());
+            callbackSender.send(job, failedResponse(job));
+            return;
+        }
+
+        // Outside the catch on purpose: see the class comment.
+        PaymentResponse result = concurrencyLimiter.withFinalizePermit(() -> transactionHelper.completeAsyncPayment(
+                job.getPaymentId(), job.getIdempotencyKey(), providerResponse,
+                job.getRequest(), job.getProviderName()));
+        callbackSender.send(job, result);
+    }
+
+    /**
+     * Stable across redeliveries of one job, and distinct for a retry the client makes with the
+     * same Idempotency-Key after a failure, since that retry is accepted as a new payment.
+     */
+    static String providerIdempotencyKey(UUID paymentId) {
+        return "payment-" + paymentId;
+    }
+
+    private PaymentResponse failedResponse(PaymentJobMessage job) {
+        PaymentResponse response = new PaymentResponse();
+        response.setId(job.getPaymentId());
+        response.setStatus(PaymentStatus.FAILED);
+        response.setAmount(job.getRequest().getAmount());
+        response.setCurrency(job.getRequest().getCurrency());
+        response.setProvider(job.getProviderName());
+        response.setMetadata(job.getRequest().getMetadata());
+        response.setMessage("Payment could not be created with the provider");
+        return response;
+    }
+}
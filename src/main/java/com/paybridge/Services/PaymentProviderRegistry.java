@@ -1,23 +1,45 @@
 package com.paybridge.Services;
 
 import com.paybridge.Configs.PaymentProvider;
+import com.paybridge.Configs.ProviderResilienceProperties;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.function.Function;
 import java.util.stream.Collectors;
 
+/**
+ * Hands out payment providers wrapped in a per-provider bulkhead and circuit breaker
+ * (see {@link ResilientPaymentProvider}). Every call made through a wrapped provider also
+ * feeds the {@link ProviderHealthTracker} used for routing.
+ */
 @Service
 public class PaymentProviderRegistry {
 
+    private static final Logger log = LoggerFactory.getLogger(PaymentProviderRegistry.class);
+
    private final Map<String, PaymentProvider> paymentProviders;
 
-    public PaymentProviderRegistry(List<PaymentProvider> paymentProviders){
+    public PaymentProviderRegistry(List<PaymentProvider> paymentProviders,
+                                   ProviderResilienceProperties resilienceProperties,
+                                   CircuitBreakerRegistry circuitBreakerRegistry,
+                                   BulkheadRegistry bulkheadRegistry,
+                                   ProviderHealthTracker healthTracker){
         this.paymentProviders = paymentProviders.stream()
-                .collect(Collectors.toMap(PaymentProvider::getProviderName, Function.identity()));
+                .collect(Collectors.toMap(PaymentProvider::getProviderName,
+                        provider -> guard(provider, resilienceProperties.policy(provider.getProviderName()),
+                                circuitBreakerRegistry, bulkheadRegistry, healthTracker)));
     }
 
     public PaymentProvider getProvider(String name){
@@ -25,7 +47,47 @@ public class PaymentProviderRegistry {
                .orElseThrow(() -> new IllegalArgumentException("Unsupported Provider: " + name));
     }
 
+    public boolean supportsCurrency(String name, String currency) {
+        PaymentProvider provider = paymentProviders.get(name.toLowerCase());
+        return provider != null && provider.supportsCurrency(currency);
+    }
+
+    public boolean isCircuitOpen(String name) {
+        return paymentProviders.get(name.toLowerCase()) instanceof ResilientPaymentProvider resilient
+                && resilient.getCircuitBreaker().getState() == CircuitBreaker.State.OPEN;
+    }
+
     public List<String> getActiveProviders(){
         return new ArrayList<>(paymentProviders.keySet());
     }
+
+    private static PaymentProvider guard(PaymentProvider provider,
+                                         ProviderResilienceProperties.Policy policy,
+                                         CircuitBreakerRegistry circuitBreakerRegistry,
+                                         BulkheadRegistry bulkheadRegistry,
+                                         ProviderHealthTracker healthTracker) {
+        String name = provider.getProviderName();
+
+        CircuitBreaker circuitBreaker = circuitBreakerRegistry.circuitBreaker(name, CircuitBreakerConfig.custom()
+                .slidingWindowType(CircuitBreakerConfig.SlidingWindowType.COUNT_BASED)
+                .slidingWindowSize(policy.getSlidingWindowSize())
+                .minimumNumberOfCalls(policy.getMinimumNumberOfCalls())
+                .failureRateThreshold(policy.getFailureRateThreshold())
+                .slowCallRateThreshold(policy.getSlowCallRateThreshold())
+                .slowCallDurationThreshold(policy.getSlowCallDuration())
+                .waitDurationInOpenState(policy.getWaitDurationInOpenState())
+                .permittedNumberOfCallsInHalfOpenState(policy.getPermittedCallsInHalfOpenState())
+                .recordException(ResilientPaymentProvider::isProviderFault)
+                .build());
+        circuitBreaker.getEventPublisher().onStateTransition(event ->
+                log.warn("Circuit breaker for provider {}: {}", name, event.getStateTransition()));
+
+        Bulkhead bulkhead = bulkheadRegistry.bulkhead(name, BulkheadConfig.custom()
+                .maxConcurrentCalls(policy.getMaxConcurrentCalls())
+                .maxWaitDuration(Duration.ZERO)
+                .build());
+
+        long retryAfterSeconds = Math.max(1, policy.getWaitDurationInOpenState().toSeconds());
+        return new ResilientPaymentProvider(provider, circuitBreaker, bulkhead, healthTracker, retryAfterSeconds);
+    }
 }
@@ -1,63 +1,91 @@
 package com.paybridge.Services;
 
-import com.fasterxml.jackson.databind.MapperFeature;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.SerializationFeature;
+import com.paybridge.Exceptions.PaymentNotFoundException;
 import com.paybridge.Models.DTOs.CreatePaymentRequest;
-import com.paybridge.Models.DTOs.PaymentProviderResponse;
+import com.paybridge.Models.DTOs.PaymentPageResponse;
 import com.paybridge.Models.DTOs.PaymentResponse;
+import com.paybridge.Models.DTOs.PaymentResult;
 import com.paybridge.Models.Entities.IdempotencyKey;
 import com.paybridge.Models.Entities.Merchant;
-import com.paybridge.Models.Entities.ProviderConfig;
-import com.paybridge.Repositories.ProviderConfigRepository;
+import com.paybridge.Models.Enums.PaymentStatus;
+import com.paybridge.Services.MerchantRoutingSnapshot.RoutedProvider;
+import com.paybridge.Services.ProviderRouter.RoutedPayment;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.security.MessageDigest;
-import java.util.HexFormat;
-import java.util.List;
 import java.util.Locale;
-import java.util.Map;
+import java.util.UUID;
+import java.util.function.Supplier;
 
 /**
  * Orchestrates payment creation across three phases to avoid holding a DB connection
  * open during the (potentially slow) external provider HTTP call.
  *
  * <pre>
+ * Fast tier [Redis]   — replay stored response or reject in-flight duplicate, take lease
  * Phase 1 [short TX]  — validate idempotency key, create customer, lock record
- * Phase 2 [no TX]     — resolve provider config, call external payment API
+ * Phase 2 [no TX]     — rank providers ({@link ProviderRouter}), call external payment API
  * Phase 3 [short TX]  — persist payment, store response, release lock
  * </pre>
  *
  * The {@code @Transactional} boundaries are managed by {@link PaymentTransactionHelper},
  * a separate Spring bean whose proxied methods are called from here. This is required
  * because calling {@code @Transactional} methods on {@code this} bypasses the proxy.
+ *
+ * <p>Phase 1 and Phase 2 run within the request's {@link RequestDeadline}: once the client's
+ * budget is spent the request is abandoned with a 504 and the idempotency record released,
+ * instead of finishing work nobody is waiting for.
  */
 @Service
 public class PaymentService {
 
-    private final ProviderConfigRepository providerConfigRepository;
-    private final PaymentProviderRegistry paymentProviderRegistry;
-    private final CredentialStorageService credentialStorageService;
-    private final ObjectMapper objectMapper;
+    private final MerchantRoutingCache merchantRoutingCache;
+    private final ProviderRouter providerRouter;
     private final PaymentTransactionHelper transactionHelper;
-
-    public PaymentService(ProviderConfigRepository providerConfigRepository,
-                          PaymentProviderRegistry paymentProviderRegistry,
-                          CredentialStorageService credentialStorageService,
-                          ObjectMapper objectMapper,
-                          PaymentTransactionHelper transactionHelper) {
-        this.providerConfigRepository = providerConfigRepository;
-        this.paymentProviderRegistry = paymentProviderRegistry;
-        this.credentialStorageService = credentialStorageService;
-        this.objectMapper = objectMapper;
+    private final PaymentConcurrencyLimiter concurrencyLimiter;
+    private final CanonicalRequestHasher requestHasher;
+    private final IdempotencyFastTier idempotencyFastTier;
+    private final PaymentStatusCache paymentStatusCache;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${payments.list.default-limit:20}")
+    private int defaultPageSize = 20;
+
+    @Value("${payments.list.max-limit:100}")
+    private int maxPageSize = 100;
+
+    public PaymentService(MerchantRoutingCache merchantRoutingCache,
+                          ProviderRouter providerRouter,
+                          PaymentTransactionHelper transactionHelper,
+                          PaymentConcurrencyLimiter concurrencyLimiter,
+                          CanonicalRequestHasher requestHasher,
+                          IdempotencyFastTier idempotencyFastTier,
+                          PaymentStatusCache paymentStatusCache,
+                          PlatformTransactionManager transactionManager) {
+        this.merchantRoutingCache = merchantRoutingCache;
+        this.providerRouter = providerRouter;
         this.transactionHelper = transactionHelper;
+        this.concurrencyLimiter = concurrencyLimiter;
+        this.requestHasher = requestHasher;
+        this.idempotencyFastTier = idempotencyFastTier;
+        this.paymentStatusCache = paymentStatusCache;
+        this.transactionManager = transactionManager;
+    }
+
+    public PaymentResult createPayment(CreatePaymentRequest paymentRequest,
+                                       Merchant merchant,
+                                       String idempotencyKey) {
+        return createPayment(paymentRequest, merchant, idempotencyKey, RequestDeadline.none());
     }
 
     // NOTE: intentionally NOT @Transactional — the three-phase split below
     // ensures no DB connection is held during the external provider HTTP call.
-    public PaymentResponse createPayment(CreatePaymentRequest paymentRequest,
-                                         Merchant merchant,
-                                         String idempotencyKey) {
+    public PaymentResult createPayment(CreatePaymentRequest paymentRequest,
+                                       Merchant merchant,
+                                       String idempotencyKey,
+                                       RequestDeadline deadline) {
         if (merchant == null) {
             throw new IllegalArgumentException("Authenticated merchant not found");
         }
@@ -65,97 +93,122 @@ public class PaymentService {
             throw new IllegalArgumentException("Idempotency-Key is required");
         }
 
-        String requestHash = buildStableRequestHash(paymentRequest);
+        String requestHash = requestHasher.hash(paymentRequest);
+
+        // ── Fast tier: Redis, no DB connection ────────────────────────────────
+        // Replays and in-flight duplicates are answered here; the lease keeps
+        // concurrent duplicates away from the DB while this request runs.
+        IdempotencyFastTier.Lease lease =
+                idempotencyFastTier.acquire(merchant.getId(), idempotencyKey, requestHash);
+        if (lease.hasReplay()) {
+            return PaymentResult.replay(lease.getReplay());
+        }
+
+        try {
+            return processPayment(paymentRequest, merchant, idempotencyKey, requestHash, lease, deadline);
+        } finally {
+            idempotencyFastTier.release(lease);
+        }
+    }
 
+    private PaymentResult processPayment(CreatePaymentRequest paymentRequest,
+                                         Merchant merchant,
+                                         String idempotencyKey,
+                                         String requestHash,
+                                         IdempotencyFastTier.Lease lease,
+                                         RequestDeadline deadline) {
         // ── Phase 1: short transaction ────────────────────────────────────────
         // Validates/locks the idempotency key and resolves the customer.
-        // DB connection is released as soon as preparePayment() returns.
-        PreparePaymentResult preparation =
-                transactionHelper.preparePayment(merchant, paymentRequest, idempotencyKey, requestHash);
+        // DB connection is released as soon as preparePayment() returns. If the deadline
+        // cuts the transaction short it rolls back, so no idempotency record is left behind.
+        PreparePaymentResult preparation = deadline.call("database", () ->
+                concurrencyLimiter.withTransactionPermit(() -> withinTransactionDeadline(deadline, () ->
+                        transactionHelper.preparePayment(merchant, paymentRequest, idempotencyKey, requestHash))));
 
         if (preparation.hasCachedResponse()) {
-            return deserializeResponse(preparation.getCachedResponse());
+            idempotencyFastTier.storeResponse(lease, requestHash, preparation.getCachedResponse());
+            return PaymentResult.replay(preparation.getCachedResponse());
         }
 
         IdempotencyKey idempotencyRecord = preparation.getIdempotencyRecord();
 
+        RoutedPayment routedPayment;
         try {
             // ── Phase 2: no transaction ───────────────────────────────────────
-            // Provider config lookup is a cheap indexed read — no TX needed.
-            // The external API call can take 1–3 s; no DB connection is held.
-            ProviderConfig providerConfig =
-                    resolveEnabledProviderConfig(merchant.getId(), paymentRequest.getProvider());
-            String providerName = providerConfig.getProvider().getName().toLowerCase(Locale.ROOT);
-
-            Map<String, Object> credentials =
-                    credentialStorageService.getProviderConfig(providerName, merchant.getId());
-
-            PaymentProviderResponse providerResponse = paymentProviderRegistry
-                    .getProvider(providerName)
-                    .CreatePaymentRequest(paymentRequest, credentials);
-
-            if (providerResponse == null) {
-                throw new RuntimeException("Provider returned empty payment response");
-            }
-
-            // ── Phase 3: short transaction ────────────────────────────────────
-            // Writes the payment record and releases the idempotency lock.
-            return transactionHelper.finalizePayment(
-                    merchant, providerConfig, providerResponse,
-                    idempotencyRecord, paymentRequest, providerName);
+            // Provider routing comes from the in-memory per-merchant snapshot and live
+            // provider scores — no DB access. The external API call can take 1–3 s; no DB
+            // connection is held. On virtual threads the carrier is released while the call
+            // blocks, so the provider permit (not the request thread pool) bounds concurrency.
+            // Permit waits, Vault reads and provider HTTP timeouts are capped by the deadline.
+            routedPayment = deadline.call("payment provider", () -> providerRouter.createPayment(
+                    merchantRoutingCache.snapshotFor(merchant.getId()), paymentRequest, idempotencyKey));
 
         } catch (RuntimeException ex) {
-            // REQUIRES_NEW — commits the failure independently of this call stack.
+            // REQUIRES_NEW — commits the failure independently of this call stack, so a
+            // retry with the same key is not blocked until the record expires.
             transactionHelper.failIdempotencyRecord(idempotencyRecord);
             throw ex;
         }
+        RoutedProvider routedProvider = routedPayment.provider();
+
+        // ── Phase 3: short transaction ────────────────────────────────────────
+        // Writes the payment record and releases the idempotency lock. Not bound by the
+        // deadline and waits for a permit without a timeout: the provider has created the
+        // payment, so it must be recorded. Outside the catch above on purpose — if this
+        // fails, the record stays locked rather than being marked FAILED, so a retry cannot
+        // open a second session at the provider; once expires_at passes the key is taken
+        // over by the next request that uses it.
+        PaymentResponse response = concurrencyLimiter.withFinalizePermit(() -> transactionHelper.finalizePayment(
+                merchant, routedProvider.providerId(), routedPayment.response(),
+                idempotencyRecord, paymentRequest, routedProvider.name()));
+        idempotencyFastTier.storeResponse(lease, requestHash, idempotencyRecord.getResponse());
+        return PaymentResult.of(response);
     }
 
-    // -------------------------------------------------------------------------
-    // Private helpers
-    // -------------------------------------------------------------------------
-
-    private ProviderConfig resolveEnabledProviderConfig(Long merchantId, String requestedProvider) {
-        if (requestedProvider != null && !requestedProvider.isBlank()) {
-            String normalizedProvider = requestedProvider.trim().toLowerCase(Locale.ROOT);
-            return providerConfigRepository
-                    .findByMerchantIdAndProvider_NameIgnoreCaseAndIsEnabledTrue(merchantId, normalizedProvider)
-                    .orElseThrow(() -> new IllegalStateException(
-                            "Requested provider is not configured/enabled for merchant: " + normalizedProvider));
+    /**
+     * Runs a Phase 1 transaction with its timeout set to what is left of the deadline. Hibernate
+     * applies the remaining transaction time as the JDBC query timeout of every statement.
+     */
+    private <T> T withinTransactionDeadline(RequestDeadline deadline, Supplier<T> work) {
+        if (!deadline.isBounded()) {
+            return work.get();
         }
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        transaction.setTimeout((int) Math.max(1, (deadline.remaining().toMillis() + 999) / 1000));
+        return transaction.execute(status -> work.get());
+    }
 
-        List<ProviderConfig> enabledConfigs =
-                providerConfigRepository.findByMerchantIdAndIsEnabledTrue(merchantId);
-        if (enabledConfigs.isEmpty()) {
-            throw new IllegalStateException("No enabled payment provider configuration found for merchant");
-        }
-        if (enabledConfigs.size() > 1) {
-            throw new IllegalStateException(
-                    "Multiple providers are enabled. Please specify provider in request body.");
-        }
-        return enabledConfigs.get(0);
+    /**
+     * Status lookups are served by {@link PaymentStatusCache}; repeated polls do not reach the database.
+     */
+    public PaymentResponse getPayment(Merchant merchant, UUID paymentId) {
+        return paymentStatusCache.find(merchant.getId(), paymentId)
+                .orElseThrow(() -> new PaymentNotFoundException("Payment not found: " + paymentId));
     }
 
-    private PaymentResponse deserializeResponse(String json) {
-        try {
-            return objectMapper.readValue(json, PaymentResponse.class);
-        } catch (Exception ex) {
-            throw new RuntimeException("Failed to read cached idempotent response", ex);
-        }
+    public PaymentResponse getPaymentByProviderReference(Merchant merchant, String providerReference) {
+        return paymentStatusCache.findByProviderReference(merchant.getId(), providerReference)
+                .orElseThrow(() -> new PaymentNotFoundException("Payment not found for reference: " + providerReference));
     }
 
-    private String buildStableRequestHash(CreatePaymentRequest paymentRequest) {
-        try {
-            ObjectMapper canonicalMapper = objectMapper.copy()
-                    .configure(MapperFeature.SORT_PROPERTIES_ALPHABETICALLY, true)
-                    .configure(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS, true);
-            byte[] payload = canonicalMapper.writeValueAsBytes(paymentRequest);
-
-            MessageDigest digest = MessageDigest.getInstance("SHA-256");
-            byte[] hash = digest.digest(payload);
-            return HexFormat.of().formatHex(hash);
-        } catch (Exception ex) {
-            throw new RuntimeException("Failed to compute payment request hash", ex);
+    /**
+     * Lists a merchant's payments newest first using keyset pagination, so every page costs the
+     * same however deep the client has paged.
+     */
+    public PaymentPageResponse listPayments(Merchant merchant,
+                                            PaymentStatus status,
+                                            String provider,
+                                            String currency,
+                                            String cursor,
+                                            Integer limit) {
+        int pageSize = limit == null ? defaultPageSize : limit;
+        if (pageSize < 1 || pageSize > maxPageSize) {
+            throw new IllegalArgumentException("limit must be between 1 and " + maxPageSize);
         }
+        PaymentCursor after = cursor == null || cursor.isBlank() ? null : PaymentCursor.decode(cursor);
+        String providerName = provider == null || provider.isBlank() ? null : provider.trim().toLowerCase(Locale.ROOT);
+        String currencyCode = currency == null || currency.isBlank() ? null : currency.trim().toUpperCase(Locale.ROOT);
+
+        return transactionHelper.listPayments(merchant.getId(), status, providerName, currencyCode, after, pageSize);
     }
 }
@@ -0,0 +1,55 @@
+package com.paybridge.Services;
+
+import com.paybridge.Models.DTOs.PaymentResponse;
+import com.paybridge.Models.Entities.Payment;
+import com.paybridge.Models.Enums.PaymentStatus;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Locale;
+import java.util.UUID;
+
+/**
+ * Compact, immutable copy of the fields a status poll returns, held by {@link PaymentStatusCache}
+ * instead of the entity.
+ */
+record PaymentSnapshot(UUID id,
+                       Long merchantId,
+                       PaymentStatus status,
+                       BigDecimal amount,
+                       String currency,
+                       String provider,
+                       String providerReference,
+                       String checkoutUrl,
+                       Instant createdAt) {
+
+    /**
+     * Must be called while {@code payment}'s provider is loaded or its session is still open.
+     */
+    static PaymentSnapshot of(Payment payment) {
+        return new PaymentSnapshot(
+                payment.getId(),
+                payment.getMerchant().getId(),
+                payment.getStatus(),
+                payment.getAmount(),
+                payment.getCurrency(),
+                payment.getProvider().getName().toLowerCase(Locale.ROOT),
+                payment.getProviderReference(),
+                payment.getCheckoutUrl(),
+                payment.getCreatedAt() != null ? payment.getCreatedAt().toInstant(ZoneOffset.UTC) : null);
+    }
+
+    PaymentResponse toResponse() {
+        PaymentResponse response = new PaymentResponse();
+        response.setId(id);
+        response.setStatus(status);
+        response.setAmount(amount);
+        response.setCurrency(currency);
+        response.setProvider(provider);
+        response.setProviderReference(providerReference);
+        response.setCheckoutUrl(checkoutUrl);
+        response.setCreatedAt(createdAt);
+        return response;
+    }
+}
@@ -0,0 +1,125 @@
+package com.paybridge.Services;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import com.paybridge.Exceptions.PaymentNotFoundException;
+import com.paybridge.Models.DTOs.PaymentResponse;
+import com.paybridge.Models.Entities.Payment;
+import com.paybridge.Repositories.PaymentRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.GuavaCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Read-through cache of {@link PaymentSnapshot}s behind the payment status endpoints, so
+ * clients polling after a checkout redirect are answered from memory. Concurrent misses for
+ * the same payment share one load.
+ *
+ * <p>Code that changes a payment's status calls {@link #updateAfterCommit}: the committed state
+ * replaces the local entry (a put also wins over a load still in flight) and other nodes drop
+ * theirs through the {@link CacheInvalidationBus}. The expiry only bounds staleness after a
+ * missed invalidation. Lookups are not cached when the payment does not exist.
+ */
+@Component
+public class PaymentStatusCache {
+
+    static final String INVALIDATION_TOPIC = "payment-status";
+
+    private final PaymentRepository paymentRepository;
+    private final CacheInvalidationBus invalidationBus;
+    private final Cache<UUID, PaymentSnapshot> snapshots;
+    private final Cache<String, UUID> idsByReference;
+
+    public PaymentStatusCache(PaymentRepository paymentRepository,
+                              CacheInvalidationBus invalidationBus,
+                              MeterRegistry meterRegistry,
+                              @Value("${payments.status-cache.max-size:100000}") long maxSize,
+                              @Value("${payments.status-cache.ttl-seconds:60}") long ttlSeconds) {
+        this.paymentRepository = paymentRepository;
+        this.invalidationBus = invalidationBus;
+        this.snapshots = CacheBuilder.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        // provider_reference never changes once set, so this mapping only needs a size bound.
+        this.idsByReference = CacheBuilder.newBuilder()
+                .maximumSize(maxSize)
+                .build();
+        GuavaCacheMetrics.monitor(meterRegistry, snapshots, "payment.status");
+
+        invalidationBus.subscribe(INVALIDATION_TOPIC, paymentId -> snapshots.invalidate(UUID.fromString(paymentId)));
+    }
+
+    public Optional<PaymentResponse> find(Long merchantId, UUID paymentId) {
+        return load(paymentId)
+                .filter(snapshot -> Objects.equals(snapshot.merchantId(), merchantId))
+                .map(PaymentSnapshot::toResponse);
+    }
+
+    public Optional<PaymentResponse> findByProviderReference(Long merchantId, String providerReference) {
+        String referenceKey = merchantId + ":" + providerReference;
+        UUID paymentId = idsByReference.getIfPresent(referenceKey);
+        if (paymentId != null) {
+            return find(merchantId, paymentId);
+        }
+
+        Optional<Payment> payment = paymentRepository.findFirstByMerchant_IdAndProviderReference(merchantId, providerReference);
+        if (payment.isEmpty()) {
+            return Optional.empty();
+        }
+        PaymentSnapshot snapshot = PaymentSnapshot.of(payment.get());
+        snapshots.asMap().putIfAbsent(snapshot.id(), snapshot);
+        idsByReference.put(referenceKey, snapshot.id());
+        return Optional.of(snapshot.toResponse());
+    }
+
+    /**
+     * Publishes {@code payment}'s current state once the surrounding transaction commits
+     * (immediately when there is none). The snapshot is taken now, while the entity is managed.
+     */
+    public void updateAfterCommit(Payment payment) {
+        PaymentSnapshot snapshot = PaymentSnapshot.of(payment);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    publish(snapshot);
+                }
+            });
+        } else {
+            publish(snapshot);
+        }
+    }
+
+    private void publish(PaymentSnapshot snapshot) {
+        snapshots.put(snapshot.id(), snapshot);
+        invalidationBus.publish(INVALIDATION_TOPIC, snapshot.id().toString());
+    }
+
+    private Optional<PaymentSnapshot> load(UUID paymentId) {
+        try {
+            return Optional.of(snapshots.get(paymentId, () -> paymentRepository.findWithProviderById(paymentId)
+                    .map(PaymentSnapshot::of)
+                    .orElseThrow(() -> new PaymentNotFoundException("Payment not found: " + paymentId))));
+        } catch (ExecutionException | UncheckedExecutionException ex) {
+            if (ex.getCause() instanceof PaymentNotFoundException) {
+                return Optional.empty();
+            }
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("Failed to load payment", ex.getCause());
+        }
+    }
+}
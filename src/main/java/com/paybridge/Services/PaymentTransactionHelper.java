@@ -1,18 +1,24 @@
 package com.paybridge.Services;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.paybridge.Models.DTOs.BatchPaymentItem;
 import com.paybridge.Models.DTOs.CreatePaymentRequest;
+import com.paybridge.Models.DTOs.PaymentJobMessage;
+import com.paybridge.Models.DTOs.PaymentPageResponse;
+import com.paybridge.Models.DTOs.PaymentSummaryResponse;
 import com.paybridge.Models.DTOs.PaymentProviderResponse;
 import com.paybridge.Models.DTOs.PaymentResponse;
 import com.paybridge.Models.Entities.Customer;
 import com.paybridge.Models.Entities.IdempotencyKey;
 import com.paybridge.Models.Entities.Merchant;
 import com.paybridge.Models.Entities.Payment;
-import com.paybridge.Models.Entities.ProviderConfig;
+import com.paybridge.Models.Entities.PaymentJobOutbox;
 import com.paybridge.Models.Enums.PaymentStatus;
-import com.paybridge.Repositories.CustomerRepository;
 import com.paybridge.Repositories.IdempotencyKeyRepository;
+import com.paybridge.Repositories.IdempotencyKeyRepositoryCustom.Acquisition;
+import com.paybridge.Repositories.PaymentJobOutboxRepository;
 import com.paybridge.Repositories.PaymentRepository;
+import com.paybridge.Repositories.ProviderRepository;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
@@ -20,10 +26,16 @@ import org.springframework.transaction.annotation.Transactional;
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Handles the two short-lived DB transactions that bracket the external provider call
@@ -32,8 +44,8 @@ import java.util.UUID;
  * {@code @Transactional} methods on {@code this} inside the same class bypasses the proxy.
  *
  * <pre>
- * Phase 1 — preparePayment()  : validate idempotency key, create customer, lock record  [short TX]
- * Phase 2 — (PaymentService)  : resolve provider config, call external payment API       [no TX]
+ * Phase 1 — preparePayment()  : upsert customer, claim idempotency key (one statement)   [short TX]
+ * Phase 2 — (ProviderRouter)  : rank providers, call provider API with failover          [no TX]
  * Phase 3 — finalizePayment() : persist payment, store response, release lock            [short TX]
  * </pre>
  */
@@ -41,18 +53,27 @@ import java.util.UUID;
 class PaymentTransactionHelper {
 
     private final IdempotencyKeyRepository idempotencyKeyRepository;
-    private final CustomerRepository customerRepository;
+    private final CustomerResolver customerResolver;
     private final PaymentRepository paymentRepository;
+    private final ProviderRepository providerRepository;
     private final ObjectMapper objectMapper;
+    private final PaymentStatusCache paymentStatusCache;
+    private final PaymentJobOutboxRepository paymentJobOutboxRepository;
 
     PaymentTransactionHelper(IdempotencyKeyRepository idempotencyKeyRepository,
-                             CustomerRepository customerRepository,
+                             CustomerResolver customerResolver,
                              PaymentRepository paymentRepository,
-                             ObjectMapper objectMapper) {
+                             ProviderRepository providerRepository,
+                             ObjectMapper objectMapper,
+                             PaymentStatusCache paymentStatusCache,
+                             PaymentJobOutboxRepository paymentJobOutboxRepository) {
         this.idempotencyKeyRepository = idempotencyKeyRepository;
-        this.customerRepository = customerRepository;
+        this.customerResolver = customerResolver;
         this.paymentRepository = paymentRepository;
+        this.providerRepository = providerRepository;
         this.objectMapper = objectMapper;
+        this.paymentStatusCache = paymentStatusCache;
+        this.paymentJobOutboxRepository = paymentJobOutboxRepository;
     }
 
     // -------------------------------------------------------------------------
@@ -60,8 +81,10 @@ class PaymentTransactionHelper {
     // -------------------------------------------------------------------------
 
     /**
-     * Short transaction: validates the idempotency key, resolves/creates the customer,
-     * and locks the key record so no concurrent request can slip through.
+     * Short transaction: resolves the customer, then claims the merchant's idempotency key with
+     * a single upsert that also reports what was already there — a stored response to replay,
+     * an attempt still in flight, or a fresh lock for this request. Concurrent duplicates are
+     * serialised by the database on the key's row rather than racing to a constraint violation.
      * The DB connection is released as soon as this method returns.
      *
      * @return a {@link PreparePaymentResult} — either a cached response to replay,
@@ -73,40 +96,38 @@ class PaymentTransactionHelper {
                                         String idempotencyKey,
                                         String requestHash) {
 
-        Optional<IdempotencyKey> existingOpt =
-                idempotencyKeyRepository.findByIdempotencyKey(idempotencyKey);
+        Customer customer = customerResolver.resolve(merchant, request);
 
-        if (existingOpt.isPresent()) {
-            IdempotencyKey existing = existingOpt.get();
+        String lockToken = UUID.randomUUID().toString();
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime expiresAt = now.plusDays(1);
+        Acquisition acquisition = idempotencyKeyRepository.acquire(
+                merchant.getId(), idempotencyKey, customer.getId(), requestHash, lockToken, now, expiresAt);
 
-            if (!Objects.equals(existing.getRequestHash(), requestHash)) {
+        if (!lockToken.equals(acquisition.lockToken())) {
+            if (!Objects.equals(acquisition.requestHash(), requestHash)) {
                 throw new IllegalStateException(
                         "Idempotency key already used with a different request payload");
             }
-            if (existing.getResponse() != null && !existing.getResponse().isBlank()) {
-                return PreparePaymentResult.cached(existing.getResponse());
-            }
-            if (existing.isLocked()) {
-                throw new IllegalStateException(
-                        "A request with this idempotency key is already being processed");
+            if (acquisition.response() != null && !acquisition.response().isBlank()) {
+                return PreparePaymentResult.cached(acquisition.response());
             }
+            throw new IllegalStateException(
+                    "A request with this idempotency key is already being processed");
         }
 
-        Customer customer = resolveCustomer(merchant, request);
-
-        IdempotencyKey record = existingOpt.orElseGet(IdempotencyKey::new);
-        if (record.getId() == null) {
-            record.setIdempotencyKey(idempotencyKey);
-            record.setCreatedAt(LocalDateTime.now());
-        }
+        // Detached copy of the row as written; Phase 3 merges its changes back.
+        IdempotencyKey record = new IdempotencyKey();
+        record.setId(acquisition.id());
+        record.setMerchantId(merchant.getId());
+        record.setIdempotencyKey(idempotencyKey);
         record.setCustomer(customer);
         record.setRequestHash(requestHash);
-        record.setExpiresAt(LocalDateTime.now().plusDays(1));
+        record.setCreatedAt(acquisition.createdAt());
+        record.setExpiresAt(expiresAt);
         record.setPaymentStatus(PaymentStatus.PROCESSING);
         record.setLocked(true);
-        record.setResponse(null);
-        idempotencyKeyRepository.save(record);
-
+        record.setLockToken(lockToken);
         return PreparePaymentResult.proceed(record);
     }
 
@@ -118,10 +139,11 @@ class PaymentTransactionHelper {
      * Short transaction: persists the payment record and updates the idempotency key
      * with the final status and serialised response. The DB connection is only open
      * for these two writes — the expensive external API call has already completed.
+     * The provider is attached by reference, so no extra SELECT is issued for it.
      */
     @Transactional
     PaymentResponse finalizePayment(Merchant merchant,
-                                    ProviderConfig providerConfig,
+                                    Long providerId,
                                     PaymentProviderResponse providerResponse,
                                     IdempotencyKey idempotencyRecord,
                                     CreatePaymentRequest request,
@@ -131,11 +153,12 @@ class PaymentTransactionHelper {
 
         Payment payment = new Payment();
         payment.setMerchant(merchant);
-        payment.setProvider(providerConfig.getProvider());
+        payment.setProvider(providerRepository.getReferenceById(providerId));
         payment.setAmount(request.getAmount());
         payment.setCurrency(request.getCurrency());
         payment.setStatus(paymentStatus);
         payment.setProviderReference(providerResponse.getProviderPaymentId());
+        payment.setCheckoutUrl(providerResponse.getCheckoutUrl());
         Payment savedPayment = paymentRepository.save(payment);
 
         PaymentResponse response = toPaymentResponse(savedPayment, request, providerName, providerResponse);
@@ -155,34 +178,254 @@ class PaymentTransactionHelper {
      */
     @Transactional(propagation = Propagation.REQUIRES_NEW)
     void failIdempotencyRecord(IdempotencyKey record) {
-        idempotencyKeyRepository.findByIdempotencyKey(record.getIdempotencyKey())
+        idempotencyKeyRepository.findById(record.getId())
                 .ifPresent(managedRecord -> {
                     managedRecord.setPaymentStatus(PaymentStatus.FAILED);
                     managedRecord.setLocked(false);
                 });
     }
 
+    /**
+     * One keyset page of a merchant's payments, projected straight into DTOs. Fetches one row
+     * more than requested to learn whether another page follows.
+     */
+    @Transactional(readOnly = true)
+    PaymentPageResponse listPayments(Long merchantId,
+                                     PaymentStatus status,
+                                     String providerName,
+                                     String currency,
+                                     PaymentCursor after,
+                                     int limit) {
+        List<PaymentSummaryResponse> rows = paymentRepository.findPaymentPage(merchantId, status, providerName, currency,
+                after != null ? after.createdAt() : null, after != null ? after.id() : null, limit + 1);
+        if (rows.size() <= limit) {
+            return new PaymentPageResponse(rows, false, null);
+        }
+
+        List<PaymentSummaryResponse> page = rows.subList(0, limit);
+        PaymentSummaryResponse last = page.get(limit - 1);
+        String nextCursor = new PaymentCursor(
+                LocalDateTime.ofInstant(last.getCreatedAt(), ZoneOffset.UTC), last.getId()).encode();
+        return new PaymentPageResponse(List.copyOf(page), true, nextCursor);
+    }
+
     // -------------------------------------------------------------------------
-    // Private helpers
+    // Batch creation (see BatchPaymentService)
+    // -------------------------------------------------------------------------
+
+    /**
+     * Phase 1 for a whole batch in one transaction. Idempotency conflicts reject only the
+     * affected entry; they are detected before any write, so the rest of the batch proceeds.
+     *
+     * @return one result per entry, in order
+     */
+    @Transactional
+    List<PreparePaymentResult> prepareBatch(Merchant merchant,
+                                            List<BatchPaymentItem> items,
+                                            List<String> requestHashes) {
+        List<PreparePaymentResult> results = new ArrayList<>(items.size());
+        for (int i = 0; i < items.size(); i++) {
+            BatchPaymentItem item = items.get(i);
+            try {
+                results.add(preparePayment(merchant, item.getPayment(), item.getIdempotencyKey(), requestHashes.get(i)));
+            } catch (IllegalStateException ex) {
+                results.add(PreparePaymentResult.rejected(ex.getMessage()));
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Phase 3 for a whole batch in one transaction: inserts every payment and settles every
+     * idempotency record. The records are re-read in one query so their updates are flushed
+     * together with the payment inserts as JDBC batches.
+     *
+     * @return the created payments, in the order of {@code completions}
+     */
+    @Transactional
+    List<PaymentResponse> finalizeBatch(Merchant merchant,
+                                        List<BatchCompletion> completions,
+                                        List<IdempotencyKey> failedRecords) {
+        Map<Integer, IdempotencyKey> managedRecords = loadRecords(Stream.concat(
+                completions.stream().map(BatchCompletion::idempotencyRecord), failedRecords.stream()));
+
+        List<Payment> payments = new ArrayList<>(completions.size());
+        for (BatchCompletion completion : completions) {
+            PaymentProviderResponse providerResponse = completion.providerResponse();
+            Payment payment = new Payment();
+            payment.setMerchant(merchant);
+            payment.setProvider(providerRepository.getReferenceById(completion.providerId()));
+            payment.setAmount(completion.request().getAmount());
+            payment.setCurrency(completion.request().getCurrency());
+            payment.setStatus(mapProviderStatus(providerResponse.getStatus()));
+            payment.setProviderReference(providerResponse.getProviderPaymentId());
+            payment.setCheckoutUrl(providerResponse.getCheckoutUrl());
+            payments.add(payment);
+        }
+        List<Payment> savedPayments = paymentRepository.saveAll(payments);
+
+        List<PaymentResponse> responses = new ArrayList<>(completions.size());
+        for (int i = 0; i < completions.size(); i++) {
+            BatchCompletion completion = completions.get(i);
+            Payment savedPayment = savedPayments.get(i);
+            PaymentResponse response = toPaymentResponse(savedPayment, completion.request(),
+                    completion.providerName(), completion.providerResponse());
+
+            IdempotencyKey record = managedRecords.get(completion.idempotencyRecord().getId());
+            record.setPaymentStatus(savedPayment.getStatus());
+            record.setLocked(false);
+            record.setResponse(writeAsString(response));
+            responses.add(response);
+        }
+
+        for (IdempotencyKey failed : failedRecords) {
+            IdempotencyKey record = managedRecords.get(failed.getId());
+            record.setPaymentStatus(PaymentStatus.FAILED);
+            record.setLocked(false);
+        }
+        return responses;
+    }
+
+    /**
+     * Batch counterpart of {@link #failIdempotencyRecord}; used when Phase 3 of a batch fails.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    void failIdempotencyRecords(List<IdempotencyKey> records) {
+        loadRecords(records.stream()).values().forEach(managedRecord -> {
+            managedRecord.setPaymentStatus(PaymentStatus.FAILED);
+            managedRecord.setLocked(false);
+        });
+    }
+
+    /**
+     * Provider outcome of one batch entry, handed from Phase 2 to {@link #finalizeBatch}.
+     */
+    record BatchCompletion(Long providerId,
+                           String providerName,
+                           PaymentProviderResponse providerResponse,
+                           IdempotencyKey idempotencyRecord,
+                           CreatePaymentRequest request) {
+    }
+
+    // -------------------------------------------------------------------------
+    // Asynchronous creation (see AsyncPaymentService / PaymentJobWorker)
     // -------------------------------------------------------------------------
 
-    private Customer resolveCustomer(Merchant merchant, CreatePaymentRequest request) {
-        Customer customer = new Customer();
-        customer.setMerchant(merchant);
-        customer.setEmail(request.getEmail());
-        customer.setFullName(request.getCustomerName());
-        customer.setPhone(request.getCustomerPhone());
-
-        String referenceSeed = request.getCustomerReference();
-        if (referenceSeed == null || referenceSeed.isBlank()) {
-            referenceSeed = request.getEmail() != null
-                    ? request.getEmail()
-                    : UUID.randomUUID().toString();
+    /**
+     * Phase 1 of an asynchronous create: the usual idempotency/customer work plus a
+     * {@code PROCESSING} payment row, in one short transaction. The accepted response is stored
+     * on the idempotency record so a replay returns the same payment id, and the job is written
+     * to the outbox so it is not lost if publishing it after the commit never happens.
+     *
+     * @return a cached response to replay, or a record whose response holds the accepted payment
+     */
+    @Transactional
+    PreparePaymentResult acceptAsyncPayment(Merchant merchant,
+                                            CreatePaymentRequest request,
+                                            String idempotencyKey,
+                                            String requestHash,
+                                            Long providerId,
+                                            String providerName,
+                                            String callbackUrl) {
+        PreparePaymentResult preparation = preparePayment(merchant, request, idempotencyKey, requestHash);
+        if (preparation.hasCachedResponse()) {
+            return preparation;
         }
 
-        int externalId = Math.abs(referenceSeed.hashCode());
-        customer.setExternalCustomerId(externalId == 0 ? 1 : externalId);
-        return customerRepository.save(customer);
+        Payment payment = new Payment();
+        payment.setMerchant(merchant);
+        payment.setProvider(providerRepository.getReferenceById(providerId));
+        payment.setAmount(request.getAmount());
+        payment.setCurrency(request.getCurrency());
+        payment.setStatus(PaymentStatus.PROCESSING);
+        Payment savedPayment = paymentRepository.save(payment);
+
+        PaymentResponse response = toPaymentResponse(savedPayment, request, providerName, new PaymentProviderResponse());
+        response.setExpiresAt(null);
+        response.setMessage("Payment accepted for processing");
+
+        IdempotencyKey record = preparation.getIdempotencyRecord();
+        record.setLocked(false);
+        record.setResponse(writeAsString(response));
+        idempotencyKeyRepository.save(record);
+
+        paymentJobOutboxRepository.save(PaymentJobOutbox.queued(savedPayment.getId(), writeAsString(
+                new PaymentJobMessage(savedPayment.getId(), merchant.getId(), idempotencyKey, providerName, callbackUrl, request))));
+        return preparation;
+    }
+
+    /**
+     * Whether a queued payment still needs its provider call; guards against redelivered jobs.
+     */
+    @Transactional(readOnly = true)
+    boolean isAwaitingProvider(UUID paymentId) {
+        return paymentRepository.findById(paymentId)
+                .map(payment -> payment.getStatus() == PaymentStatus.PROCESSING
+                        && payment.getProviderReference() == null)
+                .orElse(false);
+    }
+
+    /**
+     * Phase 3 of an asynchronous create: records the provider result on the queued payment
+     * and replaces the accepted response on the idempotency record with the final one.
+     */
+    @Transactional
+    PaymentResponse completeAsyncPayment(UUID paymentId,
+                                         String idempotencyKey,
+                                         PaymentProviderResponse providerResponse,
+                                         CreatePaymentRequest request,
+                                         String providerName) {
+        Payment payment = paymentRepository.findById(paymentId)
+                .orElseThrow(() -> new IllegalStateException("Queued payment not found: " + paymentId));
+        paymentJobOutboxRepository.deleteByPaymentId(paymentId);
+        PaymentStatus paymentStatus = mapProviderStatus(providerResponse.getStatus());
+        payment.setStatus(paymentStatus);
+        payment.setProviderReference(providerResponse.getProviderPaymentId());
+        payment.setCheckoutUrl(providerResponse.getCheckoutUrl());
+
+        paymentStatusCache.updateAfterCommit(payment);
+
+        PaymentResponse response = toPaymentResponse(payment, request, providerName, providerResponse);
+        idempotencyKeyRepository.findByMerchantIdAndIdempotencyKey(payment.getMerchant().getId(), idempotencyKey)
+                .ifPresent(record -> {
+                    record.setPaymentStatus(paymentStatus);
+                    record.setLocked(false);
+                    record.setResponse(writeAsString(response));
+                });
+        return response;
+    }
+
+    /**
+     * Marks a queued payment as failed. The idempotency response is cleared so the client may
+     * retry with the same key, matching the synchronous failure behaviour.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    void failAsyncPayment(UUID paymentId, String idempotencyKey) {
+        paymentRepository.findById(paymentId)
+                .ifPresent(payment -> {
+                    payment.setStatus(PaymentStatus.FAILED);
+                    paymentStatusCache.updateAfterCommit(payment);
+                    paymentJobOutboxRepository.deleteByPaymentId(paymentId);
+                    idempotencyKeyRepository.findByMerchantIdAndIdempotencyKey(payment.getMerchant().getId(), idempotencyKey)
+                            .ifPresent(record -> {
+                                record.setPaymentStatus(PaymentStatus.FAILED);
+                                record.setLocked(false);
+                                record.setResponse(null);
+                            });
+                });
+    }
+
+    // -------------------------------------------------------------------------
+    // Private helpers
+    // -------------------------------------------------------------------------
+
+    private Map<Integer, IdempotencyKey> loadRecords(Stream<IdempotencyKey> records) {
+        List<Integer> ids = records.map(IdempotencyKey::getId).toList();
+        if (ids.isEmpty()) {
+            return Map.of();
+        }
+        return idempotencyKeyRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(IdempotencyKey::getId, Function.identity()));
     }
 
     private PaymentResponse toPaymentResponse(Payment payment,
@@ -225,11 +468,11 @@ class PaymentTransactionHelper {
         };
     }
 
-    private String writeAsString(PaymentResponse response) {
+    private String writeAsString(Object value) {
         try {
-            return objectMapper.writeValueAsString(response);
+            return objectMapper.writeValueAsString(value);
         } catch (Exception ex) {
-            throw new RuntimeException("Failed to serialize payment response", ex);
+            throw new RuntimeException("Failed to serialize " + value.getClass().getSimpleName(), ex);
         }
     }
 }
@@ -5,24 +5,39 @@ import com.paybridge.Models.Entities.IdempotencyKey;
 /**
  * Carries the result of the first transaction phase in payment creation.
  * Either the existing serialized response (idempotent replay), or a locked
- * {@link IdempotencyKey} record ready for the external provider call.
+ * {@link IdempotencyKey} record ready for the external provider call. Batch preparation
+ * may also reject a single entry without failing the rest of the batch.
  */
 class PreparePaymentResult {
 
     private final String cachedResponse;
     private final IdempotencyKey idempotencyRecord;
+    private final String rejection;
 
-    private PreparePaymentResult(String cachedResponse, IdempotencyKey idempotencyRecord) {
+    private PreparePaymentResult(String cachedResponse, IdempotencyKey idempotencyRecord, String rejection) {
         this.cachedResponse = cachedResponse;
         this.idempotencyRecord = idempotencyRecord;
+        this.rejection = rejection;
     }
 
     static PreparePaymentResult cached(String response) {
-        return new PreparePaymentResult(response, null);
+        return new PreparePaymentResult(response, null, null);
     }
 
     static PreparePaymentResult proceed(IdempotencyKey record) {
-        return new PreparePaymentResult(null, record);
+        return new PreparePaymentResult(null, record, null);
+    }
+
+    static PreparePaymentResult rejected(String reason) {
+        return new PreparePaymentResult(null, null, reason);
+    }
+
+    boolean isRejected() {
+        return rejection != null;
+    }
+
+    String getRejection() {
+        return rejection;
     }
 
     boolean hasCachedResponse() {
@@ -0,0 +1,12 @@
+package com.paybridge.Services;
+
+import java.util.Set;
+
+/**
+ * Published after a merchant's provider credentials are written or removed.
+ *
+ * @param retiredFingerprints {@link com.paybridge.Security.SecretFingerprint fingerprints} of the
+ *                            secret values that are no longer valid for this merchant
+ */
+public record ProviderCredentialsChangedEvent(String providerName, Long merchantId, Set<String> retiredFingerprints) {
+}
@@ -0,0 +1,101 @@
+package com.paybridge.Services;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Live, in-memory health of each payment provider: exponentially weighted moving averages of
+ * call latency and error rate, fed by {@link ResilientPaymentProvider} after every call.
+ * Updates are single CAS operations, so recording and scoring never block a request.
+ *
+ * <p>Providers that have not been called yet start from {@code payments.routing.initial-latency-ms}
+ * and a zero error rate.
+ */
+@Component
+public class ProviderHealthTracker {
+
+    private final ConcurrentMap<String, ProviderStats> stats = new ConcurrentHashMap<>();
+    private final double alpha;
+    private final double initialLatencyMillis;
+    private final double errorPenaltyMillis;
+
+    public ProviderHealthTracker(@Value("${payments.routing.ewma-alpha:0.2}") double alpha,
+                                 @Value("${payments.routing.initial-latency-ms:500}") double initialLatencyMillis,
+                                 @Value("${payments.routing.error-penalty-ms:5000}") double errorPenaltyMillis) {
+        this.alpha = alpha;
+        this.initialLatencyMillis = initialLatencyMillis;
+        this.errorPenaltyMillis = errorPenaltyMillis;
+    }
+
+    /**
+     * @param healthy false only for failures that reflect on the provider
+     *                (see {@link ResilientPaymentProvider#isProviderFault})
+     */
+    public void record(String provider, long latencyNanos, boolean healthy) {
+        ProviderStats providerStats = statsFor(provider);
+        providerStats.latencyMillis.update(latencyNanos / (double) TimeUnit.MILLISECONDS.toNanos(1), alpha);
+        providerStats.errorRate.update(healthy ? 0 : 1, alpha);
+    }
+
+    /**
+     * Expected cost of routing to {@code provider}, in milliseconds; lower is better. Each unit of
+     * error rate adds {@code payments.routing.error-penalty-ms}, roughly the cost of a failed
+     * attempt followed by a retry elsewhere.
+     */
+    public double score(String provider) {
+        ProviderStats providerStats = statsFor(provider);
+        return providerStats.latencyMillis.get() + providerStats.errorRate.get() * errorPenaltyMillis;
+    }
+
+    public double latencyMillis(String provider) {
+        return statsFor(provider).latencyMillis.get();
+    }
+
+    public double errorRate(String provider) {
+        return statsFor(provider).errorRate.get();
+    }
+
+    private ProviderStats statsFor(String provider) {
+        ProviderStats existing = stats.get(provider);
+        return existing != null ? existing : stats.computeIfAbsent(provider, name -> new ProviderStats(initialLatencyMillis));
+    }
+
+    private static final class ProviderStats {
+        private final Ewma latencyMillis;
+        private final Ewma errorRate = new Ewma(0);
+
+        private ProviderStats(double initialLatencyMillis) {
+            this.latencyMillis = new Ewma(initialLatencyMillis);
+        }
+    }
+
+    /**
+     * A double EWMA stored as raw long bits so it can be updated with compare-and-set.
+     */
+    private static final class Ewma {
+        private final AtomicLong bits;
+
+        private Ewma(double initial) {
+            this.bits = new AtomicLong(Double.doubleToRawLongBits(initial));
+        }
+
+        double get() {
+            return Double.longBitsToDouble(bits.get());
+        }
+
+        void update(double sample, double alpha) {
+            long current;
+            long next;
+            do {
+                current = bits.get();
+                double value = Double.longBitsToDouble(current);
+                next = Double.doubleToRawLongBits(value + alpha * (sample - value));
+            } while (!bits.compareAndSet(current, next));
+        }
+    }
+}
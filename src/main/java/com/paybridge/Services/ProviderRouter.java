@@ -0,0 +1,184 @@
+package com.paybridge.Services;
+
+import com.paybridge.Configs.PaymentProvider;
+import com.paybridge.Exceptions.ProviderUnavailableException;
+import com.paybridge.Models.DTOs.CreatePaymentRequest;
+import com.paybridge.Models.DTOs.PaymentProviderResponse;
+import com.paybridge.Services.MerchantRoutingSnapshot.RoutedProvider;
+import org.apache.hc.client5.http.ConnectTimeoutException;
+import org.apache.hc.core5.http.ConnectionRequestTimeoutException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.net.ConnectException;
+import java.net.SocketTimeoutException;
+import java.net.UnknownHostException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Chooses and calls the provider for a payment (Phase 2).
+ *
+ * <p>An explicitly requested provider is always used as-is. Otherwise the merchant's enabled
+ * providers that support the payment currency are ranked: providers with an open circuit
+ * breaker last, then by {@link ProviderHealthTracker#score}. A small share of traffic
+ * ({@code payments.routing.exploration-rate}) goes to the runner-up so its scores stay current.
+ *
+ * <p>The next candidate is tried only when the request provably never reached the provider:
+ * the connection was refused or timed out, the host did not resolve, no pooled connection could
+ * be leased, or the provider's breaker or bulkhead rejected the call. A read timeout is not
+ * enough — the provider may already have created the checkout session, and a second provider
+ * would open another one — so it fails the payment like any other error. Every call carries
+ * {@link #providerIdempotencyKey}, derived from the merchant and the client's Idempotency-Key, so
+ * when the client retries such a failure the provider returns the session it already created
+ * instead of opening a second one.
+ * No candidate is tried once the caller's {@link RequestDeadline} has passed.
+ * Everything here is in memory — ranking costs microseconds and no queries.
+ */
+@Component
+public class ProviderRouter {
+
+    private static final Logger log = LoggerFactory.getLogger(ProviderRouter.class);
+
+    private final PaymentProviderRegistry paymentProviderRegistry;
+    private final CredentialStorageService credentialStorageService;
+    private final PaymentConcurrencyLimiter concurrencyLimiter;
+    private final ProviderHealthTracker healthTracker;
+    private final double explorationRate;
+
+    public ProviderRouter(PaymentProviderRegistry paymentProviderRegistry,
+                          CredentialStorageService credentialStorageService,
+                          PaymentConcurrencyLimiter concurrencyLimiter,
+                          ProviderHealthTracker healthTracker,
+                          @Value("${payments.routing.exploration-rate:0.05}") double explorationRate) {
+        this.paymentProviderRegistry = paymentProviderRegistry;
+        this.credentialStorageService = credentialStorageService;
+        this.concurrencyLimiter = concurrencyLimiter;
+        this.healthTracker = healthTracker;
+        this.explorationRate = explorationRate;
+    }
+
+    /**
+     * Providers to try for {@code request}, best first.
+     */
+    public List<RoutedProvider> rank(MerchantRoutingSnapshot snapshot, CreatePaymentRequest request) {
+        List<RoutedProvider> candidates = snapshot.candidates(request.getProvider());
+        if (candidates.size() == 1) {
+            return candidates;
+        }
+
+        // Scores are read once up front: they move under concurrent traffic, and a comparator
+        // whose answers change mid-sort breaks the sort contract.
+        List<RankedCandidate> scored = new ArrayList<>(candidates.size());
+        for (RoutedProvider candidate : candidates) {
+            if (paymentProviderRegistry.supportsCurrency(candidate.name(), request.getCurrency())) {
+                scored.add(new RankedCandidate(candidate,
+                        paymentProviderRegistry.isCircuitOpen(candidate.name()),
+                        healthTracker.score(candidate.name())));
+            }
+        }
+        if (scored.isEmpty()) {
+            throw new IllegalStateException(
+                    "No enabled payment provider supports currency " + request.getCurrency());
+        }
+        scored.sort(Comparator.comparing(RankedCandidate::circuitOpen).thenComparingDouble(RankedCandidate::score));
+
+        if (scored.size() > 1
+                && !scored.get(1).circuitOpen()
+                && ThreadLocalRandom.current().nextDouble() < explorationRate) {
+            RankedCandidate best = scored.get(0);
+            scored.set(0, scored.get(1));
+            scored.set(1, best);
+        }
+        return scored.stream().map(RankedCandidate::provider).toList();
+    }
+
+    /**
+     * Calls the best-ranked provider, failing over to the next candidate when a provider
+     * cannot be reached. Runs under a provider permit; holds no DB connection.
+     */
+    public RoutedPayment createPayment(MerchantRoutingSnapshot snapshot,
+                                       CreatePaymentRequest request,
+                                       String idempotencyKey) {
+        List<RoutedProvider> candidates = rank(snapshot, request);
+        String providerIdempotencyKey = providerIdempotencyKey(snapshot.getMerchantId(), idempotencyKey);
+        for (int i = 0; ; i++) {
+            RoutedProvider candidate = candidates.get(i);
+            try {
+                return new RoutedPayment(candidate, call(candidate, snapshot.getMerchantId(), request, providerIdempotencyKey));
+            } catch (RuntimeException ex) {
+                if (i == candidates.size() - 1 || !isFailoverSafe(ex)) {
+                    throw ex;
+                }
+                log.warn("Provider {} unreachable for merchant {}, failing over to {}: {}",
+                        candidate.name(), snapshot.getMerchantId(), candidates.get(i + 1).name(), ex.getMessage());
+            }
+        }
+    }
+
+    private PaymentProviderResponse call(RoutedProvider candidate, Long merchantId,
+                                         CreatePaymentRequest request, String providerIdempotencyKey) {
+        RequestDeadline deadline = RequestDeadline.current();
+        deadline.check("reading " + candidate.name() + " credentials");
+        Map<String, Object> credentials =
+                credentialStorageService.getProviderConfig(candidate.name(), merchantId);
+        deadline.check("calling " + candidate.name());
+        PaymentProvider paymentProvider = paymentProviderRegistry.getProvider(candidate.name());
+        PaymentProviderResponse providerResponse = concurrencyLimiter.withProviderPermit(() ->
+                paymentProvider.CreatePaymentRequest(request, credentials, providerIdempotencyKey));
+        if (providerResponse == null) {
+            throw new RuntimeException("Provider returned empty payment response");
+        }
+        return providerResponse;
+    }
+
+    /**
+     * The same for every attempt a merchant makes with one Idempotency-Key, and fixed-length with
+     * only {@code [0-9a-f-]} characters whatever the client sent, so it also fits providers that
+     * use it as a payment reference.
+     */
+    static String providerIdempotencyKey(Long merchantId, String idempotencyKey) {
+        return "idem-" + UUID.nameUUIDFromBytes((merchantId + ":" + idempotencyKey).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Failures that happened before any request bytes reached the provider. Read timeouts,
+     * resets and anything the provider answered (declines, validation, 4xx/5xx) are excluded.
+     */
+    static boolean isFailoverSafe(Throwable failure) {
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ProviderUnavailableException
+                    || cause instanceof ConnectException
+                    || cause instanceof ConnectTimeoutException
+                    || cause instanceof ConnectionRequestTimeoutException
+                    || cause instanceof UnknownHostException
+                    || isJdkConnectTimeout(cause)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * {@code HttpURLConnection} (used by stripe-java) reports a connect timeout as a plain
+     * {@link SocketTimeoutException}; only its message tells it apart from a read timeout.
+     */
+    private static boolean isJdkConnectTimeout(Throwable cause) {
+        return cause instanceof SocketTimeoutException
+                && cause.getMessage() != null
+                && cause.getMessage().regionMatches(true, 0, "connect timed out", 0, 17);
+    }
+
+    public record RoutedPayment(RoutedProvider provider, PaymentProviderResponse response) {
+    }
+
+    private record RankedCandidate(RoutedProvider provider, boolean circuitOpen, double score) {
+    }
+}
@@ -0,0 +1,25 @@
+package com.paybridge.Services;
+
+import com.paybridge.Security.SecretFingerprint;
+
+/**
+ * A stored provider secret together with the {@link SecretFingerprint} of the value as stored,
+ * so callers can key caches on the fingerprint without hashing the secret on every request.
+ * {@link #withValue} keeps the fingerprint when the value is normalised for use (e.g. a
+ * {@code Bearer } prefix stripped), so it still matches the fingerprints a rotation retires.
+ */
+public record ProviderSecret(String value, String fingerprint) {
+
+    public static ProviderSecret of(String value) {
+        return new ProviderSecret(value, SecretFingerprint.of(value));
+    }
+
+    public ProviderSecret withValue(String normalizedValue) {
+        return new ProviderSecret(normalizedValue, fingerprint);
+    }
+
+    @Override
+    public String toString() {
+        return "ProviderSecret[fingerprint=" + fingerprint + "]";
+    }
+}
@@ -35,12 +35,15 @@ public class ProviderService {
 
     private final PaymentProviderRegistry paymentProviderRegistry;
 
-    public ProviderService(CredentialStorageService credentialStorageService, MerchantRepository merchantRepository, ProviderRepository providerRepository, ProviderConfigRepository providerConfigRepository, PaymentProviderRegistry paymentProviderRegistry) {
+    private final MerchantRoutingCache merchantRoutingCache;
+
+    public ProviderService(CredentialStorageService credentialStorageService, MerchantRepository merchantRepository, ProviderRepository providerRepository, ProviderConfigRepository providerConfigRepository, PaymentProviderRegistry paymentProviderRegistry, MerchantRoutingCache merchantRoutingCache) {
         this.credentialStorageService = credentialStorageService;
         this.merchantRepository = merchantRepository;
         this.providerRepository = providerRepository;
         this.providerConfigRepository = providerConfigRepository;
         this.paymentProviderRegistry = paymentProviderRegistry;
+        this.merchantRoutingCache = merchantRoutingCache;
     }
 
     /**
@@ -130,7 +133,9 @@ public class ProviderService {
             merchant.setStatus(MerchantStatus.ACTIVE);
             merchantRepository.save(merchant);
         }
-        return providerConfigRepository.save(config);
+        ProviderConfig savedConfig = providerConfigRepository.save(config);
+        merchantRoutingCache.refreshAfterCommit(merchantId);
+        return savedConfig;
     }
 
     @Transactional(readOnly = true)
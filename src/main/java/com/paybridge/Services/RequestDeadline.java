@@ -0,0 +1,109 @@
+package com.paybridge.Services;
+
+import com.paybridge.Exceptions.DeadlineExceededException;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * The point in time after which the client is no longer waiting for a payment request.
+ *
+ * <p>{@link PaymentService} binds the deadline to the calling thread around Phase 1 and Phase 2
+ * ({@link #call}); code further down the stack reads it with {@link #current()} to shorten its
+ * own waits — permit acquisition, the Phase 1 transaction timeout, provider HTTP timeouts and
+ * Vault reads. Phase 3 is never bound: once a provider has created the payment it is recorded
+ * whether or not anybody is still waiting for the answer.
+ *
+ * <p>Work that is not tied to a waiting client (batches, queued payments) runs with
+ * {@link #none()}, which never expires.
+ */
+public final class RequestDeadline {
+
+    private static final RequestDeadline NONE = new RequestDeadline(0, false);
+    private static final Duration UNBOUNDED = Duration.ofMillis(Long.MAX_VALUE);
+    private static final ThreadLocal<RequestDeadline> CURRENT = new ThreadLocal<>();
+
+    private final long expiresAtNanos;
+    private final boolean bounded;
+
+    private RequestDeadline(long expiresAtNanos, boolean bounded) {
+        this.expiresAtNanos = expiresAtNanos;
+        this.bounded = bounded;
+    }
+
+    public static RequestDeadline after(Duration budget) {
+        return new RequestDeadline(System.nanoTime() + budget.toNanos(), true);
+    }
+
+    public static RequestDeadline none() {
+        return NONE;
+    }
+
+    /**
+     * The deadline bound to this thread, or {@link #none()} outside {@link #call}.
+     */
+    public static RequestDeadline current() {
+        RequestDeadline deadline = CURRENT.get();
+        return deadline != null ? deadline : NONE;
+    }
+
+    public boolean isBounded() {
+        return bounded;
+    }
+
+    public boolean isExpired() {
+        return bounded && System.nanoTime() - expiresAtNanos >= 0;
+    }
+
+    public Duration remaining() {
+        if (!bounded) {
+            return UNBOUNDED;
+        }
+        long remainingNanos = expiresAtNanos - System.nanoTime();
+        return remainingNanos > 0 ? Duration.ofNanos(remainingNanos) : Duration.ZERO;
+    }
+
+    /**
+     * The shorter of {@code timeout} and the time left, for downstream calls with their own timeout.
+     */
+    public Duration cap(Duration timeout) {
+        Duration remaining = remaining();
+        return remaining.compareTo(timeout) < 0 ? remaining : timeout;
+    }
+
+    /**
+     * Fails fast when there is no time left to start {@code stage}.
+     */
+    public void check(String stage) {
+        if (isExpired()) {
+            throw new DeadlineExceededException("Request deadline exceeded before " + stage);
+        }
+    }
+
+    /**
+     * Runs {@code work} with this deadline bound to the calling thread. A failure after the
+     * deadline has passed is reported as {@link DeadlineExceededException} — a read timeout cut
+     * short by the deadline is the deadline's doing, not the downstream's.
+     */
+    public <T> T call(String stage, Supplier<T> work) {
+        check(stage);
+        RequestDeadline previous = CURRENT.get();
+        CURRENT.set(this);
+        try {
+            return work.get();
+        } catch (DeadlineExceededException ex) {
+            throw ex;
+        } catch (RuntimeException ex) {
+            if (isExpired()) {
+                throw new DeadlineExceededException("Request deadline exceeded during " + stage, ex);
+            }
+            throw ex;
+        } finally {
+            if (previous != null) {
+                CURRENT.set(previous);
+            } else {
+                CURRENT.remove();
+            }
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.paybridge.Services;
+
+import com.paybridge.Models.Entities.Merchant;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Works out how long a payment request may run.
+ *
+ * <p>The client's {@code X-Request-Timeout} header (milliseconds) wins, then the merchant's
+ * {@code request_timeout_ms}, then {@code payments.deadline.default-ms}; a default of 0 means
+ * no deadline. Whatever the source, the budget is capped at {@code payments.deadline.max-ms}.
+ */
+@Component
+public class RequestDeadlinePolicy {
+
+    public static final String TIMEOUT_HEADER = "X-Request-Timeout";
+
+    private final long defaultMs;
+    private final long maxMs;
+
+    public RequestDeadlinePolicy(@Value("${payments.deadline.default-ms:0}") long defaultMs,
+                                 @Value("${payments.deadline.max-ms:60000}") long maxMs) {
+        this.defaultMs = defaultMs;
+        this.maxMs = maxMs;
+    }
+
+    public RequestDeadline resolve(Merchant merchant, String requestedTimeout) {
+        long budgetMs;
+        if (requestedTimeout != null && !requestedTimeout.isBlank()) {
+            budgetMs = parseTimeout(requestedTimeout.trim());
+        } else if (merchant != null && merchant.getRequestTimeoutMs() != null) {
+            budgetMs = merchant.getRequestTimeoutMs();
+        } else {
+            budgetMs = defaultMs;
+        }
+        if (budgetMs <= 0) {
+            return RequestDeadline.none();
+        }
+        return RequestDeadline.after(Duration.ofMillis(Math.min(budgetMs, maxMs)));
+    }
+
+    private long parseTimeout(String value) {
+        long timeoutMs;
+        try {
+            timeoutMs = Long.parseLong(value);
+        } catch (NumberFormatException ex) {
+            timeoutMs = -1;
+        }
+        if (timeoutMs <= 0) {
+            throw new IllegalArgumentException(TIMEOUT_HEADER + " must be a positive number of milliseconds");
+        }
+        return timeoutMs;
+    }
+}
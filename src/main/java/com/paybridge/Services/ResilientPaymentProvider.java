@@ -0,0 +1,122 @@
+package com.paybridge.Services;
+
+import com.paybridge.Configs.PaymentProvider;
+import com.paybridge.Exceptions.ProviderUnavailableException;
+import com.paybridge.Models.DTOs.CreatePaymentRequest;
+import com.paybridge.Models.DTOs.PaymentProviderResponse;
+import com.stripe.exception.StripeException;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+
+import java.util.Map;
+
+/**
+ * Guards {@link PaymentProvider#CreatePaymentRequest} with a per-provider bulkhead and circuit
+ * breaker, so a degraded provider is failed fast instead of tying up threads and permits that
+ * payments for healthy providers need. Connection tests are passed through unguarded.
+ */
+class ResilientPaymentProvider implements PaymentProvider {
+
+    private final PaymentProvider delegate;
+    private final CircuitBreaker circuitBreaker;
+    private final Bulkhead bulkhead;
+    private final ProviderHealthTracker healthTracker;
+    private final long retryAfterSeconds;
+
+    ResilientPaymentProvider(PaymentProvider delegate,
+                             CircuitBreaker circuitBreaker,
+                             Bulkhead bulkhead,
+                             ProviderHealthTracker healthTracker,
+                             long retryAfterSeconds) {
+        this.delegate = delegate;
+        this.circuitBreaker = circuitBreaker;
+        this.bulkhead = bulkhead;
+        this.healthTracker = healthTracker;
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    @Override
+    public ConnectionTestResult testConnection(Map<String, Object> credentials) {
+        return delegate.testConnection(credentials);
+    }
+
+    @Override
+    public PaymentProviderResponse CreatePaymentRequest(CreatePaymentRequest request, Map<String, Object> credentials) {
+        return CreatePaymentRequest(request, credentials, null);
+    }
+
+    @Override
+    public PaymentProviderResponse CreatePaymentRequest(CreatePaymentRequest request,
+                                                        Map<String, Object> credentials,
+                                                        String idempotencyKey) {
+        try {
+            return Bulkhead.decorateSupplier(bulkhead,
+                    CircuitBreaker.decorateSupplier(circuitBreaker,
+                            () -> trackedCall(request, credentials, idempotencyKey))).get();
+        } catch (CallNotPermittedException ex) {
+            throw new ProviderUnavailableException(
+                    "Provider " + getProviderName() + " is temporarily unavailable", retryAfterSeconds);
+        } catch (BulkheadFullException ex) {
+            throw new ProviderUnavailableException(
+                    "Provider " + getProviderName() + " is at capacity, please retry", 1);
+        }
+    }
+
+    @Override
+    public String getProviderName() {
+        return delegate.getProviderName();
+    }
+
+    @Override
+    public boolean supportsCurrency(String currency) {
+        return delegate.supportsCurrency(currency);
+    }
+
+    private PaymentProviderResponse trackedCall(CreatePaymentRequest request,
+                                                Map<String, Object> credentials,
+                                                String idempotencyKey) {
+        long start = System.nanoTime();
+        boolean healthy = false;
+        try {
+            PaymentProviderResponse response = idempotencyKey == null
+                    ? delegate.CreatePaymentRequest(request, credentials)
+                    : delegate.CreatePaymentRequest(request, credentials, idempotencyKey);
+            healthy = true;
+            return response;
+        } catch (RuntimeException ex) {
+            healthy = !isProviderFault(ex);
+            throw ex;
+        } finally {
+            healthTracker.record(getProviderName(), System.nanoTime() - start, healthy);
+        }
+    }
+
+    CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    /**
+     * Whether a failure says something about the provider's health. Request validation errors
+     * and 4xx responses (other than 429) come from the merchant's input or credentials; counting
+     * them would let one misconfigured merchant open the breaker for everyone.
+     */
+    static boolean isProviderFault(Throwable failure) {
+        if (failure instanceof IllegalArgumentException) {
+            return false;
+        }
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            if (cause instanceof HttpClientErrorException clientError) {
+                return clientError.getStatusCode().isSameCodeAs(HttpStatus.TOO_MANY_REQUESTS);
+            }
+            if (cause instanceof StripeException stripeError && stripeError.getStatusCode() != null) {
+                int status = stripeError.getStatusCode();
+                return status == 429 || status >= 500;
+            }
+        }
+        return true;
+    }
+}
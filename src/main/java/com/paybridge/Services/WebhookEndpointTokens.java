@@ -0,0 +1,95 @@
+package com.paybridge.Services;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Optional;
+
+/**
+ * Issues and checks the {@code merchantToken} in merchant-scoped webhook URLs
+ * ({@code /api/v1/webhooks/{provider}/{merchantToken}}).
+ *
+ * <p>A token is the merchant id followed by a truncated HMAC-SHA256 of the provider and merchant
+ * id under {@code webhooks.endpoint-token.secret}, Base64url encoded. Checking one needs nothing
+ * but that key, so a forged or garbled token is rejected after a single hash, without touching the
+ * database, Vault or any cache that could be filled by junk. Tokens are deterministic: the URL a
+ * merchant registers with the provider does not change until the key does.
+ *
+ * <p>With no key configured the merchant-scoped endpoints are disabled and {@link #issue} returns
+ * {@code null}; the provider-wide endpoints keep working.
+ */
+@Component
+public class WebhookEndpointTokens {
+
+    private static final int TAG_BYTES = 16;
+    private static final int TOKEN_BYTES = Long.BYTES + TAG_BYTES;
+    private static final int TOKEN_LENGTH = Base64.getUrlEncoder().withoutPadding()
+            .encodeToString(new byte[TOKEN_BYTES]).length();
+
+    private final String secret;
+    private final Mac prototype;
+
+    public WebhookEndpointTokens(@Value("${webhooks.endpoint-token.secret:}") String secret) {
+        this.secret = secret == null || secret.isBlank() ? null : secret.trim();
+        this.prototype = this.secret == null ? null : WebhookSignatures.newMac(WebhookSignatures.HMAC_SHA256, this.secret);
+    }
+
+    public boolean isEnabled() {
+        return prototype != null;
+    }
+
+    /**
+     * The token for {@code merchantId}'s {@code provider} endpoint, or {@code null} when endpoint
+     * tokens are not configured.
+     */
+    public String issue(String provider, Long merchantId) {
+        if (prototype == null) {
+            return null;
+        }
+        ByteBuffer token = ByteBuffer.allocate(TOKEN_BYTES)
+                .putLong(merchantId)
+                .put(tag(provider, merchantId));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(token.array());
+    }
+
+    /**
+     * The merchant id carried by {@code token}, if it was issued for {@code provider}.
+     */
+    public Optional<Long> resolve(String provider, String token) {
+        if (prototype == null || token == null || token.length() != TOKEN_LENGTH) {
+            return Optional.empty();
+        }
+        byte[] decoded;
+        try {
+            decoded = Base64.getUrlDecoder().decode(token);
+        } catch (IllegalArgumentException ex) {
+            return Optional.empty();
+        }
+        long merchantId = ByteBuffer.wrap(decoded).getLong();
+        byte[] provided = Arrays.copyOfRange(decoded, Long.BYTES, TOKEN_BYTES);
+        return MessageDigest.isEqual(provided, tag(provider, merchantId))
+                ? Optional.of(merchantId)
+                : Optional.empty();
+    }
+
+    private byte[] tag(String provider, long merchantId) {
+        Mac mac = mac();
+        mac.update(provider.getBytes(StandardCharsets.UTF_8));
+        mac.update(ByteBuffer.allocate(Long.BYTES).putLong(merchantId).array());
+        return Arrays.copyOf(mac.doFinal(), TAG_BYTES);
+    }
+
+    private Mac mac() {
+        try {
+            return (Mac) prototype.clone();
+        } catch (CloneNotSupportedException e) {
+            return WebhookSignatures.newMac(WebhookSignatures.HMAC_SHA256, secret);
+        }
+    }
+}
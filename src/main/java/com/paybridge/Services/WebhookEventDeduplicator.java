@@ -0,0 +1,192 @@
+package com.paybridge.Services;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.paybridge.Exceptions.WebhookEventInFlightException;
+import com.paybridge.Repositories.ProcessedWebhookEventRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.GuavaCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.UUID;
+
+/**
+ * Decides whether a verified webhook event is being seen for the first time. Providers retry
+ * aggressively, so most duplicates are answered before the database:
+ *
+ * <ol>
+ *   <li>an in-process cache of event ids this node has processed and committed</li>
+ *   <li>{@code webhook:{provider}:{eventId}} in Redis — a {@code SET NX PX} claim while the event
+ *       is applied, replaced by a {@code done} marker with a TTL once it commits</li>
+ *   <li>{@code processed_webhook_events}, the durable record, written with a single
+ *       insert-if-absent</li>
+ * </ol>
+ *
+ * Only committed events enter the first two layers, so a hit there is always a real duplicate;
+ * a rolled-back attempt releases its Redis claim and the provider's retry is processed normally.
+ * A Redis error skips that layer.
+ */
+@Component
+public class WebhookEventDeduplicator {
+
+    private static final Logger logger = LoggerFactory.getLogger(WebhookEventDeduplicator.class);
+    private static final RedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end",
+            Long.class);
+    private static final String DONE = "done";
+    private static final List<String> OUTCOMES = List.of("local", "redis", "in_flight", "database", "first");
+
+    private final ProcessedWebhookEventRepository processedWebhookEventRepository;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final Map<String, Counter> outcomeCounters;
+    private final Cache<String, Boolean> recentlyProcessed;
+    private final boolean redisEnabled;
+    private final Duration claimDuration;
+    private final Duration processedTtl;
+
+    public WebhookEventDeduplicator(ProcessedWebhookEventRepository processedWebhookEventRepository,
+                                    StringRedisTemplate stringRedisTemplate,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${webhooks.dedupe.local.max-size:100000}") long localMaxSize,
+                                    @Value("${webhooks.dedupe.local.ttl-minutes:60}") long localTtlMinutes,
+                                    @Value("${webhooks.dedupe.redis.enabled:true}") boolean redisEnabled,
+                                    @Value("${webhooks.dedupe.redis.claim-ms:30000}") long claimMs,
+                                    @Value("${webhooks.dedupe.redis.ttl-hours:72}") long processedTtlHours) {
+        this.processedWebhookEventRepository = processedWebhookEventRepository;
+        this.stringRedisTemplate = stringRedisTemplate;
+        this.outcomeCounters = OUTCOMES.stream().collect(Collectors.toUnmodifiableMap(Function.identity(),
+                outcome -> Counter.builder("paybridge.webhooks.dedupe")
+                        .tag("outcome", outcome)
+                        .register(meterRegistry)));
+        this.recentlyProcessed = CacheBuilder.newBuilder()
+                .maximumSize(localMaxSize)
+                .expireAfterWrite(Duration.ofMinutes(localTtlMinutes))
+                .recordStats()
+                .build();
+        this.redisEnabled = redisEnabled;
+        this.claimDuration = Duration.ofMillis(claimMs);
+        this.processedTtl = Duration.ofHours(processedTtlHours);
+        GuavaCacheMetrics.monitor(meterRegistry, recentlyProcessed, "webhook.dedupe");
+    }
+
+    /**
+     * Claims {@code (provider, eventId)} for the surrounding transaction. Returns {@code true} when
+     * this is the first delivery — the event is recorded as processed and the caller applies it in
+     * the same transaction — and {@code false} for a duplicate.
+     *
+     * @throws WebhookEventInFlightException if another delivery of the event is being applied
+     *                                       right now; the provider retries it later
+     */
+    public boolean claim(String provider, String eventId) {
+        String key = provider + ":" + eventId;
+        if (recentlyProcessed.getIfPresent(key) != null) {
+            record("local");
+            return false;
+        }
+
+        String token = null;
+        if (redisEnabled) {
+            try {
+                token = UUID.randomUUID().toString();
+                Boolean claimed = stringRedisTemplate.opsForValue().setIfAbsent(redisKey(key), token, claimDuration);
+                if (!Boolean.TRUE.equals(claimed)) {
+                    String holder = stringRedisTemplate.opsForValue().get(redisKey(key));
+                    if (DONE.equals(holder)) {
+                        recentlyProcessed.put(key, Boolean.TRUE);
+                        record("redis");
+                        return false;
+                    }
+                    if (holder != null) {
+                        record("in_flight");
+                        throw new WebhookEventInFlightException(
+                                "Webhook event " + eventId + " is already being processed",
+                                Math.max(1, claimDuration.toSeconds()));
+                    }
+                    // The claim expired between the two calls; the database decides.
+                    token = null;
+                }
+            } catch (DataAccessException ex) {
+                logger.warn("Redis webhook dedupe unavailable, falling back to database: {}", ex.getMessage());
+                token = null;
+            }
+        }
+
+        boolean inserted;
+        try {
+            inserted = processedWebhookEventRepository.insertIfAbsent(provider, eventId);
+        } catch (RuntimeException ex) {
+            release(key, token);
+            throw ex;
+        }
+        afterCompletion(key, token);
+        if (!inserted) {
+            record("database");
+            return false;
+        }
+        record("first");
+        return true;
+    }
+
+    private void afterCompletion(String key, String token) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            markProcessed(key);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    markProcessed(key);
+                } else {
+                    release(key, token);
+                }
+            }
+        });
+    }
+
+    private void markProcessed(String key) {
+        recentlyProcessed.put(key, Boolean.TRUE);
+        if (!redisEnabled) {
+            return;
+        }
+        try {
+            stringRedisTemplate.opsForValue().set(redisKey(key), DONE, processedTtl);
+        } catch (DataAccessException ex) {
+            logger.warn("Failed to record processed webhook event in Redis: {}", ex.getMessage());
+        }
+    }
+
+    private void release(String key, String token) {
+        if (token == null) {
+            return;
+        }
+        try {
+            stringRedisTemplate.execute(RELEASE_SCRIPT, List.of(redisKey(key)), token);
+        } catch (DataAccessException ex) {
+            logger.warn("Failed to release webhook claim in Redis: {}", ex.getMessage());
+        }
+    }
+
+    private void record(String outcome) {
+        outcomeCounters.get(outcome).increment();
+    }
+
+    private static String redisKey(String key) {
+        return "webhook:" + key;
+    }
+}
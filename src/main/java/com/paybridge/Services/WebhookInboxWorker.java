@@ -0,0 +1,216 @@
+package com.paybridge.Services;
+
+import com.paybridge.Models.Entities.WebhookInboxEvent;
+import com.paybridge.Models.Enums.WebhookInboxStatus;
+import com.paybridge.Repositories.WebhookInboxRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Applies webhook events queued by the fast-ack endpoints ({@code webhooks.async.enabled=true}).
+ *
+ * <p>Each poll reads a batch of due {@code PENDING} events and applies them in parallel on
+ * {@code webhookWorkerExecutor}, one transaction per event. An event locked by a worker on
+ * another instance is skipped. A failed event is retried with exponential backoff and marked
+ * {@code FAILED} after {@code webhooks.async.max-attempts}, leaving it in the table for replay.
+ *
+ * <p>Metrics:
+ * <ul>
+ *   <li>{@code paybridge.webhooks.inbox.depth} — events waiting to be applied</li>
+ *   <li>{@code paybridge.webhooks.inbox.lag} — age in seconds of the oldest waiting event</li>
+ *   <li>{@code paybridge.webhooks.inbox.delay} — time from receipt to applied, per event</li>
+ *   <li>{@code paybridge.webhooks.inbox.failures{outcome=retry|failed}} — failed attempts</li>
+ * </ul>
+ */
+@Component
+@ConditionalOnProperty(name = "webhooks.async.enabled", havingValue = "true")
+public class WebhookInboxWorker {
+
+    private static final Logger log = LoggerFactory.getLogger(WebhookInboxWorker.class);
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final WebhookService webhookService;
+    private final WebhookInboxRepository webhookInboxRepository;
+    private final Executor executor;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final Duration retryBackoff;
+    private final Duration maxRetryBackoff;
+    private final Duration retention;
+
+    private final AtomicLong depth = new AtomicLong();
+    private final AtomicLong lagSeconds = new AtomicLong();
+    private final Timer applyDelay;
+    private final Counter retriedCounter;
+    private final Counter failedCounter;
+
+    public WebhookInboxWorker(WebhookService webhookService,
+                              WebhookInboxRepository webhookInboxRepository,
+                              @Qualifier("webhookWorkerExecutor") Executor executor,
+                              MeterRegistry meterRegistry,
+                              @Value("${webhooks.async.batch-size:100}") int batchSize,
+                              @Value("${webhooks.async.max-attempts:8}") int maxAttempts,
+                              @Value("${webhooks.async.retry-backoff-ms:1000}") long retryBackoffMs,
+                              @Value("${webhooks.async.max-retry-backoff-ms:600000}") long maxRetryBackoffMs,
+                              @Value("${webhooks.async.retention-hours:72}") long retentionHours) {
+        this.webhookService = webhookService;
+        this.webhookInboxRepository = webhookInboxRepository;
+        this.executor = executor;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.retryBackoff = Duration.ofMillis(retryBackoffMs);
+        this.maxRetryBackoff = Duration.ofMillis(maxRetryBackoffMs);
+        this.retention = Duration.ofHours(retentionHours);
+
+        Gauge.builder("paybridge.webhooks.inbox.depth", depth, AtomicLong::get)
+                .description("Verified webhook events waiting to be applied")
+                .register(meterRegistry);
+        Gauge.builder("paybridge.webhooks.inbox.lag", lagSeconds, AtomicLong::get)
+                .description("Seconds the oldest waiting webhook event has been in the inbox")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        this.applyDelay = Timer.builder("paybridge.webhooks.inbox.delay")
+                .description("Time from webhook receipt to the event being applied")
+                .register(meterRegistry);
+        this.retriedCounter = Counter.builder("paybridge.webhooks.inbox.failures")
+                .description("Failed attempts to apply a webhook event")
+                .tag("outcome", "retry")
+                .register(meterRegistry);
+        this.failedCounter = Counter.builder("paybridge.webhooks.inbox.failures")
+                .description("Failed attempts to apply a webhook event")
+                .tag("outcome", "failed")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${webhooks.async.poll-interval-ms:200}",
+            initialDelayString = "${webhooks.async.initial-delay-ms:5000}")
+    public void drain() {
+        try {
+            while (true) {
+                List<WebhookInboxEvent> due = webhookInboxRepository.findDue(LocalDateTime.now(), PageRequest.ofSize(batchSize));
+                if (due.isEmpty()) {
+                    break;
+                }
+                AtomicInteger progressed = new AtomicInteger();
+                CompletableFuture.allOf(due.stream()
+                        .map(event -> CompletableFuture.runAsync(() -> {
+                            if (process(event)) {
+                                progressed.incrementAndGet();
+                            }
+                        }, executor))
+                        .toArray(CompletableFuture[]::new)).join();
+
+                // A short batch means the inbox is drained; a full batch that made no progress
+                // is held by other instances.
+                if (due.size() < batchSize || progressed.get() == 0) {
+                    break;
+                }
+            }
+        } catch (RuntimeException ex) {
+            log.warn("Webhook inbox drain stopped: {}", ex.getMessage());
+        } finally {
+            updateBacklog();
+        }
+    }
+
+    /**
+     * Deletes applied events older than {@code webhooks.async.retention-hours}, in batches.
+     * Failed events are kept until they are replayed or removed by hand.
+     */
+    @Scheduled(fixedDelayString = "${webhooks.async.purge-interval-ms:3600000}",
+            initialDelayString = "${webhooks.async.purge-initial-delay-ms:300000}")
+    public void purgeProcessed() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(retention);
+        try {
+            List<Long> ids;
+            do {
+                ids = webhookInboxRepository.findProcessedIdsBefore(cutoff, PageRequest.ofSize(batchSize));
+                if (!ids.isEmpty()) {
+                    webhookInboxRepository.deleteAllByIdInBatch(ids);
+                }
+            } while (ids.size() == batchSize);
+        } catch (RuntimeException ex) {
+            log.warn("Webhook inbox purge stopped: {}", ex.getMessage());
+        }
+    }
+
+    /**
+     * Returns whether the event was applied or had a failure recorded, i.e. whether it left the due set.
+     */
+    boolean process(WebhookInboxEvent event) {
+        try {
+            if (!webhookService.applyInboxEvent(event.getId())) {
+                return false;
+            }
+            applyDelay.record(Duration.between(event.getReceivedAt(), LocalDateTime.now()));
+            return true;
+        } catch (RuntimeException ex) {
+            recordFailure(event, ex);
+            return true;
+        }
+    }
+
+    private void recordFailure(WebhookInboxEvent event, RuntimeException failure) {
+        String error = String.valueOf(failure.getMessage());
+        if (error.length() > MAX_ERROR_LENGTH) {
+            error = error.substring(0, MAX_ERROR_LENGTH);
+        }
+        int attempt;
+        try {
+            attempt = webhookInboxRepository.recordFailure(event.getId(), error,
+                    LocalDateTime.now().plus(backoff(event.getAttempts() + 1)), maxAttempts);
+        } catch (RuntimeException ex) {
+            log.error("Could not record failure of webhook event {}", event.getId(), ex);
+            return;
+        }
+        if (attempt == 0) {
+            log.debug("Webhook event {} left PENDING before its failure was recorded", event.getId());
+            return;
+        }
+        boolean exhausted = attempt >= maxAttempts;
+
+        if (exhausted) {
+            failedCounter.increment();
+            log.error("Webhook event {} {} failed after {} attempts", event.getProvider(), event.getEventId(), attempt, failure);
+        } else {
+            retriedCounter.increment();
+            log.warn("Webhook event {} {} failed (attempt {}), will retry: {}",
+                    event.getProvider(), event.getEventId(), attempt, failure.getMessage());
+        }
+    }
+
+    Duration backoff(int attempt) {
+        Duration delay = retryBackoff.multipliedBy(1L << Math.min(attempt - 1, 20));
+        return delay.compareTo(maxRetryBackoff) > 0 ? maxRetryBackoff : delay;
+    }
+
+    private void updateBacklog() {
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            depth.set(webhookInboxRepository.countByStatus(WebhookInboxStatus.PENDING));
+            lagSeconds.set(webhookInboxRepository.findOldestReceivedAt(WebhookInboxStatus.PENDING)
+                    .map(oldest -> Duration.between(oldest, now).toSeconds())
+                    .orElse(0L));
+        } catch (RuntimeException ex) {
+            log.debug("Could not measure webhook inbox backlog: {}", ex.getMessage());
+        }
+    }
+}
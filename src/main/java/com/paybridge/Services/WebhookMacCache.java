@@ -0,0 +1,77 @@
+package com.paybridge.Services;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.paybridge.Security.SecretFingerprint;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Keeps one initialised HMAC per webhook secret so verifying a webhook does not repeat the
+ * {@code Mac.getInstance} provider lookup and key setup. The cached instance is never used
+ * directly: each caller gets a clone, which copies the keyed state and is safe to use on any
+ * thread, including virtual threads.
+ *
+ * <p>Entries are keyed by the secret's {@link SecretFingerprint}, never by the secret itself,
+ * bounded by size, dropped after sitting idle, and evicted immediately when a merchant rotates
+ * the secret. The fingerprint arrives with the {@link ProviderSecret}: the credential cache takes
+ * it once per load, so hashing the secret is not paid per webhook.
+ */
+@Component
+public class WebhookMacCache {
+
+    private final Map<String, Cache<String, Mac>> prototypes;
+
+    public WebhookMacCache(@Value("${webhooks.mac-cache.max-size:10000}") long maxSize,
+                           @Value("${webhooks.mac-cache.idle-timeout-minutes:30}") long idleTimeoutMinutes) {
+        this.prototypes = Map.of(
+                WebhookSignatures.HMAC_SHA256, prototypeCache(maxSize, idleTimeoutMinutes),
+                WebhookSignatures.HMAC_SHA512, prototypeCache(maxSize, idleTimeoutMinutes));
+    }
+
+    /**
+     * A {@link Mac} keyed with {@code secret}, ready for {@code update}/{@code doFinal}.
+     */
+    public Mac mac(String algorithm, ProviderSecret secret) {
+        Cache<String, Mac> cache = prototypes.get(algorithm);
+        if (cache == null) {
+            throw new IllegalArgumentException("Unsupported webhook HMAC algorithm: " + algorithm);
+        }
+        Mac prototype;
+        try {
+            prototype = cache.get(secret.fingerprint(), () -> WebhookSignatures.newMac(algorithm, secret.value()));
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Failed to initialise " + algorithm, e.getCause());
+        }
+        try {
+            return (Mac) prototype.clone();
+        } catch (CloneNotSupportedException e) {
+            return WebhookSignatures.newMac(algorithm, secret.value());
+        }
+    }
+
+    @EventListener
+    public void onCredentialsChanged(ProviderCredentialsChangedEvent event) {
+        prototypes.values().forEach(cache -> cache.invalidateAll(event.retiredFingerprints()));
+    }
+
+    long size() {
+        return prototypes.values().stream()
+                .peek(Cache::cleanUp)
+                .mapToLong(Cache::size)
+                .sum();
+    }
+
+    private static Cache<String, Mac> prototypeCache(long maxSize, long idleTimeoutMinutes) {
+        return CacheBuilder.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterAccess(Duration.ofMinutes(idleTimeoutMinutes))
+                .build();
+    }
+}
@@ -0,0 +1,106 @@
+package com.paybridge.Services;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+
+/**
+ * The handful of fields webhook handling reads, pulled from the raw request body in a single
+ * streaming pass. Nothing else in the body is materialised: unknown values are skipped token by
+ * token, so a large event costs one scan rather than a full tree of maps.
+ *
+ * <pre>
+ * Stripe    id, type, data.object.id, data.object.object
+ * Paystack  event, data.id, data.reference, data.status
+ * </pre>
+ *
+ * Scalar values are returned as text, so a numeric Paystack {@code data.id} reads as {@code "9001"}.
+ */
+public record WebhookPayload(String id,
+                             String type,
+                             String event,
+                             String dataId,
+                             String dataReference,
+                             String dataStatus,
+                             String objectId,
+                             String objectType) {
+
+    public static WebhookPayload parse(JsonFactory jsonFactory, byte[] body) {
+        Fields fields = new Fields();
+        try (JsonParser parser = jsonFactory.createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IllegalArgumentException("Invalid webhook payload");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.currentName();
+                JsonToken value = parser.nextToken();
+                switch (name) {
+                    case "id" -> fields.id = scalar(parser, value);
+                    case "type" -> fields.type = scalar(parser, value);
+                    case "event" -> fields.event = scalar(parser, value);
+                    case "data" -> readData(parser, value, fields);
+                    default -> parser.skipChildren();
+                }
+            }
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Invalid webhook payload", e);
+        }
+        return new WebhookPayload(fields.id, fields.type, fields.event, fields.dataId, fields.dataReference,
+                fields.dataStatus, fields.objectId, fields.objectType);
+    }
+
+    private static void readData(JsonParser parser, JsonToken value, Fields fields) throws IOException {
+        if (value != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return;
+        }
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.currentName();
+            JsonToken fieldValue = parser.nextToken();
+            switch (name) {
+                case "id" -> fields.dataId = scalar(parser, fieldValue);
+                case "reference" -> fields.dataReference = scalar(parser, fieldValue);
+                case "status" -> fields.dataStatus = scalar(parser, fieldValue);
+                case "object" -> readObject(parser, fieldValue, fields);
+                default -> parser.skipChildren();
+            }
+        }
+    }
+
+    private static void readObject(JsonParser parser, JsonToken value, Fields fields) throws IOException {
+        if (value != JsonToken.START_OBJECT) {
+            parser.skipChildren();
+            return;
+        }
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.currentName();
+            JsonToken fieldValue = parser.nextToken();
+            switch (name) {
+                case "id" -> fields.objectId = scalar(parser, fieldValue);
+                case "object" -> fields.objectType = scalar(parser, fieldValue);
+                default -> parser.skipChildren();
+            }
+        }
+    }
+
+    private static String scalar(JsonParser parser, JsonToken value) throws IOException {
+        if (value.isScalarValue() && value != JsonToken.VALUE_NULL) {
+            return parser.getText();
+        }
+        parser.skipChildren();
+        return null;
+    }
+
+    private static final class Fields {
+        String id;
+        String type;
+        String event;
+        String dataId;
+        String dataReference;
+        String dataStatus;
+        String objectId;
+        String objectType;
+    }
+}
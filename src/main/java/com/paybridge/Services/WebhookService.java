@@ -1,170 +1,373 @@
 package com.paybridge.Services;
 
-import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.paybridge.Models.Entities.Payment;
-import com.paybridge.Models.Entities.ProcessedWebhookEvent;
+import com.paybridge.Models.Entities.WebhookInboxEvent;
 import com.paybridge.Models.Enums.PaymentStatus;
+import com.paybridge.Models.Enums.WebhookInboxStatus;
 import com.paybridge.Repositories.PaymentRepository;
-import com.paybridge.Repositories.ProcessedWebhookEventRepository;
-import com.stripe.exception.SignatureVerificationException;
-import com.stripe.model.Event;
-import com.stripe.model.StripeObject;
-import com.stripe.model.checkout.Session;
+import com.paybridge.Repositories.WebhookInboxRepository;
 import com.stripe.net.Webhook;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import javax.crypto.Mac;
-import javax.crypto.spec.SecretKeySpec;
 import java.nio.charset.StandardCharsets;
-import java.util.HexFormat;
+import java.time.Instant;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
 
+/**
+ * Verifies provider webhooks and applies them to payments.
+ *
+ * <p>{@code handle*Webhook} does everything inline in the request. With
+ * {@code webhooks.async.enabled=true} the controller calls {@code accept*Webhook} instead: only
+ * the payment lookup and signature check run on the request thread, the verified event is
+ * written to the {@code webhook_inbox} table and acknowledged, and {@link WebhookInboxWorker}
+ * later runs the dedupe check and status transition through {@link #applyInboxEvent}. Both
+ * record the event as processed through {@link WebhookEventDeduplicator} before applying it.
+ *
+ * <p>Both paths take the raw request bytes. The fields needed to route the event are read in one
+ * streaming pass ({@link WebhookPayload}) and the signature is computed over the same array
+ * ({@link WebhookSignatures}, with keyed HMACs from {@link WebhookMacCache}); the body is only decoded to a {@code String} when it is queued.
+ *
+ * <p>The provider-wide endpoints have to find the payment before they know whose secret signs the
+ * event, so every request costs a query and a credential read. {@code *MerchantWebhook} serves the
+ * merchant-scoped URLs, which carry the merchant in the path and verify before anything else.
+ */
 @Service
 public class WebhookService {
 
-    private static final Logger log = LoggerFactory.getLogger(WebhookService.class);
+    private static final String STRIPE = "stripe";
+    private static final String PAYSTACK = "paystack";
 
     private final PaymentRepository paymentRepository;
-    private final ProcessedWebhookEventRepository processedWebhookEventRepository;
+    private final WebhookEventDeduplicator webhookEventDeduplicator;
     private final CredentialStorageService credentialStorageService;
-    private final ObjectMapper objectMapper;
+    private final JsonFactory jsonFactory;
+    private final PaymentStatusCache paymentStatusCache;
+    private final WebhookInboxRepository webhookInboxRepository;
+    private final WebhookMacCache webhookMacCache;
+    private final WebhookEndpointTokens webhookEndpointTokens;
+    private final TransactionTemplate transactionTemplate;
 
     @Value("${webhook.stripe.signing-secret:${STRIPE_WEBHOOK_SECRET:}}")
     private String stripeSigningSecret;
+    private volatile ProviderSecret platformStripeSigningSecret;
 
     public WebhookService(PaymentRepository paymentRepository,
-                          ProcessedWebhookEventRepository processedWebhookEventRepository,
+                          WebhookEventDeduplicator webhookEventDeduplicator,
                           CredentialStorageService credentialStorageService,
-                          ObjectMapper objectMapper) {
+                          ObjectMapper objectMapper,
+                          PaymentStatusCache paymentStatusCache,
+                          WebhookInboxRepository webhookInboxRepository,
+                          WebhookMacCache webhookMacCache,
+                          WebhookEndpointTokens webhookEndpointTokens,
+                          PlatformTransactionManager transactionManager) {
         this.paymentRepository = paymentRepository;
-        this.processedWebhookEventRepository = processedWebhookEventRepository;
+        this.webhookEventDeduplicator = webhookEventDeduplicator;
         this.credentialStorageService = credentialStorageService;
-        this.objectMapper = objectMapper;
+        this.jsonFactory = objectMapper.getFactory();
+        this.paymentStatusCache = paymentStatusCache;
+        this.webhookInboxRepository = webhookInboxRepository;
+        this.webhookMacCache = webhookMacCache;
+        this.webhookEndpointTokens = webhookEndpointTokens;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
 
     @Transactional
-    public Map<String, Object> handleStripeWebhook(String payload, String signatureHeader) {
-        if (signatureHeader == null || signatureHeader.isBlank()) {
-            throw new IllegalArgumentException("Missing Stripe-Signature header");
+    public Map<String, Object> handleStripeWebhook(byte[] payload, String signatureHeader) {
+        requireStripeSignatureHeader(signatureHeader);
+
+        WebhookPayload event = WebhookPayload.parse(jsonFactory, payload);
+        String providerReference = event.objectId();
+        if (providerReference == null || providerReference.isBlank()) {
+            return missingProviderReference(STRIPE);
+        }
+
+        Optional<Payment> paymentOpt = paymentRepository.findByProviderReferenceAndProvider_NameIgnoreCase(providerReference, STRIPE);
+        if (paymentOpt.isEmpty()) {
+            return paymentNotFound(providerReference);
+        }
+
+        Payment payment = paymentOpt.get();
+        verifyStripeSignature(payload, signatureHeader, loadMerchantStripeWebhookSecret(payment.getMerchant().getId()));
+        return applyStripeEvent(payment, event);
+    }
+
+    @Transactional
+    public Map<String, Object> handlePaystackWebhook(byte[] payload, String signatureHeader) {
+        WebhookPayload event = WebhookPayload.parse(jsonFactory, payload);
+        String providerReference = event.dataReference();
+        if (providerReference == null || providerReference.isBlank()) {
+            return missingProviderReference(PAYSTACK);
         }
 
-        String providerReference = extractStripeSessionId(payload);
+        Optional<Payment> paymentOpt = paymentRepository.findByProviderReferenceAndProvider_NameIgnoreCase(providerReference, PAYSTACK);
+        if (paymentOpt.isEmpty()) {
+            return paymentNotFound(providerReference);
+        }
+
+        Payment payment = paymentOpt.get();
+        verifyPaystackSignature(payload, signatureHeader, loadMerchantPaystackSecret(payment.getMerchant().getId()));
+        return applyPaystackEvent(payment, event);
+    }
+
+    /**
+     * Fast-ack variant of {@link #handleStripeWebhook}: verifies the event and queues it in the inbox.
+     */
+    public Map<String, Object> acceptStripeWebhook(byte[] payload, String signatureHeader) {
+        requireStripeSignatureHeader(signatureHeader);
+
+        WebhookPayload event = WebhookPayload.parse(jsonFactory, payload);
+        String providerReference = event.objectId();
         if (providerReference == null || providerReference.isBlank()) {
-            return Map.of("processed", false, "ignored", true, "reason", "Missing checkout session id");
+            return missingProviderReference(STRIPE);
         }
 
-        Optional<Payment> paymentOpt = paymentRepository.findByProviderReferenceAndProvider_NameIgnoreCase(providerReference, "stripe");
+        Optional<Payment> paymentOpt = paymentRepository.findByProviderReferenceAndProvider_NameIgnoreCase(providerReference, STRIPE);
         if (paymentOpt.isEmpty()) {
-            return Map.of("processed", false, "ignored", true, "reason", "Payment not found", "providerReference", providerReference);
+            return paymentNotFound(providerReference);
         }
 
         Payment payment = paymentOpt.get();
-        String signingSecret = loadMerchantStripeWebhookSecret(payment);
+        verifyStripeSignature(payload, signatureHeader, loadMerchantStripeWebhookSecret(payment.getMerchant().getId()));
+        return enqueueStripeEvent(payment, event, payload);
+    }
+
+    /**
+     * Fast-ack variant of {@link #handlePaystackWebhook}: verifies the event and queues it in the inbox.
+     */
+    public Map<String, Object> acceptPaystackWebhook(byte[] payload, String signatureHeader) {
+        WebhookPayload event = WebhookPayload.parse(jsonFactory, payload);
+        String providerReference = event.dataReference();
+        if (providerReference == null || providerReference.isBlank()) {
+            return missingProviderReference(PAYSTACK);
+        }
+
+        Optional<Payment> paymentOpt = paymentRepository.findByProviderReferenceAndProvider_NameIgnoreCase(providerReference, PAYSTACK);
+        if (paymentOpt.isEmpty()) {
+            return paymentNotFound(providerReference);
+        }
 
-        Event event;
+        Payment payment = paymentOpt.get();
+        verifyPaystackSignature(payload, signatureHeader, loadMerchantPaystackSecret(payment.getMerchant().getId()));
+        return enqueuePaystackEvent(payment, event, payload);
+    }
+
+    /**
+     * Merchant-scoped endpoint, {@code /api/v1/webhooks/{provider}/{merchantToken}}. The token
+     * names the merchant ({@link WebhookEndpointTokens}), so the signature is checked against that
+     * merchant's secret before the body is parsed, a transaction is opened or any payment is looked
+     * up: a forged token costs one hash, a forged signature one more. The verified event is then
+     * applied exactly as by {@code handle*Webhook}, matched only against the merchant's own payments.
+     */
+    public Map<String, Object> handleMerchantWebhook(String provider, String merchantToken,
+                                                     byte[] payload, String signatureHeader) {
+        MerchantWebhook webhook = verifyMerchantWebhook(provider, merchantToken, payload, signatureHeader);
+        String providerReference = webhook.providerReference();
+        if (providerReference == null || providerReference.isBlank()) {
+            return missingProviderReference(webhook.provider());
+        }
+
+        return transactionTemplate.execute(status -> {
+            Optional<Payment> paymentOpt = findMerchantPayment(webhook, providerReference);
+            if (paymentOpt.isEmpty()) {
+                return paymentNotFound(providerReference);
+            }
+            return STRIPE.equals(webhook.provider())
+                    ? applyStripeEvent(paymentOpt.get(), webhook.event())
+                    : applyPaystackEvent(paymentOpt.get(), webhook.event());
+        });
+    }
+
+    /**
+     * Fast-ack variant of {@link #handleMerchantWebhook}: verifies the event and queues it in the inbox.
+     */
+    public Map<String, Object> acceptMerchantWebhook(String provider, String merchantToken,
+                                                     byte[] payload, String signatureHeader) {
+        MerchantWebhook webhook = verifyMerchantWebhook(provider, merchantToken, payload, signatureHeader);
+        String providerReference = webhook.providerReference();
+        if (providerReference == null || providerReference.isBlank()) {
+            return missingProviderReference(webhook.provider());
+        }
+
+        Optional<Payment> paymentOpt = findMerchantPayment(webhook, providerReference);
+        if (paymentOpt.isEmpty()) {
+            return paymentNotFound(providerReference);
+        }
+        return STRIPE.equals(webhook.provider())
+                ? enqueueStripeEvent(paymentOpt.get(), webhook.event(), payload)
+                : enqueuePaystackEvent(paymentOpt.get(), webhook.event(), payload);
+    }
+
+    /**
+     * Applies one queued event: dedupe check, status transition and processed marker, in one
+     * transaction. Returns {@code false} when another worker holds the event or has already
+     * finished it.
+     */
+    @Transactional
+    public boolean applyInboxEvent(Long inboxEventId) {
+        Optional<WebhookInboxEvent> locked = webhookInboxRepository.findForProcessing(inboxEventId);
+        if (locked.isEmpty() || locked.get().getStatus() != WebhookInboxStatus.PENDING) {
+            return false;
+        }
+
+        WebhookInboxEvent event = locked.get();
+        if (webhookEventDeduplicator.claim(event.getProvider(), event.getEventId()) && event.getTargetStatus() != null) {
+            Payment payment = paymentRepository.findForUpdateById(event.getPaymentId())
+                    .orElseThrow(() -> new IllegalStateException("Payment not found: " + event.getPaymentId()));
+            applyStatusTransition(payment, event.getTargetStatus());
+        }
+        event.markProcessed();
+        return true;
+    }
+
+    private Map<String, Object> enqueue(WebhookInboxEvent event) {
+        if (webhookInboxRepository.existsByProviderAndEventId(event.getProvider(), event.getEventId())) {
+            return Map.of("accepted", false, "duplicate", true, "eventId", event.getEventId());
+        }
         try {
-            event = Webhook.constructEvent(payload, signatureHeader, signingSecret);
-        } catch (SignatureVerificationException e) {
-            throw new IllegalArgumentException("Invalid Stripe webhook signature");
+            webhookInboxRepository.save(event);
+        } catch (DataIntegrityViolationException ex) {
+            // a concurrent delivery of the same event was queued first
+            return Map.of("accepted", false, "duplicate", true, "eventId", event.getEventId());
         }
+        return Map.of("accepted", true, "eventId", event.getEventId());
+    }
 
-        String eventId = event.getId();
-        if (eventId == null || eventId.isBlank()) {
-            throw new IllegalArgumentException("Stripe event id is missing");
+    private MerchantWebhook verifyMerchantWebhook(String provider, String merchantToken,
+                                                  byte[] payload, String signatureHeader) {
+        String normalizedProvider = provider == null ? "" : provider.trim().toLowerCase(Locale.ROOT);
+        if (!STRIPE.equals(normalizedProvider) && !PAYSTACK.equals(normalizedProvider)) {
+            throw new IllegalArgumentException("Unsupported webhook provider: " + provider);
+        }
+        if (!webhookEndpointTokens.isEnabled()) {
+            throw new IllegalStateException("Merchant webhook endpoints are not configured");
         }
+        Long merchantId = webhookEndpointTokens.resolve(normalizedProvider, merchantToken)
+                .orElseThrow(() -> new IllegalArgumentException("Unknown webhook endpoint"));
+
+        if (STRIPE.equals(normalizedProvider)) {
+            requireStripeSignatureHeader(signatureHeader);
+            verifyStripeSignature(payload, signatureHeader, loadMerchantStripeWebhookSecret(merchantId));
+        } else {
+            verifyPaystackSignature(payload, signatureHeader, loadMerchantPaystackSecret(merchantId));
+        }
+        return new MerchantWebhook(normalizedProvider, merchantId, WebhookPayload.parse(jsonFactory, payload));
+    }
+
+    private Optional<Payment> findMerchantPayment(MerchantWebhook webhook, String providerReference) {
+        return paymentRepository.findFirstByMerchant_IdAndProviderReference(webhook.merchantId(), providerReference)
+                .filter(payment -> webhook.provider().equalsIgnoreCase(payment.getProvider().getName()));
+    }
 
-        if (isAlreadyProcessed("stripe", eventId)) {
+    private Map<String, Object> applyStripeEvent(Payment payment, WebhookPayload event) {
+        String eventId = requireStripeEventId(event);
+        if (!webhookEventDeduplicator.claim(STRIPE, eventId)) {
             return Map.of("processed", false, "duplicate", true, "eventId", eventId);
         }
 
-        StripeObject stripeObject = event.getDataObjectDeserializer().getObject().orElse(null);
-        if (!(stripeObject instanceof Session session)) {
-            markProcessed("stripe", eventId);
-            return Map.of("processed", false, "ignored", true, "reason", "Unsupported Stripe event object", "eventType", event.getType());
+        if (!isCheckoutSession(event)) {
+            return Map.of("processed", false, "ignored", true, "reason", "Unsupported Stripe event object",
+                    "eventType", String.valueOf(event.type()));
         }
 
-        String sessionId = session.getId();
-        if (sessionId == null || sessionId.isBlank()) {
-            markProcessed("stripe", eventId);
-            return Map.of("processed", false, "ignored", true, "reason", "Missing session id");
-        }
-        PaymentStatus nextStatus = mapStripeEventStatus(event.getType());
+        PaymentStatus nextStatus = mapStripeEventStatus(event.type());
         if (nextStatus != null) {
             applyStatusTransition(payment, nextStatus);
             paymentRepository.save(payment);
         }
 
-        markProcessed("stripe", eventId);
         return Map.of(
                 "processed", true,
                 "eventId", eventId,
                 "paymentId", payment.getId().toString(),
                 "status", payment.getStatus().name(),
-                "eventType", event.getType()
+                "eventType", event.type()
         );
     }
 
-    @Transactional
-    public Map<String, Object> handlePaystackWebhook(String payload, String signatureHeader) {
-        Map<String, Object> eventBody = readAsMap(payload);
-        String eventType = asString(eventBody.get("event"));
-
-        Map<String, Object> data = asMap(eventBody.get("data"));
-        String providerReference = asString(data.get("reference"));
-
-        if (providerReference == null || providerReference.isBlank()) {
-            throw new IllegalArgumentException("Paystack webhook missing data.reference");
-        }
-
-        Optional<Payment> paymentOpt = paymentRepository.findByProviderReferenceAndProvider_NameIgnoreCase(providerReference, "paystack");
-        if (paymentOpt.isEmpty()) {
-            return Map.of("processed", false, "ignored", true, "reason", "Payment not found", "providerReference", providerReference);
-        }
-
-        Payment payment = paymentOpt.get();
-        String secretKey = loadMerchantPaystackSecret(payment);
-        verifyPaystackSignature(payload, signatureHeader, secretKey);
-
-        String eventId = derivePaystackEventId(eventType, data, providerReference);
-        if (isAlreadyProcessed("paystack", eventId)) {
+    private Map<String, Object> applyPaystackEvent(Payment payment, WebhookPayload event) {
+        String eventId = derivePaystackEventId(event);
+        if (!webhookEventDeduplicator.claim(PAYSTACK, eventId)) {
             return Map.of("processed", false, "duplicate", true, "eventId", eventId);
         }
 
-        PaymentStatus nextStatus = mapPaystackEventStatus(eventType, asString(data.get("status")));
+        PaymentStatus nextStatus = mapPaystackEventStatus(event.event(), event.dataStatus());
         if (nextStatus != null) {
             applyStatusTransition(payment, nextStatus);
             paymentRepository.save(payment);
         }
 
-        markProcessed("paystack", eventId);
         return Map.of(
                 "processed", true,
                 "eventId", eventId,
                 "paymentId", payment.getId().toString(),
                 "status", payment.getStatus().name(),
-                "eventType", eventType
+                "eventType", event.event()
         );
     }
 
-    private boolean isAlreadyProcessed(String provider, String eventId) {
-        return processedWebhookEventRepository.existsByProviderAndEventId(provider, eventId);
+    private Map<String, Object> enqueueStripeEvent(Payment payment, WebhookPayload event, byte[] payload) {
+        String eventId = requireStripeEventId(event);
+        // Unsupported objects are still queued so the worker records them as processed.
+        PaymentStatus nextStatus = isCheckoutSession(event) ? mapStripeEventStatus(event.type()) : null;
+
+        return enqueue(WebhookInboxEvent.received(STRIPE, eventId, event.type(),
+                payment.getId(), nextStatus, new String(payload, StandardCharsets.UTF_8)));
+    }
+
+    private Map<String, Object> enqueuePaystackEvent(Payment payment, WebhookPayload event, byte[] payload) {
+        return enqueue(WebhookInboxEvent.received(PAYSTACK, derivePaystackEventId(event), event.event(),
+                payment.getId(), mapPaystackEventStatus(event.event(), event.dataStatus()),
+                new String(payload, StandardCharsets.UTF_8)));
+    }
+
+    private Map<String, Object> missingProviderReference(String provider) {
+        if (PAYSTACK.equals(provider)) {
+            throw new IllegalArgumentException("Paystack webhook missing data.reference");
+        }
+        return Map.of("processed", false, "ignored", true, "reason", "Missing checkout session id");
+    }
+
+    private Map<String, Object> paymentNotFound(String providerReference) {
+        return Map.of("processed", false, "ignored", true, "reason", "Payment not found", "providerReference", providerReference);
+    }
+
+    private void requireStripeSignatureHeader(String signatureHeader) {
+        if (signatureHeader == null || signatureHeader.isBlank()) {
+            throw new IllegalArgumentException("Missing Stripe-Signature header");
+        }
+    }
+
+    private void verifyStripeSignature(byte[] payload, String signatureHeader, ProviderSecret signingSecret) {
+        if (!WebhookSignatures.stripeSignatureMatches(payload, signatureHeader,
+                webhookMacCache.mac(WebhookSignatures.HMAC_SHA256, signingSecret), Webhook.DEFAULT_TOLERANCE, Instant.now().getEpochSecond())) {
+            throw new IllegalArgumentException("Invalid Stripe webhook signature");
+        }
+    }
+
+    private String requireStripeEventId(WebhookPayload event) {
+        if (event.id() == null || event.id().isBlank()) {
+            throw new IllegalArgumentException("Stripe event id is missing");
+        }
+        return event.id();
     }
 
-    private void markProcessed(String provider, String eventId) {
-        ProcessedWebhookEvent event = new ProcessedWebhookEvent();
-        event.setProvider(provider);
-        event.setEventId(eventId);
-        processedWebhookEventRepository.save(event);
+    private boolean isCheckoutSession(WebhookPayload event) {
+        return "checkout.session".equals(event.objectType());
     }
 
     private PaymentStatus mapStripeEventStatus(String eventType) {
+        if (eventType == null) {
+            return null;
+        }
         return switch (eventType) {
             case "checkout.session.completed", "checkout.session.async_payment_succeeded" -> PaymentStatus.SUCCEEDED;
             case "checkout.session.async_payment_failed" -> PaymentStatus.FAILED;
@@ -203,101 +406,71 @@ public class WebhookService {
             return;
         }
 
-        payment.setStatus(nextStatus);
+        if (current != nextStatus) {
+            payment.setStatus(nextStatus);
+            paymentStatusCache.updateAfterCommit(payment);
+        }
     }
 
-    private String loadMerchantPaystackSecret(Payment payment) {
-        Long merchantId = payment.getMerchant().getId();
-        Map<String, Object> credentials = credentialStorageService.getProviderConfig("paystack", merchantId);
-        Object secret = credentials.get("webhookSecret");
-        if (!(secret instanceof String) || ((String) secret).isBlank()) {
-            secret = credentials.get("secretKey");
+    private ProviderSecret loadMerchantPaystackSecret(Long merchantId) {
+        ProviderSecret secret = credentialStorageService.getProviderSecret(PAYSTACK, merchantId, "webhookSecret");
+        if (secret == null) {
+            secret = credentialStorageService.getProviderSecret(PAYSTACK, merchantId, "secretKey");
         }
-
-        if (!(secret instanceof String secretString) || secretString.isBlank()) {
+        if (secret == null) {
             throw new IllegalStateException("Paystack secret key not configured for merchant");
         }
 
-        String normalized = secretString.trim();
+        String normalized = secret.value().trim();
         if (normalized.regionMatches(true, 0, "Bearer ", 0, 7)) {
             normalized = normalized.substring(7).trim();
         }
-        return normalized;
+        return secret.withValue(normalized);
     }
 
-    private String loadMerchantStripeWebhookSecret(Payment payment) {
-        Long merchantId = payment.getMerchant().getId();
-        Map<String, Object> credentials = credentialStorageService.getProviderConfig("stripe", merchantId);
-        Object secret = credentials.get("webhookSecret");
-
-        if (secret instanceof String secretString && !secretString.isBlank()) {
-            return secretString.trim();
+    private ProviderSecret loadMerchantStripeWebhookSecret(Long merchantId) {
+        ProviderSecret secret = credentialStorageService.getProviderSecret(STRIPE, merchantId, "webhookSecret");
+        if (secret != null) {
+            return secret.withValue(secret.value().trim());
         }
 
         if (stripeSigningSecret != null && !stripeSigningSecret.isBlank()) {
-            return stripeSigningSecret.trim();
+            ProviderSecret platformSecret = platformStripeSigningSecret;
+            if (platformSecret == null) {
+                platformSecret = ProviderSecret.of(stripeSigningSecret.trim());
+                platformStripeSigningSecret = platformSecret;
+            }
+            return platformSecret;
         }
 
         throw new IllegalStateException("Stripe webhook signing secret is not configured for merchant");
     }
 
-    private String extractStripeSessionId(String payload) {
-        Map<String, Object> eventBody = readAsMap(payload);
-        Map<String, Object> data = asMap(eventBody.get("data"));
-        Map<String, Object> eventObject = asMap(data.get("object"));
-        return asString(eventObject.get("id"));
-    }
-
-    private void verifyPaystackSignature(String payload, String signatureHeader, String secretKey) {
+    private void verifyPaystackSignature(byte[] payload, String signatureHeader, ProviderSecret secretKey) {
         if (signatureHeader == null || signatureHeader.isBlank()) {
             throw new IllegalArgumentException("Missing x-paystack-signature header");
         }
 
-        try {
-            Mac sha512Hmac = Mac.getInstance("HmacSHA512");
-            SecretKeySpec keySpec = new SecretKeySpec(secretKey.getBytes(StandardCharsets.UTF_8), "HmacSHA512");
-            sha512Hmac.init(keySpec);
-            byte[] digest = sha512Hmac.doFinal(payload.getBytes(StandardCharsets.UTF_8));
-            String expected = HexFormat.of().formatHex(digest);
-
-            if (!expected.equalsIgnoreCase(signatureHeader.trim())) {
-                throw new IllegalArgumentException("Invalid Paystack webhook signature");
-            }
-        } catch (IllegalArgumentException e) {
-            throw e;
-        } catch (Exception e) {
-            log.error("Paystack signature verification failed", e);
-            throw new RuntimeException("Failed to verify Paystack signature", e);
+        if (!WebhookSignatures.paystackSignatureMatches(payload, signatureHeader,
+                webhookMacCache.mac(WebhookSignatures.HMAC_SHA512, secretKey))) {
+            throw new IllegalArgumentException("Invalid Paystack webhook signature");
         }
     }
 
-    private String derivePaystackEventId(String eventType, Map<String, Object> data, String providerReference) {
-        String transactionId = asString(data.get("id"));
+    private String derivePaystackEventId(WebhookPayload event) {
+        String transactionId = event.dataId();
         if (transactionId != null && !transactionId.isBlank()) {
             return transactionId;
         }
 
-        String status = asString(data.get("status"));
-        return String.format("%s:%s:%s", eventType, providerReference, status != null ? status : "unknown");
+        String status = event.dataStatus();
+        return String.format("%s:%s:%s", event.event(), event.dataReference(), status != null ? status : "unknown");
     }
 
-    private Map<String, Object> readAsMap(String payload) {
-        try {
-            return objectMapper.readValue(payload, new TypeReference<>() {});
-        } catch (Exception e) {
-            throw new IllegalArgumentException("Invalid webhook payload", e);
-        }
-    }
+    private record MerchantWebhook(String provider, Long merchantId, WebhookPayload event) {
 
-    @SuppressWarnings("unchecked")
-    private Map<String, Object> asMap(Object value) {
-        if (value instanceof Map<?, ?> map) {
-            return (Map<String, Object>) map;
+        String providerReference() {
+            return STRIPE.equals(provider) ? event.objectId() : event.dataReference();
         }
-        return Map.of();
-    }
-
-    private String asString(Object value) {
-        return value == null ? null : value.toString();
     }
 }
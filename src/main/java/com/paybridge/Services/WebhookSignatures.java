@@ -0,0 +1,91 @@
+package com.paybridge.Services;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+
+/**
+ * Provider webhook signature checks, computed over the raw request bytes so the body is never
+ * copied into a {@code String} and re-encoded just to be hashed. The header is decoded once and
+ * digests are compared in constant time.
+ *
+ * <p>Callers pass a {@link Mac} already keyed with the secret, normally from
+ * {@link WebhookMacCache}; the instance is consumed by the check.
+ */
+public final class WebhookSignatures {
+
+    public static final String HMAC_SHA256 = "HmacSHA256";
+    public static final String HMAC_SHA512 = "HmacSHA512";
+
+    private WebhookSignatures() {
+    }
+
+    /**
+     * Paystack: {@code x-paystack-signature} is the hex HMAC-SHA512 of the body, keyed with the secret key.
+     */
+    public static boolean paystackSignatureMatches(byte[] payload, String signatureHeader, Mac hmacSha512) {
+        byte[] provided = parseHex(signatureHeader.trim());
+        return provided != null && MessageDigest.isEqual(provided, hmacSha512.doFinal(payload));
+    }
+
+    /**
+     * Stripe: {@code Stripe-Signature} is {@code t=<unix time>,v1=<hex>[,v1=...]}, where each
+     * {@code v1} may be the hex HMAC-SHA256 of {@code "<t>." + body} keyed with the endpoint's
+     * signing secret. As in stripe-java, an event older than {@code toleranceSeconds} is rejected.
+     */
+    public static boolean stripeSignatureMatches(byte[] payload, String signatureHeader, Mac hmacSha256,
+                                                 long toleranceSeconds, long nowEpochSeconds) {
+        String timestamp = null;
+        for (String element : signatureHeader.split(",")) {
+            if (element.startsWith("t=")) {
+                timestamp = element.substring(2).trim();
+            }
+        }
+        if (timestamp == null) {
+            return false;
+        }
+        try {
+            if (toleranceSeconds > 0 && Long.parseLong(timestamp) < nowEpochSeconds - toleranceSeconds) {
+                return false;
+            }
+        } catch (NumberFormatException ex) {
+            return false;
+        }
+
+        hmacSha256.update((timestamp + ".").getBytes(StandardCharsets.UTF_8));
+        byte[] expected = hmacSha256.doFinal(payload);
+        for (String element : signatureHeader.split(",")) {
+            if (element.startsWith("v1=")) {
+                byte[] provided = parseHex(element.substring(3).trim());
+                if (provided != null && MessageDigest.isEqual(provided, expected)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * A new {@link Mac} keyed with {@code secret}.
+     */
+    public static Mac newMac(String algorithm, String secret) {
+        try {
+            Mac mac = Mac.getInstance(algorithm);
+            mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), algorithm));
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Failed to initialise " + algorithm, e);
+        }
+    }
+
+    private static byte[] parseHex(String hex) {
+        try {
+            return HexFormat.of().parseHex(hex);
+        } catch (IllegalArgumentException ex) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,226 @@
+package com.paybridge.Services.impl;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import com.paybridge.Exceptions.DeadlineExceededException;
+import com.paybridge.Security.InMemorySecretCipher;
+import com.paybridge.Security.SecretFingerprint;
+import com.paybridge.Services.CacheInvalidationBus;
+import com.paybridge.Services.CredentialStorageService;
+import com.paybridge.Services.ProviderSecret;
+import com.paybridge.Services.RequestDeadline;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.GuavaCacheMetrics;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Read-through cache in front of {@link VaultService} for the payment and webhook hot paths.
+ *
+ * <ul>
+ *   <li>single-flight — concurrent misses for the same merchant wait on one Vault read</li>
+ *   <li>refresh-ahead — entries older than {@code credentials.cache.refresh-seconds} are
+ *       reloaded in the background while callers keep getting the cached value; if Vault is
+ *       unavailable the old value is served until {@code credentials.cache.ttl-seconds}</li>
+ *   <li>cached configs are held AES-GCM encrypted, never as plaintext maps; the
+ *       {@link SecretFingerprint} of each string field is taken once per load and served by
+ *       {@link #getProviderSecret} so webhook and client caches need not hash secrets per request</li>
+ *   <li>writes and deletes invalidate locally and are broadcast to the other nodes</li>
+ *   <li>a caller with a {@link RequestDeadline} waits for a miss only as long as its deadline;
+ *       the Vault read carries on in the background and warms the cache for the retry</li>
+ * </ul>
+ *
+ * Hit/miss/load counts are published as {@code cache.*{cache=provider.credentials}} and Vault
+ * read latency as {@code paybridge.credentials.load}.
+ */
+@Service
+@Primary
+@Profile("vault")
+public class CachingCredentialStorageService implements CredentialStorageService {
+
+    static final String INVALIDATION_TOPIC = "provider-credentials";
+    private static final TypeReference<HashMap<String, Object>> CONFIG_TYPE = new TypeReference<>() {};
+
+    private final VaultService delegate;
+    private final CacheInvalidationBus invalidationBus;
+    private final ObjectMapper objectMapper;
+    private final InMemorySecretCipher cipher = new InMemorySecretCipher();
+    private final LoadingCache<CredentialKey, CachedConfig> cache;
+    private final Executor loadExecutor;
+    private final Timer loadTimer;
+
+    public CachingCredentialStorageService(VaultService delegate,
+                                           CacheInvalidationBus invalidationBus,
+                                           ObjectMapper objectMapper,
+                                           MeterRegistry meterRegistry,
+                                           @Qualifier("taskExecutor") Executor refreshExecutor,
+                                           @Value("${credentials.cache.max-size:10000}") long maxSize,
+                                           @Value("${credentials.cache.ttl-seconds:300}") long ttlSeconds,
+                                           @Value("${credentials.cache.refresh-seconds:60}") long refreshSeconds) {
+        this.delegate = delegate;
+        this.invalidationBus = invalidationBus;
+        this.objectMapper = objectMapper;
+        this.loadExecutor = refreshExecutor;
+        this.loadTimer = Timer.builder("paybridge.credentials.load")
+                .description("Latency of provider credential reads from Vault")
+                .register(meterRegistry);
+
+        CacheLoader<CredentialKey, CachedConfig> loader = new CacheLoader<>() {
+            @Override
+            public CachedConfig load(CredentialKey key) {
+                return loadSealed(key);
+            }
+        };
+        this.cache = CacheBuilder.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .refreshAfterWrite(Duration.ofSeconds(refreshSeconds))
+                .recordStats()
+                .build(CacheLoader.asyncReloading(loader, refreshExecutor));
+        GuavaCacheMetrics.monitor(meterRegistry, cache, "provider.credentials");
+
+        invalidationBus.subscribe(INVALIDATION_TOPIC, encoded -> cache.invalidate(CredentialKey.decode(encoded)));
+    }
+
+    @Override
+    public void saveProviderConfig(String providerName, Long merchantId, Map<String, Object> config) {
+        delegate.saveProviderConfig(providerName, merchantId, config);
+        invalidate(providerName, merchantId);
+    }
+
+    @Override
+    public Map<String, Object> getProviderConfig(String providerName, Long merchantId) {
+        return open(cachedConfigWithinDeadline(CredentialKey.of(providerName, merchantId)));
+    }
+
+    @Override
+    public ProviderSecret getProviderSecret(String providerName, Long merchantId, String fieldName) {
+        CachedConfig cached = cachedConfigWithinDeadline(CredentialKey.of(providerName, merchantId));
+        String fingerprint = cached.fingerprints().get(fieldName);
+        if (fingerprint == null) {
+            return null;
+        }
+        Object value = open(cached).get(fieldName);
+        return value instanceof String secret && !secret.isBlank() ? new ProviderSecret(secret, fingerprint) : null;
+    }
+
+    @Override
+    public void removeProviderConfig(String providerName, Long merchantId) {
+        delegate.removeProviderConfig(providerName, merchantId);
+        invalidate(providerName, merchantId);
+    }
+
+    @Override
+    public boolean providerConfigExists(String providerName, Long merchantId) {
+        if (cache.getIfPresent(CredentialKey.of(providerName, merchantId)) != null) {
+            return true;
+        }
+        return delegate.providerConfigExists(providerName, merchantId);
+    }
+
+    @Override
+    public void updateProviderConfigProperty(String providerName, Long merchantId, String fieldName, Object fieldValue) {
+        delegate.updateProviderConfigProperty(providerName, merchantId, fieldName, fieldValue);
+        invalidate(providerName, merchantId);
+    }
+
+    private Map<String, Object> open(CachedConfig cached) {
+        try {
+            return objectMapper.readValue(cipher.open(cached.sealed()), CONFIG_TYPE);
+        } catch (IOException ex) {
+            throw new IllegalStateException("Failed to read cached provider configuration", ex);
+        }
+    }
+
+    private CachedConfig cachedConfigWithinDeadline(CredentialKey key) {
+        RequestDeadline deadline = RequestDeadline.current();
+        if (!deadline.isBounded() || cache.getIfPresent(key) != null) {
+            return cachedConfig(key);
+        }
+        CompletableFuture<CachedConfig> load = CompletableFuture.supplyAsync(() -> cachedConfig(key), loadExecutor);
+        try {
+            return load.get(deadline.remaining().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException ex) {
+            throw new DeadlineExceededException("Request deadline exceeded reading provider credentials");
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("Failed to read provider configuration", ex.getCause());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new DeadlineExceededException("Interrupted while reading provider credentials");
+        }
+    }
+
+    private CachedConfig cachedConfig(CredentialKey key) {
+        try {
+            return cache.getUnchecked(key);
+        } catch (UncheckedExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+
+    private void invalidate(String providerName, Long merchantId) {
+        CredentialKey key = CredentialKey.of(providerName, merchantId);
+        cache.invalidate(key);
+        invalidationBus.publish(INVALIDATION_TOPIC, key.encode());
+    }
+
+    private CachedConfig loadSealed(CredentialKey key) {
+        Map<String, Object> config = loadTimer.record(
+                () -> delegate.getProviderConfig(key.providerName(), key.merchantId()));
+        Map<String, String> fingerprints = new HashMap<>();
+        config.forEach((field, value) -> {
+            if (value instanceof String secret && !secret.isBlank()) {
+                fingerprints.put(field, SecretFingerprint.of(secret));
+            }
+        });
+        try {
+            return new CachedConfig(cipher.seal(objectMapper.writeValueAsBytes(config)), Map.copyOf(fingerprints));
+        } catch (IOException ex) {
+            throw new IllegalStateException("Failed to cache provider configuration", ex);
+        }
+    }
+
+    private record CachedConfig(byte[] sealed, Map<String, String> fingerprints) {
+    }
+
+    record CredentialKey(String providerName, Long merchantId) {
+
+        static CredentialKey of(String providerName, Long merchantId) {
+            return new CredentialKey(providerName.toLowerCase(Locale.ROOT), merchantId);
+        }
+
+        static CredentialKey decode(String encoded) {
+            int separator = encoded.lastIndexOf(':');
+            return new CredentialKey(encoded.substring(0, separator), Long.valueOf(encoded.substring(separator + 1)));
+        }
+
+        String encode() {
+            return providerName + ":" + merchantId;
+        }
+    }
+}
@@ -3,6 +3,7 @@ package com.paybridge.Services.impl;
 import com.paybridge.Services.EmailProvider;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Primary;
 import org.springframework.context.annotation.Profile;
@@ -33,7 +34,7 @@ public class ResendEmailService implements EmailProvider {
     private final String fromName;
 
 
-    public ResendEmailService(RestTemplate restTemplate,
+    public ResendEmailService(@Qualifier("resendRestTemplate") RestTemplate restTemplate,
                               @Value("${resend.base-url:https://api.resend.com}") String baseUrl,
                               @Value("${resend.api-key}") String apiKey,
                               @Value("${resend.from.email}") String fromEmail,
@@ -1,14 +1,20 @@
 package com.paybridge.Services.impl;
 
+import com.paybridge.Security.SecretFingerprint;
 import com.paybridge.Services.CredentialStorageService;
+import com.paybridge.Services.ProviderCredentialsChangedEvent;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Service;
 import org.springframework.vault.core.VaultTemplate;
 import org.springframework.vault.support.VaultResponseSupport;
 
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 
 @Service
 @Profile("vault")
@@ -17,10 +23,19 @@ public class VaultService implements CredentialStorageService {
     @Autowired
     private VaultTemplate vaultTemplate;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     private static final String PROVIDER_PATH_PREFIX = "secret/data/paybridge/providers";
 
     @Override
     public void saveProviderConfig (String providerName, Long merchantId, Map<String, Object> config){
+        Map<String, Object> previousConfig = readProviderConfigQuietly(providerName, merchantId);
+        writeProviderConfig(providerName, merchantId, config);
+        publishCredentialsChanged(providerName, merchantId, previousConfig, config);
+    }
+
+    private void writeProviderConfig(String providerName, Long merchantId, Map<String, Object> config) {
         String path = buildProviderPath(providerName, merchantId);
 
         try{
@@ -53,6 +68,7 @@ public class VaultService implements CredentialStorageService {
     @Override
     public void removeProviderConfig(String providerName, Long merchantId){
         String path = buildProviderPath(providerName, merchantId);
+        Map<String, Object> previousConfig = readProviderConfigQuietly(providerName, merchantId);
 
         try{
             vaultTemplate.delete(path);
@@ -60,6 +76,7 @@ public class VaultService implements CredentialStorageService {
         catch(Exception ex){
             throw new RuntimeException("Failed to delete provider configuration from Vault", ex);
         }
+        publishCredentialsChanged(providerName, merchantId, previousConfig, Map.of());
     }
 
     @Override
@@ -79,8 +96,38 @@ public class VaultService implements CredentialStorageService {
     public void updateProviderConfigProperty (String providerName, Long merchantId,
                                              String fieldName, Object fieldValue) {
         Map<String, Object> currentConfig = getProviderConfig(providerName, merchantId);
+        Map<String, Object> previousConfig = new HashMap<>(currentConfig);
         currentConfig.put(fieldName, fieldValue);
-        saveProviderConfig(providerName, merchantId, currentConfig);
+        writeProviderConfig(providerName, merchantId, currentConfig);
+        publishCredentialsChanged(providerName, merchantId, previousConfig, currentConfig);
+    }
+
+    private Map<String, Object> readProviderConfigQuietly(String providerName, Long merchantId) {
+        try {
+            VaultResponseSupport<Map> response = vaultTemplate.read(buildProviderPath(providerName, merchantId), Map.class);
+            if (response == null || response.getData() == null) {
+                return Map.of();
+            }
+            Map<String, Object> data = (Map<String, Object>) response.getData().get("data");
+            return data != null ? data : Map.of();
+        } catch (Exception ex) {
+            return Map.of();
+        }
+    }
+
+    /**
+     * Tells in-process caches (e.g. Stripe clients) which previously stored secret values stopped
+     * being valid, so they can be evicted now rather than when they age out.
+     */
+    private void publishCredentialsChanged(String providerName, Long merchantId,
+                                           Map<String, Object> previousConfig, Map<String, Object> newConfig) {
+        Set<String> retiredFingerprints = new HashSet<>();
+        previousConfig.forEach((key, value) -> {
+            if (value instanceof String secret && !secret.isEmpty() && !Objects.equals(secret, newConfig.get(key))) {
+                retiredFingerprints.add(SecretFingerprint.of(secret));
+            }
+        });
+        eventPublisher.publishEvent(new ProviderCredentialsChangedEvent(providerName, merchantId, retiredFingerprints));
     }
 
     private String buildProviderPath(String providerName, Long merchantId){
@@ -0,0 +1,96 @@
+// k6 load test for POST /api/v1/payments.
+//
+// Compares how many payments are in flight at once with platform vs virtual request threads.
+// Point PROVIDER traffic at a slow stub (1–3 s latency) so Phase 2 dominates, then run twice:
+//
+//   VIRTUAL_THREADS_ENABLED=false ./mvnw spring-boot:run   ->  k6 run payment-create.js
+//   VIRTUAL_THREADS_ENABLED=true  ./mvnw spring-boot:run   ->  k6 run payment-create.js
+//
+// The "inflight_provider" trend is sampled from /actuator/prometheus
+// (paybridge_payments_inflight{phase="provider"}). With platform threads it plateaus at the
+// Tomcat pool size (200) and http_req_duration grows as requests queue; with virtual threads it
+// climbs to payments.concurrency.max-provider-calls and latency stays close to the stub latency.
+//
+// Env: BASE_URL, API_KEY, PROVIDER (stripe|paystack), RATE (req/s), DURATION.
+//
+// No before/after numbers have been recorded for this change: the script needs a running
+// instance, a provider stub and k6, and was not run in this environment. The expected shape
+// above is what to check when it is.
+
+import http from 'k6/http';
+import { check, sleep } from 'k6';
+import { Trend, Counter } from 'k6/metrics';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8080';
+const API_KEY = __ENV.API_KEY || 'pk_test_replace_me';
+const PROVIDER = __ENV.PROVIDER || 'paystack';
+const RATE = parseInt(__ENV.RATE || '400', 10);
+const DURATION = __ENV.DURATION || '2m';
+
+const inflightProvider = new Trend('inflight_provider');
+const inflightTransaction = new Trend('inflight_transaction');
+const rejected = new Counter('payments_rejected_capacity');
+
+export const options = {
+    scenarios: {
+        create_payments: {
+            executor: 'constant-arrival-rate',
+            exec: 'createPayment',
+            rate: RATE,
+            timeUnit: '1s',
+            duration: DURATION,
+            preAllocatedVUs: 500,
+            maxVUs: 3000,
+        },
+        sample_inflight: {
+            executor: 'constant-vus',
+            exec: 'sampleInflight',
+            vus: 1,
+            duration: DURATION,
+        },
+    },
+    thresholds: {
+        'http_req_failed{scenario:create_payments}': ['rate<0.01'],
+        'http_req_duration{scenario:create_payments}': ['p(99)<5000'],
+    },
+};
+
+export function createPayment() {
+    const body = JSON.stringify({
+        amount: 1000,
+        currency: 'NGN',
+        description: `Load test order ${__VU}-${__ITER}`,
+        email: `load-${__VU}@example.com`,
+        provider: PROVIDER,
+        redirectUrl: 'https://example.com/return',
+    });
+
+    const res = http.post(`${BASE_URL}/api/v1/payments`, body, {
+        headers: {
+            'Content-Type': 'application/json',
+            'x-api-key': API_KEY,
+            'Idempotency-Key': `k6-${__VU}-${__ITER}-${Date.now()}`,
+        },
+        tags: { scenario: 'create_payments' },
+    });
+
+    if (res.status === 503) {
+        rejected.add(1);
+    }
+    check(res, { 'payment created': (r) => r.status === 201 });
+}
+
+export function sampleInflight() {
+    const res = http.get(`${BASE_URL}/actuator/prometheus`, { tags: { scenario: 'sample_inflight' } });
+    if (res.status === 200) {
+        inflightProvider.add(readGauge(res.body, 'provider'));
+        inflightTransaction.add(readGauge(res.body, 'transaction'));
+    }
+    sleep(1);
+}
+
+function readGauge(body, phase) {
+    const pattern = new RegExp(`^paybridge_payments_inflight\\{[^}]*phase="${phase}"[^}]*\\}\\s+([0-9.eE+-]+)`, 'm');
+    const match = body.match(pattern);
+    return match ? parseFloat(match[1]) : 0;
+}
@@ -1,8 +1,11 @@
 package com.paybridge.Configs;
 
+import com.paybridge.Models.DTOs.CreatePaymentRequest;
+import com.paybridge.Models.DTOs.PaymentProviderResponse;
 import com.paybridge.Services.ConnectionTestResult;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -13,6 +16,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.RestTemplate;
 
+import java.math.BigDecimal;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -114,4 +118,30 @@ class PaystackPaymentProviderTest {
         assertThat(result.isSuccess()).isFalse();
         assertThat(result.getMessage()).contains("Secret key is required");
     }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void createPaymentRequest_WithIdempotencyKeyAndNoReference_UsesKeyAsReference() {
+        CreatePaymentRequest request = new CreatePaymentRequest();
+        request.setAmount(new BigDecimal("25.00"));
+        request.setCurrency("NGN");
+        request.setEmail("customer@example.com");
+
+        Map<String, Object> responseBody = new HashMap<>();
+        responseBody.put("status", true);
+        responseBody.put("data", Map.of("authorization_url", "https://checkout.paystack.com/abc"));
+        ArgumentCaptor<HttpEntity> entity = ArgumentCaptor.forClass(HttpEntity.class);
+        when(restTemplate.exchange(
+                any(String.class),
+                eq(HttpMethod.POST),
+                entity.capture(),
+                eq(Map.class)
+        )).thenReturn(new ResponseEntity<>(responseBody, HttpStatus.OK));
+
+        PaymentProviderResponse response = paystackPaymentProvider.CreatePaymentRequest(
+                request, Map.of("secretKey", "sk_test_123"), "payment-42");
+
+        assertThat(response.getProviderPaymentId()).isEqualTo("payment-42");
+        assertThat(((Map<String, Object>) entity.getValue().getBody()).get("reference")).isEqualTo("payment-42");
+    }
 }
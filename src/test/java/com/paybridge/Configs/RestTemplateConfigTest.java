@@ -0,0 +1,35 @@
+package com.paybridge.Configs;
+
+import com.paybridge.Services.RequestDeadline;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.protocol.HttpClientContext;
+import org.apache.hc.core5.util.Timeout;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RestTemplateConfigTest {
+
+    private static final RequestConfig DEFAULTS = RequestConfig.custom()
+            .setConnectionRequestTimeout(Timeout.ofSeconds(5))
+            .setResponseTimeout(Timeout.ofSeconds(30))
+            .build();
+
+    @Test
+    void deadlineContext_WithoutDeadline_UsesPoolDefaults() {
+        assertThat(RestTemplateConfig.deadlineContext(DEFAULTS, Timeout.ofSeconds(10))).isNull();
+    }
+
+    @Test
+    @SuppressWarnings("deprecation")
+    void deadlineContext_CapsConnectTimeoutToTimeLeft() {
+        RequestConfig config = RequestDeadline.after(Duration.ofMillis(500)).call("test", () ->
+                ((HttpClientContext) RestTemplateConfig.deadlineContext(DEFAULTS, Timeout.ofSeconds(10))).getRequestConfig());
+
+        assertThat(config.getConnectTimeout().toMilliseconds()).isBetween(1L, 500L);
+        assertThat(config.getConnectionRequestTimeout().toMilliseconds()).isBetween(1L, 500L);
+        assertThat(config.getResponseTimeout().toMilliseconds()).isBetween(1L, 500L);
+    }
+}
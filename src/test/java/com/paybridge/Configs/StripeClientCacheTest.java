@@ -0,0 +1,68 @@
+package com.paybridge.Configs;
+
+import com.paybridge.Security.SecretFingerprint;
+import com.paybridge.Services.ProviderCredentialsChangedEvent;
+import com.stripe.StripeClient;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StripeClientCacheTest {
+
+    private StripeClientCache cache;
+    private AtomicInteger created;
+
+    @BeforeEach
+    void setUp() {
+        cache = new StripeClientCache(2, 30);
+        created = new AtomicInteger();
+    }
+
+    @Test
+    void get_ReusesClientForSameSecretKey() {
+        StripeClient first = cache.get("sk_test_a", this::newClient);
+        StripeClient second = cache.get("sk_test_a", this::newClient);
+
+        assertThat(second).isSameAs(first);
+        assertThat(created.get()).isEqualTo(1);
+    }
+
+    @Test
+    void get_EvictsBeyondMaximumSize() {
+        cache.get("sk_test_a", this::newClient);
+        cache.get("sk_test_b", this::newClient);
+        cache.get("sk_test_c", this::newClient);
+
+        assertThat(cache.size()).isLessThanOrEqualTo(2);
+    }
+
+    @Test
+    void onCredentialsChanged_EvictsRetiredStripeKey() {
+        StripeClient original = cache.get("sk_test_a", this::newClient);
+
+        cache.onCredentialsChanged(new ProviderCredentialsChangedEvent(
+                "stripe", 1L, Set.of(SecretFingerprint.of("sk_test_a"))));
+
+        assertThat(cache.get("sk_test_a", this::newClient)).isNotSameAs(original);
+        assertThat(created.get()).isEqualTo(2);
+    }
+
+    @Test
+    void onCredentialsChanged_IgnoresOtherProviders() {
+        StripeClient original = cache.get("sk_test_a", this::newClient);
+
+        cache.onCredentialsChanged(new ProviderCredentialsChangedEvent(
+                "paystack", 1L, Set.of(SecretFingerprint.of("sk_test_a"))));
+
+        assertThat(cache.get("sk_test_a", this::newClient)).isSameAs(original);
+    }
+
+    private StripeClient newClient(String apiKey) {
+        created.incrementAndGet();
+        return new StripeClient(apiKey);
+    }
+}
@@ -0,0 +1,137 @@
+package com.paybridge.benchmarks;
+
+import com.paybridge.Models.Entities.UuidV7Generator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Payment primary keys: random version 4 ({@code uuid2}) vs time-ordered version 7
+ * ({@link UuidV7Generator}) on PostgreSQL.
+ *
+ * <p>Each table is seeded with {@code seedRows} payments so the primary-key index no longer fits
+ * in a handful of pages, then every benchmark op inserts one JDBC batch of {@code BATCH} rows.
+ * At tear-down the size, leaf density and fragmentation of both primary-key indexes are printed
+ * (via {@code pgstattuple}); random keys leave half-full leaves behind after page splits.
+ *
+ * <p>Needs Docker. Run from the IDE or with
+ * {@code mvn -q test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.paybridge.benchmarks.PaymentIdInsertBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+public class PaymentIdInsertBenchmark {
+
+    private static final int BATCH = 500;
+
+    @Param({"1000000"})
+    public int seedRows;
+
+    private PostgreSQLContainer<?> postgres;
+    private Connection connection;
+
+    @Setup
+    public void setUp() throws SQLException {
+        postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+        postgres.start();
+        connection = DriverManager.getConnection(postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword());
+
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE EXTENSION IF NOT EXISTS pgstattuple");
+            for (String table : new String[]{"payments_v4", "payments_v7"}) {
+                statement.execute("CREATE TABLE " + table + " (" +
+                        "id UUID PRIMARY KEY, merchant_id BIGINT NOT NULL, amount NUMERIC(12,2) NOT NULL, " +
+                        "status VARCHAR(20) NOT NULL, created_at TIMESTAMP NOT NULL)");
+            }
+        }
+        connection.setAutoCommit(false);
+        for (int seeded = 0; seeded < seedRows; seeded += BATCH) {
+            insertBatch("payments_v4", UUID::randomUUID);
+            insertBatch("payments_v7", UuidV7Generator::next);
+        }
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("VACUUM ANALYZE payments_v4");
+            statement.execute("VACUUM ANALYZE payments_v7");
+        }
+    }
+
+    @Benchmark
+    public int randomUuidInsert() throws SQLException {
+        return insertBatch("payments_v4", UUID::randomUUID);
+    }
+
+    @Benchmark
+    public int uuidV7Insert() throws SQLException {
+        return insertBatch("payments_v7", UuidV7Generator::next);
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            for (String index : new String[]{"payments_v4_pkey", "payments_v7_pkey"}) {
+                try (ResultSet rs = statement.executeQuery(
+                        "SELECT pg_size_pretty(pg_relation_size('" + index + "')), avg_leaf_density, leaf_fragmentation " +
+                                "FROM pgstatindex('" + index + "')")) {
+                    rs.next();
+                    System.out.printf("%n%s: size=%s avg_leaf_density=%.1f%% leaf_fragmentation=%.1f%%%n",
+                            index, rs.getString(1), rs.getDouble(2), rs.getDouble(3));
+                }
+            }
+        } finally {
+            connection.close();
+            postgres.stop();
+        }
+    }
+
+    private int insertBatch(String table, Supplier<UUID> ids) throws SQLException {
+        try (PreparedStatement insert = connection.prepareStatement(
+                "INSERT INTO " + table + " (id, merchant_id, amount, status, created_at) VALUES (?, ?, ?, ?, ?)")) {
+            Timestamp now = new Timestamp(System.currentTimeMillis());
+            for (int i = 0; i < BATCH; i++) {
+                insert.setObject(1, ids.get());
+                insert.setLong(2, i % 100);
+                insert.setBigDecimal(3, BigDecimal.valueOf(1000));
+                insert.setString(4, "PENDING");
+                insert.setTimestamp(5, now);
+                insert.addBatch();
+            }
+            insert.executeBatch();
+        }
+        connection.commit();
+        return BATCH;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(PaymentIdInsertBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,88 @@
+package com.paybridge.benchmarks;
+
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.paybridge.Models.DTOs.CreatePaymentRequest;
+import com.paybridge.Services.CanonicalRequestHasher;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.math.BigDecimal;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Idempotency request hash: previous ObjectMapper-copy implementation vs {@link CanonicalRequestHasher}.
+ *
+ * <p>Run from the IDE or with
+ * {@code mvn -q test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.paybridge.benchmarks.RequestHashBenchmark}.
+ * The GC profiler reports {@code gc.alloc.rate.norm} (bytes allocated per hash) next to the timings.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RequestHashBenchmark {
+
+    private ObjectMapper objectMapper;
+    private CanonicalRequestHasher canonicalRequestHasher;
+    private CreatePaymentRequest request;
+
+    @Setup
+    public void setUp() throws Exception {
+        objectMapper = new ObjectMapper().findAndRegisterModules();
+        canonicalRequestHasher = new CanonicalRequestHasher(objectMapper);
+
+        request = new CreatePaymentRequest();
+        request.setAmount(new BigDecimal("1000.00"));
+        request.setCurrency("NGN");
+        request.setDescription("Order #1001");
+        request.setProvider("paystack");
+        request.setEmail("customer@example.com");
+        request.setRedirectUrl("https://example.com/return");
+        request.setCustomerReference("cust-42");
+        request.setMetadata(Map.of("orderId", "A-1", "channel", "web", "cart", "3 items"));
+
+        if (!mapperCopyHash().equals(canonicalHash())) {
+            throw new IllegalStateException("Canonical hash differs from the ObjectMapper-based hash");
+        }
+    }
+
+    @Benchmark
+    public String mapperCopyHash() throws Exception {
+        ObjectMapper canonicalMapper = objectMapper.copy()
+                .configure(MapperFeature.SORT_PROPERTIES_ALPHABETICALLY, true)
+                .configure(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS, true);
+        byte[] payload = canonicalMapper.writeValueAsBytes(request);
+        return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(payload));
+    }
+
+    @Benchmark
+    public String canonicalHash() {
+        return canonicalRequestHasher.hash(request);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(RequestHashBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
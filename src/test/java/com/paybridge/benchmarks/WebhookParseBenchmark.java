@@ -0,0 +1,160 @@
+package com.paybridge.benchmarks;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.paybridge.Services.WebhookPayload;
+import com.paybridge.Services.WebhookSignatures;
+import com.stripe.Stripe;
+import com.stripe.model.Event;
+import com.stripe.model.checkout.Session;
+import com.stripe.net.Webhook;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Webhook parse and signature check: previous String/Map (Paystack) and {@code Webhook.constructEvent}
+ * (Stripe) handling vs a single streaming pass with {@link WebhookPayload} and an HMAC over the same bytes.
+ *
+ * <p>Both legacy paths start from the request bytes decoded to a {@code String}, as
+ * {@code @RequestBody String} did. Payloads carry realistic customer, authorization and line-item
+ * blocks that the handlers never read. The Stripe event carries the SDK's own
+ * {@code api_version} so {@code constructEvent} can deserialize the session.
+ *
+ * <p>Run from the IDE or with
+ * {@code mvn -q test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.paybridge.benchmarks.WebhookParseBenchmark}.
+ * The GC profiler reports {@code gc.alloc.rate.norm} (bytes allocated per webhook) next to the timings.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WebhookParseBenchmark {
+
+    private static final String PAYSTACK_SECRET = "sk_test_benchmark";
+    private static final String STRIPE_SECRET = "whsec_benchmark";
+
+    private ObjectMapper objectMapper;
+    private byte[] paystackBody;
+    private String paystackSignature;
+    private byte[] stripeBody;
+    private String stripeSignature;
+    private long stripeTimestamp;
+
+    @Setup
+    public void setUp() throws Exception {
+        objectMapper = new ObjectMapper();
+
+        StringBuilder history = new StringBuilder();
+        for (int i = 0; i < 20; i++) {
+            history.append(i == 0 ? "" : ",")
+                    .append("{\"type\":\"action\",\"message\":\"Attempted to pay with card\",\"time\":").append(i).append('}');
+        }
+        paystackBody = ("{\"event\":\"charge.success\",\"data\":{\"id\":302961,\"domain\":\"live\",\"status\":\"success\","
+                + "\"reference\":\"qTPrJoy9Bx\",\"amount\":10000,\"message\":null,\"gateway_response\":\"Approved by Financial Institution\","
+                + "\"paid_at\":\"2016-09-30T21:10:19.000Z\",\"created_at\":\"2016-09-30T21:09:56.000Z\",\"channel\":\"card\","
+                + "\"currency\":\"NGN\",\"ip_address\":\"41.242.49.37\",\"metadata\":{\"custom_fields\":[{\"display_name\":\"Order\",\"variable_name\":\"order\",\"value\":\"A-1001\"}]},"
+                + "\"log\":{\"time_spent\":16,\"attempts\":1,\"authentication\":\"pin\",\"errors\":0,\"success\":false,\"mobile\":false,\"input\":[],\"channel\":null,\"history\":[" + history + "]},"
+                + "\"fees\":null,\"customer\":{\"id\":68324,\"first_name\":\"BoJack\",\"last_name\":\"Horseman\",\"email\":\"bojack@horseman.com\","
+                + "\"customer_code\":\"CUS_qo38as2hpsgk2r0\",\"phone\":null,\"metadata\":null,\"risk_action\":\"default\"},"
+                + "\"authorization\":{\"authorization_code\":\"AUTH_f5rnfq9p\",\"bin\":\"539999\",\"last4\":\"8877\",\"exp_month\":\"08\","
+                + "\"exp_year\":\"2020\",\"card_type\":\"mastercard DEBIT\",\"bank\":\"Guaranty Trust Bank\",\"country_code\":\"NG\","
+                + "\"brand\":\"mastercard\",\"reusable\":true},\"plan\":{}}}").getBytes(StandardCharsets.UTF_8);
+        paystackSignature = HexFormat.of().formatHex(hmac("HmacSHA512", PAYSTACK_SECRET, paystackBody));
+
+        StringBuilder lineItems = new StringBuilder();
+        for (int i = 0; i < 10; i++) {
+            lineItems.append(i == 0 ? "" : ",")
+                    .append("{\"id\":\"li_").append(i).append("\",\"object\":\"item\",\"amount_total\":1500,\"currency\":\"usd\",\"description\":\"Widget ").append(i).append("\",\"quantity\":1}");
+        }
+        stripeBody = ("{\"id\":\"evt_1NG8Du2eZvKYlo2CUI79vXWy\",\"object\":\"event\",\"api_version\":\"" + Stripe.API_VERSION + "\",\"created\":1686089970,"
+                + "\"type\":\"checkout.session.completed\",\"livemode\":false,\"pending_webhooks\":1,"
+                + "\"request\":{\"id\":null,\"idempotency_key\":null},\"data\":{\"object\":{\"id\":\"cs_test_a1b2c3\",\"object\":\"checkout.session\","
+                + "\"amount_subtotal\":15000,\"amount_total\":15000,\"currency\":\"usd\",\"mode\":\"payment\",\"payment_status\":\"paid\",\"status\":\"complete\","
+                + "\"customer_details\":{\"email\":\"jenny@example.com\",\"name\":\"Jenny Rosen\",\"address\":{\"city\":\"South San Francisco\",\"country\":\"US\",\"line1\":\"354 Oyster Point Blvd\",\"postal_code\":\"94080\",\"state\":\"CA\"}},"
+                + "\"metadata\":{\"order\":\"A-1001\"},\"success_url\":\"https://example.com/success\",\"cancel_url\":\"https://example.com/cancel\","
+                + "\"line_items\":{\"object\":\"list\",\"data\":[" + lineItems + "]}}}}").getBytes(StandardCharsets.UTF_8);
+        stripeTimestamp = System.currentTimeMillis() / 1000;
+        byte[] signed = (stripeTimestamp + "." + new String(stripeBody, StandardCharsets.UTF_8)).getBytes(StandardCharsets.UTF_8);
+        stripeSignature = "t=" + stripeTimestamp + ",v1=" + HexFormat.of().formatHex(hmac("HmacSHA256", STRIPE_SECRET, signed));
+
+        if (!mapPaystack().equals(streamingPaystack()) || !constructEventStripe().equals(streamingStripe())) {
+            throw new IllegalStateException("Streaming webhook handling differs from the previous implementation");
+        }
+    }
+
+    @Benchmark
+    public String mapPaystack() throws Exception {
+        String payload = new String(paystackBody, StandardCharsets.UTF_8);
+        Map<String, Object> body = objectMapper.readValue(payload, new TypeReference<>() {});
+        Map<?, ?> data = (Map<?, ?>) body.get("data");
+        String expected = HexFormat.of().formatHex(hmac("HmacSHA512", PAYSTACK_SECRET, payload.getBytes(StandardCharsets.UTF_8)));
+        if (!expected.equalsIgnoreCase(paystackSignature)) {
+            throw new IllegalStateException("signature");
+        }
+        return body.get("event") + "|" + data.get("reference") + "|" + data.get("id") + "|" + data.get("status");
+    }
+
+    @Benchmark
+    public String streamingPaystack() {
+        WebhookPayload event = WebhookPayload.parse(objectMapper.getFactory(), paystackBody);
+        if (!WebhookSignatures.paystackSignatureMatches(paystackBody, paystackSignature,
+                WebhookSignatures.newMac(WebhookSignatures.HMAC_SHA512, PAYSTACK_SECRET))) {
+            throw new IllegalStateException("signature");
+        }
+        return event.event() + "|" + event.dataReference() + "|" + event.dataId() + "|" + event.dataStatus();
+    }
+
+    @Benchmark
+    public String constructEventStripe() throws Exception {
+        String payload = new String(stripeBody, StandardCharsets.UTF_8);
+        Map<String, Object> body = objectMapper.readValue(payload, new TypeReference<>() {});
+        Object sessionId = ((Map<?, ?>) ((Map<?, ?>) body.get("data")).get("object")).get("id");
+        Event event = Webhook.constructEvent(payload, stripeSignature, STRIPE_SECRET, 0);
+        boolean session = event.getDataObjectDeserializer().getObject().orElse(null) instanceof Session;
+        return event.getId() + "|" + event.getType() + "|" + sessionId + "|" + session;
+    }
+
+    @Benchmark
+    public String streamingStripe() {
+        WebhookPayload event = WebhookPayload.parse(objectMapper.getFactory(), stripeBody);
+        if (!WebhookSignatures.stripeSignatureMatches(stripeBody, stripeSignature,
+                WebhookSignatures.newMac(WebhookSignatures.HMAC_SHA256, STRIPE_SECRET), 0, stripeTimestamp)) {
+            throw new IllegalStateException("signature");
+        }
+        return event.id() + "|" + event.type() + "|" + event.objectId() + "|" + "checkout.session".equals(event.objectType());
+    }
+
+    private static byte[] hmac(String algorithm, String secret, byte[] payload) throws Exception {
+        Mac mac = Mac.getInstance(algorithm);
+        mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), algorithm));
+        return mac.doFinal(payload);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(WebhookParseBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()).run();
+    }
+}
@@ -0,0 +1,282 @@
+package com.paybridge.integration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.paybridge.Configs.PaymentProvider;
+import com.paybridge.Models.DTOs.PaymentJobMessage;
+import com.paybridge.Models.DTOs.PaymentProviderResponse;
+import com.paybridge.Models.Entities.Merchant;
+import com.paybridge.Models.Entities.Payment;
+import com.paybridge.Models.Entities.Provider;
+import com.paybridge.Models.Entities.ProviderConfig;
+import com.paybridge.Models.Entities.Users;
+import com.paybridge.Models.Enums.MerchantStatus;
+import com.paybridge.Models.Enums.PaymentStatus;
+import com.paybridge.Models.Enums.UserType;
+import com.paybridge.Repositories.MerchantRepository;
+import com.paybridge.Repositories.PaymentJobOutboxRepository;
+import com.paybridge.Repositories.PaymentRepository;
+import com.paybridge.Repositories.ProviderConfigRepository;
+import com.paybridge.Repositories.ProviderRepository;
+import com.paybridge.Repositories.UserRepository;
+import com.paybridge.Services.PaymentJobOutboxRelay;
+import com.paybridge.Services.PaymentJobWorker;
+import com.paybridge.Services.PaymentProviderRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Runs the asynchronous create end to end with the broker stubbed out: the published job is
+ * captured from the {@link RabbitTemplate} and handed to the worker as the listener would.
+ */
+@TestPropertySource(properties = {
+        "payments.async.enabled=true",
+        "spring.rabbitmq.listener.simple.auto-startup=false",
+        "spring.rabbitmq.listener.direct.auto-startup=false"
+})
+class AsyncPaymentIntegrationTest extends BaseIntegrationTest {
+
+    private static final String API_KEY = "pk_test_async_123456789012345";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MerchantRepository merchantRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ProviderRepository providerRepository;
+
+    @Autowired
+    private ProviderConfigRepository providerConfigRepository;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private PaymentJobWorker paymentJobWorker;
+
+    @Autowired
+    private PaymentJobOutboxRelay paymentJobOutboxRelay;
+
+    @Autowired
+    private PaymentJobOutboxRepository paymentJobOutboxRepository;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @MockitoBean
+    private RabbitTemplate rabbitTemplate;
+
+    @MockitoBean
+    private PaymentProviderRegistry paymentProviderRegistry;
+
+    private final PaymentProvider provider = mock(PaymentProvider.class);
+
+    @BeforeEach
+    void setUp() {
+        String suffix = UUID.randomUUID().toString().replace("-", "");
+        Merchant merchant = new Merchant();
+        merchant.setBusinessName("Async Merchant");
+        merchant.setBusinessType("ECOMMERCE");
+        merchant.setBusinessCountry("NG");
+        merchant.setEmail("async-" + suffix + "@test.com");
+        merchant.setStatus(MerchantStatus.ACTIVE);
+        merchant.setApiKeyTest(API_KEY);
+        merchant.setApiKeyTestHash(sha256(API_KEY));
+        merchant = merchantRepository.save(merchant);
+
+        Users user = new Users();
+        user.setMerchant(merchant);
+        user.setEmail(merchant.getEmail());
+        user.setPassword("encoded");
+        user.setUserType(UserType.MERCHANT);
+        user.setEmailVerified(true);
+        user.setEnabled(true);
+        userRepository.save(user);
+
+        Provider paystack = new Provider();
+        paystack.setName("paystack");
+        paystack.setDisplayName("Paystack");
+        paystack = providerRepository.save(paystack);
+
+        ProviderConfig config = new ProviderConfig();
+        config.setMerchant(merchant);
+        config.setProvider(paystack);
+        config.setEnabled(true);
+        providerConfigRepository.save(config);
+
+        when(credentialStorageService.getProviderConfig(anyString(), eq(merchant.getId())))
+                .thenReturn(Map.of("secretKey", "sk_test_123"));
+        when(paymentProviderRegistry.getProvider("paystack")).thenReturn(provider);
+    }
+
+    @Test
+    void createPaymentAsync_WorkerCompletesPaymentAndReplayReturnsIt() throws Exception {
+        PaymentProviderResponse providerResponse = new PaymentProviderResponse();
+        providerResponse.setProviderPaymentId("ref_async_1");
+        providerResponse.setStatus("pending");
+        providerResponse.setCheckoutUrl("https://checkout.example.com/async");
+        when(provider.CreatePaymentRequest(any(), anyMap(), anyString())).thenReturn(providerResponse);
+
+        String accepted = submit("idem-async-1");
+        UUID paymentId = UUID.fromString(objectMapper.readTree(accepted).at("/data/id").asText());
+        assertThat(objectMapper.readTree(accepted).at("/data/status").asText()).isEqualTo("PROCESSING");
+
+        ArgumentCaptor<PaymentJobMessage> job = ArgumentCaptor.forClass(PaymentJobMessage.class);
+        verify(rabbitTemplate).convertAndSend(eq("paybridge.payments.create"), job.capture());
+        assertThat(job.getValue().getPaymentId()).isEqualTo(paymentId);
+
+        paymentJobWorker.process(roundTrip(job.getValue()));
+        entityManager.flush();
+        entityManager.clear();
+
+        Payment payment = paymentRepository.findById(paymentId).orElseThrow();
+        assertThat(payment.getStatus()).isEqualTo(PaymentStatus.PENDING);
+        assertThat(payment.getProviderReference()).isEqualTo("ref_async_1");
+        verify(provider).CreatePaymentRequest(any(), anyMap(), eq("payment-" + paymentId));
+
+        String replay = submit("idem-async-1");
+        assertThat(objectMapper.readTree(replay).at("/data/id").asText()).isEqualTo(paymentId.toString());
+        assertThat(objectMapper.readTree(replay).at("/data/providerReference").asText()).isEqualTo("ref_async_1");
+        verify(rabbitTemplate, times(1)).convertAndSend(anyString(), any(Object.class));
+    }
+
+    @Test
+    void process_RedeliveredAfterCompletion_DoesNotCallProviderAgain() throws Exception {
+        PaymentProviderResponse providerResponse = new PaymentProviderResponse();
+        providerResponse.setProviderPaymentId("ref_async_2");
+        providerResponse.setStatus("pending");
+        when(provider.CreatePaymentRequest(any(), anyMap(), anyString())).thenReturn(providerResponse);
+
+        submit("idem-async-2");
+        ArgumentCaptor<PaymentJobMessage> job = ArgumentCaptor.forClass(PaymentJobMessage.class);
+        verify(rabbitTemplate).convertAndSend(eq("paybridge.payments.create"), job.capture());
+
+        paymentJobWorker.process(roundTrip(job.getValue()));
+        paymentJobWorker.process(roundTrip(job.getValue()));
+
+        verify(provider, times(1)).CreatePaymentRequest(any(), anyMap(), anyString());
+        assertThat(paymentRepository.findById(job.getValue().getPaymentId()).orElseThrow().getProviderReference())
+                .isEqualTo("ref_async_2");
+    }
+
+    @Test
+    void createPaymentAsync_JobStaysInOutboxUntilWorkerCompletesIt() throws Exception {
+        PaymentProviderResponse providerResponse = new PaymentProviderResponse();
+        providerResponse.setProviderPaymentId("ref_async_3");
+        providerResponse.setStatus("pending");
+        when(provider.CreatePaymentRequest(any(), anyMap(), anyString())).thenReturn(providerResponse);
+
+        submit("idem-async-3");
+        ArgumentCaptor<PaymentJobMessage> job = ArgumentCaptor.forClass(PaymentJobMessage.class);
+        verify(rabbitTemplate).convertAndSend(eq("paybridge.payments.create"), job.capture());
+        UUID paymentId = job.getValue().getPaymentId();
+        assertThat(paymentJobOutboxRepository.findAll())
+                .anySatisfy(entry -> assertThat(entry.getPaymentId()).isEqualTo(paymentId));
+
+        paymentJobWorker.process(roundTrip(job.getValue()));
+        entityManager.flush();
+
+        assertThat(paymentJobOutboxRepository.findAll())
+                .noneSatisfy(entry -> assertThat(entry.getPaymentId()).isEqualTo(paymentId));
+    }
+
+    @Test
+    void republishStale_JobNeverDelivered_IsPublishedAgain() throws Exception {
+        submit("idem-async-4");
+        ArgumentCaptor<PaymentJobMessage> job = ArgumentCaptor.forClass(PaymentJobMessage.class);
+        verify(rabbitTemplate).convertAndSend(eq("paybridge.payments.create"), job.capture());
+        UUID paymentId = job.getValue().getPaymentId();
+
+        paymentJobOutboxRelay.republishStale();
+        verify(rabbitTemplate, times(1)).convertAndSend(anyString(), any(Object.class));
+
+        entityManager.flush();
+        entityManager.createQuery("UPDATE PaymentJobOutbox o SET o.lastPublishedAt = :past WHERE o.paymentId = :paymentId")
+                .setParameter("past", LocalDateTime.now().minusHours(1))
+                .setParameter("paymentId", paymentId)
+                .executeUpdate();
+        entityManager.clear();
+
+        paymentJobOutboxRelay.republishStale();
+
+        verify(rabbitTemplate, times(2)).convertAndSend(eq("paybridge.payments.create"), job.capture());
+        PaymentJobMessage republished = job.getAllValues().get(job.getAllValues().size() - 1);
+        assertThat(republished.getPaymentId()).isEqualTo(paymentId);
+        assertThat(republished.getIdempotencyKey()).isEqualTo("idem-async-4");
+        assertThat(republished.getRequest().getCurrency()).isEqualTo("NGN");
+    }
+
+    private String submit(String idempotencyKey) throws Exception {
+        Map<String, Object> requestBody = Map.of(
+                "amount", 1000,
+                "currency", "NGN",
+                "description", "Async order",
+                "email", "customer@example.com",
+                "provider", "paystack"
+        );
+        return mockMvc.perform(post("/api/v1/payments/async")
+                        .header("x-api-key", API_KEY)
+                        .header("Idempotency-Key", idempotencyKey)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(requestBody)))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.data.provider").value("paystack"))
+                .andReturn().getResponse().getContentAsString();
+    }
+
+    /**
+     * The job as the listener would receive it: serialized by the JSON message converter.
+     */
+    private PaymentJobMessage roundTrip(PaymentJobMessage job) throws Exception {
+        return objectMapper.readValue(objectMapper.writeValueAsBytes(job), PaymentJobMessage.class);
+    }
+
+    private String sha256(String input) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest(input.getBytes(StandardCharsets.UTF_8));
+            StringBuilder sb = new StringBuilder(hash.length * 2);
+            for (byte b : hash) {
+                sb.append(String.format("%02x", b));
+            }
+            return sb.toString();
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
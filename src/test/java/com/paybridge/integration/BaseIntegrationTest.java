@@ -17,6 +17,7 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Collections;
 
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
@@ -57,5 +58,7 @@ public abstract class BaseIntegrationTest {
         when(redisTemplate.opsForSet()).thenReturn(setOps);
         when(valueOps.get(anyString())).thenReturn(null);
         when(setOps.members(anyString())).thenReturn(Collections.emptySet());
+        // Tests stub getProviderConfig; let the default secret lookup read through it.
+        when(credentialStorageService.getProviderSecret(anyString(), anyLong(), anyString())).thenCallRealMethod();
     }
 }
@@ -0,0 +1,137 @@
+package com.paybridge.integration;
+
+import com.paybridge.Models.Entities.Customer;
+import com.paybridge.Models.Entities.IdempotencyKey;
+import com.paybridge.Models.Entities.Merchant;
+import com.paybridge.Models.Enums.MerchantStatus;
+import com.paybridge.Models.Enums.PaymentStatus;
+import com.paybridge.Repositories.CustomerRepository;
+import com.paybridge.Repositories.IdempotencyKeyRepository;
+import com.paybridge.Repositories.IdempotencyKeyRepositoryCustom.Acquisition;
+import com.paybridge.Repositories.MerchantRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IdempotencyKeyRepositoryIntegrationTest extends BaseIntegrationTest {
+
+    @Autowired
+    private IdempotencyKeyRepository idempotencyKeyRepository;
+
+    @Autowired
+    private MerchantRepository merchantRepository;
+
+    @Autowired
+    private CustomerRepository customerRepository;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    private Merchant merchant;
+    private Customer customer;
+
+    @BeforeEach
+    void setUp() {
+        String suffix = UUID.randomUUID().toString().replace("-", "");
+        merchant = new Merchant();
+        merchant.setBusinessName("Idempotency Merchant");
+        merchant.setBusinessType("ECOMMERCE");
+        merchant.setBusinessCountry("NG");
+        merchant.setEmail("idem-" + suffix + "@test.com");
+        merchant.setStatus(MerchantStatus.ACTIVE);
+        merchant = merchantRepository.save(merchant);
+
+        customer = new Customer();
+        customer.setMerchant(merchant);
+        customer.setCustomerKey("cust_" + suffix);
+        customer.setExternalCustomerId(1);
+        customer = customerRepository.save(customer);
+    }
+
+    @Test
+    void findExpiredIds_SavedKey_IsNotSelectedBeforeItsTtl() {
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+        LocalDateTime expiresAt = now.plusHours(24);
+
+        IdempotencyKey key = new IdempotencyKey();
+        key.setMerchantId(merchant.getId());
+        key.setIdempotencyKey("idem-" + UUID.randomUUID());
+        key.setCustomer(customer);
+        key.setRequestHash("hash");
+        key.setPaymentStatus(PaymentStatus.SUCCEEDED);
+        key.setExpiresAt(expiresAt);
+        Integer id = idempotencyKeyRepository.save(key).getId();
+        entityManager.flush();
+        entityManager.clear();
+
+        assertThat(idempotencyKeyRepository.findById(id).orElseThrow().getExpiresAt()).isEqualTo(expiresAt);
+        assertThat(idempotencyKeyRepository.findExpiredIds(now.plusSeconds(1), PageRequest.ofSize(100))).doesNotContain(id);
+        assertThat(idempotencyKeyRepository.findExpiredIds(expiresAt.plusSeconds(1), PageRequest.ofSize(100))).contains(id);
+    }
+
+    @Test
+    void findExpiredIds_AcquiredAndReleasedKey_IsNotSelectedBeforeItsTtl() {
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+        LocalDateTime expiresAt = now.plusHours(24);
+
+        Integer id = idempotencyKeyRepository.acquire(merchant.getId(), "idem-" + UUID.randomUUID(),
+                customer.getId(), "hash", "lock", now, expiresAt).id();
+        entityManager.flush();
+        entityManager.createQuery("UPDATE IdempotencyKey k SET k.locked = false WHERE k.id = :id")
+                .setParameter("id", id)
+                .executeUpdate();
+        entityManager.clear();
+
+        assertThat(idempotencyKeyRepository.findExpiredIds(now.plusSeconds(1), PageRequest.ofSize(100))).doesNotContain(id);
+        assertThat(idempotencyKeyRepository.findExpiredIds(expiresAt.plusSeconds(1), PageRequest.ofSize(100))).contains(id);
+    }
+
+    @Test
+    void acquire_LockPastItsExpiry_IsReacquiredWithNewToken() {
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+        String key = "idem-" + UUID.randomUUID();
+
+        // An attempt that locked the key two days ago and never finished.
+        Integer id = idempotencyKeyRepository.acquire(merchant.getId(), key, customer.getId(), "hash",
+                "crashed", now.minusDays(2), now.minusDays(1)).id();
+        entityManager.flush();
+        entityManager.clear();
+
+        Acquisition acquisition = idempotencyKeyRepository.acquire(merchant.getId(), key, customer.getId(), "other-hash",
+                "retry", now, now.plusDays(1));
+        entityManager.flush();
+        entityManager.clear();
+
+        assertThat(acquisition.id()).isEqualTo(id);
+        assertThat(acquisition.lockToken()).isEqualTo("retry");
+        assertThat(acquisition.requestHash()).isEqualTo("other-hash");
+        IdempotencyKey stored = idempotencyKeyRepository.findById(id).orElseThrow();
+        assertThat(stored.isLocked()).isTrue();
+        assertThat(stored.getExpiresAt()).isEqualTo(now.plusDays(1));
+    }
+
+    @Test
+    void acquire_LockWithinItsExpiry_IsNotReacquired() {
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+        String key = "idem-" + UUID.randomUUID();
+
+        idempotencyKeyRepository.acquire(merchant.getId(), key, customer.getId(), "hash",
+                "in-progress", now, now.plusDays(1));
+        entityManager.flush();
+        entityManager.clear();
+
+        Acquisition acquisition = idempotencyKeyRepository.acquire(merchant.getId(), key, customer.getId(), "hash",
+                "duplicate", now.plusSeconds(1), now.plusDays(1));
+
+        assertThat(acquisition.lockToken()).isEqualTo("in-progress");
+    }
+}
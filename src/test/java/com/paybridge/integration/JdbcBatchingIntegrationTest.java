@@ -0,0 +1,56 @@
+package com.paybridge.integration;
+
+import com.paybridge.Models.Entities.ApiKeyUsage;
+import com.paybridge.Repositories.ApiKeyUsageRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@TestPropertySource(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+class JdbcBatchingIntegrationTest extends BaseIntegrationTest {
+
+    @Autowired
+    private ApiKeyUsageRepository apiKeyUsageRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Test
+    void saveAll_ApiKeyUsage_IsInsertedInJdbcBatches() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        entityManager.flush();
+        statistics.clear();
+
+        List<ApiKeyUsage> usages = new ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            ApiKeyUsage usage = new ApiKeyUsage();
+            usage.setMerchantId(1L);
+            usage.setEndpoint("/api/v1/payments");
+            usage.setMethod("POST");
+            usage.setIpAddress("127.0.0.1");
+            usage.setResponseStatus(201);
+            usages.add(usage);
+        }
+        apiKeyUsageRepository.saveAll(usages);
+        entityManager.flush();
+
+        assertEquals(120, statistics.getEntityInsertCount());
+        // batch_size=50: three INSERT batches plus a few pooled sequence calls, not 120 statements
+        assertTrue(statistics.getPrepareStatementCount() <= 8,
+                "Expected batched inserts but saw " + statistics.getPrepareStatementCount() + " statements");
+    }
+}
@@ -20,6 +20,7 @@ import java.util.Collections;
 import java.util.Map;
 
 import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.startsWith;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
@@ -86,7 +87,8 @@ class MerchantWebhookSecretIntegrationTest extends BaseIntegrationTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.data.provider").value("stripe"))
                 .andExpect(jsonPath("$.data.configured").value(true))
-                .andExpect(jsonPath("$.data.maskedSecret", containsString("****")));
+                .andExpect(jsonPath("$.data.maskedSecret", containsString("****")))
+                .andExpect(jsonPath("$.data.webhookEndpoint", startsWith("/api/v1/webhooks/stripe/")));
     }
 
     @Test
@@ -2,6 +2,7 @@ package com.paybridge.integration;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.paybridge.Configs.PaymentProvider;
+import com.paybridge.Models.DTOs.CreatePaymentRequest;
 import com.paybridge.Models.DTOs.PaymentProviderResponse;
 import com.paybridge.Models.Entities.*;
 import com.paybridge.Models.Enums.MerchantStatus;
@@ -17,9 +18,12 @@ import org.springframework.test.web.servlet.MockMvc;
 
 import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
-import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.not;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
@@ -47,6 +51,9 @@ class PaymentApiRoutingIntegrationTest extends BaseIntegrationTest {
     @Autowired
     private ProviderConfigRepository providerConfigRepository;
 
+    @Autowired
+    private CustomerRepository customerRepository;
+
     @MockitoBean
     private PaymentProviderRegistry paymentProviderRegistry;
 
@@ -102,7 +109,7 @@ class PaymentApiRoutingIntegrationTest extends BaseIntegrationTest {
         providerResponse.setCheckoutUrl("https://checkout.example.com/pay");
 
         when(paymentProviderRegistry.getProvider("paystack")).thenReturn(provider);
-        when(provider.CreatePaymentRequest(any(), any())).thenReturn(providerResponse);
+        when(provider.CreatePaymentRequest(any(), any(), any())).thenReturn(providerResponse);
 
         Map<String, Object> requestBody = Map.of(
                 "amount", 1000,
@@ -122,11 +129,11 @@ class PaymentApiRoutingIntegrationTest extends BaseIntegrationTest {
                 .andExpect(jsonPath("$.data.providerReference").value("ref_paystack_1"));
 
         verify(paymentProviderRegistry).getProvider("paystack");
-        verify(provider).CreatePaymentRequest(any(), any());
+        verify(provider).CreatePaymentRequest(any(), any(), any());
     }
 
     @Test
-    void createPayment_WithoutProviderAndMultipleEnabled_ReturnsBadRequest() throws Exception {
+    void createPayment_WithoutProviderAndMultipleEnabled_RoutesToSupportingProvider() throws Exception {
         Provider stripe = new Provider();
         stripe.setName("stripe");
         stripe.setDisplayName("Stripe");
@@ -149,6 +156,16 @@ class PaymentApiRoutingIntegrationTest extends BaseIntegrationTest {
         c2.setEnabled(true);
         providerConfigRepository.save(c2);
 
+        PaymentProvider provider = mock(PaymentProvider.class);
+        PaymentProviderResponse providerResponse = new PaymentProviderResponse();
+        providerResponse.setProviderPaymentId("ref_routed_1");
+        providerResponse.setStatus("pending");
+
+        when(paymentProviderRegistry.supportsCurrency("stripe", "NGN")).thenReturn(false);
+        when(paymentProviderRegistry.supportsCurrency("paystack", "NGN")).thenReturn(true);
+        when(paymentProviderRegistry.getProvider("paystack")).thenReturn(provider);
+        when(provider.CreatePaymentRequest(any(), any(), any())).thenReturn(providerResponse);
+
         Map<String, Object> requestBody = Map.of(
                 "amount", 1000,
                 "currency", "NGN",
@@ -161,10 +178,217 @@ class PaymentApiRoutingIntegrationTest extends BaseIntegrationTest {
                         .header("Idempotency-Key", "idem-route-2")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(requestBody)))
-                .andExpect(status().isBadRequest())
-                .andExpect(jsonPath("$.error.message", containsString("Multiple providers are enabled")));
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.data.provider").value("paystack"))
+                .andExpect(jsonPath("$.data.providerReference").value("ref_routed_1"));
+
+        verify(paymentProviderRegistry, never()).getProvider("stripe");
+    }
+
+    @Test
+    void createPayments_Batch_ReturnsResultPerItem() throws Exception {
+        Provider paystack = new Provider();
+        paystack.setName("paystack");
+        paystack.setDisplayName("Paystack");
+        paystack = providerRepository.save(paystack);
+
+        ProviderConfig config = new ProviderConfig();
+        config.setMerchant(merchant);
+        config.setProvider(paystack);
+        config.setEnabled(true);
+        providerConfigRepository.save(config);
+
+        PaymentProvider provider = mock(PaymentProvider.class);
+        PaymentProviderResponse providerResponse = new PaymentProviderResponse();
+        providerResponse.setProviderPaymentId("ref_batch_1");
+        providerResponse.setStatus("pending");
+
+        when(paymentProviderRegistry.getProvider("paystack")).thenReturn(provider);
+        when(provider.CreatePaymentRequest(any(), any(), any())).thenAnswer(invocation -> {
+            CreatePaymentRequest request = invocation.getArgument(0);
+            if (request.getDescription().contains("decline")) {
+                throw new RuntimeException("Card declined");
+            }
+            return providerResponse;
+        });
+
+        Map<String, Object> requestBody = Map.of("payments", List.of(
+                batchItem("idem-batch-1", "Order batch ok"),
+                batchItem("idem-batch-2", "Order batch decline"),
+                batchItem("idem-batch-1", "Order batch duplicate")
+        ));
+
+        mockMvc.perform(post("/api/v1/payments/batch")
+                        .header("x-api-key", "pk_test_route_123456789012345")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(requestBody)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.succeeded").value(1))
+                .andExpect(jsonPath("$.data.failed").value(2))
+                .andExpect(jsonPath("$.data.results[0].success").value(true))
+                .andExpect(jsonPath("$.data.results[0].payment.providerReference").value("ref_batch_1"))
+                .andExpect(jsonPath("$.data.results[1].error").value("Card declined"))
+                .andExpect(jsonPath("$.data.results[2].error").value("Duplicate idempotency key in batch"));
+
+        verify(provider, times(2)).CreatePaymentRequest(any(), any(), any());
+    }
+
+    @Test
+    void createPayments_RepeatCustomer_ReusesCustomerRow() throws Exception {
+        Provider paystack = new Provider();
+        paystack.setName("paystack");
+        paystack.setDisplayName("Paystack");
+        paystack = providerRepository.save(paystack);
+
+        ProviderConfig config = new ProviderConfig();
+        config.setMerchant(merchant);
+        config.setProvider(paystack);
+        config.setEnabled(true);
+        providerConfigRepository.save(config);
 
-        verify(paymentProviderRegistry, never()).getProvider(anyString());
+        PaymentProvider provider = mock(PaymentProvider.class);
+        PaymentProviderResponse providerResponse = new PaymentProviderResponse();
+        providerResponse.setProviderPaymentId("ref_customer_1");
+        providerResponse.setStatus("pending");
+
+        when(paymentProviderRegistry.getProvider("paystack")).thenReturn(provider);
+        when(provider.CreatePaymentRequest(any(), any(), any())).thenReturn(providerResponse);
+
+        createPayment("idem-customer-1", Map.of("email", "repeat@example.com"));
+        createPayment("idem-customer-2", Map.of("email", "Repeat@Example.com", "customerName", "Ada Obi"));
+        createPayment("idem-customer-3", Map.of("email", "repeat@example.com", "customerReference", "cus_42"));
+
+        List<Customer> customers = customerRepository.findAll().stream()
+                .filter(customer -> customer.getMerchant().getId().equals(merchant.getId()))
+                .toList();
+        assertEquals(2, customers.size());
+        Customer byEmail = customers.stream()
+                .filter(customer -> customer.getCustomerKey().equals("email:repeat@example.com"))
+                .findFirst()
+                .orElseThrow();
+        assertEquals("Ada Obi", byEmail.getFullName());
+    }
+
+    @Test
+    void createPayment_IdempotencyKeyScopedPerMerchant_ReplaysAndRejectsChangedPayload() throws Exception {
+        Provider paystack = new Provider();
+        paystack.setName("paystack");
+        paystack.setDisplayName("Paystack");
+        paystack = providerRepository.save(paystack);
+
+        ProviderConfig config = new ProviderConfig();
+        config.setMerchant(merchant);
+        config.setProvider(paystack);
+        config.setEnabled(true);
+        providerConfigRepository.save(config);
+
+        Merchant otherMerchant = new Merchant();
+        otherMerchant.setBusinessName("Other Merchant");
+        otherMerchant.setBusinessType("ECOMMERCE");
+        otherMerchant.setBusinessCountry("NG");
+        otherMerchant.setEmail("other@test.com");
+        otherMerchant.setStatus(MerchantStatus.ACTIVE);
+        otherMerchant.setApiKeyTest("pk_test_other_123456789012345");
+        otherMerchant.setApiKeyTestHash(sha256("pk_test_other_123456789012345"));
+        otherMerchant = merchantRepository.save(otherMerchant);
+
+        Users otherUser = new Users();
+        otherUser.setMerchant(otherMerchant);
+        otherUser.setEmail("other@test.com");
+        otherUser.setPassword("encoded");
+        otherUser.setUserType(UserType.MERCHANT);
+        otherUser.setEmailVerified(true);
+        otherUser.setEnabled(true);
+        userRepository.save(otherUser);
+
+        ProviderConfig otherConfig = new ProviderConfig();
+        otherConfig.setMerchant(otherMerchant);
+        otherConfig.setProvider(paystack);
+        otherConfig.setEnabled(true);
+        providerConfigRepository.save(otherConfig);
+
+        PaymentProvider provider = mock(PaymentProvider.class);
+        PaymentProviderResponse providerResponse = new PaymentProviderResponse();
+        providerResponse.setProviderPaymentId("ref_idem_1");
+        providerResponse.setStatus("pending");
+
+        when(credentialStorageService.getProviderConfig(anyString(), eq(otherMerchant.getId())))
+                .thenReturn(Map.of("secretKey", "sk_test_456"));
+        when(paymentProviderRegistry.getProvider("paystack")).thenReturn(provider);
+        when(provider.CreatePaymentRequest(any(), any(), any())).thenReturn(providerResponse);
+
+        Map<String, Object> requestBody = Map.of(
+                "amount", 1000,
+                "currency", "NGN",
+                "description", "Order shared key",
+                "email", "customer@example.com",
+                "provider", "paystack"
+        );
+
+        String first = mockMvc.perform(post("/api/v1/payments")
+                        .header("x-api-key", "pk_test_route_123456789012345")
+                        .header("Idempotency-Key", "idem-shared")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(requestBody)))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        String paymentId = objectMapper.readTree(first).path("data").path("id").asText();
+
+        mockMvc.perform(post("/api/v1/payments")
+                        .header("x-api-key", "pk_test_route_123456789012345")
+                        .header("Idempotency-Key", "idem-shared")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(requestBody)))
+                .andExpect(jsonPath("$.data.id").value(paymentId));
+
+        Map<String, Object> changedBody = new HashMap<>(requestBody);
+        changedBody.put("amount", 2000);
+        mockMvc.perform(post("/api/v1/payments")
+                        .header("x-api-key", "pk_test_route_123456789012345")
+                        .header("Idempotency-Key", "idem-shared")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(changedBody)))
+                .andExpect(status().isBadRequest());
+
+        mockMvc.perform(post("/api/v1/payments")
+                        .header("x-api-key", "pk_test_other_123456789012345")
+                        .header("Idempotency-Key", "idem-shared")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(requestBody)))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.data.id").value(not(paymentId)));
+
+        verify(provider, times(2)).CreatePaymentRequest(any(), any(), any());
+    }
+
+    private void createPayment(String idempotencyKey, Map<String, Object> customerFields) throws Exception {
+        Map<String, Object> requestBody = new HashMap<>(Map.of(
+                "amount", 1000,
+                "currency", "NGN",
+                "description", "Order " + idempotencyKey,
+                "provider", "paystack"
+        ));
+        requestBody.putAll(customerFields);
+
+        mockMvc.perform(post("/api/v1/payments")
+                        .header("x-api-key", "pk_test_route_123456789012345")
+                        .header("Idempotency-Key", idempotencyKey)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(requestBody)))
+                .andExpect(status().isCreated());
+    }
+
+    private Map<String, Object> batchItem(String idempotencyKey, String description) {
+        return Map.of(
+                "idempotencyKey", idempotencyKey,
+                "payment", Map.of(
+                        "amount", 500,
+                        "currency", "NGN",
+                        "description", description,
+                        "email", "customer@example.com",
+                        "provider", "paystack"
+                )
+        );
     }
 
     private String sha256(String input) {
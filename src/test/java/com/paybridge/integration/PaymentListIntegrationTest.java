@@ -0,0 +1,184 @@
+package com.paybridge.integration;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.paybridge.Models.Entities.Merchant;
+import com.paybridge.Models.Entities.Payment;
+import com.paybridge.Models.Entities.Provider;
+import com.paybridge.Models.Entities.Users;
+import com.paybridge.Models.Enums.MerchantStatus;
+import com.paybridge.Models.Enums.PaymentStatus;
+import com.paybridge.Models.Enums.UserType;
+import com.paybridge.Repositories.MerchantRepository;
+import com.paybridge.Repositories.PaymentRepository;
+import com.paybridge.Repositories.ProviderRepository;
+import com.paybridge.Repositories.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class PaymentListIntegrationTest extends BaseIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MerchantRepository merchantRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ProviderRepository providerRepository;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    private String apiKey;
+
+    @BeforeEach
+    void setUp() {
+        String suffix = UUID.randomUUID().toString().replace("-", "");
+        apiKey = "pk_test_list_" + suffix;
+
+        Merchant merchant = createMerchant("list-" + suffix + "@test.com", apiKey);
+        Merchant otherMerchant = createMerchant("other-" + suffix + "@test.com", "pk_test_other_" + suffix);
+
+        Provider stripe = createProvider("stripe-" + suffix);
+        Provider paystack = createProvider("paystack-" + suffix);
+
+        createPayment(merchant, paystack, "NGN", PaymentStatus.SUCCEEDED);
+        createPayment(merchant, paystack, "NGN", PaymentStatus.PENDING);
+        createPayment(merchant, paystack, "NGN", PaymentStatus.SUCCEEDED);
+        createPayment(merchant, stripe, "USD", PaymentStatus.FAILED);
+        createPayment(merchant, stripe, "USD", PaymentStatus.SUCCEEDED);
+        createPayment(otherMerchant, stripe, "USD", PaymentStatus.SUCCEEDED);
+    }
+
+    @Test
+    void listPayments_WalksAllPagesWithoutGapsOrDuplicates() throws Exception {
+        List<String> ids = new ArrayList<>();
+        List<String> createdAts = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            MockHttpServletRequestBuilder request = get("/api/v1/payments")
+                    .header("x-api-key", apiKey)
+                    .queryParam("limit", "2");
+            if (cursor != null) {
+                request.queryParam("cursor", cursor);
+            }
+            JsonNode data = objectMapper.readTree(mockMvc.perform(request)
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString()).get("data");
+            for (JsonNode payment : data.get("payments")) {
+                ids.add(payment.get("id").asText());
+                createdAts.add(payment.get("createdAt").asText());
+            }
+            cursor = data.hasNonNull("nextCursor") ? data.get("nextCursor").asText() : null;
+            pages++;
+        } while (cursor != null);
+
+        assertThat(pages).isEqualTo(3);
+        assertThat(ids).hasSize(5);
+        assertThat(new HashSet<>(ids)).hasSize(5);
+        assertThat(createdAts).isSortedAccordingTo((a, b) -> b.compareTo(a));
+    }
+
+    @Test
+    void listPayments_AppliesFilters() throws Exception {
+        mockMvc.perform(get("/api/v1/payments")
+                        .header("x-api-key", apiKey)
+                        .queryParam("currency", "usd"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.payments.length()").value(2))
+                .andExpect(jsonPath("$.data.hasMore").value(false));
+
+        mockMvc.perform(get("/api/v1/payments")
+                        .header("x-api-key", apiKey)
+                        .queryParam("status", "SUCCEEDED")
+                        .queryParam("currency", "NGN"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.payments.length()").value(2));
+    }
+
+    @Test
+    void listPayments_InvalidCursor_ReturnsBadRequest() throws Exception {
+        mockMvc.perform(get("/api/v1/payments")
+                        .header("x-api-key", apiKey)
+                        .queryParam("cursor", "not-a-cursor"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private Merchant createMerchant(String email, String key) {
+        Merchant merchant = new Merchant();
+        merchant.setBusinessName("List Merchant");
+        merchant.setBusinessType("ECOMMERCE");
+        merchant.setBusinessCountry("NG");
+        merchant.setEmail(email);
+        merchant.setStatus(MerchantStatus.ACTIVE);
+        merchant.setApiKeyTest(key);
+        merchant.setApiKeyTestHash(sha256(key));
+        merchant = merchantRepository.save(merchant);
+
+        Users user = new Users();
+        user.setMerchant(merchant);
+        user.setEmail(email);
+        user.setPassword("encoded");
+        user.setUserType(UserType.MERCHANT);
+        user.setEmailVerified(true);
+        user.setEnabled(true);
+        userRepository.save(user);
+        return merchant;
+    }
+
+    private Provider createProvider(String name) {
+        Provider provider = new Provider();
+        provider.setName(name);
+        provider.setDisplayName(name);
+        return providerRepository.save(provider);
+    }
+
+    private void createPayment(Merchant merchant, Provider provider, String currency, PaymentStatus status) {
+        Payment payment = new Payment();
+        payment.setMerchant(merchant);
+        payment.setProvider(provider);
+        payment.setAmount(BigDecimal.valueOf(1000));
+        payment.setCurrency(currency);
+        payment.setStatus(status);
+        payment.setProviderReference("ref_" + System.nanoTime());
+        paymentRepository.save(payment);
+    }
+
+    private String sha256(String input) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest(input.getBytes(StandardCharsets.UTF_8));
+            StringBuilder sb = new StringBuilder(hash.length * 2);
+            for (byte b : hash) {
+                sb.append(String.format("%02x", b));
+            }
+            return sb.toString();
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -10,7 +10,9 @@ import org.springframework.test.web.servlet.MockMvc;
 import java.util.Map;
 
 import static org.hamcrest.Matchers.containsString;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
@@ -27,7 +29,7 @@ class WebhookControllerIntegrationTest extends BaseIntegrationTest {
 
     @Test
     void stripeWebhook_ValidSignature_ReturnsOk() throws Exception {
-        when(webhookService.handleStripeWebhook(anyString(), anyString()))
+        when(webhookService.handleStripeWebhook(any(byte[].class), anyString()))
                 .thenReturn(Map.of("processed", true, "eventId", "evt_123"));
 
         mockMvc.perform(post("/api/v1/webhooks/stripe")
@@ -40,7 +42,7 @@ class WebhookControllerIntegrationTest extends BaseIntegrationTest {
 
     @Test
     void stripeWebhook_MissingSignature_ReturnsBadRequest() throws Exception {
-        when(webhookService.handleStripeWebhook(anyString(), isNull()))
+        when(webhookService.handleStripeWebhook(any(byte[].class), isNull()))
                 .thenThrow(new IllegalArgumentException("Missing Stripe-Signature header"));
 
         mockMvc.perform(post("/api/v1/webhooks/stripe")
@@ -52,7 +54,7 @@ class WebhookControllerIntegrationTest extends BaseIntegrationTest {
 
     @Test
     void paystackWebhook_InvalidSignature_ReturnsBadRequest() throws Exception {
-        when(webhookService.handlePaystackWebhook(anyString(), anyString()))
+        when(webhookService.handlePaystackWebhook(any(byte[].class), anyString()))
                 .thenThrow(new IllegalArgumentException("Invalid Paystack webhook signature"));
 
         mockMvc.perform(post("/api/v1/webhooks/paystack")
@@ -62,4 +64,31 @@ class WebhookControllerIntegrationTest extends BaseIntegrationTest {
                 .andExpect(status().isBadRequest())
                 .andExpect(jsonPath("$.error.message", containsString("Invalid Paystack webhook signature")));
     }
+
+    @Test
+    void merchantWebhook_RoutesProviderSignatureHeaderToService() throws Exception {
+        when(webhookService.handleMerchantWebhook(eq("paystack"), eq("tok_123"), any(byte[].class), eq("sig_paystack")))
+                .thenReturn(Map.of("processed", true, "eventId", "9001"));
+
+        mockMvc.perform(post("/api/v1/webhooks/paystack/tok_123")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header("x-paystack-signature", "sig_paystack")
+                        .header("Stripe-Signature", "t=123,v1=abc")
+                        .content("{\"event\":\"charge.success\",\"data\":{\"reference\":\"ref_1\"}}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.eventId").value("9001"));
+    }
+
+    @Test
+    void merchantWebhook_UnknownToken_ReturnsBadRequestWithoutAuthentication() throws Exception {
+        when(webhookService.handleMerchantWebhook(eq("stripe"), eq("forged"), any(byte[].class), anyString()))
+                .thenThrow(new IllegalArgumentException("Unknown webhook endpoint"));
+
+        mockMvc.perform(post("/api/v1/webhooks/stripe/forged")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header("Stripe-Signature", "t=123,v1=abc")
+                        .content("{\"id\":\"evt_123\"}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error.message", containsString("Unknown webhook endpoint")));
+    }
 }
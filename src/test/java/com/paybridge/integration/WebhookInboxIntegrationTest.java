@@ -0,0 +1,201 @@
+package com.paybridge.integration;
+
+import com.paybridge.Models.Entities.Merchant;
+import com.paybridge.Models.Entities.Payment;
+import com.paybridge.Models.Entities.Provider;
+import com.paybridge.Models.Entities.WebhookInboxEvent;
+import com.paybridge.Models.Enums.MerchantStatus;
+import com.paybridge.Models.Enums.PaymentStatus;
+import com.paybridge.Models.Enums.WebhookInboxStatus;
+import com.paybridge.Repositories.MerchantRepository;
+import com.paybridge.Repositories.PaymentRepository;
+import com.paybridge.Repositories.ProviderRepository;
+import com.paybridge.Repositories.WebhookInboxRepository;
+import com.paybridge.Services.WebhookService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@TestPropertySource(properties = {
+        "webhooks.async.enabled=true",
+        "webhooks.async.initial-delay-ms=3600000",
+        "webhooks.async.purge-initial-delay-ms=3600000"
+})
+class WebhookInboxIntegrationTest extends BaseIntegrationTest {
+
+    private static final String SECRET = "sk_test_inbox";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MerchantRepository merchantRepository;
+
+    @Autowired
+    private ProviderRepository providerRepository;
+
+    @Autowired
+    private PaymentRepository paymentRepository;
+
+    @Autowired
+    private WebhookInboxRepository webhookInboxRepository;
+
+    @Autowired
+    private WebhookService webhookService;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Test
+    void paystackWebhook_AsyncMode_QueuesVerifiedEventAndWorkerAppliesIt() throws Exception {
+        String suffix = UUID.randomUUID().toString().replace("-", "");
+        Payment payment = createPayment(createMerchant("inbox-" + suffix + "@test.com"), "ref_inbox_" + suffix);
+        when(credentialStorageService.getProviderConfig("paystack", payment.getMerchant().getId()))
+                .thenReturn(Map.of("secretKey", SECRET));
+
+        String payload = "{\"event\":\"charge.success\",\"data\":{\"id\":\"tx_" + suffix
+                + "\",\"reference\":\"" + payment.getProviderReference() + "\",\"status\":\"success\"}}";
+
+        mockMvc.perform(post("/api/v1/webhooks/paystack")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header("x-paystack-signature", sign(payload))
+                        .content(payload))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.accepted").value(true));
+
+        mockMvc.perform(post("/api/v1/webhooks/paystack")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header("x-paystack-signature", sign(payload))
+                        .content(payload))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.duplicate").value(true));
+
+        List<WebhookInboxEvent> queued = webhookInboxRepository.findAll().stream()
+                .filter(event -> event.getPaymentId().equals(payment.getId()))
+                .toList();
+        assertThat(queued).hasSize(1);
+        assertThat(queued.get(0).getStatus()).isEqualTo(WebhookInboxStatus.PENDING);
+        assertThat(paymentRepository.findById(payment.getId()).orElseThrow().getStatus()).isEqualTo(PaymentStatus.PENDING);
+
+        assertThat(webhookService.applyInboxEvent(queued.get(0).getId())).isTrue();
+
+        assertThat(paymentRepository.findById(payment.getId()).orElseThrow().getStatus()).isEqualTo(PaymentStatus.SUCCEEDED);
+        assertThat(webhookInboxRepository.findById(queued.get(0).getId()).orElseThrow().getStatus())
+                .isEqualTo(WebhookInboxStatus.PROCESSED);
+        assertThat(webhookService.applyInboxEvent(queued.get(0).getId())).isFalse();
+    }
+
+    @Test
+    void paystackWebhook_AsyncMode_InvalidSignatureIsRejectedAndNotQueued() throws Exception {
+        String suffix = UUID.randomUUID().toString().replace("-", "");
+        Payment payment = createPayment(createMerchant("inbox-bad-" + suffix + "@test.com"), "ref_inbox_bad_" + suffix);
+        when(credentialStorageService.getProviderConfig("paystack", payment.getMerchant().getId()))
+                .thenReturn(Map.of("secretKey", SECRET));
+
+        String payload = "{\"event\":\"charge.success\",\"data\":{\"id\":\"tx_bad_" + suffix
+                + "\",\"reference\":\"" + payment.getProviderReference() + "\",\"status\":\"success\"}}";
+
+        mockMvc.perform(post("/api/v1/webhooks/paystack")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header("x-paystack-signature", "invalid")
+                        .content(payload))
+                .andExpect(status().isBadRequest());
+
+        assertThat(webhookInboxRepository.existsByProviderAndEventId("paystack", "tx_bad_" + suffix)).isFalse();
+    }
+
+    @Test
+    void recordFailure_DecidesExhaustionFromTheStoredAttemptCount() {
+        String suffix = UUID.randomUUID().toString().replace("-", "");
+        Payment payment = createPayment(createMerchant("inbox-fail-" + suffix + "@test.com"), "ref_inbox_fail_" + suffix);
+        WebhookInboxEvent event = webhookInboxRepository.saveAndFlush(WebhookInboxEvent.received("paystack",
+                "tx_fail_" + suffix, "charge.success", payment.getId(), PaymentStatus.SUCCEEDED, "{}"));
+        LocalDateTime retryAt = LocalDateTime.now().plusMinutes(1);
+
+        // Two workers that both read attempts = 0: the second failure still exhausts the event.
+        assertThat(webhookInboxRepository.recordFailure(event.getId(), "first", retryAt, 2)).isEqualTo(1);
+        assertThat(webhookInboxRepository.recordFailure(event.getId(), "second", retryAt, 2)).isEqualTo(2);
+        entityManager.clear();
+
+        WebhookInboxEvent stored = webhookInboxRepository.findById(event.getId()).orElseThrow();
+        assertThat(stored.getStatus()).isEqualTo(WebhookInboxStatus.FAILED);
+        assertThat(stored.getAttempts()).isEqualTo(2);
+        assertThat(webhookInboxRepository.recordFailure(-1L, "gone", retryAt, 2)).isZero();
+    }
+
+    @Test
+    void recordFailure_EventNoLongerPending_IsLeftAlone() {
+        String suffix = UUID.randomUUID().toString().replace("-", "");
+        Payment payment = createPayment(createMerchant("inbox-done-" + suffix + "@test.com"), "ref_inbox_done_" + suffix);
+        WebhookInboxEvent event = WebhookInboxEvent.received("paystack",
+                "tx_done_" + suffix, "charge.success", payment.getId(), PaymentStatus.SUCCEEDED, "{}");
+        event.markProcessed();
+        event = webhookInboxRepository.saveAndFlush(event);
+
+        assertThat(webhookInboxRepository.recordFailure(event.getId(), "late", LocalDateTime.now(), 2)).isZero();
+        entityManager.clear();
+
+        WebhookInboxEvent stored = webhookInboxRepository.findById(event.getId()).orElseThrow();
+        assertThat(stored.getStatus()).isEqualTo(WebhookInboxStatus.PROCESSED);
+        assertThat(stored.getAttempts()).isZero();
+        assertThat(stored.getLastError()).isNull();
+    }
+
+    private Merchant createMerchant(String email) {
+        Merchant merchant = new Merchant();
+        merchant.setBusinessName("Inbox Merchant");
+        merchant.setBusinessType("Retail");
+        merchant.setBusinessCountry("NG");
+        merchant.setEmail(email);
+        merchant.setStatus(MerchantStatus.ACTIVE);
+        return merchantRepository.save(merchant);
+    }
+
+    private Payment createPayment(Merchant merchant, String providerReference) {
+        Provider paystack = providerRepository.findByName("paystack").orElseGet(() -> {
+            Provider provider = new Provider();
+            provider.setName("paystack");
+            provider.setDisplayName("Paystack");
+            return providerRepository.save(provider);
+        });
+
+        Payment payment = new Payment();
+        payment.setMerchant(merchant);
+        payment.setProvider(paystack);
+        payment.setAmount(BigDecimal.valueOf(1000));
+        payment.setCurrency("NGN");
+        payment.setStatus(PaymentStatus.PENDING);
+        payment.setProviderReference(providerReference);
+        return paymentRepository.save(payment);
+    }
+
+    private String sign(String payload) {
+        try {
+            Mac sha512Hmac = Mac.getInstance("HmacSHA512");
+            sha512Hmac.init(new SecretKeySpec(SECRET.getBytes(StandardCharsets.UTF_8), "HmacSHA512"));
+            return HexFormat.of().formatHex(sha512Hmac.doFinal(payload.getBytes(StandardCharsets.UTF_8)));
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.paybridge.Services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.paybridge.Models.DTOs.BatchPaymentItem;
+import com.paybridge.Models.DTOs.BatchPaymentItemResult;
+import com.paybridge.Models.DTOs.BatchPaymentResponse;
+import com.paybridge.Models.DTOs.CreatePaymentRequest;
+import com.paybridge.Models.DTOs.PaymentResponse;
+import com.paybridge.Models.Entities.Merchant;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class BatchPaymentServiceTest {
+
+    @Mock
+    private MerchantRoutingCache merchantRoutingCache;
+    @Mock
+    private ProviderRouter providerRouter;
+    @Mock
+    private PaymentTransactionHelper transactionHelper;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private BatchPaymentService service;
+    private Merchant merchant;
+
+    @BeforeEach
+    void setUp() {
+        service = new BatchPaymentService(merchantRoutingCache, providerRouter, objectMapper, transactionHelper,
+                new PaymentConcurrencyLimiter(10, 10, 100, new SimpleMeterRegistry()),
+                new CanonicalRequestHasher(objectMapper), Runnable::run, 500);
+        merchant = new Merchant();
+        merchant.setId(9L);
+    }
+
+    @Test
+    void createPayments_ClaimsKeysInSortedOrder_AndAnswersInRequestOrder() throws Exception {
+        List<BatchPaymentItem> items = List.of(item("order-c"), item("order-a"), item("order-b"));
+        when(transactionHelper.prepareBatch(eq(merchant), anyList(), anyList())).thenAnswer(invocation -> {
+            List<BatchPaymentItem> claimed = invocation.getArgument(1);
+            assertEquals(List.of("order-a", "order-b", "order-c"),
+                    claimed.stream().map(BatchPaymentItem::getIdempotencyKey).toList());
+            return claimed.stream().map(this::cachedResponse).toList();
+        });
+
+        BatchPaymentResponse response = service.createPayments(items, merchant);
+
+        assertEquals(List.of("order-c", "order-a", "order-b"),
+                response.getResults().stream().map(BatchPaymentItemResult::getIdempotencyKey).toList());
+        assertEquals(List.of("order-c", "order-a", "order-b"),
+                response.getResults().stream().map(result -> result.getPayment().getMessage()).toList());
+    }
+
+    private PreparePaymentResult cachedResponse(BatchPaymentItem item) {
+        PaymentResponse cached = new PaymentResponse();
+        cached.setId(UUID.randomUUID());
+        cached.setMessage(item.getIdempotencyKey());
+        try {
+            return PreparePaymentResult.cached(objectMapper.writeValueAsString(cached));
+        } catch (Exception ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private BatchPaymentItem item(String idempotencyKey) {
+        CreatePaymentRequest payment = new CreatePaymentRequest();
+        payment.setAmount(new BigDecimal("10.00"));
+        payment.setCurrency("NGN");
+        payment.setEmail("customer@example.com");
+        payment.setDescription(idempotencyKey);
+        BatchPaymentItem item = new BatchPaymentItem();
+        item.setIdempotencyKey(idempotencyKey);
+        item.setPayment(payment);
+        return item;
+    }
+}
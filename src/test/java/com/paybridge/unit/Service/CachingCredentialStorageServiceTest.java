@@ -0,0 +1,127 @@
+package com.paybridge.unit.Service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.paybridge.Security.SecretFingerprint;
+import com.paybridge.Services.CacheInvalidationBus;
+import com.paybridge.Services.ProviderSecret;
+import com.paybridge.Services.impl.CachingCredentialStorageService;
+import com.paybridge.Services.impl.VaultService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CachingCredentialStorageServiceTest {
+
+    private static final Long MERCHANT_ID = 42L;
+
+    @Mock
+    private VaultService vaultService;
+
+    @Mock
+    private CacheInvalidationBus invalidationBus;
+
+    private SimpleMeterRegistry meterRegistry;
+    private CachingCredentialStorageService service;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        service = new CachingCredentialStorageService(vaultService, invalidationBus, new ObjectMapper(),
+                meterRegistry, MoreExecutors.directExecutor(), 100, 300, 60);
+    }
+
+    @Test
+    void getProviderConfig_LoadsOnceThenServesFromCache() {
+        when(vaultService.getProviderConfig("stripe", MERCHANT_ID)).thenReturn(config("sk_test_1"));
+
+        assertEquals("sk_test_1", service.getProviderConfig("stripe", MERCHANT_ID).get("secretKey"));
+        assertEquals("sk_test_1", service.getProviderConfig("STRIPE", MERCHANT_ID).get("secretKey"));
+
+        verify(vaultService, times(1)).getProviderConfig("stripe", MERCHANT_ID);
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("result", "hit").functionCounter().count());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("result", "miss").functionCounter().count());
+    }
+
+    @Test
+    void getProviderConfig_ReturnsIndependentCopies() {
+        when(vaultService.getProviderConfig("stripe", MERCHANT_ID)).thenReturn(config("sk_test_1"));
+
+        service.getProviderConfig("stripe", MERCHANT_ID).put("secretKey", "mutated");
+
+        assertEquals("sk_test_1", service.getProviderConfig("stripe", MERCHANT_ID).get("secretKey"));
+    }
+
+    @Test
+    void getProviderConfig_PropagatesVaultFailureWithoutCaching() {
+        when(vaultService.getProviderConfig("stripe", MERCHANT_ID))
+                .thenThrow(new RuntimeException("Provider configuration not found in Vault"))
+                .thenReturn(config("sk_test_1"));
+
+        RuntimeException ex = assertThrows(RuntimeException.class,
+                () -> service.getProviderConfig("stripe", MERCHANT_ID));
+        assertEquals("Provider configuration not found in Vault", ex.getMessage());
+        assertEquals("sk_test_1", service.getProviderConfig("stripe", MERCHANT_ID).get("secretKey"));
+    }
+
+    @Test
+    void getProviderSecret_ServesFingerprintTakenAtLoad() {
+        when(vaultService.getProviderConfig("stripe", MERCHANT_ID)).thenReturn(config("sk_test_1"));
+
+        ProviderSecret first = service.getProviderSecret("stripe", MERCHANT_ID, "secretKey");
+        ProviderSecret second = service.getProviderSecret("stripe", MERCHANT_ID, "secretKey");
+
+        assertEquals("sk_test_1", first.value());
+        assertEquals(SecretFingerprint.of("sk_test_1"), first.fingerprint());
+        assertSame(first.fingerprint(), second.fingerprint());
+        assertNull(service.getProviderSecret("stripe", MERCHANT_ID, "webhookSecret"));
+        verify(vaultService, times(1)).getProviderConfig("stripe", MERCHANT_ID);
+    }
+
+    @Test
+    void saveProviderConfig_InvalidatesAndBroadcasts() {
+        when(vaultService.getProviderConfig("stripe", MERCHANT_ID))
+                .thenReturn(config("sk_test_1"))
+                .thenReturn(config("sk_test_2"));
+        service.getProviderConfig("stripe", MERCHANT_ID);
+
+        service.saveProviderConfig("stripe", MERCHANT_ID, config("sk_test_2"));
+
+        assertEquals("sk_test_2", service.getProviderConfig("stripe", MERCHANT_ID).get("secretKey"));
+        verify(invalidationBus).publish(any(), eq("stripe:42"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void remoteInvalidation_EvictsEntry() {
+        ArgumentCaptor<Consumer<String>> handler = ArgumentCaptor.forClass(Consumer.class);
+        verify(invalidationBus).subscribe(any(), handler.capture());
+        when(vaultService.getProviderConfig("stripe", MERCHANT_ID)).thenReturn(config("sk_test_1"));
+        service.getProviderConfig("stripe", MERCHANT_ID);
+
+        handler.getValue().accept("stripe:42");
+        service.getProviderConfig("stripe", MERCHANT_ID);
+
+        verify(vaultService, times(2)).getProviderConfig("stripe", MERCHANT_ID);
+    }
+
+    private Map<String, Object> config(String secretKey) {
+        Map<String, Object> config = new HashMap<>();
+        config.put("secretKey", secretKey);
+        return config;
+    }
+}
@@ -0,0 +1,104 @@
+package com.paybridge.unit.Service;
+
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.paybridge.Models.DTOs.CreatePaymentRequest;
+import com.paybridge.Services.CanonicalRequestHasher;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.security.MessageDigest;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CanonicalRequestHasherTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final CanonicalRequestHasher hasher = new CanonicalRequestHasher(objectMapper);
+
+    @Test
+    void hash_MatchesMapperBasedCanonicalForm_ForFullRequest() throws Exception {
+        CreatePaymentRequest request = fullRequest();
+
+        assertEquals(mapperHash(request), hasher.hash(request));
+    }
+
+    @Test
+    void hash_MatchesMapperBasedCanonicalForm_ForMinimalRequest() throws Exception {
+        CreatePaymentRequest request = new CreatePaymentRequest();
+        request.setAmount(new BigDecimal("10"));
+        request.setCurrency("USD");
+        request.setDescription("Minimal");
+
+        assertEquals(mapperHash(request), hasher.hash(request));
+    }
+
+    @Test
+    void hash_MatchesMapperBasedCanonicalForm_ForEmptyAndSingleEntryMetadata() throws Exception {
+        CreatePaymentRequest request = fullRequest();
+        request.setMetadata(Map.of());
+        assertEquals(mapperHash(request), hasher.hash(request));
+
+        request.setMetadata(Map.of("only", "one"));
+        assertEquals(mapperHash(request), hasher.hash(request));
+    }
+
+    @Test
+    void hash_IgnoresMetadataInsertionOrder() {
+        CreatePaymentRequest first = fullRequest();
+        Map<String, String> reversed = new LinkedHashMap<>();
+        reversed.put("zeta", "last");
+        reversed.put("orderId", "A-1");
+        reversed.put("alpha", "first \"quoted\" ✓");
+        CreatePaymentRequest second = fullRequest();
+        second.setMetadata(reversed);
+
+        assertEquals(hasher.hash(first), hasher.hash(second));
+    }
+
+    @Test
+    void hash_DiffersWhenAnyFieldChanges() {
+        CreatePaymentRequest original = fullRequest();
+        CreatePaymentRequest changed = fullRequest();
+        changed.setAmount(new BigDecimal("1000.01"));
+
+        assertNotEquals(hasher.hash(original), hasher.hash(changed));
+    }
+
+    private CreatePaymentRequest fullRequest() {
+        CreatePaymentRequest request = new CreatePaymentRequest();
+        request.setAmount(new BigDecimal("1000.00"));
+        request.setCurrency("NGN");
+        request.setDescription("Order #1001 – naïve café");
+        request.setProvider("paystack");
+        request.setEmail("customer@example.com");
+        request.setRedirectUrl("https://example.com/return?x=1&y=2");
+        request.setWebhookUrl("https://example.com/hooks");
+        request.setCustomerReference("cust-42");
+        request.setTransactionReference("txn-42");
+        request.setCustomerName("Ada Obi");
+        request.setCustomerPhone("+2348012345678");
+        Map<String, String> metadata = new HashMap<>();
+        metadata.put("alpha", "first \"quoted\" ✓");
+        metadata.put("orderId", "A-1");
+        metadata.put("zeta", "last");
+        request.setMetadata(metadata);
+        return request;
+    }
+
+    /**
+     * The previous implementation, kept here as the reference for compatibility with stored hashes.
+     */
+    private String mapperHash(CreatePaymentRequest request) throws Exception {
+        ObjectMapper canonicalMapper = objectMapper.copy()
+                .configure(MapperFeature.SORT_PROPERTIES_ALPHABETICALLY, true)
+                .configure(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS, true);
+        byte[] payload = canonicalMapper.writeValueAsBytes(request);
+        return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(payload));
+    }
+}
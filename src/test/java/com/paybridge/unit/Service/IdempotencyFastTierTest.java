@@ -0,0 +1,106 @@
+package com.paybridge.unit.Service;
+
+import com.paybridge.Services.IdempotencyFastTier;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class IdempotencyFastTierTest {
+
+    private static final String LOCK_KEY = "idem:9:key-1:lock";
+    private static final String RESPONSE_KEY = "idem:9:key-1:response";
+
+    @Mock
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+
+    private SimpleMeterRegistry meterRegistry;
+    private IdempotencyFastTier fastTier;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        fastTier = new IdempotencyFastTier(stringRedisTemplate, true, 30000, 24, meterRegistry);
+        lenient().when(stringRedisTemplate.opsForValue()).thenReturn(valueOperations);
+    }
+
+    @Test
+    void acquire_StoredResponse_ReplaysWithoutLocking() {
+        when(valueOperations.get(RESPONSE_KEY)).thenReturn("hash-a\n{\"id\":\"p1\"}");
+
+        IdempotencyFastTier.Lease lease = fastTier.acquire(9L, "key-1", "hash-a");
+
+        assertTrue(lease.hasReplay());
+        assertEquals("{\"id\":\"p1\"}", lease.getReplay());
+        verify(valueOperations, never()).setIfAbsent(anyString(), anyString(), any(Duration.class));
+    }
+
+    @Test
+    void acquire_StoredResponseForDifferentPayload_Throws() {
+        when(valueOperations.get(RESPONSE_KEY)).thenReturn("hash-b\n{}");
+
+        IllegalStateException ex = assertThrows(IllegalStateException.class,
+                () -> fastTier.acquire(9L, "key-1", "hash-a"));
+        assertTrue(ex.getMessage().contains("different request payload"));
+    }
+
+    @Test
+    void acquire_FreeKey_GrantsLeaseAndReleasesOwnToken() {
+        when(valueOperations.setIfAbsent(eq(LOCK_KEY), startsWith("hash-a:"), eq(Duration.ofMillis(30000))))
+                .thenReturn(true);
+
+        IdempotencyFastTier.Lease lease = fastTier.acquire(9L, "key-1", "hash-a");
+        fastTier.storeResponse(lease, "hash-a", "{}");
+        fastTier.release(lease);
+
+        assertTrue(lease.isHeld());
+        verify(valueOperations).set(RESPONSE_KEY, "hash-a\n{}", Duration.ofHours(24));
+        verify(stringRedisTemplate).execute(any(RedisScript.class), eq(List.of(LOCK_KEY)), startsWith("hash-a:"));
+    }
+
+    @Test
+    void acquire_KeyInFlight_RejectsWithoutDatabase() {
+        when(valueOperations.setIfAbsent(eq(LOCK_KEY), anyString(), any(Duration.class))).thenReturn(false);
+        when(valueOperations.get(RESPONSE_KEY)).thenReturn(null);
+        when(valueOperations.get(LOCK_KEY)).thenReturn("hash-a:other-token");
+
+        IllegalStateException ex = assertThrows(IllegalStateException.class,
+                () -> fastTier.acquire(9L, "key-1", "hash-a"));
+
+        assertTrue(ex.getMessage().contains("already being processed"));
+        assertEquals(1.0, meterRegistry.get("paybridge.idempotency.fast_tier")
+                .tag("outcome", "in_progress").counter().count());
+    }
+
+    @Test
+    void acquire_RedisDown_FallsBackToDatabase() {
+        when(valueOperations.get(RESPONSE_KEY)).thenThrow(new RedisConnectionFailureException("down"));
+
+        IdempotencyFastTier.Lease lease = fastTier.acquire(9L, "key-1", "hash-a");
+
+        assertFalse(lease.hasReplay());
+        assertFalse(lease.isHeld());
+        fastTier.release(lease);
+        verify(stringRedisTemplate, never()).execute(any(RedisScript.class), anyList(), any());
+    }
+}
@@ -0,0 +1,75 @@
+package com.paybridge.unit.Service;
+
+import com.paybridge.Repositories.IdempotencyKeyRepository;
+import com.paybridge.Services.IdempotencyKeySweeper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class IdempotencyKeySweeperTest {
+
+    @Mock
+    private IdempotencyKeyRepository idempotencyKeyRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void sweep_DeletesInBatchesUntilShortBatch() {
+        IdempotencyKeySweeper sweeper = new IdempotencyKeySweeper(idempotencyKeyRepository, meterRegistry, 2, 0, 60);
+        when(idempotencyKeyRepository.findExpiredIds(any(), any()))
+                .thenReturn(List.of(1, 2))
+                .thenReturn(List.of(3));
+        when(idempotencyKeyRepository.deleteExpired(any(), any())).thenAnswer(inv -> ((List<?>) inv.getArgument(0)).size());
+        when(idempotencyKeyRepository.findOldestExpiry(any())).thenReturn(Optional.empty());
+
+        sweeper.sweep();
+
+        verify(idempotencyKeyRepository).deleteExpired(eq(List.of(1, 2)), any());
+        verify(idempotencyKeyRepository).deleteExpired(eq(List.of(3)), any());
+        verify(idempotencyKeyRepository, times(2)).findExpiredIds(any(), any());
+        assertEquals(3.0, meterRegistry.get("paybridge.idempotency.sweeper.deleted").counter().count());
+        assertEquals(0.0, meterRegistry.get("paybridge.idempotency.sweeper.lag").gauge().value());
+    }
+
+    @Test
+    void sweep_StopsAtMaxRunAndReportsLag() {
+        IdempotencyKeySweeper sweeper = new IdempotencyKeySweeper(idempotencyKeyRepository, meterRegistry, 2, 0, 0);
+        when(idempotencyKeyRepository.findExpiredIds(any(), any())).thenReturn(List.of(1, 2));
+        when(idempotencyKeyRepository.deleteExpired(any(), any())).thenReturn(2);
+        when(idempotencyKeyRepository.findOldestExpiry(any()))
+                .thenReturn(Optional.of(LocalDateTime.now().minusMinutes(10)));
+
+        sweeper.sweep();
+
+        verify(idempotencyKeyRepository, times(1)).deleteExpired(any(), any());
+        assertTrue(meterRegistry.get("paybridge.idempotency.sweeper.lag").gauge().value() >= 600);
+    }
+
+    @Test
+    void sweep_RepositoryFailure_DoesNotPropagate() {
+        IdempotencyKeySweeper sweeper = new IdempotencyKeySweeper(idempotencyKeyRepository, meterRegistry, 2, 0, 60);
+        when(idempotencyKeyRepository.findExpiredIds(any(), any())).thenThrow(new IllegalStateException("db down"));
+        when(idempotencyKeyRepository.findOldestExpiry(any())).thenThrow(new IllegalStateException("db down"));
+
+        assertDoesNotThrow(sweeper::sweep);
+        assertEquals(0.0, meterRegistry.get("paybridge.idempotency.sweeper.deleted").counter().count());
+    }
+}
@@ -0,0 +1,103 @@
+package com.paybridge.unit.Service;
+
+import com.paybridge.Models.Entities.Provider;
+import com.paybridge.Models.Entities.ProviderConfig;
+import com.paybridge.Repositories.ProviderConfigRepository;
+import com.paybridge.Services.CacheInvalidationBus;
+import com.paybridge.Services.MerchantRoutingCache;
+import com.paybridge.Services.MerchantRoutingSnapshot;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class MerchantRoutingCacheTest {
+
+    private static final Long MERCHANT_ID = 7L;
+
+    @Mock
+    private ProviderConfigRepository providerConfigRepository;
+
+    @Mock
+    private CacheInvalidationBus invalidationBus;
+
+    private MerchantRoutingCache routingCache;
+
+    @BeforeEach
+    void setUp() {
+        routingCache = new MerchantRoutingCache(providerConfigRepository, invalidationBus, 100, 10);
+    }
+
+    @Test
+    void snapshotFor_LoadsOnceAndResolvesWithoutFurtherQueries() {
+        when(providerConfigRepository.findByMerchantIdAndIsEnabledTrue(MERCHANT_ID))
+                .thenReturn(List.of(config(3L, "Paystack", "Paystack")));
+
+        MerchantRoutingSnapshot first = routingCache.snapshotFor(MERCHANT_ID);
+        MerchantRoutingSnapshot second = routingCache.snapshotFor(MERCHANT_ID);
+
+        assertSame(first, second);
+        assertEquals(3L, second.resolve(null).providerId());
+        assertEquals("paystack", second.resolve("PAYSTACK").name());
+        verify(providerConfigRepository, times(1)).findByMerchantIdAndIsEnabledTrue(MERCHANT_ID);
+    }
+
+    @Test
+    void resolve_UnknownRequestedProvider_Throws() {
+        when(providerConfigRepository.findByMerchantIdAndIsEnabledTrue(MERCHANT_ID))
+                .thenReturn(List.of(config(3L, "paystack", "Paystack")));
+
+        IllegalStateException ex = assertThrows(IllegalStateException.class,
+                () -> routingCache.snapshotFor(MERCHANT_ID).resolve("stripe"));
+        assertTrue(ex.getMessage().contains("not configured/enabled"));
+    }
+
+    @Test
+    void refreshAfterCommit_WithoutTransaction_RebuildsAndBroadcasts() {
+        when(providerConfigRepository.findByMerchantIdAndIsEnabledTrue(MERCHANT_ID))
+                .thenReturn(List.of(config(3L, "paystack", "Paystack")))
+                .thenReturn(List.of(config(3L, "paystack", "Paystack"), config(4L, "stripe", "Stripe")));
+        routingCache.snapshotFor(MERCHANT_ID);
+
+        routingCache.refreshAfterCommit(MERCHANT_ID);
+
+        assertEquals(2, routingCache.snapshotFor(MERCHANT_ID).getProviders().size());
+        verify(invalidationBus).publish(any(), eq("7"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void remoteInvalidation_DropsSnapshot() {
+        ArgumentCaptor<Consumer<String>> handler = ArgumentCaptor.forClass(Consumer.class);
+        verify(invalidationBus).subscribe(any(), handler.capture());
+        when(providerConfigRepository.findByMerchantIdAndIsEnabledTrue(MERCHANT_ID))
+                .thenReturn(List.of(config(3L, "paystack", "Paystack")));
+        routingCache.snapshotFor(MERCHANT_ID);
+
+        handler.getValue().accept("7");
+        routingCache.snapshotFor(MERCHANT_ID);
+
+        verify(providerConfigRepository, times(2)).findByMerchantIdAndIsEnabledTrue(MERCHANT_ID);
+    }
+
+    private ProviderConfig config(Long providerId, String name, String displayName) {
+        Provider provider = new Provider();
+        provider.setId(providerId);
+        provider.setName(name);
+        provider.setDisplayName(displayName);
+        ProviderConfig config = new ProviderConfig();
+        config.setProvider(provider);
+        return config;
+    }
+}
@@ -12,6 +12,7 @@ import com.paybridge.Services.ApiKeyService;
 import com.paybridge.Services.CredentialStorageService;
 import com.paybridge.Services.EmailProvider;
 import com.paybridge.Services.MerchantService;
+import com.paybridge.Services.WebhookEndpointTokens;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -79,7 +80,8 @@ class MerchantServiceTest {
                 emailProvider,
                 apiKeyService,
                 paymentRepository,
-                credentialStorageService
+                credentialStorageService,
+                new WebhookEndpointTokens("test-webhook-endpoint-key")
         );
     }
 
@@ -281,7 +283,8 @@ class MerchantServiceTest {
                 provider,
                 apiKeyService,
                 paymentRepository,
-                credentialStorageService
+                credentialStorageService,
+                new WebhookEndpointTokens("test-webhook-endpoint-key")
         );
 
         // Assert
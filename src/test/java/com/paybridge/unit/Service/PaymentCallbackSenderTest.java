@@ -0,0 +1,112 @@
+package com.paybridge.Services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.paybridge.Models.DTOs.CreatePaymentRequest;
+import com.paybridge.Models.DTOs.PaymentJobMessage;
+import com.paybridge.Models.DTOs.PaymentResponse;
+import com.paybridge.Models.Enums.PaymentStatus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpEntity;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.HexFormat;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class PaymentCallbackSenderTest {
+
+    private static final String CALLBACK_URL = "https://93.184.216.34/hooks/payments";
+    private static final long NOW = 1_760_000_000L;
+
+    @Mock
+    private CredentialStorageService credentialStorageService;
+    @Mock
+    private RestTemplate restTemplate;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private PaymentCallbackSender sender;
+    private PaymentResponse result;
+
+    @BeforeEach
+    void setUp() {
+        sender = new PaymentCallbackSender(credentialStorageService, new WebhookMacCache(10, 30), restTemplate,
+                objectMapper, Clock.fixed(Instant.ofEpochSecond(NOW), ZoneOffset.UTC));
+        result = new PaymentResponse();
+        result.setId(UUID.randomUUID());
+        result.setStatus(PaymentStatus.PENDING);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void send_SignsBodyWithMerchantWebhookSecret() throws Exception {
+        when(credentialStorageService.getProviderSecret("paystack", 7L, "webhookSecret"))
+                .thenReturn(ProviderSecret.of("whsec_test"));
+
+        sender.send(job(CALLBACK_URL), result);
+
+        ArgumentCaptor<HttpEntity<byte[]>> request = ArgumentCaptor.forClass(HttpEntity.class);
+        verify(restTemplate).postForEntity(eq(CALLBACK_URL), request.capture(), eq(Void.class));
+        byte[] body = request.getValue().getBody();
+        assertArrayEquals(objectMapper.writeValueAsBytes(result), body);
+
+        Mac mac = Mac.getInstance("HmacSHA256");
+        mac.init(new SecretKeySpec("whsec_test".getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+        mac.update((NOW + ".").getBytes(StandardCharsets.UTF_8));
+        assertEquals("t=" + NOW + ",v1=" + HexFormat.of().formatHex(mac.doFinal(body)),
+                request.getValue().getHeaders().getFirst(PaymentCallbackSender.SIGNATURE_HEADER));
+    }
+
+    @Test
+    void send_NoWebhookSecret_SendsNothing() {
+        sender.send(job(CALLBACK_URL), result);
+
+        verifyNoInteractions(restTemplate);
+    }
+
+    @Test
+    void send_PrivateAddress_SendsNothing() {
+        sender.send(job("https://169.254.169.254/latest/meta-data"), result);
+
+        verifyNoInteractions(credentialStorageService, restTemplate);
+    }
+
+    @Test
+    void send_ReceiverUnreachable_DoesNotThrow() {
+        when(credentialStorageService.getProviderSecret(anyString(), any(), anyString()))
+                .thenReturn(ProviderSecret.of("whsec_test"));
+        when(restTemplate.postForEntity(eq(CALLBACK_URL), any(), eq(Void.class)))
+                .thenThrow(new ResourceAccessException("connect timed out"));
+
+        assertDoesNotThrow(() -> sender.send(job(CALLBACK_URL), result));
+    }
+
+    private PaymentJobMessage job(String callbackUrl) {
+        CreatePaymentRequest request = new CreatePaymentRequest();
+        request.setAmount(new BigDecimal("25.00"));
+        request.setCurrency("NGN");
+        return new PaymentJobMessage(result.getId(), 7L, "idem-1", "paystack", callbackUrl, request);
+    }
+}
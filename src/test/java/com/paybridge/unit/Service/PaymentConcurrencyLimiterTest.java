@@ -0,0 +1,133 @@
+package com.paybridge.unit.Service;
+
+import com.paybridge.Exceptions.DeadlineExceededException;
+import com.paybridge.Exceptions.PaymentCapacityExceededException;
+import com.paybridge.Services.PaymentConcurrencyLimiter;
+import com.paybridge.Services.RequestDeadline;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PaymentConcurrencyLimiterTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private PaymentConcurrencyLimiter limiter;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        limiter = new PaymentConcurrencyLimiter(1, 1, 50, meterRegistry);
+    }
+
+    @Test
+    void withProviderPermit_ReturnsResultAndReleasesPermit() {
+        assertEquals("first", limiter.withProviderPermit(() -> "first"));
+        assertEquals("second", limiter.withProviderPermit(() -> "second"));
+    }
+
+    @Test
+    void withProviderPermit_ReleasesPermitWhenWorkThrows() {
+        assertThrows(IllegalStateException.class, () -> limiter.withProviderPermit(() -> {
+            throw new IllegalStateException("boom");
+        }));
+
+        assertEquals("ok", limiter.withProviderPermit(() -> "ok"));
+    }
+
+    @Test
+    void withTransactionPermit_WhenSaturated_ThrowsCapacityExceeded() throws Exception {
+        CountDownLatch holding = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<String> holder = executor.submit(() -> limiter.withTransactionPermit(() -> {
+                holding.countDown();
+                await(release);
+                return "held";
+            }));
+            assertTrue(holding.await(1, TimeUnit.SECONDS));
+
+            assertEquals(1.0, meterRegistry.get("paybridge.payments.inflight")
+                    .tag("phase", "transaction").gauge().value());
+            assertThrows(PaymentCapacityExceededException.class,
+                    () -> limiter.withTransactionPermit(() -> "rejected"));
+
+            release.countDown();
+            assertEquals("held", holder.get(1, TimeUnit.SECONDS));
+            assertEquals(0.0, meterRegistry.get("paybridge.payments.inflight")
+                    .tag("phase", "transaction").gauge().value());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void withTransactionPermit_DeadlineShorterThanAcquireTimeout_GivesUpAtDeadline() throws Exception {
+        limiter = new PaymentConcurrencyLimiter(1, 1, 5000, meterRegistry);
+        CountDownLatch holding = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            executor.submit(() -> limiter.withTransactionPermit(() -> {
+                holding.countDown();
+                await(release);
+                return "held";
+            }));
+            assertTrue(holding.await(1, TimeUnit.SECONDS));
+
+            long start = System.nanoTime();
+            RequestDeadline deadline = RequestDeadline.after(Duration.ofMillis(100));
+            assertThrows(DeadlineExceededException.class,
+                    () -> deadline.call("database", () -> limiter.withTransactionPermit(() -> "late")));
+            assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 2000);
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void withFinalizePermit_WhenSaturated_WaitsPastAcquireTimeout() throws Exception {
+        CountDownLatch holding = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            executor.submit(() -> limiter.withTransactionPermit(() -> {
+                holding.countDown();
+                sleep(200);
+                return "held";
+            }));
+            assertTrue(holding.await(1, TimeUnit.SECONDS));
+
+            long start = System.nanoTime();
+            assertEquals("recorded", limiter.withFinalizePermit(() -> "recorded"));
+            assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 50);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void await(CountDownLatch latch) {
+        try {
+            latch.await(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.paybridge.Services;
+
+import com.paybridge.Configs.PaymentProvider;
+import com.paybridge.Models.DTOs.CreatePaymentRequest;
+import com.paybridge.Models.DTOs.PaymentJobMessage;
+import com.paybridge.Models.DTOs.PaymentProviderResponse;
+import com.paybridge.Models.DTOs.PaymentResponse;
+import com.paybridge.Models.Enums.PaymentStatus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class PaymentJobWorkerTest {
+
+    private static final String CALLBACK_URL = "https://merchant.example.com/hooks/payments";
+
+    @Mock
+    private PaymentTransactionHelper transactionHelper;
+    @Mock
+    private PaymentProviderRegistry paymentProviderRegistry;
+    @Mock
+    private CredentialStorageService credentialStorageService;
+    @Mock
+    private PaymentProvider paymentProvider;
+    @Mock
+    private PaymentCallbackSender callbackSender;
+
+    private PaymentJobWorker worker;
+    private PaymentJobMessage job;
+
+    @BeforeEach
+    void setUp() {
+        worker = new PaymentJobWorker(
+                transactionHelper,
+                new PaymentConcurrencyLimiter(10, 10, 100, new SimpleMeterRegistry()),
+                paymentProviderRegistry,
+                credentialStorageService,
+                callbackSender);
+
+        CreatePaymentRequest request = new CreatePaymentRequest();
+        request.setAmount(new BigDecimal("25.00"));
+        request.setCurrency("NGN");
+        request.setEmail("customer@example.com");
+        job = new PaymentJobMessage(UUID.randomUUID(), 7L, "idem-1", "paystack", CALLBACK_URL, request);
+    }
+
+    @Test
+    void process_PaymentAlreadyHandled_SkipsProviderCall() {
+        when(transactionHelper.isAwaitingProvider(job.getPaymentId())).thenReturn(false);
+
+        worker.process(job);
+
+        verifyNoInteractions(paymentProviderRegistry, credentialStorageService, callbackSender);
+        verify(transactionHelper, never()).completeAsyncPayment(any(), anyString(), any(), any(), anyString());
+    }
+
+    @Test
+    void process_ProviderSucceeds_CompletesPaymentAndNotifiesCallback() {
+        PaymentProviderResponse providerResponse = new PaymentProviderResponse();
+        providerResponse.setProviderPaymentId("ref_123");
+        PaymentResponse completed = new PaymentResponse();
+        completed.setId(job.getPaymentId());
+        completed.setStatus(PaymentStatus.PENDING);
+
+        when(transactionHelper.isAwaitingProvider(job.getPaymentId())).thenReturn(true);
+        when(credentialStorageService.getProviderConfig("paystack", 7L)).thenReturn(Map.of("secretKey", "sk"));
+        when(paymentProviderRegistry.getProvider("paystack")).thenReturn(paymentProvider);
+        when(paymentProvider.CreatePaymentRequest(eq(job.getRequest()), anyMap(), eq("payment-" + job.getPaymentId()))).thenReturn(providerResponse);
+        when(transactionHelper.completeAsyncPayment(job.getPaymentId(), "idem-1", providerResponse,
+                job.getRequest(), "paystack")).thenReturn(completed);
+
+        worker.process(job);
+
+        verify(callbackSender).send(job, completed);
+        verify(transactionHelper, never()).failAsyncPayment(any(), anyString());
+    }
+
+    @Test
+    void process_FinalizeFails_RethrowsForRedeliveryWithoutFailingPayment() {
+        PaymentProviderResponse providerResponse = new PaymentProviderResponse();
+        providerResponse.setProviderPaymentId("ref_123");
+
+        when(transactionHelper.isAwaitingProvider(job.getPaymentId())).thenReturn(true);
+        when(credentialStorageService.getProviderConfig("paystack", 7L)).thenReturn(Map.of("secretKey", "sk"));
+        when(paymentProviderRegistry.getProvider("paystack")).thenReturn(paymentProvider);
+        when(paymentProvider.CreatePaymentRequest(eq(job.getRequest()), anyMap(), eq("payment-" + job.getPaymentId())))
+                .thenReturn(providerResponse);
+        when(transactionHelper.completeAsyncPayment(any(), anyString(), any(), any(), anyString()))
+                .thenThrow(new IllegalStateException("db down"));
+
+        assertThrows(IllegalStateException.class, () -> worker.process(job));
+
+        verify(transactionHelper, never()).failAsyncPayment(any(), anyString());
+        verifyNoInteractions(callbackSender);
+    }
+
+    @Test
+    void process_ProviderFails_MarksPaymentFailedWithoutRethrowing() {
+        when(transactionHelper.isAwaitingProvider(job.getPaymentId())).thenReturn(true);
+        when(credentialStorageService.getProviderConfig("paystack", 7L)).thenReturn(Map.of("secretKey", "sk"));
+        when(paymentProviderRegistry.getProvider("paystack")).thenReturn(paymentProvider);
+        when(paymentProvider.CreatePaymentRequest(eq(job.getRequest()), anyMap(), eq("payment-" + job.getPaymentId())))
+                .thenThrow(new RuntimeException("provider down"));
+
+        worker.process(job);
+
+        verify(transactionHelper).failAsyncPayment(job.getPaymentId(), "idem-1");
+        ArgumentCaptor<PaymentResponse> callback = ArgumentCaptor.forClass(PaymentResponse.class);
+        verify(callbackSender).send(eq(job), callback.capture());
+        assertEquals(PaymentStatus.FAILED, callback.getValue().getStatus());
+        assertEquals(job.getPaymentId(), callback.getValue().getId());
+    }
+}
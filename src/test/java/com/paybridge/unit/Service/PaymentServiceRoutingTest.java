@@ -2,35 +2,45 @@ package com.paybridge.Services;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.paybridge.Configs.PaymentProvider;
+import com.paybridge.Exceptions.DeadlineExceededException;
+import com.paybridge.Exceptions.ProviderUnavailableException;
+import com.paybridge.Models.DTOs.ApiResponse;
 import com.paybridge.Models.DTOs.CreatePaymentRequest;
 import com.paybridge.Models.DTOs.PaymentProviderResponse;
 import com.paybridge.Models.DTOs.PaymentResponse;
+import com.paybridge.Models.DTOs.PaymentResult;
 import com.paybridge.Models.Entities.IdempotencyKey;
 import com.paybridge.Models.Entities.Merchant;
-import com.paybridge.Models.Entities.Provider;
-import com.paybridge.Models.Entities.ProviderConfig;
-import com.paybridge.Repositories.ProviderConfigRepository;
+import com.paybridge.Services.MerchantRoutingSnapshot.RoutedProvider;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyMap;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -38,7 +48,7 @@ import static org.mockito.Mockito.when;
 class PaymentServiceRoutingTest {
 
     @Mock
-    private ProviderConfigRepository providerConfigRepository;
+    private MerchantRoutingCache merchantRoutingCache;
     @Mock
     private PaymentProviderRegistry paymentProviderRegistry;
     @Mock
@@ -47,17 +57,30 @@ class PaymentServiceRoutingTest {
     private PaymentTransactionHelper transactionHelper;
     @Mock
     private PaymentProvider paymentProvider;
+    @Mock
+    private PaymentStatusCache paymentStatusCache;
+    @Mock
+    private PlatformTransactionManager transactionManager;
 
     private PaymentService paymentService;
 
     @BeforeEach
     void setUp() {
-        paymentService = new PaymentService(
-                providerConfigRepository,
-                paymentProviderRegistry,
-                credentialStorageService,
-                new ObjectMapper().findAndRegisterModules(),
-                transactionHelper
+        paymentService = paymentService(new PaymentConcurrencyLimiter(10, 10, 100, new SimpleMeterRegistry()));
+    }
+
+    private PaymentService paymentService(PaymentConcurrencyLimiter limiter) {
+        ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+        return new PaymentService(
+                merchantRoutingCache,
+                new ProviderRouter(paymentProviderRegistry, credentialStorageService, limiter,
+                        new ProviderHealthTracker(0.2, 500, 5000), 0.0),
+                transactionHelper,
+                limiter,
+                new CanonicalRequestHasher(objectMapper),
+                new IdempotencyFastTier(null, false, 30000, 24, new SimpleMeterRegistry()),
+                paymentStatusCache,
+                transactionManager
         );
     }
 
@@ -68,11 +91,9 @@ class PaymentServiceRoutingTest {
 
         IdempotencyKey idempotencyRecord = new IdempotencyKey();
 
-        Provider provider = new Provider();
-        provider.setName("paystack");
-
-        ProviderConfig providerConfig = new ProviderConfig();
-        providerConfig.setProvider(provider);
+        MerchantRoutingSnapshot snapshot = new MerchantRoutingSnapshot(99L, List.of(
+                new RoutedProvider(1L, "stripe", "Stripe"),
+                new RoutedProvider(2L, "paystack", "Paystack")));
 
         CreatePaymentRequest request = new CreatePaymentRequest();
         request.setAmount(new BigDecimal("1000.00"));
@@ -94,40 +115,32 @@ class PaymentServiceRoutingTest {
 
         when(transactionHelper.preparePayment(any(Merchant.class), any(CreatePaymentRequest.class), eq("idem-1"), anyString()))
                 .thenReturn(PreparePaymentResult.proceed(idempotencyRecord));
-        when(providerConfigRepository.findByMerchantIdAndProvider_NameIgnoreCaseAndIsEnabledTrue(99L, "paystack"))
-                .thenReturn(Optional.of(providerConfig));
+        when(merchantRoutingCache.snapshotFor(99L)).thenReturn(snapshot);
         when(credentialStorageService.getProviderConfig("paystack", 99L)).thenReturn(Map.of("secretKey", "sk_test_123"));
         when(paymentProviderRegistry.getProvider("paystack")).thenReturn(paymentProvider);
-        when(paymentProvider.CreatePaymentRequest(any(CreatePaymentRequest.class), anyMap())).thenReturn(providerResponse);
-        when(transactionHelper.finalizePayment(eq(merchant), eq(providerConfig), eq(providerResponse), eq(idempotencyRecord), eq(request), eq("paystack")))
+        when(paymentProvider.CreatePaymentRequest(any(CreatePaymentRequest.class), anyMap(), anyString())).thenReturn(providerResponse);
+        when(transactionHelper.finalizePayment(eq(merchant), eq(2L), eq(providerResponse), eq(idempotencyRecord), eq(request), eq("paystack")))
                 .thenReturn(expectedResponse);
 
-        PaymentResponse response = paymentService.createPayment(request, merchant, "idem-1");
+        PaymentResponse response = paymentService.createPayment(request, merchant, "idem-1").getResponse();
 
         assertEquals("paystack", response.getProvider());
         assertEquals("ref_123", response.getProviderReference());
         assertEquals("https://checkout.example.com", response.getCheckoutUrl());
 
-        verify(providerConfigRepository, never()).findByMerchantIdAndIsEnabledTrue(anyLong());
         verify(transactionHelper, never()).failIdempotencyRecord(any(IdempotencyKey.class));
     }
 
     @Test
-    void createPayment_WithoutProviderAndMultipleEnabledConfigs_ThrowsClearError_AndMarksIdempotencyFailed() {
+    void createPayment_WithoutProviderAndNoProviderSupportingCurrency_ThrowsClearError_AndMarksIdempotencyFailed() {
         Merchant merchant = new Merchant();
         merchant.setId(5L);
 
         IdempotencyKey idempotencyRecord = new IdempotencyKey();
 
-        Provider p1 = new Provider();
-        p1.setName("stripe");
-        Provider p2 = new Provider();
-        p2.setName("paystack");
-
-        ProviderConfig c1 = new ProviderConfig();
-        c1.setProvider(p1);
-        ProviderConfig c2 = new ProviderConfig();
-        c2.setProvider(p2);
+        MerchantRoutingSnapshot snapshot = new MerchantRoutingSnapshot(5L, List.of(
+                new RoutedProvider(1L, "stripe", "Stripe"),
+                new RoutedProvider(2L, "paystack", "Paystack")));
 
         CreatePaymentRequest request = new CreatePaymentRequest();
         request.setAmount(new BigDecimal("50.00"));
@@ -137,15 +150,211 @@ class PaymentServiceRoutingTest {
 
         when(transactionHelper.preparePayment(any(Merchant.class), any(CreatePaymentRequest.class), eq("idem-2"), anyString()))
                 .thenReturn(PreparePaymentResult.proceed(idempotencyRecord));
-        when(providerConfigRepository.findByMerchantIdAndIsEnabledTrue(5L)).thenReturn(List.of(c1, c2));
+        when(merchantRoutingCache.snapshotFor(5L)).thenReturn(snapshot);
+        when(paymentProviderRegistry.supportsCurrency(anyString(), eq("USD"))).thenReturn(false);
 
         IllegalStateException ex = assertThrows(
                 IllegalStateException.class,
                 () -> paymentService.createPayment(request, merchant, "idem-2")
         );
 
-        assertTrue(ex.getMessage().contains("Multiple providers are enabled"));
+        assertTrue(ex.getMessage().contains("No enabled payment provider supports currency USD"));
         verify(paymentProviderRegistry, never()).getProvider(anyString());
         verify(transactionHelper).failIdempotencyRecord(idempotencyRecord);
     }
+
+    @Test
+    void createPayment_ProviderCircuitOpen_FailsIdempotencyRecord() {
+        Merchant merchant = new Merchant();
+        merchant.setId(7L);
+
+        IdempotencyKey idempotencyRecord = new IdempotencyKey();
+
+        CreatePaymentRequest request = new CreatePaymentRequest();
+        request.setAmount(new BigDecimal("75.00"));
+        request.setCurrency("NGN");
+        request.setDescription("Order #3");
+        request.setProvider("paystack");
+        request.setEmail("customer@example.com");
+
+        when(transactionHelper.preparePayment(any(Merchant.class), any(CreatePaymentRequest.class), eq("idem-3"), anyString()))
+                .thenReturn(PreparePaymentResult.proceed(idempotencyRecord));
+        when(merchantRoutingCache.snapshotFor(7L)).thenReturn(new MerchantRoutingSnapshot(7L, List.of(
+                new RoutedProvider(2L, "paystack", "Paystack"))));
+        when(credentialStorageService.getProviderConfig("paystack", 7L)).thenReturn(Map.of("secretKey", "sk_test_123"));
+        when(paymentProviderRegistry.getProvider("paystack")).thenReturn(paymentProvider);
+        when(paymentProvider.CreatePaymentRequest(any(CreatePaymentRequest.class), anyMap(), anyString()))
+                .thenThrow(new ProviderUnavailableException("Provider paystack is temporarily unavailable", 30));
+
+        assertThrows(ProviderUnavailableException.class,
+                () -> paymentService.createPayment(request, merchant, "idem-3"));
+
+        verify(transactionHelper).failIdempotencyRecord(idempotencyRecord);
+    }
+
+    @Test
+    void createPayment_CachedResponse_WritesStoredJsonIntoEnvelopeUnparsed() throws Exception {
+        Merchant merchant = new Merchant();
+        merchant.setId(99L);
+
+        String storedJson = "{\"id\":\"0190f5c2-0000-7000-8000-000000000001\",\"status\":\"PENDING\",\"provider\":\"paystack\"}";
+        when(transactionHelper.preparePayment(eq(merchant), any(CreatePaymentRequest.class), eq("idem-4"), anyString()))
+                .thenReturn(PreparePaymentResult.cached(storedJson));
+
+        CreatePaymentRequest request = new CreatePaymentRequest();
+        request.setAmount(new BigDecimal("1000.00"));
+        request.setCurrency("NGN");
+        request.setDescription("Order 1004");
+
+        PaymentResult result = paymentService.createPayment(request, merchant, "idem-4");
+
+        assertTrue(result.isReplay());
+        String body = new ObjectMapper().findAndRegisterModules().writeValueAsString(ApiResponse.success(result));
+        assertTrue(body.startsWith("{\"success\":true,\"data\":" + storedJson + ","));
+        verify(merchantRoutingCache, never()).snapshotFor(any());
+    }
+
+    @Test
+    void createPayment_DeadlineSpentDuringProviderCall_ReleasesIdempotencyRecord() {
+        Merchant merchant = new Merchant();
+        merchant.setId(11L);
+
+        IdempotencyKey idempotencyRecord = new IdempotencyKey();
+
+        CreatePaymentRequest request = new CreatePaymentRequest();
+        request.setAmount(new BigDecimal("20.00"));
+        request.setCurrency("NGN");
+        request.setDescription("Order #5");
+        request.setProvider("paystack");
+        request.setEmail("customer@example.com");
+
+        when(transactionHelper.preparePayment(any(Merchant.class), any(CreatePaymentRequest.class), eq("idem-5"), anyString()))
+                .thenReturn(PreparePaymentResult.proceed(idempotencyRecord));
+        when(merchantRoutingCache.snapshotFor(11L)).thenReturn(new MerchantRoutingSnapshot(11L, List.of(
+                new RoutedProvider(2L, "paystack", "Paystack"))));
+        when(credentialStorageService.getProviderConfig("paystack", 11L)).thenReturn(Map.of("secretKey", "sk_test_123"));
+        when(paymentProviderRegistry.getProvider("paystack")).thenReturn(paymentProvider);
+        doAnswer(invocation -> {
+            Thread.sleep(300);
+            throw new RuntimeException("Paystack payment creation failed: Read timed out");
+        }).when(paymentProvider).CreatePaymentRequest(any(CreatePaymentRequest.class), anyMap(), anyString());
+
+        DeadlineExceededException ex = assertThrows(DeadlineExceededException.class,
+                () -> paymentService.createPayment(request, merchant, "idem-5",
+                        RequestDeadline.after(Duration.ofMillis(200))));
+
+        assertTrue(ex.getMessage().contains("payment provider"));
+        verify(transactionHelper).failIdempotencyRecord(idempotencyRecord);
+        verify(transactionHelper, never()).finalizePayment(any(), any(), any(), any(), any(), any());
+
+        ArgumentCaptor<TransactionDefinition> phase1 = ArgumentCaptor.forClass(TransactionDefinition.class);
+        verify(transactionManager).getTransaction(phase1.capture());
+        assertEquals(1, phase1.getValue().getTimeout());
+    }
+
+    @Test
+    void createPayment_DeadlineAlreadySpent_DoesNotStartPhaseOne() {
+        Merchant merchant = new Merchant();
+        merchant.setId(12L);
+
+        CreatePaymentRequest request = new CreatePaymentRequest();
+        request.setAmount(new BigDecimal("20.00"));
+        request.setCurrency("NGN");
+        request.setDescription("Order #6");
+
+        assertThrows(DeadlineExceededException.class,
+                () -> paymentService.createPayment(request, merchant, "idem-6", RequestDeadline.after(Duration.ZERO)));
+
+        verify(transactionHelper, never()).preparePayment(any(), any(), any(), any());
+        verify(transactionHelper, never()).failIdempotencyRecord(any());
+    }
+
+    @Test
+    void createPayment_TransactionPermitsSaturatedDuringFinalize_StillRecordsPayment() throws Exception {
+        PaymentConcurrencyLimiter limiter = new PaymentConcurrencyLimiter(1, 10, 50, new SimpleMeterRegistry());
+        PaymentService service = paymentService(limiter);
+        Merchant merchant = new Merchant();
+        merchant.setId(13L);
+
+        IdempotencyKey idempotencyRecord = new IdempotencyKey();
+
+        CreatePaymentRequest request = new CreatePaymentRequest();
+        request.setAmount(new BigDecimal("20.00"));
+        request.setCurrency("NGN");
+        request.setDescription("Order #7");
+        request.setProvider("paystack");
+        request.setEmail("customer@example.com");
+
+        PaymentProviderResponse providerResponse = new PaymentProviderResponse();
+        providerResponse.setProviderPaymentId("ref_777");
+        PaymentResponse expectedResponse = new PaymentResponse();
+        expectedResponse.setProviderReference("ref_777");
+
+        CountDownLatch holding = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            when(transactionHelper.preparePayment(any(Merchant.class), any(CreatePaymentRequest.class), eq("idem-7"), anyString()))
+                    .thenReturn(PreparePaymentResult.proceed(idempotencyRecord));
+            when(merchantRoutingCache.snapshotFor(13L)).thenReturn(new MerchantRoutingSnapshot(13L, List.of(
+                    new RoutedProvider(2L, "paystack", "Paystack"))));
+            when(credentialStorageService.getProviderConfig("paystack", 13L)).thenReturn(Map.of("secretKey", "sk_test_123"));
+            when(paymentProviderRegistry.getProvider("paystack")).thenReturn(paymentProvider);
+            doAnswer(invocation -> {
+                // Another request takes the only transaction permit and holds it for longer
+                // than the acquire timeout while this one is still talking to the provider.
+                executor.submit(() -> limiter.withTransactionPermit(() -> {
+                    holding.countDown();
+                    try {
+                        Thread.sleep(300);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return null;
+                }));
+                assertTrue(holding.await(1, TimeUnit.SECONDS));
+                return providerResponse;
+            }).when(paymentProvider).CreatePaymentRequest(any(CreatePaymentRequest.class), anyMap(), anyString());
+            when(transactionHelper.finalizePayment(eq(merchant), eq(2L), eq(providerResponse), eq(idempotencyRecord), eq(request), eq("paystack")))
+                    .thenReturn(expectedResponse);
+
+            PaymentResponse response = service.createPayment(request, merchant, "idem-7").getResponse();
+
+            assertEquals("ref_777", response.getProviderReference());
+            verify(transactionHelper, never()).failIdempotencyRecord(any(IdempotencyKey.class));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void createPayment_FinalizeFails_LeavesIdempotencyRecordInProgress() {
+        Merchant merchant = new Merchant();
+        merchant.setId(14L);
+
+        IdempotencyKey idempotencyRecord = new IdempotencyKey();
+
+        CreatePaymentRequest request = new CreatePaymentRequest();
+        request.setAmount(new BigDecimal("20.00"));
+        request.setCurrency("NGN");
+        request.setDescription("Order #8");
+        request.setProvider("paystack");
+        request.setEmail("customer@example.com");
+
+        PaymentProviderResponse providerResponse = new PaymentProviderResponse();
+        providerResponse.setProviderPaymentId("ref_888");
+
+        when(transactionHelper.preparePayment(any(Merchant.class), any(CreatePaymentRequest.class), eq("idem-8"), anyString()))
+                .thenReturn(PreparePaymentResult.proceed(idempotencyRecord));
+        when(merchantRoutingCache.snapshotFor(14L)).thenReturn(new MerchantRoutingSnapshot(14L, List.of(
+                new RoutedProvider(2L, "paystack", "Paystack"))));
+        when(credentialStorageService.getProviderConfig("paystack", 14L)).thenReturn(Map.of("secretKey", "sk_test_123"));
+        when(paymentProviderRegistry.getProvider("paystack")).thenReturn(paymentProvider);
+        when(paymentProvider.CreatePaymentRequest(any(CreatePaymentRequest.class), anyMap(), anyString())).thenReturn(providerResponse);
+        when(transactionHelper.finalizePayment(any(), any(), any(), any(), any(), any()))
+                .thenThrow(new IllegalStateException("connection reset"));
+
+        assertThrows(IllegalStateException.class, () -> paymentService.createPayment(request, merchant, "idem-8"));
+
+        verify(transactionHelper, never()).failIdempotencyRecord(any(IdempotencyKey.class));
+    }
 }
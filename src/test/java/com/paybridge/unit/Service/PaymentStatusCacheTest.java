@@ -0,0 +1,139 @@
+package com.paybridge.unit.Service;
+
+import com.paybridge.Models.DTOs.PaymentResponse;
+import com.paybridge.Models.Entities.Merchant;
+import com.paybridge.Models.Entities.Payment;
+import com.paybridge.Models.Entities.Provider;
+import com.paybridge.Models.Enums.PaymentStatus;
+import com.paybridge.Repositories.PaymentRepository;
+import com.paybridge.Services.CacheInvalidationBus;
+import com.paybridge.Services.PaymentStatusCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PaymentStatusCacheTest {
+
+    private static final Long MERCHANT_ID = 11L;
+
+    @Mock
+    private PaymentRepository paymentRepository;
+
+    @Mock
+    private CacheInvalidationBus invalidationBus;
+
+    private PaymentStatusCache statusCache;
+
+    @BeforeEach
+    void setUp() {
+        statusCache = new PaymentStatusCache(paymentRepository, invalidationBus, new SimpleMeterRegistry(), 100, 60);
+    }
+
+    @Test
+    void find_LoadsOnceAndServesRepeatPollsFromMemory() {
+        Payment payment = payment(PaymentStatus.PENDING, "ref_1");
+        when(paymentRepository.findWithProviderById(payment.getId())).thenReturn(Optional.of(payment));
+
+        PaymentResponse first = statusCache.find(MERCHANT_ID, payment.getId()).orElseThrow();
+        PaymentResponse second = statusCache.find(MERCHANT_ID, payment.getId()).orElseThrow();
+
+        assertEquals(PaymentStatus.PENDING, first.getStatus());
+        assertEquals("paystack", second.getProvider());
+        verify(paymentRepository, times(1)).findWithProviderById(payment.getId());
+    }
+
+    @Test
+    void find_OtherMerchantsPayment_IsEmpty() {
+        Payment payment = payment(PaymentStatus.PENDING, "ref_2");
+        when(paymentRepository.findWithProviderById(payment.getId())).thenReturn(Optional.of(payment));
+
+        assertTrue(statusCache.find(99L, payment.getId()).isEmpty());
+    }
+
+    @Test
+    void find_MissingPayment_IsNotCached() {
+        UUID paymentId = UUID.randomUUID();
+        when(paymentRepository.findWithProviderById(paymentId)).thenReturn(Optional.empty());
+
+        assertTrue(statusCache.find(MERCHANT_ID, paymentId).isEmpty());
+        assertTrue(statusCache.find(MERCHANT_ID, paymentId).isEmpty());
+        verify(paymentRepository, times(2)).findWithProviderById(paymentId);
+    }
+
+    @Test
+    void updateAfterCommit_WithoutTransaction_ReplacesEntryAndBroadcasts() {
+        Payment payment = payment(PaymentStatus.PENDING, "ref_3");
+        when(paymentRepository.findWithProviderById(payment.getId())).thenReturn(Optional.of(payment));
+        statusCache.find(MERCHANT_ID, payment.getId());
+
+        payment.setStatus(PaymentStatus.SUCCEEDED);
+        statusCache.updateAfterCommit(payment);
+
+        assertEquals(PaymentStatus.SUCCEEDED, statusCache.find(MERCHANT_ID, payment.getId()).orElseThrow().getStatus());
+        verify(paymentRepository, times(1)).findWithProviderById(payment.getId());
+        verify(invalidationBus).publish(any(), eq(payment.getId().toString()));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void remoteInvalidation_EvictsEntry() {
+        ArgumentCaptor<Consumer<String>> handler = ArgumentCaptor.forClass(Consumer.class);
+        verify(invalidationBus).subscribe(any(), handler.capture());
+
+        Payment payment = payment(PaymentStatus.PENDING, "ref_4");
+        when(paymentRepository.findWithProviderById(payment.getId())).thenReturn(Optional.of(payment));
+        statusCache.find(MERCHANT_ID, payment.getId());
+
+        handler.getValue().accept(payment.getId().toString());
+        statusCache.find(MERCHANT_ID, payment.getId());
+
+        verify(paymentRepository, times(2)).findWithProviderById(payment.getId());
+    }
+
+    @Test
+    void findByProviderReference_RemembersReferenceAndReusesSnapshot() {
+        Payment payment = payment(PaymentStatus.PENDING, "ref_5");
+        when(paymentRepository.findFirstByMerchant_IdAndProviderReference(MERCHANT_ID, "ref_5"))
+                .thenReturn(Optional.of(payment));
+
+        assertEquals(payment.getId(), statusCache.findByProviderReference(MERCHANT_ID, "ref_5").orElseThrow().getId());
+        assertEquals(payment.getId(), statusCache.findByProviderReference(MERCHANT_ID, "ref_5").orElseThrow().getId());
+
+        verify(paymentRepository, times(1)).findFirstByMerchant_IdAndProviderReference(MERCHANT_ID, "ref_5");
+        verify(paymentRepository, never()).findWithProviderById(any());
+    }
+
+    private Payment payment(PaymentStatus status, String providerReference) {
+        Merchant merchant = new Merchant();
+        merchant.setId(MERCHANT_ID);
+        Provider provider = new Provider();
+        provider.setName("Paystack");
+
+        Payment payment = new Payment();
+        payment.setId(UUID.randomUUID());
+        payment.setMerchant(merchant);
+        payment.setProvider(provider);
+        payment.setStatus(status);
+        payment.setAmount(new BigDecimal("1000.00"));
+        payment.setCurrency("NGN");
+        payment.setProviderReference(providerReference);
+        payment.setCreatedAt(LocalDateTime.now());
+        return payment;
+    }
+}
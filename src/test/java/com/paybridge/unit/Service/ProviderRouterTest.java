@@ -0,0 +1,189 @@
+package com.paybridge.unit.Service;
+
+import com.paybridge.Configs.PaymentProvider;
+import com.paybridge.Models.DTOs.CreatePaymentRequest;
+import com.paybridge.Models.DTOs.PaymentProviderResponse;
+import com.paybridge.Services.CredentialStorageService;
+import com.paybridge.Services.MerchantRoutingSnapshot;
+import com.paybridge.Services.MerchantRoutingSnapshot.RoutedProvider;
+import com.paybridge.Services.PaymentConcurrencyLimiter;
+import com.paybridge.Services.PaymentProviderRegistry;
+import com.paybridge.Services.ProviderHealthTracker;
+import com.paybridge.Services.ProviderRouter;
+import com.stripe.exception.ApiConnectionException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.hc.core5.http.ConnectionRequestTimeoutException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.http.HttpStatus;
+
+import java.math.BigDecimal;
+import java.net.ConnectException;
+import java.net.SocketTimeoutException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProviderRouterTest {
+
+    private static final MerchantRoutingSnapshot SNAPSHOT = new MerchantRoutingSnapshot(3L, List.of(
+            new RoutedProvider(1L, "stripe", "Stripe"),
+            new RoutedProvider(2L, "paystack", "Paystack")));
+
+    @Mock
+    private PaymentProviderRegistry paymentProviderRegistry;
+    @Mock
+    private CredentialStorageService credentialStorageService;
+    @Mock
+    private PaymentProvider stripe;
+    @Mock
+    private PaymentProvider paystack;
+
+    private ProviderHealthTracker healthTracker;
+    private ProviderRouter router;
+
+    @BeforeEach
+    void setUp() {
+        healthTracker = new ProviderHealthTracker(0.5, 500, 5000);
+        router = new ProviderRouter(paymentProviderRegistry, credentialStorageService,
+                new PaymentConcurrencyLimiter(10, 10, 100, new SimpleMeterRegistry()), healthTracker, 0.0);
+        lenient().when(paymentProviderRegistry.supportsCurrency(anyString(), anyString())).thenReturn(true);
+        lenient().when(paymentProviderRegistry.getProvider("stripe")).thenReturn(stripe);
+        lenient().when(paymentProviderRegistry.getProvider("paystack")).thenReturn(paystack);
+        lenient().when(credentialStorageService.getProviderConfig(anyString(), any())).thenReturn(Map.of("secretKey", "sk"));
+    }
+
+    @Test
+    void rank_PrefersFasterAndHealthierProvider() {
+        healthTracker.record("stripe", TimeUnit.MILLISECONDS.toNanos(900), true);
+        healthTracker.record("paystack", TimeUnit.MILLISECONDS.toNanos(200), true);
+
+        assertEquals(List.of("paystack", "stripe"), names(router.rank(SNAPSHOT, request(null, "USD"))));
+
+        healthTracker.record("paystack", TimeUnit.MILLISECONDS.toNanos(200), false);
+
+        assertEquals(List.of("stripe", "paystack"), names(router.rank(SNAPSHOT, request(null, "USD"))));
+    }
+
+    @Test
+    void rank_OpenCircuitGoesLast() {
+        healthTracker.record("stripe", TimeUnit.MILLISECONDS.toNanos(100), true);
+        when(paymentProviderRegistry.isCircuitOpen("stripe")).thenReturn(true);
+
+        assertEquals(List.of("paystack", "stripe"), names(router.rank(SNAPSHOT, request(null, "USD"))));
+    }
+
+    @Test
+    void rank_FiltersByCurrencySupport() {
+        when(paymentProviderRegistry.supportsCurrency("stripe", "GHS")).thenReturn(false);
+
+        assertEquals(List.of("paystack"), names(router.rank(SNAPSHOT, request(null, "GHS"))));
+    }
+
+    @Test
+    void rank_ExplicitProvider_IsUsedAsIs() {
+        assertEquals(List.of("stripe"), names(router.rank(SNAPSHOT, request("STRIPE", "GHS"))));
+        verify(paymentProviderRegistry, never()).supportsCurrency(anyString(), anyString());
+    }
+
+    @Test
+    void createPayment_ConnectFailure_FailsOverToNextCandidate() {
+        healthTracker.record("stripe", TimeUnit.MILLISECONDS.toNanos(100), true);
+        PaymentProviderResponse response = new PaymentProviderResponse();
+        response.setProviderPaymentId("ps_ref");
+        when(stripe.CreatePaymentRequest(any(), anyMap(), anyString()))
+                .thenThrow(new RuntimeException("Stripe checkout session creation failed",
+                        new ResourceAccessException("I/O error", new ConnectException("Connection refused"))));
+        when(paystack.CreatePaymentRequest(any(), anyMap(), anyString())).thenReturn(response);
+
+        ProviderRouter.RoutedPayment routed = router.createPayment(SNAPSHOT, request(null, "USD"), "idem-1");
+
+        assertEquals("paystack", routed.provider().name());
+        assertEquals("ps_ref", routed.response().getProviderPaymentId());
+    }
+
+    @Test
+    void createPayment_ReadTimeout_DoesNotFailOver() {
+        healthTracker.record("stripe", TimeUnit.MILLISECONDS.toNanos(100), true);
+        RuntimeException readTimeout = new RuntimeException("Stripe checkout session creation failed",
+                new ApiConnectionException("IOException during API request", new SocketTimeoutException("Read timed out")));
+        when(stripe.CreatePaymentRequest(any(), anyMap(), anyString())).thenThrow(readTimeout);
+
+        assertSame(readTimeout, assertThrows(RuntimeException.class,
+                () -> router.createPayment(SNAPSHOT, request(null, "USD"), "idem-1")));
+        verifyNoInteractions(paystack);
+    }
+
+    @Test
+    void createPayment_ConnectTimeoutOrPoolExhaustion_FailsOver() {
+        healthTracker.record("stripe", TimeUnit.MILLISECONDS.toNanos(100), true);
+        PaymentProviderResponse response = new PaymentProviderResponse();
+        response.setProviderPaymentId("ps_ref");
+        when(stripe.CreatePaymentRequest(any(), anyMap(), anyString()))
+                .thenThrow(new RuntimeException("failed",
+                        new ApiConnectionException("IOException during API request", new SocketTimeoutException("Connect timed out"))))
+                .thenThrow(new RuntimeException("failed",
+                        new ResourceAccessException("I/O error", new ConnectionRequestTimeoutException("Timeout deadline"))));
+        when(paystack.CreatePaymentRequest(any(), anyMap(), anyString())).thenReturn(response);
+
+        assertEquals("paystack", router.createPayment(SNAPSHOT, request(null, "USD"), "idem-1").provider().name());
+        assertEquals("paystack", router.createPayment(SNAPSHOT, request(null, "USD"), "idem-1").provider().name());
+    }
+
+    @Test
+    void createPayment_SendsProviderKeyStableAcrossRetriesOfOneIdempotencyKey() {
+        PaymentProviderResponse response = new PaymentProviderResponse();
+        when(stripe.CreatePaymentRequest(any(), anyMap(), anyString())).thenReturn(response);
+        MerchantRoutingSnapshot otherMerchant = new MerchantRoutingSnapshot(4L, List.of(
+                new RoutedProvider(1L, "stripe", "Stripe")));
+        MerchantRoutingSnapshot stripeOnly = new MerchantRoutingSnapshot(3L, List.of(
+                new RoutedProvider(1L, "stripe", "Stripe")));
+
+        router.createPayment(stripeOnly, request(null, "USD"), "idem-1");
+        router.createPayment(stripeOnly, request(null, "USD"), "idem-1");
+        router.createPayment(stripeOnly, request(null, "USD"), "idem-2");
+        router.createPayment(otherMerchant, request(null, "USD"), "idem-1");
+
+        ArgumentCaptor<String> keys = ArgumentCaptor.forClass(String.class);
+        verify(stripe, times(4)).CreatePaymentRequest(any(), anyMap(), keys.capture());
+        assertEquals(keys.getAllValues().get(0), keys.getAllValues().get(1));
+        assertEquals(3, new HashSet<>(keys.getAllValues()).size());
+        assertTrue(keys.getAllValues().get(0).matches("idem-[0-9a-f-]{36}"));
+    }
+
+    @Test
+    void createPayment_ProviderRejection_DoesNotFailOver() {
+        healthTracker.record("stripe", TimeUnit.MILLISECONDS.toNanos(100), true);
+        when(stripe.CreatePaymentRequest(any(), anyMap(), anyString()))
+                .thenThrow(new RuntimeException("declined", new HttpClientErrorException(HttpStatus.PAYMENT_REQUIRED)));
+
+        assertThrows(RuntimeException.class, () -> router.createPayment(SNAPSHOT, request(null, "USD"), "idem-1"));
+        verifyNoInteractions(paystack);
+    }
+
+    private CreatePaymentRequest request(String provider, String currency) {
+        CreatePaymentRequest request = new CreatePaymentRequest();
+        request.setAmount(new BigDecimal("10.00"));
+        request.setCurrency(currency);
+        request.setProvider(provider);
+        return request;
+    }
+
+    private List<String> names(List<RoutedProvider> providers) {
+        return providers.stream().map(RoutedProvider::name).toList();
+    }
+}
@@ -10,6 +10,7 @@ import com.paybridge.Repositories.MerchantRepository;
 import com.paybridge.Repositories.ProviderRepository;
 import com.paybridge.Repositories.ProviderConfigRepository;
 import com.paybridge.Services.CredentialStorageService;
+import com.paybridge.Services.MerchantRoutingCache;
 import com.paybridge.Services.PaymentProviderRegistry;
 import com.paybridge.Services.ProviderService;
 import com.paybridge.Services.ConnectionTestResult;
@@ -49,6 +50,9 @@ class ProviderServiceTest {
     @Mock
     private PaymentProviderRegistry paymentProviderRegistry;
 
+    @Mock
+    private MerchantRoutingCache merchantRoutingCache;
+
     // Mock all providers that implement PaymentProvider interface
     @Mock
     private PaymentProvider stripePaymentProvider;
@@ -149,6 +153,7 @@ class ProviderServiceTest {
         verify(credentialStorageService).saveProviderConfig(eq(PROVIDER_NAME), eq(MERCHANT_ID), eq(validConfig.getConfig()));
         verify(providerConfigRepository).save(existingConfig);
         verify(merchantRepository).save(testMerchant);
+        verify(merchantRoutingCache).refreshAfterCommit(MERCHANT_ID);
     }
 
     @Test
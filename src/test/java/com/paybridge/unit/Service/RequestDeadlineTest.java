@@ -0,0 +1,90 @@
+package com.paybridge.unit.Service;
+
+import com.paybridge.Exceptions.DeadlineExceededException;
+import com.paybridge.Models.Entities.Merchant;
+import com.paybridge.Services.RequestDeadline;
+import com.paybridge.Services.RequestDeadlinePolicy;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RequestDeadlineTest {
+
+    private final RequestDeadlinePolicy policy = new RequestDeadlinePolicy(30000, 60000);
+
+    @Test
+    void call_BindsDeadlineForTheDurationOfTheWork() {
+        RequestDeadline deadline = RequestDeadline.after(Duration.ofSeconds(5));
+
+        assertSame(deadline, deadline.call("work", RequestDeadline::current));
+        assertFalse(RequestDeadline.current().isBounded());
+    }
+
+    @Test
+    void call_FailureAfterExpiry_IsReportedAsDeadlineExceeded() {
+        RequestDeadline deadline = RequestDeadline.after(Duration.ofMillis(20));
+        RuntimeException timeout = new RuntimeException("Read timed out");
+
+        DeadlineExceededException ex = assertThrows(DeadlineExceededException.class, () -> deadline.call("provider", () -> {
+            sleep(50);
+            throw timeout;
+        }));
+
+        assertSame(timeout, ex.getCause());
+    }
+
+    @Test
+    void call_FailureWithinDeadline_IsRethrownUnchanged() {
+        RequestDeadline deadline = RequestDeadline.after(Duration.ofSeconds(5));
+
+        assertThrows(IllegalStateException.class, () -> deadline.call("provider", () -> {
+            throw new IllegalStateException("declined");
+        }));
+    }
+
+    @Test
+    void cap_ReturnsShorterOfTimeoutAndRemaining() {
+        RequestDeadline deadline = RequestDeadline.after(Duration.ofSeconds(2));
+
+        assertTrue(deadline.cap(Duration.ofSeconds(10)).compareTo(Duration.ofSeconds(2)) <= 0);
+        assertEquals(Duration.ofMillis(500), deadline.cap(Duration.ofMillis(500)));
+        assertEquals(Duration.ofSeconds(10), RequestDeadline.none().cap(Duration.ofSeconds(10)));
+    }
+
+    @Test
+    void resolve_PrefersHeaderThenMerchantThenDefault() {
+        Merchant merchant = new Merchant();
+        merchant.setRequestTimeoutMs(8000);
+
+        assertTrue(policy.resolve(merchant, "3000").remaining().toMillis() <= 3000);
+        assertTrue(policy.resolve(merchant, null).remaining().toMillis() <= 8000);
+        assertTrue(policy.resolve(merchant, null).remaining().toMillis() > 3000);
+        assertTrue(policy.resolve(new Merchant(), null).remaining().toMillis() > 8000);
+    }
+
+    @Test
+    void resolve_CapsBudgetAtMaximum() {
+        assertTrue(policy.resolve(new Merchant(), "600000").remaining().toMillis() <= 60000);
+    }
+
+    @Test
+    void resolve_ZeroDefaultMeansNoDeadline() {
+        assertFalse(new RequestDeadlinePolicy(0, 60000).resolve(new Merchant(), null).isBounded());
+    }
+
+    @Test
+    void resolve_RejectsMalformedHeader() {
+        assertThrows(IllegalArgumentException.class, () -> policy.resolve(new Merchant(), "5s"));
+        assertThrows(IllegalArgumentException.class, () -> policy.resolve(new Merchant(), "-1"));
+    }
+
+    private void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
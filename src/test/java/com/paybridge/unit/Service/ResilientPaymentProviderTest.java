@@ -0,0 +1,120 @@
+package com.paybridge.Services;
+
+import com.paybridge.Configs.PaymentProvider;
+import com.paybridge.Exceptions.ProviderUnavailableException;
+import com.paybridge.Models.DTOs.CreatePaymentRequest;
+import com.paybridge.Models.DTOs.PaymentProviderResponse;
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ResilientPaymentProviderTest {
+
+    @Mock
+    private PaymentProvider delegate;
+
+    private CircuitBreaker circuitBreaker;
+    private ProviderHealthTracker healthTracker;
+    private ResilientPaymentProvider provider;
+
+    @BeforeEach
+    void setUp() {
+        circuitBreaker = CircuitBreaker.of("paystack", CircuitBreakerConfig.custom()
+                .slidingWindowSize(4)
+                .minimumNumberOfCalls(4)
+                .failureRateThreshold(50)
+                .waitDurationInOpenState(Duration.ofSeconds(30))
+                .recordException(ResilientPaymentProvider::isProviderFault)
+                .build());
+        healthTracker = new ProviderHealthTracker(0.5, 500, 5000);
+        provider = new ResilientPaymentProvider(delegate, circuitBreaker,
+                Bulkhead.of("paystack", BulkheadConfig.custom().maxConcurrentCalls(1).maxWaitDuration(Duration.ZERO).build()),
+                healthTracker, 30);
+        lenient().when(delegate.getProviderName()).thenReturn("paystack");
+    }
+
+    @Test
+    void createPaymentRequest_ProviderFailures_OpenBreakerAndFailFast() {
+        when(delegate.CreatePaymentRequest(any(), anyMap()))
+                .thenThrow(new RuntimeException("Paystack payment creation failed: 502 Bad Gateway"));
+
+        for (int i = 0; i < 4; i++) {
+            assertThrows(RuntimeException.class, () -> provider.CreatePaymentRequest(new CreatePaymentRequest(), Map.of()));
+        }
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+
+        ProviderUnavailableException ex = assertThrows(ProviderUnavailableException.class,
+                () -> provider.CreatePaymentRequest(new CreatePaymentRequest(), Map.of()));
+        assertEquals(30, ex.getRetryAfterSeconds());
+        verify(delegate, times(4)).CreatePaymentRequest(any(), anyMap());
+        assertTrue(healthTracker.errorRate("paystack") > 0.9);
+    }
+
+    @Test
+    void createPaymentRequest_ClientErrors_DoNotOpenBreaker() {
+        when(delegate.CreatePaymentRequest(any(), anyMap()))
+                .thenThrow(new IllegalArgumentException("Customer email is required for Paystack payments"))
+                .thenThrow(new RuntimeException("Paystack payment creation failed",
+                        new HttpClientErrorException(HttpStatus.UNAUTHORIZED)))
+                .thenThrow(new IllegalArgumentException("Amount is not set"))
+                .thenThrow(new RuntimeException("Paystack payment creation failed",
+                        new HttpClientErrorException(HttpStatus.BAD_REQUEST)));
+
+        for (int i = 0; i < 4; i++) {
+            assertThrows(RuntimeException.class, () -> provider.CreatePaymentRequest(new CreatePaymentRequest(), Map.of()));
+        }
+
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+        assertEquals(0.0, healthTracker.errorRate("paystack"));
+    }
+
+    @Test
+    void isProviderFault_RateLimitedIsAFault() {
+        assertTrue(ResilientPaymentProvider.isProviderFault(new RuntimeException("failed",
+                new HttpClientErrorException(HttpStatus.TOO_MANY_REQUESTS))));
+        assertTrue(ResilientPaymentProvider.isProviderFault(new RuntimeException("timeout")));
+    }
+
+    @Test
+    void createPaymentRequest_BulkheadFull_RejectsWithoutCallingProvider() throws Exception {
+        CountDownLatch inCall = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(delegate.CreatePaymentRequest(any(), anyMap())).thenAnswer(invocation -> {
+            inCall.countDown();
+            release.await();
+            return new PaymentProviderResponse();
+        });
+
+        Thread holder = new Thread(() -> provider.CreatePaymentRequest(new CreatePaymentRequest(), Map.of()));
+        holder.start();
+        try {
+            assertTrue(inCall.await(1, TimeUnit.SECONDS));
+            ProviderUnavailableException ex = assertThrows(ProviderUnavailableException.class,
+                    () -> provider.CreatePaymentRequest(new CreatePaymentRequest(), Map.of()));
+            assertTrue(ex.getMessage().contains("at capacity"));
+        } finally {
+            release.countDown();
+            holder.join(1000);
+        }
+        verify(delegate, times(1)).CreatePaymentRequest(any(), anyMap());
+    }
+}
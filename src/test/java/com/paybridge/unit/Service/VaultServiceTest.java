@@ -1,6 +1,8 @@
 package com.paybridge.unit.Service;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.paybridge.Security.SecretFingerprint;
+import com.paybridge.Services.ProviderCredentialsChangedEvent;
 import com.paybridge.Services.impl.VaultService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -8,11 +10,13 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.vault.core.VaultTemplate;
 import org.springframework.vault.support.VaultResponseSupport;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.eq;
@@ -27,6 +31,9 @@ class VaultServiceTest {
     @Mock
     private ObjectMapper objectMapper;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private VaultService vaultService;
 
@@ -57,6 +64,27 @@ class VaultServiceTest {
         verify(vaultTemplate).write(eq(EXPECTED_PATH), eq(vaultData));
     }
 
+    @Test
+    void storeProviderConfig_PublishesRetiredSecretFingerprints() {
+        // Given
+        Map<String, Object> responseData = new HashMap<>();
+        responseData.put("data", new HashMap<>(testConfig));
+
+        VaultResponseSupport<Map> mockResponse = mock(VaultResponseSupport.class);
+        when(mockResponse.getData()).thenReturn(responseData);
+        when(vaultTemplate.read(eq(EXPECTED_PATH), eq(Map.class))).thenReturn(mockResponse);
+
+        Map<String, Object> rotatedConfig = new HashMap<>(testConfig);
+        rotatedConfig.put("secretKey", "rotated-secret-key");
+
+        // When
+        vaultService.saveProviderConfig(PROVIDER_NAME, MERCHANT_ID, rotatedConfig);
+
+        // Then
+        verify(eventPublisher).publishEvent(new ProviderCredentialsChangedEvent(
+                PROVIDER_NAME, MERCHANT_ID, Set.of(SecretFingerprint.of("test-secret-key-456"))));
+    }
+
     @Test
     void storeProviderConfig_ExceptionThrown() {
         // Given
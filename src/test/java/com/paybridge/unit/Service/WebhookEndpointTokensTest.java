@@ -0,0 +1,58 @@
+package com.paybridge.unit.Service;
+
+import com.paybridge.Services.WebhookEndpointTokens;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WebhookEndpointTokensTest {
+
+    private final WebhookEndpointTokens tokens = new WebhookEndpointTokens("endpoint-token-key");
+
+    @Test
+    void resolve_IssuedToken_ReturnsMerchantId() {
+        String token = tokens.issue("stripe", 42L);
+
+        assertEquals(Optional.of(42L), tokens.resolve("stripe", token));
+        assertEquals(token, tokens.issue("stripe", 42L));
+    }
+
+    @Test
+    void resolve_TokenForAnotherProvider_IsRejected() {
+        String token = tokens.issue("stripe", 42L);
+
+        assertTrue(tokens.resolve("paystack", token).isEmpty());
+    }
+
+    @Test
+    void resolve_TamperedOrGarbageToken_IsRejected() {
+        String token = tokens.issue("paystack", 42L);
+        String otherMerchant = tokens.issue("paystack", 43L);
+        String spliced = otherMerchant.substring(0, 12) + token.substring(12);
+        String flipped = token.substring(0, token.length() - 1) + (token.endsWith("A") ? "B" : "A");
+
+        assertTrue(tokens.resolve("paystack", spliced).isEmpty());
+        assertTrue(tokens.resolve("paystack", flipped).isEmpty());
+        assertTrue(tokens.resolve("paystack", "not-a-token").isEmpty());
+        assertTrue(tokens.resolve("paystack", "!".repeat(token.length())).isEmpty());
+        assertTrue(tokens.resolve("paystack", null).isEmpty());
+    }
+
+    @Test
+    void resolve_TokenIssuedUnderAnotherKey_IsRejected() {
+        String token = new WebhookEndpointTokens("previous-key").issue("stripe", 42L);
+
+        assertTrue(tokens.resolve("stripe", token).isEmpty());
+    }
+
+    @Test
+    void issue_WithoutKey_IsDisabled() {
+        WebhookEndpointTokens disabled = new WebhookEndpointTokens("");
+
+        assertFalse(disabled.isEnabled());
+        assertNull(disabled.issue("stripe", 42L));
+        assertTrue(disabled.resolve("stripe", tokens.issue("stripe", 42L)).isEmpty());
+    }
+}
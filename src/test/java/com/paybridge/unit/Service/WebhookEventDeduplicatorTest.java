@@ -0,0 +1,158 @@
+package com.paybridge.unit.Service;
+
+import com.paybridge.Exceptions.WebhookEventInFlightException;
+import com.paybridge.Repositories.ProcessedWebhookEventRepository;
+import com.paybridge.Services.WebhookEventDeduplicator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class WebhookEventDeduplicatorTest {
+
+    private static final String KEY = "webhook:stripe:evt_1";
+
+    @Mock
+    private ProcessedWebhookEventRepository processedWebhookEventRepository;
+    @Mock
+    private StringRedisTemplate stringRedisTemplate;
+    @Mock
+    private ValueOperations<String, String> valueOperations;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        lenient().when(stringRedisTemplate.opsForValue()).thenReturn(valueOperations);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void claim_RepeatedDelivery_IsAnsweredFromLocalCache() {
+        WebhookEventDeduplicator deduplicator = deduplicator(false);
+        when(processedWebhookEventRepository.insertIfAbsent("stripe", "evt_1")).thenReturn(true);
+
+        assertTrue(deduplicator.claim("stripe", "evt_1"));
+        assertFalse(deduplicator.claim("stripe", "evt_1"));
+
+        verify(processedWebhookEventRepository, times(1)).insertIfAbsent("stripe", "evt_1");
+        assertEquals(1.0, meterRegistry.get("paybridge.webhooks.dedupe").tag("outcome", "local").counter().count());
+    }
+
+    @Test
+    void claim_ProcessedMarkerInRedis_SkipsDatabase() {
+        WebhookEventDeduplicator deduplicator = deduplicator(true);
+        when(valueOperations.setIfAbsent(eq(KEY), anyString(), eq(Duration.ofMillis(30000)))).thenReturn(false);
+        when(valueOperations.get(KEY)).thenReturn("done");
+
+        assertFalse(deduplicator.claim("stripe", "evt_1"));
+
+        verifyNoInteractions(processedWebhookEventRepository);
+        assertEquals(1.0, meterRegistry.get("paybridge.webhooks.dedupe").tag("outcome", "redis").counter().count());
+    }
+
+    @Test
+    void claim_EventClaimedByConcurrentDelivery_Throws() {
+        WebhookEventDeduplicator deduplicator = deduplicator(true);
+        when(valueOperations.setIfAbsent(eq(KEY), anyString(), any(Duration.class))).thenReturn(false);
+        when(valueOperations.get(KEY)).thenReturn("3f1c0d7e-other-claim");
+
+        WebhookEventInFlightException ex = assertThrows(WebhookEventInFlightException.class,
+                () -> deduplicator.claim("stripe", "evt_1"));
+
+        assertTrue(ex.getMessage().contains("already being processed"));
+        assertEquals(30, ex.getRetryAfterSeconds());
+        assertEquals(1.0, meterRegistry.get("paybridge.webhooks.dedupe").tag("outcome", "in_flight").counter().count());
+        verifyNoInteractions(processedWebhookEventRepository);
+    }
+
+    @Test
+    void claim_CommittedClaim_WritesProcessedMarker() {
+        WebhookEventDeduplicator deduplicator = deduplicator(true);
+        when(valueOperations.setIfAbsent(eq(KEY), anyString(), any(Duration.class))).thenReturn(true);
+        when(processedWebhookEventRepository.insertIfAbsent("stripe", "evt_1")).thenReturn(true);
+        TransactionSynchronizationManager.initSynchronization();
+
+        assertTrue(deduplicator.claim("stripe", "evt_1"));
+        verify(valueOperations, never()).set(anyString(), anyString(), any(Duration.class));
+
+        complete(TransactionSynchronization.STATUS_COMMITTED);
+
+        verify(valueOperations).set(KEY, "done", Duration.ofHours(72));
+    }
+
+    @Test
+    void claim_RolledBackClaim_ReleasesRedisAndIsRetryable() {
+        WebhookEventDeduplicator deduplicator = deduplicator(true);
+        when(valueOperations.setIfAbsent(eq(KEY), anyString(), any(Duration.class))).thenReturn(true);
+        when(processedWebhookEventRepository.insertIfAbsent("stripe", "evt_1")).thenReturn(true);
+        TransactionSynchronizationManager.initSynchronization();
+
+        assertTrue(deduplicator.claim("stripe", "evt_1"));
+        complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+
+        verify(stringRedisTemplate).execute(any(RedisScript.class), eq(List.of(KEY)), anyString());
+        verify(valueOperations, never()).set(anyString(), anyString(), any(Duration.class));
+
+        TransactionSynchronizationManager.clearSynchronization();
+        TransactionSynchronizationManager.initSynchronization();
+        assertTrue(deduplicator.claim("stripe", "evt_1"));
+        verify(processedWebhookEventRepository, times(2)).insertIfAbsent("stripe", "evt_1");
+    }
+
+    @Test
+    void claim_DuplicateRecordedInDatabase_ReturnsFalse() {
+        WebhookEventDeduplicator deduplicator = deduplicator(false);
+        when(processedWebhookEventRepository.insertIfAbsent("paystack", "9001")).thenReturn(false);
+
+        assertFalse(deduplicator.claim("paystack", "9001"));
+        assertEquals(1.0, meterRegistry.get("paybridge.webhooks.dedupe").tag("outcome", "database").counter().count());
+    }
+
+    @Test
+    void claim_RedisUnavailable_FallsBackToDatabase() {
+        WebhookEventDeduplicator deduplicator = deduplicator(true);
+        when(valueOperations.setIfAbsent(anyString(), anyString(), any(Duration.class)))
+                .thenThrow(new RedisConnectionFailureException("down"));
+        when(processedWebhookEventRepository.insertIfAbsent("stripe", "evt_1")).thenReturn(true);
+
+        assertTrue(deduplicator.claim("stripe", "evt_1"));
+    }
+
+    private WebhookEventDeduplicator deduplicator(boolean redisEnabled) {
+        return new WebhookEventDeduplicator(processedWebhookEventRepository, stringRedisTemplate, meterRegistry,
+                1000, 60, redisEnabled, 30000, 72);
+    }
+
+    private void complete(int status) {
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            synchronization.afterCompletion(status);
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.paybridge.unit.Service;
+
+import com.paybridge.Models.Entities.WebhookInboxEvent;
+import com.paybridge.Models.Enums.PaymentStatus;
+import com.paybridge.Models.Enums.WebhookInboxStatus;
+import com.paybridge.Repositories.WebhookInboxRepository;
+import com.paybridge.Services.WebhookInboxWorker;
+import com.paybridge.Services.WebhookService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class WebhookInboxWorkerTest {
+
+    @Mock
+    private WebhookService webhookService;
+    @Mock
+    private WebhookInboxRepository webhookInboxRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void drain_AppliesDueEventsAndPublishesBacklog() {
+        WebhookInboxWorker worker = worker(10, 8);
+        WebhookInboxEvent first = event(1L);
+        WebhookInboxEvent second = event(2L);
+
+        when(webhookInboxRepository.findDue(any(LocalDateTime.class), any(Pageable.class))).thenReturn(List.of(first, second));
+        when(webhookService.applyInboxEvent(anyLong())).thenReturn(true);
+        when(webhookInboxRepository.countByStatus(WebhookInboxStatus.PENDING)).thenReturn(3L);
+        when(webhookInboxRepository.findOldestReceivedAt(WebhookInboxStatus.PENDING))
+                .thenReturn(Optional.of(LocalDateTime.now().minusSeconds(30)));
+
+        worker.drain();
+
+        verify(webhookService).applyInboxEvent(1L);
+        verify(webhookService).applyInboxEvent(2L);
+        assertEquals(2, meterRegistry.get("paybridge.webhooks.inbox.delay").timer().count());
+        assertEquals(3.0, meterRegistry.get("paybridge.webhooks.inbox.depth").gauge().value());
+        assertTrue(meterRegistry.get("paybridge.webhooks.inbox.lag").gauge().value() >= 30.0);
+    }
+
+    @Test
+    void drain_FailedEvent_IsScheduledForRetry() {
+        WebhookInboxWorker worker = worker(10, 8);
+        WebhookInboxEvent failing = event(3L);
+
+        when(webhookInboxRepository.findDue(any(LocalDateTime.class), any(Pageable.class))).thenReturn(List.of(failing));
+        when(webhookService.applyInboxEvent(3L)).thenThrow(new IllegalStateException("db down"));
+        when(webhookInboxRepository.recordFailure(eq(3L), anyString(), any(LocalDateTime.class), eq(8))).thenReturn(1);
+
+        LocalDateTime before = LocalDateTime.now();
+        worker.drain();
+
+        ArgumentCaptor<LocalDateTime> retryAt = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(webhookInboxRepository).recordFailure(eq(3L), eq("db down"), retryAt.capture(), eq(8));
+        assertFalse(retryAt.getValue().isBefore(before.plusSeconds(1)));
+        assertEquals(1.0, meterRegistry.get("paybridge.webhooks.inbox.failures").tag("outcome", "retry").counter().count());
+    }
+
+    @Test
+    void drain_LastAttemptFails_MarksEventFailed() {
+        WebhookInboxWorker worker = worker(10, 1);
+        WebhookInboxEvent failing = event(4L);
+
+        when(webhookInboxRepository.findDue(any(LocalDateTime.class), any(Pageable.class))).thenReturn(List.of(failing));
+        when(webhookService.applyInboxEvent(4L)).thenThrow(new IllegalStateException("Payment not found"));
+        when(webhookInboxRepository.recordFailure(eq(4L), anyString(), any(LocalDateTime.class), eq(1))).thenReturn(1);
+
+        worker.drain();
+
+        assertEquals(1.0, meterRegistry.get("paybridge.webhooks.inbox.failures").tag("outcome", "failed").counter().count());
+    }
+
+    @Test
+    void drain_ConcurrentFailureAlreadyCounted_UsesAttemptsFromTheUpdate() {
+        WebhookInboxWorker worker = worker(10, 3);
+        WebhookInboxEvent failing = event(5L);
+
+        when(webhookInboxRepository.findDue(any(LocalDateTime.class), any(Pageable.class))).thenReturn(List.of(failing));
+        when(webhookService.applyInboxEvent(5L)).thenThrow(new IllegalStateException("db down"));
+        // The event was read with attempts = 0, but another worker's failure landed first.
+        when(webhookInboxRepository.recordFailure(eq(5L), anyString(), any(LocalDateTime.class), eq(3))).thenReturn(3);
+
+        worker.drain();
+
+        assertEquals(1.0, meterRegistry.get("paybridge.webhooks.inbox.failures").tag("outcome", "failed").counter().count());
+    }
+
+    @Test
+    void drain_EventSettledByAnotherWorker_CountsNoFailure() {
+        WebhookInboxWorker worker = worker(10, 3);
+        WebhookInboxEvent failing = event(6L);
+
+        when(webhookInboxRepository.findDue(any(LocalDateTime.class), any(Pageable.class))).thenReturn(List.of(failing));
+        when(webhookService.applyInboxEvent(6L)).thenThrow(new IllegalStateException("db down"));
+        when(webhookInboxRepository.recordFailure(eq(6L), anyString(), any(LocalDateTime.class), eq(3))).thenReturn(0);
+
+        worker.drain();
+
+        assertEquals(0.0, meterRegistry.get("paybridge.webhooks.inbox.failures").tag("outcome", "retry").counter().count());
+        assertEquals(0.0, meterRegistry.get("paybridge.webhooks.inbox.failures").tag("outcome", "failed").counter().count());
+    }
+
+    @Test
+    void drain_FullBatchHeldByOtherInstances_StopsInsteadOfSpinning() {
+        WebhookInboxWorker worker = worker(1, 8);
+
+        when(webhookInboxRepository.findDue(any(LocalDateTime.class), any(Pageable.class))).thenReturn(List.of(event(5L)));
+        when(webhookService.applyInboxEvent(5L)).thenReturn(false);
+
+        worker.drain();
+
+        verify(webhookInboxRepository, times(1)).findDue(any(LocalDateTime.class), any(Pageable.class));
+    }
+
+    private WebhookInboxWorker worker(int batchSize, int maxAttempts) {
+        return new WebhookInboxWorker(webhookService, webhookInboxRepository, Runnable::run, meterRegistry,
+                batchSize, maxAttempts, 1000, 600000, 72);
+    }
+
+    private WebhookInboxEvent event(Long id) {
+        WebhookInboxEvent event = WebhookInboxEvent.received("paystack", "evt_" + id, "charge.success",
+                UUID.randomUUID(), PaymentStatus.SUCCEEDED, "{}");
+        ReflectionTestUtils.setField(event, "id", id);
+        return event;
+    }
+}
@@ -0,0 +1,56 @@
+package com.paybridge.Services;
+
+import com.paybridge.Security.SecretFingerprint;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.Mac;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class WebhookMacCacheTest {
+
+    private static final byte[] BODY = "{\"event\":\"charge.success\"}".getBytes(StandardCharsets.UTF_8);
+
+    private WebhookMacCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new WebhookMacCache(2, 30);
+    }
+
+    @Test
+    void mac_ReturnsIndependentCopiesOfOneKeyedInstance() {
+        Mac first = cache.mac(WebhookSignatures.HMAC_SHA512, ProviderSecret.of("sk_test_a"));
+        Mac second = cache.mac(WebhookSignatures.HMAC_SHA512, ProviderSecret.of("sk_test_a"));
+
+        first.update("partial".getBytes(StandardCharsets.UTF_8));
+
+        assertThat(second).isNotSameAs(first);
+        assertThat(second.doFinal(BODY))
+                .isEqualTo(WebhookSignatures.newMac(WebhookSignatures.HMAC_SHA512, "sk_test_a").doFinal(BODY));
+        assertThat(cache.size()).isEqualTo(1);
+    }
+
+    @Test
+    void mac_KeysByFingerprintAndAlgorithm() {
+        cache.mac(WebhookSignatures.HMAC_SHA512, ProviderSecret.of("sk_test_a"));
+        cache.mac(WebhookSignatures.HMAC_SHA256, ProviderSecret.of("sk_test_a"));
+        byte[] other = cache.mac(WebhookSignatures.HMAC_SHA512, ProviderSecret.of("sk_test_b")).doFinal(BODY);
+
+        assertThat(other).isNotEqualTo(cache.mac(WebhookSignatures.HMAC_SHA512, ProviderSecret.of("sk_test_a")).doFinal(BODY));
+        assertThat(cache.size()).isEqualTo(3);
+    }
+
+    @Test
+    void onCredentialsChanged_EvictsRetiredSecret() {
+        cache.mac(WebhookSignatures.HMAC_SHA512, ProviderSecret.of("sk_test_a"));
+
+        cache.onCredentialsChanged(new ProviderCredentialsChangedEvent(
+                "paystack", 1L, Set.of(SecretFingerprint.of("sk_test_a"))));
+
+        assertThat(cache.size()).isZero();
+    }
+}
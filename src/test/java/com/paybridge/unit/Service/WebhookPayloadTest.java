@@ -0,0 +1,56 @@
+package com.paybridge.unit.Service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.paybridge.Services.WebhookPayload;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WebhookPayloadTest {
+
+    private final JsonFactory jsonFactory = new JsonFactory();
+
+    @Test
+    void parse_StripeEvent_ReadsEventAndSessionFields() {
+        WebhookPayload payload = parse("{\"id\":\"evt_1\",\"object\":\"event\",\"type\":\"checkout.session.completed\","
+                + "\"data\":{\"object\":{\"id\":\"cs_1\",\"object\":\"checkout.session\",\"metadata\":{\"id\":\"not_this\"}}}}");
+
+        assertEquals("evt_1", payload.id());
+        assertEquals("checkout.session.completed", payload.type());
+        assertEquals("cs_1", payload.objectId());
+        assertEquals("checkout.session", payload.objectType());
+        assertNull(payload.dataId());
+    }
+
+    @Test
+    void parse_PaystackEvent_ReadsNumericIdAsText() {
+        WebhookPayload payload = parse("{\"event\":\"charge.success\",\"data\":{\"id\":9001,\"customer\":{\"id\":7,\"reference\":\"x\"},"
+                + "\"reference\":\"ref_1\",\"status\":\"success\",\"log\":[{\"status\":\"pending\"}]}}");
+
+        assertEquals("charge.success", payload.event());
+        assertEquals("9001", payload.dataId());
+        assertEquals("ref_1", payload.dataReference());
+        assertEquals("success", payload.dataStatus());
+    }
+
+    @Test
+    void parse_NullAndNonScalarValues_AreTreatedAsMissing() {
+        WebhookPayload payload = parse("{\"event\":null,\"data\":{\"reference\":{\"nested\":\"ref\"},\"status\":[\"success\"]}}");
+
+        assertNull(payload.event());
+        assertNull(payload.dataReference());
+        assertNull(payload.dataStatus());
+    }
+
+    @Test
+    void parse_InvalidJson_Throws() {
+        assertThrows(IllegalArgumentException.class, () -> parse("{\"event\":\"charge.success\",\"data\":{"));
+        assertThrows(IllegalArgumentException.class, () -> parse("[1,2]"));
+    }
+
+    private WebhookPayload parse(String json) {
+        return WebhookPayload.parse(jsonFactory, json.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -3,22 +3,31 @@ package com.paybridge.unit.Service;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.paybridge.Models.Entities.Merchant;
 import com.paybridge.Models.Entities.Payment;
-import com.paybridge.Models.Entities.ProcessedWebhookEvent;
+import com.paybridge.Models.Entities.Provider;
+import com.paybridge.Models.Entities.WebhookInboxEvent;
 import com.paybridge.Models.Enums.PaymentStatus;
+import com.paybridge.Models.Enums.WebhookInboxStatus;
 import com.paybridge.Repositories.PaymentRepository;
-import com.paybridge.Repositories.ProcessedWebhookEventRepository;
+import com.paybridge.Repositories.WebhookInboxRepository;
 import com.paybridge.Services.CredentialStorageService;
+import com.paybridge.Services.PaymentStatusCache;
+import com.paybridge.Services.WebhookEndpointTokens;
+import com.paybridge.Services.WebhookEventDeduplicator;
+import com.paybridge.Services.WebhookMacCache;
 import com.paybridge.Services.WebhookService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import javax.crypto.Mac;
 import javax.crypto.spec.SecretKeySpec;
 import java.nio.charset.StandardCharsets;
+import java.time.Instant;
 import java.util.HexFormat;
 import java.util.Map;
 import java.util.Optional;
@@ -34,19 +43,30 @@ class WebhookServiceTest {
     @Mock
     private PaymentRepository paymentRepository;
     @Mock
-    private ProcessedWebhookEventRepository processedWebhookEventRepository;
+    private WebhookEventDeduplicator webhookEventDeduplicator;
     @Mock
     private CredentialStorageService credentialStorageService;
+    @Mock
+    private PaymentStatusCache paymentStatusCache;
+    @Mock
+    private WebhookInboxRepository webhookInboxRepository;
 
+    private final WebhookEndpointTokens webhookEndpointTokens = new WebhookEndpointTokens("endpoint-token-key");
     private WebhookService webhookService;
 
     @BeforeEach
     void setUp() {
+        lenient().when(credentialStorageService.getProviderSecret(anyString(), anyLong(), anyString())).thenCallRealMethod();
         webhookService = new WebhookService(
                 paymentRepository,
-                processedWebhookEventRepository,
+                webhookEventDeduplicator,
                 credentialStorageService,
-                new ObjectMapper()
+                new ObjectMapper(),
+                paymentStatusCache,
+                webhookInboxRepository,
+                new WebhookMacCache(100, 30),
+                webhookEndpointTokens,
+                mock(PlatformTransactionManager.class)
         );
     }
 
@@ -59,16 +79,16 @@ class WebhookServiceTest {
         when(paymentRepository.findByProviderReferenceAndProvider_NameIgnoreCase("ref_100", "paystack"))
                 .thenReturn(Optional.of(payment));
         when(credentialStorageService.getProviderConfig("paystack", 11L)).thenReturn(Map.of("secretKey", "sk_test_secret"));
-        when(processedWebhookEventRepository.existsByProviderAndEventId("paystack", "9001")).thenReturn(false);
+        when(webhookEventDeduplicator.claim("paystack", "9001")).thenReturn(true);
         when(paymentRepository.save(any(Payment.class))).thenAnswer(inv -> inv.getArgument(0));
-        when(processedWebhookEventRepository.save(any(ProcessedWebhookEvent.class))).thenAnswer(inv -> inv.getArgument(0));
 
-        Map<String, Object> result = webhookService.handlePaystackWebhook(payload, signature);
+        Map<String, Object> result = webhookService.handlePaystackWebhook(bytes(payload), signature);
 
         assertEquals(true, result.get("processed"));
         assertEquals("SUCCEEDED", result.get("status"));
         assertEquals(PaymentStatus.SUCCEEDED, payment.getStatus());
-        verify(processedWebhookEventRepository).save(any(ProcessedWebhookEvent.class));
+        verify(webhookEventDeduplicator).claim("paystack", "9001");
+        verify(paymentStatusCache).updateAfterCommit(payment);
     }
 
     @Test
@@ -80,13 +100,13 @@ class WebhookServiceTest {
         when(paymentRepository.findByProviderReferenceAndProvider_NameIgnoreCase("dup_ref", "paystack"))
                 .thenReturn(Optional.of(payment));
         when(credentialStorageService.getProviderConfig("paystack", 11L)).thenReturn(Map.of("secretKey", "sk_test_secret"));
-        when(processedWebhookEventRepository.existsByProviderAndEventId("paystack", "evt_dup")).thenReturn(true);
+        when(webhookEventDeduplicator.claim("paystack", "evt_dup")).thenReturn(false);
 
-        Map<String, Object> result = webhookService.handlePaystackWebhook(payload, signature);
+        Map<String, Object> result = webhookService.handlePaystackWebhook(bytes(payload), signature);
 
         assertEquals(true, result.get("duplicate"));
         verify(paymentRepository, never()).save(any(Payment.class));
-        verify(processedWebhookEventRepository, never()).save(any(ProcessedWebhookEvent.class));
+        verify(paymentStatusCache, never()).updateAfterCommit(any());
     }
 
     @Test
@@ -98,10 +118,10 @@ class WebhookServiceTest {
         when(paymentRepository.findByProviderReferenceAndProvider_NameIgnoreCase("ref_200", "paystack"))
                 .thenReturn(Optional.of(payment));
         when(credentialStorageService.getProviderConfig("paystack", 11L)).thenReturn(Map.of("secretKey", "sk_test_secret"));
-        when(processedWebhookEventRepository.existsByProviderAndEventId("paystack", "evt_200")).thenReturn(false);
+        when(webhookEventDeduplicator.claim("paystack", "evt_200")).thenReturn(true);
         when(paymentRepository.save(any(Payment.class))).thenAnswer(inv -> inv.getArgument(0));
 
-        webhookService.handlePaystackWebhook(payload, signature);
+        webhookService.handlePaystackWebhook(bytes(payload), signature);
 
         assertEquals(PaymentStatus.SUCCEEDED, payment.getStatus());
     }
@@ -117,7 +137,7 @@ class WebhookServiceTest {
 
         IllegalArgumentException ex = assertThrows(
                 IllegalArgumentException.class,
-                () -> webhookService.handlePaystackWebhook(payload, "bad-signature")
+                () -> webhookService.handlePaystackWebhook(bytes(payload), "bad-signature")
         );
 
         assertTrue(ex.getMessage().contains("Invalid Paystack webhook signature"));
@@ -135,7 +155,7 @@ class WebhookServiceTest {
 
         IllegalStateException ex = assertThrows(
                 IllegalStateException.class,
-                () -> webhookService.handleStripeWebhook(payload, "t=1,v1=abc")
+                () -> webhookService.handleStripeWebhook(bytes(payload), "t=1,v1=abc")
         );
 
         assertTrue(ex.getMessage().contains("signing secret is not configured"));
@@ -147,7 +167,7 @@ class WebhookServiceTest {
 
         IllegalArgumentException ex = assertThrows(
                 IllegalArgumentException.class,
-                () -> webhookService.handleStripeWebhook("{\"id\":\"evt_1\"}", null)
+                () -> webhookService.handleStripeWebhook(bytes("{\"id\":\"evt_1\"}"), null)
         );
 
         assertTrue(ex.getMessage().contains("Missing Stripe-Signature"));
@@ -163,12 +183,209 @@ class WebhookServiceTest {
         when(credentialStorageService.getProviderConfig("stripe", 11L)).thenReturn(Map.of("webhookSecret", "whsec_test_123"));
         IllegalArgumentException ex = assertThrows(
                 IllegalArgumentException.class,
-                () -> webhookService.handleStripeWebhook(payload, "t=1,v1=invalid")
+                () -> webhookService.handleStripeWebhook(bytes(payload), "t=1,v1=invalid")
         );
 
         assertTrue(ex.getMessage().contains("Invalid Stripe webhook signature"));
     }
 
+    @Test
+    void handleStripeWebhook_ValidSignature_UpdatesPaymentFromSessionEvent() {
+        Payment payment = buildPayment(PaymentStatus.PENDING, "cs_test_valid");
+        String payload = "{\"id\":\"evt_valid\",\"object\":\"event\",\"type\":\"checkout.session.completed\",\"data\":{\"object\":{\"id\":\"cs_test_valid\",\"object\":\"checkout.session\",\"metadata\":{\"order\":\"42\"}}}}";
+
+        when(paymentRepository.findByProviderReferenceAndProvider_NameIgnoreCase("cs_test_valid", "stripe"))
+                .thenReturn(Optional.of(payment));
+        when(credentialStorageService.getProviderConfig("stripe", 11L)).thenReturn(Map.of("webhookSecret", "whsec_test_123"));
+        when(webhookEventDeduplicator.claim("stripe", "evt_valid")).thenReturn(true);
+        when(paymentRepository.save(any(Payment.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        Map<String, Object> result = webhookService.handleStripeWebhook(bytes(payload),
+                stripeSignature(payload, "whsec_test_123", Instant.now().getEpochSecond()));
+
+        assertEquals(true, result.get("processed"));
+        assertEquals("evt_valid", result.get("eventId"));
+        assertEquals(PaymentStatus.SUCCEEDED, payment.getStatus());
+    }
+
+    @Test
+    void handleStripeWebhook_NonSessionObject_IsMarkedProcessedAndIgnored() {
+        Payment payment = buildPayment(PaymentStatus.PENDING, "pi_test_other");
+        String payload = "{\"id\":\"evt_pi\",\"type\":\"payment_intent.succeeded\",\"data\":{\"object\":{\"id\":\"pi_test_other\",\"object\":\"payment_intent\"}}}";
+
+        when(paymentRepository.findByProviderReferenceAndProvider_NameIgnoreCase("pi_test_other", "stripe"))
+                .thenReturn(Optional.of(payment));
+        when(credentialStorageService.getProviderConfig("stripe", 11L)).thenReturn(Map.of("webhookSecret", "whsec_test_123"));
+        when(webhookEventDeduplicator.claim("stripe", "evt_pi")).thenReturn(true);
+
+        Map<String, Object> result = webhookService.handleStripeWebhook(bytes(payload),
+                stripeSignature(payload, "whsec_test_123", Instant.now().getEpochSecond()));
+
+        assertEquals("Unsupported Stripe event object", result.get("reason"));
+        assertEquals(PaymentStatus.PENDING, payment.getStatus());
+        verify(webhookEventDeduplicator).claim("stripe", "evt_pi");
+    }
+
+    @Test
+    void handleStripeWebhook_SignatureOutsideTolerance_Throws() {
+        Payment payment = buildPayment(PaymentStatus.PENDING, "cs_test_stale");
+        String payload = "{\"id\":\"evt_stale\",\"type\":\"checkout.session.completed\",\"data\":{\"object\":{\"id\":\"cs_test_stale\",\"object\":\"checkout.session\"}}}";
+
+        when(paymentRepository.findByProviderReferenceAndProvider_NameIgnoreCase("cs_test_stale", "stripe"))
+                .thenReturn(Optional.of(payment));
+        when(credentialStorageService.getProviderConfig("stripe", 11L)).thenReturn(Map.of("webhookSecret", "whsec_test_123"));
+        String staleSignature = stripeSignature(payload, "whsec_test_123", Instant.now().getEpochSecond() - 3600);
+
+        IllegalArgumentException ex = assertThrows(
+                IllegalArgumentException.class,
+                () -> webhookService.handleStripeWebhook(bytes(payload), staleSignature)
+        );
+
+        assertTrue(ex.getMessage().contains("Invalid Stripe webhook signature"));
+    }
+
+    @Test
+    void acceptPaystackWebhook_ValidSignature_QueuesEventWithoutTouchingPayment() {
+        Payment payment = buildPayment(PaymentStatus.PENDING, "ref_300");
+        String payload = "{\"event\":\"charge.success\",\"data\":{\"id\":\"9300\",\"reference\":\"ref_300\",\"status\":\"success\"}}";
+
+        when(paymentRepository.findByProviderReferenceAndProvider_NameIgnoreCase("ref_300", "paystack"))
+                .thenReturn(Optional.of(payment));
+        when(credentialStorageService.getProviderConfig("paystack", 11L)).thenReturn(Map.of("secretKey", "sk_test_secret"));
+        when(webhookInboxRepository.existsByProviderAndEventId("paystack", "9300")).thenReturn(false);
+
+        Map<String, Object> result = webhookService.acceptPaystackWebhook(bytes(payload), sign(payload, "sk_test_secret"));
+
+        assertEquals(true, result.get("accepted"));
+        ArgumentCaptor<WebhookInboxEvent> queued = ArgumentCaptor.forClass(WebhookInboxEvent.class);
+        verify(webhookInboxRepository).save(queued.capture());
+        assertEquals(payment.getId(), queued.getValue().getPaymentId());
+        assertEquals(PaymentStatus.SUCCEEDED, queued.getValue().getTargetStatus());
+        assertEquals(WebhookInboxStatus.PENDING, queued.getValue().getStatus());
+        assertEquals(payload, queued.getValue().getPayload());
+        assertEquals(PaymentStatus.PENDING, payment.getStatus());
+        verifyNoInteractions(webhookEventDeduplicator);
+    }
+
+    @Test
+    void acceptPaystackWebhook_EventAlreadyQueued_ReportsDuplicate() {
+        Payment payment = buildPayment(PaymentStatus.PENDING, "ref_301");
+        String payload = "{\"event\":\"charge.success\",\"data\":{\"id\":\"9301\",\"reference\":\"ref_301\",\"status\":\"success\"}}";
+
+        when(paymentRepository.findByProviderReferenceAndProvider_NameIgnoreCase("ref_301", "paystack"))
+                .thenReturn(Optional.of(payment));
+        when(credentialStorageService.getProviderConfig("paystack", 11L)).thenReturn(Map.of("secretKey", "sk_test_secret"));
+        when(webhookInboxRepository.existsByProviderAndEventId("paystack", "9301")).thenReturn(true);
+
+        Map<String, Object> result = webhookService.acceptPaystackWebhook(bytes(payload), sign(payload, "sk_test_secret"));
+
+        assertEquals(true, result.get("duplicate"));
+        verify(webhookInboxRepository, never()).save(any());
+    }
+
+    @Test
+    void handleMerchantWebhook_ForgedToken_RejectedWithoutRepositoryOrCredentialAccess() {
+        String payload = "{\"event\":\"charge.success\",\"data\":{\"id\":\"9001\",\"reference\":\"ref_100\"}}";
+        String forged = new WebhookEndpointTokens("guessed-key").issue("paystack", 11L);
+
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
+                () -> webhookService.handleMerchantWebhook("paystack", forged, bytes(payload), sign(payload, "sk_test_secret")));
+
+        assertEquals("Unknown webhook endpoint", ex.getMessage());
+        verifyNoInteractions(paymentRepository, credentialStorageService, webhookEventDeduplicator);
+    }
+
+    @Test
+    void handleMerchantWebhook_InvalidSignature_RejectedBeforePaymentLookup() {
+        String payload = "{\"event\":\"charge.success\",\"data\":{\"id\":\"9001\",\"reference\":\"ref_100\"}}";
+        when(credentialStorageService.getProviderConfig("paystack", 11L)).thenReturn(Map.of("secretKey", "sk_test_secret"));
+
+        assertThrows(IllegalArgumentException.class, () -> webhookService.handleMerchantWebhook("paystack",
+                webhookEndpointTokens.issue("paystack", 11L), bytes(payload), sign(payload, "sk_wrong")));
+
+        verifyNoInteractions(paymentRepository, webhookEventDeduplicator);
+    }
+
+    @Test
+    void handleMerchantWebhook_ValidPaystackEvent_AppliedToMerchantsPayment() {
+        Payment payment = buildPayment(PaymentStatus.PENDING, "ref_100");
+        payment.setProvider(provider("paystack"));
+        String payload = "{\"event\":\"charge.success\",\"data\":{\"id\":\"9001\",\"reference\":\"ref_100\",\"status\":\"success\"}}";
+
+        when(credentialStorageService.getProviderConfig("paystack", 11L)).thenReturn(Map.of("secretKey", "sk_test_secret"));
+        when(paymentRepository.findFirstByMerchant_IdAndProviderReference(11L, "ref_100")).thenReturn(Optional.of(payment));
+        when(webhookEventDeduplicator.claim("paystack", "9001")).thenReturn(true);
+        when(paymentRepository.save(any(Payment.class))).thenAnswer(inv -> inv.getArgument(0));
+
+        Map<String, Object> result = webhookService.handleMerchantWebhook("paystack",
+                webhookEndpointTokens.issue("paystack", 11L), bytes(payload), sign(payload, "sk_test_secret"));
+
+        assertEquals(true, result.get("processed"));
+        assertEquals(PaymentStatus.SUCCEEDED, payment.getStatus());
+        verify(paymentRepository, never()).findByProviderReferenceAndProvider_NameIgnoreCase(anyString(), anyString());
+    }
+
+    @Test
+    void acceptMerchantWebhook_ValidStripeEvent_QueuesEvent() {
+        Payment payment = buildPayment(PaymentStatus.PENDING, "cs_test_valid");
+        payment.setProvider(provider("stripe"));
+        String payload = "{\"id\":\"evt_valid\",\"type\":\"checkout.session.completed\",\"data\":{\"object\":{\"id\":\"cs_test_valid\",\"object\":\"checkout.session\"}}}";
+
+        when(credentialStorageService.getProviderConfig("stripe", 11L)).thenReturn(Map.of("webhookSecret", "whsec_test_123"));
+        when(paymentRepository.findFirstByMerchant_IdAndProviderReference(11L, "cs_test_valid")).thenReturn(Optional.of(payment));
+        when(webhookInboxRepository.existsByProviderAndEventId("stripe", "evt_valid")).thenReturn(false);
+
+        Map<String, Object> result = webhookService.acceptMerchantWebhook("stripe", webhookEndpointTokens.issue("stripe", 11L),
+                bytes(payload), stripeSignature(payload, "whsec_test_123", Instant.now().getEpochSecond()));
+
+        assertEquals(true, result.get("accepted"));
+        ArgumentCaptor<WebhookInboxEvent> queued = ArgumentCaptor.forClass(WebhookInboxEvent.class);
+        verify(webhookInboxRepository).save(queued.capture());
+        assertEquals(PaymentStatus.SUCCEEDED, queued.getValue().getTargetStatus());
+        assertEquals(PaymentStatus.PENDING, payment.getStatus());
+    }
+
+    @Test
+    void applyInboxEvent_PendingEvent_TransitionsPaymentAndMarksProcessed() {
+        Payment payment = buildPayment(PaymentStatus.PENDING, "ref_302");
+        WebhookInboxEvent event = WebhookInboxEvent.received("paystack", "9302", "charge.success",
+                payment.getId(), PaymentStatus.SUCCEEDED, "{}");
+
+        when(webhookInboxRepository.findForProcessing(5L)).thenReturn(Optional.of(event));
+        when(webhookEventDeduplicator.claim("paystack", "9302")).thenReturn(true);
+        when(paymentRepository.findForUpdateById(payment.getId())).thenReturn(Optional.of(payment));
+
+        assertTrue(webhookService.applyInboxEvent(5L));
+
+        assertEquals(PaymentStatus.SUCCEEDED, payment.getStatus());
+        assertEquals(WebhookInboxStatus.PROCESSED, event.getStatus());
+        verify(webhookEventDeduplicator).claim("paystack", "9302");
+        verify(paymentStatusCache).updateAfterCommit(payment);
+    }
+
+    @Test
+    void applyInboxEvent_AlreadyProcessedEvent_OnlyClosesInboxEntry() {
+        WebhookInboxEvent event = WebhookInboxEvent.received("paystack", "9303", "charge.success",
+                UUID.randomUUID(), PaymentStatus.SUCCEEDED, "{}");
+
+        when(webhookInboxRepository.findForProcessing(6L)).thenReturn(Optional.of(event));
+        when(webhookEventDeduplicator.claim("paystack", "9303")).thenReturn(false);
+
+        assertTrue(webhookService.applyInboxEvent(6L));
+
+        assertEquals(WebhookInboxStatus.PROCESSED, event.getStatus());
+        verify(paymentRepository, never()).findForUpdateById(any());
+        verify(paymentStatusCache, never()).updateAfterCommit(any());
+    }
+
+    @Test
+    void applyInboxEvent_EventHeldByAnotherWorker_ReturnsFalse() {
+        when(webhookInboxRepository.findForProcessing(7L)).thenReturn(Optional.empty());
+
+        assertFalse(webhookService.applyInboxEvent(7L));
+        verifyNoInteractions(paymentRepository, webhookEventDeduplicator);
+    }
+
     private Payment buildPayment(PaymentStatus status, String providerReference) {
         Merchant merchant = new Merchant();
         merchant.setId(11L);
@@ -181,6 +398,27 @@ class WebhookServiceTest {
         return payment;
     }
 
+    private Provider provider(String name) {
+        Provider provider = new Provider();
+        provider.setName(name);
+        return provider;
+    }
+
+    private byte[] bytes(String payload) {
+        return payload.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private String stripeSignature(String payload, String secret, long timestamp) {
+        try {
+            Mac sha256Hmac = Mac.getInstance("HmacSHA256");
+            sha256Hmac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), "HmacSHA256"));
+            byte[] digest = sha256Hmac.doFinal((timestamp + "." + payload).getBytes(StandardCharsets.UTF_8));
+            return "t=" + timestamp + ",v1=" + HexFormat.of().formatHex(digest);
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
     private String sign(String payload, String secret) {
         try {
             Mac sha512Hmac = Mac.getInstance("HmacSHA512");